@@ -63,6 +63,9 @@ public class Column extends BaseColumn implements Comparable<Column> {
     private int charOctetLength;
     private int distinctValues = -1;
     private int nullValues = -1;
+    private String[] histogram;
+    private String[] mostCommonValues;
+    private float[] mostCommonFrequencies;
     private ColumnSet<?> parent;
     
     
@@ -162,6 +165,27 @@ public class Column extends BaseColumn implements Comparable<Column> {
         return this.nullValues;
     }
 
+    /**
+     * @see ColumnStats#getHistogram()
+     */
+    public String[] getHistogram() {
+		return histogram;
+	}
+    
+    /**
+     * @see ColumnStats#getMostCommonValues()
+     */
+    public String[] getMostCommonValues() {
+		return mostCommonValues;
+	}
+    
+    /**
+     * @see ColumnStats#getMostCommonFrequencies()
+     */
+    public float[] getMostCommonFrequencies() {
+		return mostCommonFrequencies;
+	}
+
     /**
      * @param b
      */
@@ -262,6 +286,24 @@ public class Column extends BaseColumn implements Comparable<Column> {
         this.nullValues = nullValues;
     }
 
+    /**
+     * @see ColumnStats#setHistogram(String[])
+     */
+    public void setHistogram(String[] histogram) {
+		this.histogram = histogram;
+	}
+    
+    /**
+     * @see ColumnStats#setMostCommonValues(String[], float[])
+     */
+    public void setMostCommonValues(String[] values, float[] frequencies) {
+		if (values != null && (frequencies == null || values.length != frequencies.length)) {
+			throw new IllegalArgumentException();
+		}
+    	this.mostCommonValues = values;
+		this.mostCommonFrequencies = frequencies;
+	}
+
     /**
      * @param nativeType The nativeType to set.
      * @since 4.2
@@ -283,6 +325,12 @@ public class Column extends BaseColumn implements Comparable<Column> {
 		if (stats.getMinimumValue() != null) {
 			setMinimumValue(stats.getMinimumValue());
 		}
+		if (stats.getHistogram() != null) {
+			setHistogram(stats.getHistogram());
+		}
+		if (stats.getMostCommonValues() != null) {
+			setMostCommonValues(stats.getMostCommonValues(), stats.getMostCommonFrequencies());
+		}
     }
 
 }
\ No newline at end of file
@@ -32,6 +32,9 @@ public class ColumnStats implements Serializable {
     private Integer nullValues;
     private String minimumValue;
     private String maximumValue;
+    private String[] histogram;
+    private String[] mostCommonValues;
+    private float[] mostCommonFrequencies;
 	
 	public String getMinimumValue() {
 		return minimumValue;
@@ -64,5 +67,49 @@ public class ColumnStats implements Serializable {
 	public void setNullValues(Integer numNullValues) {
 		this.nullValues = numNullValues;
 	}
+
+	/**
+	 * Get the equi-depth histogram bounds.  There are an equal number of non-null values 
+	 * that are not most common values between each pair of consecutive bounds.  
+	 * Values are in the same string form as the minimum and maximum values. 
+	 * @return the bounds in ascending order or null if there is no histogram
+	 */
+	public String[] getHistogram() {
+		return histogram;
+	}
+	
+	public void setHistogram(String[] histogram) {
+		this.histogram = histogram;
+	}
+	
+	/**
+	 * Get the most common values.  Values are in the same string form as the minimum and maximum values.
+	 * @return the most common values or null if there are none 
+	 */
+	public String[] getMostCommonValues() {
+		return mostCommonValues;
+	}
+	
+	/**
+	 * Get the frequencies of the most common values as a fraction of the non-null values.
+	 * @return the frequencies or null if there are no most common values
+	 */
+	public float[] getMostCommonFrequencies() {
+		return mostCommonFrequencies;
+	}
+	
+	/**
+	 * Set the most common values and their frequencies as a fraction of the non-null values.
+	 * @param values
+	 * @param frequencies
+	 * @throws IllegalArgumentException if the arrays do not have the same length
+	 */
+	public void setMostCommonValues(String[] values, float[] frequencies) {
+		if (values != null && (frequencies == null || values.length != frequencies.length)) {
+			throw new IllegalArgumentException();
+		}
+		this.mostCommonValues = values;
+		this.mostCommonFrequencies = frequencies;
+	}
     
 }
@@ -113,7 +113,11 @@ public class ExecutionFactory<F, C> {
 	private boolean requiresCriteria;
 	private int maxInSize = DEFAULT_MAX_IN_CRITERIA_SIZE;
 	private int maxDependentInPredicates = DEFAULT_MAX_IN_CRITERIA_SIZE;
+	private int scanPartitionCount = 1;
 	private boolean copyLobs;
+	private int maxConcurrentExecutions = -1;
+	private int maxQueuedExecutions = -1;
+	private long executionQueueTimeout = 60000;
 	private boolean supportsNativeQueries;
 	private LinkedList<FunctionMethod> pushdownFunctionMethods = new LinkedList<FunctionMethod>();
 	private String nativeProcedureName = "native"; //$NON-NLS-1$
@@ -147,6 +151,49 @@ public class ExecutionFactory<F, C> {
 		this.copyLobs = copyLobs;
 	}
 	
+	/**
+	 * Get the maximum number of executions against this source that may be active at the same time.
+	 * Additional executions wait in first come first served order without holding an engine thread.
+	 * Executions from a request that already holds an execution against this source do not wait.
+	 * A value less than 1 indicates no limit.
+	 */
+	@TranslatorProperty(display="Max Concurrent Executions",description="The maximum number of concurrent executions against the source. Less than 1 indicates no limit.",advanced=true)
+	public int getMaxConcurrentExecutions() {
+		return maxConcurrentExecutions;
+	}
+	
+	public void setMaxConcurrentExecutions(int maxConcurrentExecutions) {
+		this.maxConcurrentExecutions = maxConcurrentExecutions;
+	}
+	
+	/**
+	 * Get the maximum number of executions that may wait for the source when
+	 * {@link #getMaxConcurrentExecutions()} has been reached.  Further executions will fail immediately.
+	 * A value less than 0 indicates no limit.
+	 */
+	@TranslatorProperty(display="Max Queued Executions",description="The maximum number of executions that may wait when the max concurrent executions has been reached.  Further executions will fail. Less than 0 indicates no limit.",advanced=true)
+	public int getMaxQueuedExecutions() {
+		return maxQueuedExecutions;
+	}
+	
+	public void setMaxQueuedExecutions(int maxQueuedExecutions) {
+		this.maxQueuedExecutions = maxQueuedExecutions;
+	}
+	
+	/**
+	 * Get the maximum time in milliseconds that an execution may wait when
+	 * {@link #getMaxConcurrentExecutions()} has been reached before failing.
+	 * A value less than 1 indicates no limit.
+	 */
+	@TranslatorProperty(display="Execution Queue Timeout",description="The maximum time in milliseconds that an execution may wait for the source before failing. Less than 1 indicates no limit. Default 60000.",advanced=true)
+	public long getExecutionQueueTimeout() {
+		return executionQueueTimeout;
+	}
+	
+	public void setExecutionQueueTimeout(long executionQueueTimeout) {
+		this.executionQueueTimeout = executionQueueTimeout;
+	}
+	
 	/**
 	 * Return a connection object from the given connection factory.
 	 * 
@@ -769,6 +816,25 @@ public class ExecutionFactory<F, C> {
 	public void setMaxDependentInPredicates(int maxDependentInPredicates) {
 		this.maxDependentInPredicates = maxDependentInPredicates;
 	}
+	
+	/**
+	 * Get the number of partitions that a large single table scan may be split into.
+	 * Each partition is issued as a separate concurrent source query restricted by
+	 * <code>ABS(MOD(column, count)) = partition</code> on an integral primary key column, or the column
+	 * named by the teiid_rel:partition-column table extension property.  Requires support for the 
+	 * mod and abs functions.  A value less than 2 disables partitioning.
+	 * <br/>
+	 * Each partition query reads its own snapshot of the source.  Outside of a transaction the combined 
+	 * results are not a consistent read if the table is concurrently modified.
+	 */
+	@TranslatorProperty(display="Scan Partition Count", description="The number of concurrent partitioned queries to use for large table scans.  Outside of a transaction the partitions are not read from a consistent snapshot.", advanced=true)
+	public int getScanPartitionCount() {
+		return scanPartitionCount;
+	}
+	
+	public void setScanPartitionCount(int scanPartitionCount) {
+		this.scanPartitionCount = scanPartitionCount;
+	}
 
     /**
      * <p>Support indicates that the connector supports non-column expressions in GROUP BY, such as:
@@ -27,6 +27,7 @@ import java.io.IOException;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
 import java.io.ObjectStreamConstants;
+import java.io.StreamCorruptedException;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.sql.Array;
@@ -63,11 +64,14 @@ import org.teiid.jdbc.JDBCPlugin;
  *   outside of jdbc allowed values
  * <li>version 2: starts with 8.2 and adds better array serialization and
  *   uses a safer date/time serialization
+ * <li>version 3: starts with 8.3 and writes fixed width columns as a single 
+ *   contiguous block, dictionary encodes strings within a column, and avoids 
+ *   object serialization for long strings and small big decimal/integer values
  * </ul>
  */
 public class BatchSerializer {
 	
-    static final byte CURRENT_VERSION = (byte)2;
+    static final byte CURRENT_VERSION = (byte)3;
 
 	private BatchSerializer() {} // Uninstantiable
     
@@ -75,20 +79,25 @@ public class BatchSerializer {
     
     private static final Map<String, ColumnSerializer[]> serializers = new HashMap<String, ColumnSerializer[]>(128);
     static {
-        serializers.put(DataTypeManager.DefaultDataTypes.BIG_DECIMAL,   new ColumnSerializer[] {new BigDecimalColumnSerializer()});
-        serializers.put(DataTypeManager.DefaultDataTypes.BIG_INTEGER,   new ColumnSerializer[] {new BigIntegerColumnSerializer()});
+    	ColumnSerializer bigDecimal = new BigDecimalColumnSerializer();
+    	ColumnSerializer bigInteger = new BigIntegerColumnSerializer();
+    	ColumnSerializer date = new DateColumnSerializer();
+    	ColumnSerializer time = new TimeColumnSerializer();
+    	ColumnSerializer string = new StringColumnSerializer1();
+        serializers.put(DataTypeManager.DefaultDataTypes.BIG_DECIMAL,   new ColumnSerializer[] {bigDecimal, bigDecimal, bigDecimal, new BigDecimalColumnSerializer3()});
+        serializers.put(DataTypeManager.DefaultDataTypes.BIG_INTEGER,   new ColumnSerializer[] {bigInteger, bigInteger, bigInteger, new BigIntegerColumnSerializer3()});
         serializers.put(DataTypeManager.DefaultDataTypes.BOOLEAN,       new ColumnSerializer[] {new BooleanColumnSerializer()});
-        serializers.put(DataTypeManager.DefaultDataTypes.BYTE,          new ColumnSerializer[] {new ByteColumnSerializer()});
-        serializers.put(DataTypeManager.DefaultDataTypes.CHAR,          new ColumnSerializer[] {new CharColumnSerializer()});
-        serializers.put(DataTypeManager.DefaultDataTypes.DATE,          new ColumnSerializer[] {new DateColumnSerializer(), new DateColumnSerializer1(), new DateColumnSerializer()});
-        serializers.put(DataTypeManager.DefaultDataTypes.DOUBLE,        new ColumnSerializer[] {new DoubleColumnSerializer()});
-        serializers.put(DataTypeManager.DefaultDataTypes.FLOAT,         new ColumnSerializer[] {new FloatColumnSerializer()});
-        serializers.put(DataTypeManager.DefaultDataTypes.INTEGER,       new ColumnSerializer[] {new IntColumnSerializer()});
-        serializers.put(DataTypeManager.DefaultDataTypes.LONG,          new ColumnSerializer[] {new LongColumnSerializer()});
-        serializers.put(DataTypeManager.DefaultDataTypes.SHORT,         new ColumnSerializer[] {new ShortColumnSerializer()});
-        serializers.put(DataTypeManager.DefaultDataTypes.TIME,          new ColumnSerializer[] {new TimeColumnSerializer(), new TimeColumnSerializer1(), new TimeColumnSerializer()});
-        serializers.put(DataTypeManager.DefaultDataTypes.TIMESTAMP,     new ColumnSerializer[] {new TimestampColumnSerializer()});
-        serializers.put(DataTypeManager.DefaultDataTypes.STRING,     	new ColumnSerializer[] {defaultSerializer, new StringColumnSerializer1()});
+        serializers.put(DataTypeManager.DefaultDataTypes.BYTE,          fixedWidth(new ByteColumnSerializer(), FixedWidthColumnSerializer3.BYTE));
+        serializers.put(DataTypeManager.DefaultDataTypes.CHAR,          fixedWidth(new CharColumnSerializer(), FixedWidthColumnSerializer3.CHAR));
+        serializers.put(DataTypeManager.DefaultDataTypes.DATE,          new ColumnSerializer[] {date, new DateColumnSerializer1(), date, new FixedWidthColumnSerializer3(FixedWidthColumnSerializer3.DATE)});
+        serializers.put(DataTypeManager.DefaultDataTypes.DOUBLE,        fixedWidth(new DoubleColumnSerializer(), FixedWidthColumnSerializer3.DOUBLE));
+        serializers.put(DataTypeManager.DefaultDataTypes.FLOAT,         fixedWidth(new FloatColumnSerializer(), FixedWidthColumnSerializer3.FLOAT));
+        serializers.put(DataTypeManager.DefaultDataTypes.INTEGER,       fixedWidth(new IntColumnSerializer(), FixedWidthColumnSerializer3.INTEGER));
+        serializers.put(DataTypeManager.DefaultDataTypes.LONG,          fixedWidth(new LongColumnSerializer(), FixedWidthColumnSerializer3.LONG));
+        serializers.put(DataTypeManager.DefaultDataTypes.SHORT,         fixedWidth(new ShortColumnSerializer(), FixedWidthColumnSerializer3.SHORT));
+        serializers.put(DataTypeManager.DefaultDataTypes.TIME,          new ColumnSerializer[] {time, new TimeColumnSerializer1(), time, new FixedWidthColumnSerializer3(FixedWidthColumnSerializer3.TIME)});
+        serializers.put(DataTypeManager.DefaultDataTypes.TIMESTAMP,     fixedWidth(new TimestampColumnSerializer(), FixedWidthColumnSerializer3.TIMESTAMP));
+        serializers.put(DataTypeManager.DefaultDataTypes.STRING,     	new ColumnSerializer[] {defaultSerializer, string, string, new StringColumnSerializer3()});
         serializers.put(DataTypeManager.DefaultDataTypes.CLOB,  	   	new ColumnSerializer[] {defaultSerializer, new ClobColumnSerializer1()});
         serializers.put(DataTypeManager.DefaultDataTypes.BLOB,     		new ColumnSerializer[] {defaultSerializer, new BlobColumnSerializer1()});
         serializers.put(DataTypeManager.DefaultDataTypes.XML,     		new ColumnSerializer[] {defaultSerializer, new XmlColumnSerializer1()});
@@ -97,6 +106,10 @@ public class BatchSerializer {
         serializers.put(DataTypeManager.DefaultDataTypes.VARBINARY,    	new ColumnSerializer[] {new BinaryColumnSerializer(), new BinaryColumnSerializer1()});
     }
     
+    private static ColumnSerializer[] fixedWidth(ColumnSerializer ser, int type) {
+    	return new ColumnSerializer[] {ser, ser, ser, new FixedWidthColumnSerializer3(type)};
+    }
+    
     private static ColumnSerializer arrayColumnSerializer = new ColumnSerializer() {
     	
     	@Override
@@ -683,6 +696,390 @@ public class BatchSerializer {
         }
     }
         
+    /**
+     * Writes the non-null values of a fixed width column as a single contiguous block
+     * rather than value at a time through the {@link ObjectOutput}
+     */
+    private static class FixedWidthColumnSerializer3 extends ColumnSerializer {
+    	static final int BYTE = 0;
+    	static final int SHORT = 1;
+    	static final int CHAR = 2;
+    	static final int INTEGER = 3;
+    	static final int FLOAT = 4;
+    	static final int LONG = 5;
+    	static final int DOUBLE = 6;
+    	static final int DATE = 7;
+    	static final int TIME = 8;
+    	static final int TIMESTAMP = 9;
+    	
+    	private static final int[] WIDTHS = new int[] {1, 2, 2, 4, 4, 8, 8, 8, 8, 12};
+    	
+    	private int type;
+    	private int width;
+    	
+    	FixedWidthColumnSerializer3(int type) {
+    		this.type = type;
+    		this.width = WIDTHS[type];
+		}
+    	
+    	@Override
+    	public void writeColumn(ObjectOutput out, int col,
+    			List<? extends List<?>> batch) throws IOException {
+    		writeIsNullData(out, col, batch);
+    		int count = 0;
+    		for (int i = 0; i < batch.size(); i++) {
+    			if (batch.get(i).get(col) != null) {
+    				count++;
+    			}
+    		}
+    		byte[] bytes = new byte[count * width];
+    		int offset = 0;
+    		for (int i = 0; i < batch.size(); i++) {
+    			Object obj = batch.get(i).get(col);
+    			if (obj != null) {
+    				put(bytes, offset, obj);
+    				offset += width;
+    			}
+    		}
+    		out.write(bytes);
+    	}
+    	
+    	@Override
+    	public void readColumn(ObjectInput in, int col,
+    			List<List<Object>> batch, byte[] isNull) throws IOException,
+    			ClassNotFoundException {
+    		readIsNullData(in, isNull);
+    		int count = 0;
+    		for (int i = 0; i < batch.size(); i++) {
+    			if (!isNullObject(isNull, i)) {
+    				count++;
+    			}
+    		}
+    		byte[] bytes = new byte[count * width];
+    		in.readFully(bytes);
+    		int offset = 0;
+    		for (int i = 0; i < batch.size(); i++) {
+    			if (!isNullObject(isNull, i)) {
+    				batch.get(i).set(col, get(bytes, offset));
+    				offset += width;
+    			}
+    		}
+    	}
+    	
+    	@Override
+    	protected void writeObject(ObjectOutput out, Object obj) throws IOException {
+    		byte[] bytes = new byte[width];
+    		put(bytes, 0, obj);
+    		out.write(bytes);
+    	}
+    	
+    	@Override
+    	protected Object readObject(ObjectInput in) throws IOException {
+    		byte[] bytes = new byte[width];
+    		in.readFully(bytes);
+    		return get(bytes, 0);
+    	}
+    	
+    	private void put(byte[] bytes, int offset, Object obj) {
+    		switch (type) {
+    		case BYTE:
+    			bytes[offset] = (Byte)obj;
+    			break;
+    		case SHORT:
+    			putShort(bytes, offset, (Short)obj);
+    			break;
+    		case CHAR:
+    			putShort(bytes, offset, (Character)obj);
+    			break;
+    		case INTEGER:
+    			putInt(bytes, offset, (Integer)obj);
+    			break;
+    		case FLOAT:
+    			putInt(bytes, offset, Float.floatToIntBits((Float)obj));
+    			break;
+    		case LONG:
+    			putLong(bytes, offset, (Long)obj);
+    			break;
+    		case DOUBLE:
+    			putLong(bytes, offset, Double.doubleToLongBits((Double)obj));
+    			break;
+    		case DATE:
+    			putLong(bytes, offset, ((java.sql.Date)obj).getTime());
+    			break;
+    		case TIME:
+    			putLong(bytes, offset, ((Time)obj).getTime());
+    			break;
+    		case TIMESTAMP:
+    			Timestamp ts = (Timestamp)obj;
+    			putLong(bytes, offset, ts.getTime());
+    			putInt(bytes, offset + 8, ts.getNanos());
+    			break;
+    		}
+    	}
+    	
+    	private Object get(byte[] bytes, int offset) {
+    		switch (type) {
+    		case BYTE:
+    			return DataTypeManager.getCanonicalValue(Byte.valueOf(bytes[offset]));
+    		case SHORT:
+    			return DataTypeManager.getCanonicalValue(Short.valueOf((short)getShort(bytes, offset)));
+    		case CHAR:
+    			return DataTypeManager.getCanonicalValue(Character.valueOf((char)getShort(bytes, offset)));
+    		case INTEGER:
+    			return DataTypeManager.getCanonicalValue(Integer.valueOf(getInt(bytes, offset)));
+    		case FLOAT:
+    			return DataTypeManager.getCanonicalValue(Float.intBitsToFloat(getInt(bytes, offset)));
+    		case LONG:
+    			return DataTypeManager.getCanonicalValue(Long.valueOf(getLong(bytes, offset)));
+    		case DOUBLE:
+    			return DataTypeManager.getCanonicalValue(Double.longBitsToDouble(getLong(bytes, offset)));
+    		case DATE:
+    			return new java.sql.Date(getLong(bytes, offset));
+    		case TIME:
+    			return new Time(getLong(bytes, offset));
+    		default:
+    			Timestamp ts = new Timestamp(getLong(bytes, offset));
+                ts.setNanos(getInt(bytes, offset + 8));
+                return ts;
+    		}
+    	}
+    }
+    
+    static void putShort(byte[] bytes, int offset, int value) {
+    	bytes[offset] = (byte)(value >>> 8);
+    	bytes[offset + 1] = (byte)value;
+    }
+    
+    static void putInt(byte[] bytes, int offset, int value) {
+    	bytes[offset] = (byte)(value >>> 24);
+    	bytes[offset + 1] = (byte)(value >>> 16);
+    	bytes[offset + 2] = (byte)(value >>> 8);
+    	bytes[offset + 3] = (byte)value;
+    }
+    
+    static void putLong(byte[] bytes, int offset, long value) {
+    	putInt(bytes, offset, (int)(value >>> 32));
+    	putInt(bytes, offset + 4, (int)value);
+    }
+    
+    static int getShort(byte[] bytes, int offset) {
+    	return ((bytes[offset] & 0xff) << 8) | (bytes[offset + 1] & 0xff);
+    }
+    
+    static int getInt(byte[] bytes, int offset) {
+    	return ((bytes[offset] & 0xff) << 24) | ((bytes[offset + 1] & 0xff) << 16) 
+    			| ((bytes[offset + 2] & 0xff) << 8) | (bytes[offset + 3] & 0xff);
+    }
+    
+    static long getLong(byte[] bytes, int offset) {
+    	return ((long)getInt(bytes, offset) << 32) | (getInt(bytes, offset + 4) & 0xffffffffl);
+    }
+    
+    /**
+     * Dictionary encodes the strings within a column.  Each non-null value is written
+     * as a reference, either the char length of a new value or the negative dictionary 
+     * index of a repeated value, and the new values follow as a single block of 
+     * modified utf-8 characters.
+     */
+    private static class StringColumnSerializer3 extends ColumnSerializer {
+    	
+    	private static final int DICTIONARY_SAMPLE_SIZE = 32;
+    	
+    	@Override
+    	public void writeColumn(ObjectOutput out, int col,
+    			List<? extends List<?>> batch) throws IOException {
+    		writeIsNullData(out, col, batch);
+    		Map<String, Integer> dictionary = new HashMap<String, Integer>();
+    		List<String> values = new ArrayList<String>();
+    		int byteLength = 0;
+    		boolean repeats = false;
+    		for (int i = 0; i < batch.size(); i++) {
+    			String str = (String)batch.get(i).get(col);
+    			if (str == null) {
+    				continue;
+    			}
+    			if (dictionary != null) {
+	    			Integer index = dictionary.get(str);
+	    			if (index != null) {
+	    				out.writeInt(-index - 1);
+	    				repeats = true;
+	    				continue;
+	    			}
+	    			if (!repeats && values.size() == DICTIONARY_SAMPLE_SIZE) {
+	    				//likely unique values, stop checking
+	    				dictionary = null;
+	    			} else {
+	    				dictionary.put(str, values.size());
+	    			}
+    			}
+    			values.add(str);
+    			out.writeInt(str.length());
+    			byteLength += getUTFLength(str);
+    		}
+    		byte[] bytes = new byte[byteLength];
+    		int offset = 0;
+    		for (String str : values) {
+    			offset = writeUTF(str, bytes, offset);
+    		}
+    		out.writeInt(byteLength);
+    		out.write(bytes);
+    	}
+    	
+    	@Override
+    	public void readColumn(ObjectInput in, int col,
+    			List<List<Object>> batch, byte[] isNull) throws IOException,
+    			ClassNotFoundException {
+    		readIsNullData(in, isNull);
+    		int[] refs = new int[batch.size()];
+    		int count = 0;
+    		for (int i = 0; i < batch.size(); i++) {
+    			if (!isNullObject(isNull, i)) {
+    				refs[count++] = in.readInt();
+    			}
+    		}
+    		byte[] bytes = new byte[in.readInt()];
+    		in.readFully(bytes);
+    		List<String> dictionary = new ArrayList<String>();
+    		int[] offset = new int[1];
+    		count = 0;
+    		for (int i = 0; i < batch.size(); i++) {
+    			if (isNullObject(isNull, i)) {
+    				continue;
+    			}
+    			int ref = refs[count++];
+    			String str = null;
+    			if (ref < 0) {
+    				str = dictionary.get(-ref - 1);
+    			} else {
+    				str = DataTypeManager.getCanonicalValue(readUTF(bytes, offset, ref));
+    				dictionary.add(str);
+    			}
+    			batch.get(i).set(col, str);
+    		}
+    	}
+    	
+    	@Override
+    	protected void writeObject(ObjectOutput out, Object obj) throws IOException {
+    		String str = (String)obj;
+    		byte[] bytes = new byte[getUTFLength(str)];
+    		writeUTF(str, bytes, 0);
+    		out.writeInt(str.length());
+    		out.writeInt(bytes.length);
+    		out.write(bytes);
+    	}
+    	
+    	@Override
+    	protected Object readObject(ObjectInput in) throws IOException {
+    		int length = in.readInt();
+    		byte[] bytes = new byte[in.readInt()];
+    		in.readFully(bytes);
+    		return readUTF(bytes, new int[1], length);
+    	}
+    }
+    
+    /**
+     * Get the modified utf-8 length, which is not limited to 64k as with {@link ObjectOutput#writeUTF(String)}
+     */
+    static int getUTFLength(String str) {
+    	int length = str.length();
+    	for (int i = 0; i < str.length(); i++) {
+    		char c = str.charAt(i);
+    		if (c >= 0x80 || c == 0) {
+    			length += (c >= 0x800)?2:1;
+    		}
+    	}
+    	return length;
+    }
+    
+    static int writeUTF(String str, byte[] bytes, int offset) {
+    	for (int i = 0; i < str.length(); i++) {
+    		char c = str.charAt(i);
+    		if (c < 0x80 && c != 0) {
+    			bytes[offset++] = (byte)c;
+    		} else if (c < 0x800) {
+    			bytes[offset++] = (byte)(0xc0 | (c >> 6));
+    			bytes[offset++] = (byte)(0x80 | (c & 0x3f));
+    		} else {
+    			bytes[offset++] = (byte)(0xe0 | (c >> 12));
+    			bytes[offset++] = (byte)(0x80 | ((c >> 6) & 0x3f));
+    			bytes[offset++] = (byte)(0x80 | (c & 0x3f));
+    		}
+    	}
+    	return offset;
+    }
+    
+    static String readUTF(byte[] bytes, int[] offset, int length) throws IOException {
+    	char[] chars = new char[length];
+    	int pos = offset[0];
+    	try {
+	    	for (int i = 0; i < length; i++) {
+	    		int b = bytes[pos++] & 0xff;
+	    		if (b < 0x80) {
+	    			chars[i] = (char)b;
+	    		} else if (b < 0xe0) {
+	    			chars[i] = (char)(((b & 0x1f) << 6) | (bytes[pos++] & 0x3f));
+	    		} else {
+	    			chars[i] = (char)(((b & 0x0f) << 12) | ((bytes[pos++] & 0x3f) << 6) | (bytes[pos++] & 0x3f));
+	    		}
+	    	}
+    	} catch (ArrayIndexOutOfBoundsException e) {
+    		throw new StreamCorruptedException();
+    	}
+    	offset[0] = pos;
+    	return new String(chars);
+    }
+    
+    /**
+     * Writes values with an unscaled value that fits in a long without a byte array
+     */
+    private static class BigDecimalColumnSerializer3 extends BigDecimalColumnSerializer {
+        protected void writeObject(ObjectOutput out, Object obj) throws IOException {
+            BigDecimal val = (BigDecimal)obj;
+            BigInteger unscaled = val.unscaledValue();
+            if (unscaled.bitLength() >= 64) {
+            	super.writeObject(out, obj);
+            	return;
+            }
+            out.writeInt(val.scale());
+            out.writeInt(-1);
+            out.writeLong(unscaled.longValue());
+        }
+        protected Object readObject(ObjectInput in) throws IOException {
+            int scale = in.readInt();
+            int length = in.readInt();
+            if (length == -1) {
+            	return BigDecimal.valueOf(in.readLong(), scale);
+            }
+            byte[] bytes = new byte[length];
+            in.readFully(bytes);
+            return new BigDecimal(new BigInteger(bytes), scale);
+        }
+    }
+    
+    /**
+     * Writes values that fit in a long without a byte array
+     */
+    private static class BigIntegerColumnSerializer3 extends BigIntegerColumnSerializer {
+        protected void writeObject(ObjectOutput out, Object obj) throws IOException {
+            BigInteger val = (BigInteger)obj;
+            if (val.bitLength() >= 64) {
+            	super.writeObject(out, obj);
+            	return;
+            }
+            out.writeInt(-1);
+            out.writeLong(val.longValue());
+        }
+        protected Object readObject(ObjectInput in) throws IOException {
+            int length = in.readInt();
+            if (length == -1) {
+            	return BigInteger.valueOf(in.readLong());
+            }
+            byte[] bytes = new byte[length];
+            in.readFully(bytes);
+            return new BigInteger(bytes);
+        }
+    }
+    
     private static ColumnSerializer getSerializer(String type, byte version) {
     	ColumnSerializer[] sers = serializers.get(type);
     	if (sers == null) {
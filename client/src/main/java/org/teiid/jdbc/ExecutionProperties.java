@@ -117,6 +117,16 @@ public interface ExecutionProperties {
     
     public static final String JDBC4COLUMNNAMEANDLABELSEMANTICS = "useJDBC4ColumnNameAndLabelSemantics"; //$NON-NLS-1$
     
+    /**
+     * The number of batches to request ahead of the current position for forward only
+     * result sets, which overlaps the transfer of results with their consumption.  
+     * At most that many batches of fetch size rows are held in addition to the current batch.
+     * 
+     * Default is <code>0</code>, which only requests a batch when it is needed.
+     * @since 8.3
+     */
+    public static final String PREFETCH_BATCHES = "prefetchBatches"; //$NON-NLS-1$
+    
     
 }
     
\ No newline at end of file
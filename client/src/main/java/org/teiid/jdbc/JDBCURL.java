@@ -63,6 +63,7 @@ public class JDBCURL {
 	            ExecutionProperties.PROP_XML_VALIDATION,
 	            EmbeddedProfile.USE_CALLING_THREAD,
 	            ExecutionProperties.DISABLE_LOCAL_TRANSACTIONS,
+	            ExecutionProperties.PREFETCH_BATCHES,
 	            ExecutionProperties.JDBC4COLUMNNAMEANDLABELSEMANTICS}) {
 			result.put(key, key);
 		}
@@ -29,6 +29,7 @@ import java.math.BigDecimal;
 import java.net.URL;
 import java.sql.*;
 import java.util.Calendar;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.TimeZone;
@@ -95,6 +96,12 @@ public class ResultSetImpl extends WrapperImpl implements TeiidResultSet, BatchF
 	//results requested
 	private ResultsFuture<ResultsMessage> asynchResults;
     boolean asynch;
+    
+    //read ahead state for forward only results
+    private int prefetchBatches;
+    private LinkedList<ResultsFuture<ResultsMessage>> prefetched;
+    private int prefetchBeginRow;
+    private boolean prefetchDone;
 
 	/**
 	 * Constructor.
@@ -132,6 +139,17 @@ public class ResultSetImpl extends WrapperImpl implements TeiidResultSet, BatchF
 			rmetadata = new FilteredResultsMetadata(rmetadata, resultColumns);
 		}
 		this.fetchSize = statement.getFetchSize();
+		if (this.cursorType == ResultSet.TYPE_FORWARD_ONLY) {
+			String prefetch = statement.getExecutionProperty(ExecutionProperties.PREFETCH_BATCHES);
+			if (prefetch != null) {
+				try {
+					this.prefetchBatches = Integer.parseInt(prefetch);
+					this.prefetched = new LinkedList<ResultsFuture<ResultsMessage>>();
+				} catch (NumberFormatException e) {
+					logger.warning(JDBCPlugin.Util.getString("ResultsImpl.invalid_prefetch", prefetch)); //$NON-NLS-1$
+				}
+			}
+		}
 		if (logger.isLoggable(Level.FINER)) {
 			logger.finer("Creating ResultSet requestID: " + requestID + " beginRow: " + resultsMsg.getFirstRow() + " resultsColumns: " + resultColumns + " parameters: " + parameters); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
 		}
@@ -157,6 +175,10 @@ public class ResultSetImpl extends WrapperImpl implements TeiidResultSet, BatchF
 				}
     		}
             isClosed = true;
+            if (prefetched != null) {
+            	prefetched.clear();
+            	prefetchDone = true;
+            }
         }
     }
     
@@ -239,6 +261,9 @@ public class ResultSetImpl extends WrapperImpl implements TeiidResultSet, BatchF
 
     public boolean next() throws SQLException {
         checkClosed();
+        if (prefetchBatches > 0 && !prefetchDone && !asynch) {
+        	prefetch();
+        }
         if (hasNext()) {
     		return batchResults.next();
     	}
@@ -354,7 +379,10 @@ public class ResultSetImpl extends WrapperImpl implements TeiidResultSet, BatchF
     public Batch requestBatch(int beginRow) throws SQLException{
     	checkClosed();
         try {
-        	ResultsFuture<ResultsMessage> results = submitRequestBatch(beginRow);
+        	ResultsFuture<ResultsMessage> results = getPrefetched(beginRow);
+        	if (results == null) {
+        		results = submitRequestBatch(beginRow);
+        	}
         	if (asynch && !results.isDone()) {
         		synchronized (this) {
             		asynchResults = results;
@@ -372,6 +400,67 @@ public class ResultSetImpl extends WrapperImpl implements TeiidResultSet, BatchF
 		}
     }
 
+	/**
+	 * Issue the next read ahead request if the window is not full.  The server allows 
+	 * only a single outstanding request per result set, so the next batch is requested 
+	 * only after the prior read ahead batch has arrived.
+	 */
+	private void prefetch() throws SQLException {
+		int beginRow = 0;
+		if (prefetched.isEmpty()) {
+			if (batchResults.getFinalRowNumber() != -1) {
+				prefetchDone = true;
+				return;
+			}
+			beginRow = batchResults.getHighestRowNumber() + 1;
+			this.prefetchBeginRow = beginRow;
+		} else {
+			ResultsFuture<ResultsMessage> last = prefetched.getLast();
+			if (prefetched.size() >= prefetchBatches || !last.isDone()) {
+				return;
+			}
+			ResultsMessage msg = null;
+			try {
+				msg = last.get();
+			} catch (InterruptedException e) {
+				throw TeiidSQLException.create(e);
+			} catch (ExecutionException e) {
+				//will be reported when the batch is needed
+				prefetchDone = true;
+				return;
+			}
+			if (msg.getException() != null || msg.getFinalRow() != -1) {
+				prefetchDone = true;
+				return;
+			}
+			beginRow = msg.getLastRow() + 1;
+		}
+		prefetched.add(submitRequestBatch(beginRow));
+	}
+	
+	/**
+	 * Get the read ahead request for the given row if one exists.  A non-sequential
+	 * request will wait for and discard any outstanding read ahead. 
+	 */
+	private ResultsFuture<ResultsMessage> getPrefetched(int beginRow) throws SQLException, InterruptedException, ExecutionException, TimeoutException {
+		if (prefetched == null || prefetched.isEmpty()) {
+			return null;
+		}
+		ResultsFuture<ResultsMessage> results = prefetched.removeFirst();
+		if (beginRow == prefetchBeginRow) {
+			if (!prefetched.isEmpty()) {
+				prefetchBeginRow = getResults(results).getLastRow() + 1;
+			}
+			return results;
+		}
+		if (!prefetched.isEmpty()) {
+			results = prefetched.getLast();
+			prefetched.clear();
+		}
+		getResults(results);
+		return null;
+	}
+
 	private ResultsFuture<ResultsMessage> submitRequestBatch(int beginRow)
 			throws TeiidSQLException {
 		ResultsFuture<ResultsMessage> results;
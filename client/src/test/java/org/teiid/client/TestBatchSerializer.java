@@ -129,6 +129,25 @@ public class TestBatchSerializer {
         helpTestSerialization(sampleBatchTypes, sampleBatchWithNulls(4096), BatchSerializer.CURRENT_VERSION); // A bunch of rows. This should also test large strings
     }
     
+    @Test public void testSerializeBasicTypesVersion2() throws Exception {
+        helpTestSerialization(sampleBatchTypes, sampleBatchWithNulls(17), (byte)2);
+        helpTestSerialization(sampleBatchTypes, sampleBatchWithNulls(833), (byte)2);
+    }
+    
+    @Test public void testSerializeRepeatedStrings() throws Exception {
+        List<?>[] batch = new List[100];
+        for (int i = 0; i < batch.length; i++) {
+            batch[i] = Arrays.asList((i % 7 == 0) ? null : "value" + (i % 3), (i < 50) ? "\u0000" + i : "a"); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        helpTestSerialization(new String[] {DataTypeManager.DefaultDataTypes.STRING, DataTypeManager.DefaultDataTypes.STRING}, batch, BatchSerializer.CURRENT_VERSION);
+    }
+    
+    @Test public void testSerializeLargeNumbers() throws Exception {
+        List<?> row = Arrays.asList(new BigDecimal("1E+400"), new BigInteger("123456789012345678901234567890")); //$NON-NLS-1$ //$NON-NLS-2$
+        List<?> row1 = Arrays.asList(new BigDecimal("-1.5"), BigInteger.valueOf(Long.MIN_VALUE)); //$NON-NLS-1$
+        helpTestSerialization(new String[] {DataTypeManager.DefaultDataTypes.BIG_DECIMAL, DataTypeManager.DefaultDataTypes.BIG_INTEGER}, new List[] {row, row1}, BatchSerializer.CURRENT_VERSION);
+    }
+    
     @Test public void testSerializeLargeStrings() throws Exception {
         List<?> row = Arrays.asList(new Object[] {sampleString(66666)});
         helpTestSerialization(new String[] {DataTypeManager.DefaultDataTypes.STRING}, new List[] {row}, BatchSerializer.CURRENT_VERSION);
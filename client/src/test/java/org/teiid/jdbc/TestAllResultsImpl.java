@@ -695,6 +695,19 @@ public class TestAllResultsImpl {
 		}
 	}
     
+	@Test public void testPrefetch() throws Exception {
+		statement = TestResultSet.createMockStatement(TYPE_FORWARD_ONLY);
+		stub(statement.getExecutionProperty(ExecutionProperties.PREFETCH_BATCHES)).toReturn("2"); //$NON-NLS-1$
+		ResultSetImpl rs = helpTestBatching(statement, 10, 10, 50);
+		for (int i = 1; i <= 50; i++) {
+			assertTrue(rs.next());
+			assertEquals(i, rs.getInt(1));
+		}
+		assertFalse(rs.next());
+		//each batch is requested only once
+		verify(statement.getDQP(), times(4)).processCursorRequest(Matchers.eq(REQUEST_ID), Matchers.anyInt(), Matchers.eq(10));
+	}
+    
     @Test(expected=TeiidSQLException.class) public void testResultsMessageException() throws Exception {
         ResultsMessage resultsMsg = exampleMessage(exampleResults1(1), new String[] { "IntNum" }, new String[] { DataTypeManager.DefaultDataTypes.INTEGER }); //$NON-NLS-1$
         resultsMsg.setFinalRow(-1);
@@ -128,6 +128,7 @@ public class JDBCExecutionFactory extends ExecutionFactory<DataSource, Connectio
 	private boolean useCommentsInSourceQuery;
 	private String version;
 	private int maxInsertBatchSize = 2048;
+	private int maxMultiRowInsertSize = 100;
 	private DatbaseCalender databaseCalender;
 
 	private AtomicBoolean initialConnection = new AtomicBoolean(true);
@@ -466,6 +467,37 @@ public class JDBCExecutionFactory extends ExecutionFactory<DataSource, Connectio
 		this.maxInsertBatchSize = maxInsertBatchSize;
 	}
     
+    /**
+     * Return true if the source supports inserting several rows with a single VALUES clause, 
+     * such as <code>INSERT INTO g (e1, e2) VALUES (?, ?), (?, ?)</code>
+     * @return
+     */
+    public boolean supportsMultiRowInsert() {
+    	return false;
+    }
+    
+    /**
+     * Get the max number of rows to insert with a single multi-row VALUES statement for bulk inserts.  
+     * Only used if {@link #supportsMultiRowInsert()} is true.  Values less than 2 disable multi-row inserts.
+     * @return
+     */
+    @TranslatorProperty(display="Max Multi-Row Insert Size", description="The max number of rows in a single multi-row VALUES statement used for bulk inserts if supported by the source.  Less than 2 disables multi-row inserts.  Default 100.", advanced=true)
+    public int getMaxMultiRowInsertSize() {
+    	return maxMultiRowInsertSize;
+    }
+    
+    public void setMaxMultiRowInsertSize(int maxMultiRowInsertSize) {
+		this.maxMultiRowInsertSize = maxMultiRowInsertSize;
+	}
+    
+    /**
+     * Get the max number of bind parameters allowed in a single statement.
+     * @return the max or -1 if there is no limit
+     */
+    public int getMaxPreparedParameters() {
+    	return -1;
+    }
+    
     /**
      * Gets the database calendar.  This will be set to the time zone
      * specified by the property {@link JDBCPropertyNames#DATABASE_TIME_ZONE}, or
@@ -86,6 +86,7 @@ public class JDBCMetdataProcessor {
 	private boolean useCatalogName = true;
 	private boolean autoCreateUniqueConstraints = true;
 	private boolean useQualifiedName = true;
+	private boolean importStatistics;
 	
 	private Set<String> unsignedTypes = new HashSet<String>();
 	private String quoteString;
@@ -126,6 +127,13 @@ public class JDBCMetdataProcessor {
 				getIndexes(metadataFactory, metadata, tables, false);
 			}
 			
+			if (importStatistics) {
+				LogManager.logDetail(LogConstants.CTX_CONNECTOR, "JDBCMetadataProcessor - Importing column statistics"); //$NON-NLS-1$
+				for (TableInfo tableInfo : tables) {
+					getColumnStatistics(conn, tableInfo.catalog, tableInfo.schema, tableInfo.name, tableInfo.table);
+				}
+			}
+			
 			if (importProcedures) {
 				getProcedures(metadataFactory, metadata);
 			}
@@ -485,6 +493,7 @@ public class JDBCMetdataProcessor {
 			String indexName = null;
 			short savedOrdinalPosition = Short.MAX_VALUE;
 			boolean nonUnique = false;
+			int cardinality = -1;
 			while (indexInfo.next()) {
 				short type = indexInfo.getShort(7);
 				if (type == DatabaseMetaData.tableIndexStatistic) {
@@ -493,6 +502,9 @@ public class JDBCMetdataProcessor {
 				}
 				short ordinalPosition = indexInfo.getShort(8);
 				if (ordinalPosition <= savedOrdinalPosition) {
+					if (indexColumns != null) {
+						setIndexStatistics(tableInfo.table, indexColumns, cardinality);
+					}
 					if (indexColumns != null && (!uniqueOnly || !nonUnique)) {
 						metadataFactory.addIndex(indexName, nonUnique, new ArrayList<String>(indexColumns.values()), tableInfo.table);
 					}
@@ -502,6 +514,7 @@ public class JDBCMetdataProcessor {
 				savedOrdinalPosition = ordinalPosition;
 				String columnName = indexInfo.getString(9);
 				nonUnique = indexInfo.getBoolean(4);
+				cardinality = indexInfo.getInt(11);
 				indexColumns.put(ordinalPosition, columnName);
 				if (indexName == null) {
 					indexName = indexInfo.getString(6);
@@ -510,12 +523,41 @@ public class JDBCMetdataProcessor {
 					}
 				}
 			}
+			if (indexColumns != null) {
+				setIndexStatistics(tableInfo.table, indexColumns, cardinality);
+			}
 			if (indexColumns != null && (!uniqueOnly || !nonUnique)) {
 				metadataFactory.addIndex(indexName, nonUnique, new ArrayList<String>(indexColumns.values()), tableInfo.table);
 			}
 			indexInfo.close();
 		}
 	}
+	
+	/**
+	 * The index cardinality is the number of unique values in the index, which 
+	 * for a single column index is the number of distinct values of the column.
+	 */
+	private void setIndexStatistics(Table table, TreeMap<Short, String> indexColumns, int cardinality) {
+		if (!importStatistics || indexColumns.size() != 1 || cardinality <= 0) {
+			return;
+		}
+		Column column = table.getColumnByName(indexColumns.values().iterator().next());
+		if (column != null && column.getDistinctValues() < 0) {
+			column.setDistinctValues(cardinality);
+		}
+	}
+	
+	/**
+	 * Import source specific {@link ColumnStats}, such as histograms and most common values, 
+	 * for the columns of the given table.  Only called if importStatistics is true.
+	 * <br/>
+	 * The default implementation does nothing.  Single column index statistics are 
+	 * also used for the number of distinct values.
+	 * @throws SQLException 
+	 */
+	protected void getColumnStatistics(Connection conn, String tableCatalog, String tableSchema, String tableName, Table table) throws SQLException {
+		
+	}
 
 	private String getFullyQualifiedName(String catalogName, String schemaName, String objectName) {
 		return getFullyQualifiedName(catalogName, schemaName, objectName, false);
@@ -608,4 +650,8 @@ public class JDBCMetdataProcessor {
 		this.useQualifiedName = useQualifiedName;
 	}
 	
+	public void setImportStatistics(boolean importStatistics) {
+		this.importStatistics = importStatistics;
+	}
+	
 }
@@ -43,6 +43,7 @@ import org.teiid.translator.UpdateExecution;
  */
 public class JDBCUpdateExecution extends JDBCBaseExecution implements UpdateExecution {
 
+	private static final String VALUES = " VALUES ("; //$NON-NLS-1$
 	private int[] result;
 	
     /**
@@ -165,8 +166,6 @@ public class JDBCUpdateExecution extends JDBCBaseExecution implements UpdateExec
                 updateCount = getStatement().executeUpdate(sql);
                 addStatementWarnings();
             } else {
-            	PreparedStatement pstatement = getPreparedStatement(sql);
-            	
             	Iterator<? extends List<?>> vi = null;
             	if (command instanceof BatchedCommand) {
             		BatchedCommand batchCommand = (BatchedCommand)command;
@@ -178,28 +177,31 @@ public class JDBCUpdateExecution extends JDBCBaseExecution implements UpdateExec
                     if (commitType) {
                         connection.setAutoCommit(false);
                     }
-            		int maxBatchSize = (command instanceof Insert)?this.executionFactory.getMaxPreparedInsertBatchSize():Integer.MAX_VALUE;
-            		boolean done = false;
-            		outer: while (!done) {
-            			for (int i = 0; i < maxBatchSize; i++) {
-            				if (vi.hasNext()) {
-    	            			List<?> values = vi.next();
-    	            			bind(pstatement, translatedComm.getPreparedValues(), values);
-            				} else {
-            					if (i == 0) {
-	            					break outer;
+                    int rowsPerStatement = getMultiRowInsertSize(translatedComm);
+                    if (rowsPerStatement > 1) {
+                    	updateCount = executeMultiRowInsert(translatedComm, vi, rowsPerStatement);
+                    } else {
+	                    PreparedStatement pstatement = getPreparedStatement(sql);
+	            		int maxBatchSize = (command instanceof Insert)?this.executionFactory.getMaxPreparedInsertBatchSize():Integer.MAX_VALUE;
+	            		boolean done = false;
+	            		outer: while (!done) {
+	            			for (int i = 0; i < maxBatchSize; i++) {
+	            				if (vi.hasNext()) {
+	    	            			List<?> values = vi.next();
+	    	            			bind(pstatement, translatedComm.getPreparedValues(), values);
+	            				} else {
+	            					if (i == 0) {
+		            					break outer;
+		            				}
+		            				done = true;
+		            				break;
 	            				}
-	            				done = true;
-	            				break;
-            				}
-            			}
-            		    int[] results = pstatement.executeBatch();
-            		    
-            		    for (int i=0; i<results.length; i++) {
-            		        updateCount += results[i];
-            		    }
-            		}
+	            			}
+	            		    updateCount += executeBatch(pstatement);
+	            		}
+                    }
                 } else {
+                	PreparedStatement pstatement = getPreparedStatement(sql);
                 	bind(pstatement, translatedComm.getPreparedValues(), null);
         			updateCount = pstatement.executeUpdate();
         			addStatementWarnings();
@@ -216,6 +218,105 @@ public class JDBCUpdateExecution extends JDBCBaseExecution implements UpdateExec
         }
     }
 
+    /**
+     * Determine the number of rows that may be inserted by a single statement.  The
+     * VALUES clause is repeated, so it must consist of only the bind parameters.
+     * @return the rows per statement or 1 if multi-row inserts cannot be used
+     */
+    private int getMultiRowInsertSize(TranslatedCommand translatedComm) {
+    	if (!(command instanceof Insert) || !this.executionFactory.supportsMultiRowInsert()) {
+    		return 1;
+    	}
+    	int rows = this.executionFactory.getMaxMultiRowInsertSize();
+    	int params = translatedComm.getPreparedValues().size();
+    	if (params == 0) {
+    		return 1;
+    	}
+    	int maxParams = this.executionFactory.getMaxPreparedParameters();
+    	if (maxParams > 0) {
+    		rows = Math.min(rows, maxParams / params);
+    	}
+    	if (rows < 2) {
+    		return 1;
+    	}
+    	String sql = translatedComm.getSql();
+    	int index = sql.lastIndexOf(VALUES);
+    	if (index < 0) {
+    		return 1;
+    	}
+    	int paramCount = 0;
+    	for (int i = index + VALUES.length(); i < sql.length(); i++) {
+    		char c = sql.charAt(i);
+    		if (c == '?') {
+    			paramCount++;
+    		} else if (c != ',' && c != ' ' && c != ')') {
+    			return 1;
+    		}
+    	}
+    	if (paramCount != params) {
+    		return 1;
+    	}
+    	return rows;
+    }
+    
+    /**
+     * Insert the rows using a statement with a VALUES clause for each of rowsPerStatement rows.  
+     * Any remaining rows use the single row statement.
+     */
+    private int executeMultiRowInsert(TranslatedCommand translatedComm, Iterator<? extends List<?>> vi, int rowsPerStatement) throws SQLException {
+    	String sql = translatedComm.getSql();
+    	List<?> params = translatedComm.getPreparedValues();
+    	PreparedStatement pstatement = null;
+    	int maxBatchSize = Math.max(1, this.executionFactory.getMaxPreparedInsertBatchSize() / rowsPerStatement);
+    	int updateCount = 0;
+    	int batchSize = 0;
+    	List<List<?>> rows = new ArrayList<List<?>>(rowsPerStatement);
+    	while (vi.hasNext()) {
+    		rows.add(vi.next());
+    		if (rows.size() < rowsPerStatement) {
+    			continue;
+    		}
+    		if (pstatement == null) {
+    			//only prepare once there is a full group of rows
+    			String row = sql.substring(sql.lastIndexOf(VALUES) + VALUES.length() - 1);
+    			StringBuilder multiRowSql = new StringBuilder(sql);
+    			for (int i = 1; i < rowsPerStatement; i++) {
+    				multiRowSql.append(", ").append(row); //$NON-NLS-1$
+    			}
+    			pstatement = getPreparedStatement(multiRowSql.toString());
+    		}
+    		for (int i = 0; i < rowsPerStatement; i++) {
+    			bind(pstatement, params, rows.get(i), i * params.size());
+    		}
+    		pstatement.addBatch();
+    		rows.clear();
+    		if (++batchSize == maxBatchSize) {
+    			updateCount += executeBatch(pstatement);
+    			batchSize = 0;
+    		}
+    	}
+    	if (batchSize > 0) {
+    		updateCount += executeBatch(pstatement);
+    	}
+    	if (!rows.isEmpty()) {
+    		pstatement = getPreparedStatement(sql);
+    		for (List<?> values : rows) {
+    			bind(pstatement, params, values);
+    		}
+    		updateCount += executeBatch(pstatement);
+    	}
+    	return updateCount;
+    }
+
+	private int executeBatch(PreparedStatement pstatement) throws SQLException {
+		int updateCount = 0;
+		int[] results = pstatement.executeBatch();
+		for (int i=0; i<results.length; i++) {
+		    updateCount += results[i];
+		}
+		return updateCount;
+	}
+
     /**
      * @param command
      * @return
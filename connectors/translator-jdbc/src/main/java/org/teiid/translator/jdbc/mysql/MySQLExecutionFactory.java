@@ -375,4 +375,14 @@ public class MySQLExecutionFactory extends JDBCExecutionFactory {
     public boolean supportsRowOffset() {
         return true;
     }    
+    
+    @Override
+    public boolean supportsMultiRowInsert() {
+    	return true;
+    }
+    
+    @Override
+    public int getMaxPreparedParameters() {
+    	return 65535;
+    }
 }
@@ -49,6 +49,7 @@ import org.teiid.translator.jdbc.EscapeSyntaxModifier;
 import org.teiid.translator.jdbc.ExtractFunctionModifier;
 import org.teiid.translator.jdbc.FunctionModifier;
 import org.teiid.translator.jdbc.JDBCExecutionFactory;
+import org.teiid.translator.jdbc.JDBCMetdataProcessor;
 import org.teiid.translator.jdbc.ModFunctionModifier;
 import org.teiid.translator.jdbc.oracle.LeftOrRightFunctionModifier;
 import org.teiid.translator.jdbc.oracle.MonthOrDayNameFunctionModifier;
@@ -547,4 +548,19 @@ public class PostgreSQLExecutionFactory extends JDBCExecutionFactory {
     	return true;
     }
     
+    @Override
+    public boolean supportsMultiRowInsert() {
+    	return getDatabaseVersion().compareTo(EIGHT_2) >= 0;
+    }
+    
+    @Override
+    public int getMaxPreparedParameters() {
+    	return Short.MAX_VALUE;
+    }
+    
+    @Override
+    protected JDBCMetdataProcessor createMetadataProcessor() {
+    	return new PostgreSQLMetadataProcessor();
+    }
+    
 }
@@ -0,0 +1,147 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+
+package org.teiid.translator.jdbc.postgresql;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.teiid.metadata.Column;
+import org.teiid.metadata.Table;
+import org.teiid.translator.jdbc.JDBCMetdataProcessor;
+
+/**
+ * Imports column statistics from the pg_stats view gathered by ANALYZE
+ */
+public class PostgreSQLMetadataProcessor extends JDBCMetdataProcessor {
+	
+	private static final String STATS_QUERY = "SELECT attname, null_frac, n_distinct, most_common_vals::text, most_common_freqs::text, histogram_bounds::text FROM pg_stats WHERE schemaname = ? AND tablename = ?"; //$NON-NLS-1$
+	
+	private static final String CARDINALITY_QUERY = "SELECT c.reltuples FROM pg_class c JOIN pg_namespace n ON c.relnamespace = n.oid WHERE n.nspname = ? AND c.relname = ?"; //$NON-NLS-1$
+	
+	@Override
+	protected void getColumnStatistics(Connection conn, String tableCatalog,
+			String tableSchema, String tableName, Table table)
+			throws SQLException {
+		if (tableSchema == null) {
+			tableSchema = "public"; //$NON-NLS-1$
+		}
+		if (table.getCardinality() <= 0) {
+			PreparedStatement ps = conn.prepareStatement(CARDINALITY_QUERY);
+			try {
+				ps.setString(1, tableSchema);
+				ps.setString(2, tableName);
+				ResultSet rs = ps.executeQuery();
+				if (rs.next() && rs.getFloat(1) > 0) {
+					table.setCardinality(Math.round(rs.getFloat(1)));
+				}
+				rs.close();
+			} finally {
+				ps.close();
+			}
+		}
+		PreparedStatement ps = conn.prepareStatement(STATS_QUERY);
+		try {
+			ps.setString(1, tableSchema);
+			ps.setString(2, tableName);
+			ResultSet rs = ps.executeQuery();
+			while (rs.next()) {
+				Column column = table.getColumnByName(rs.getString(1));
+				if (column == null) {
+					continue;
+				}
+				float nullFraction = rs.getFloat(2);
+				float distinct = rs.getFloat(3);
+				int cardinality = table.getCardinality();
+				if (cardinality > 0) {
+					column.setNullValues(Math.round(nullFraction * cardinality));
+				}
+				//negative values are the negative of the distinct fraction of rows
+				if (distinct > 0) {
+					column.setDistinctValues(Math.round(distinct));
+				} else if (distinct < 0 && cardinality > 0) {
+					column.setDistinctValues(Math.round(-distinct * cardinality));
+				}
+				List<String> values = parseArray(rs.getString(4));
+				List<String> freqs = parseArray(rs.getString(5));
+				if (values != null && freqs != null && values.size() == freqs.size()) {
+					//pg frequencies are relative to all rows
+					float nonNullFraction = nullFraction < 1?1 - nullFraction:1;
+					float[] frequencies = new float[freqs.size()];
+					for (int i = 0; i < frequencies.length; i++) {
+						frequencies[i] = Float.parseFloat(freqs.get(i)) / nonNullFraction;
+					}
+					column.setMostCommonValues(values.toArray(new String[values.size()]), frequencies);
+				}
+				List<String> histogram = parseArray(rs.getString(6));
+				if (histogram != null && histogram.size() > 1) {
+					column.setHistogram(histogram.toArray(new String[histogram.size()]));
+				}
+			}
+			rs.close();
+		} finally {
+			ps.close();
+		}
+	}
+	
+	/**
+	 * Parse the text form of a one dimensional array
+	 * @return the values or null if the array is null or contains nulls 
+	 */
+	static List<String> parseArray(String value) {
+		if (value == null || value.length() < 2 || value.charAt(0) != '{' || value.charAt(value.length() - 1) != '}') {
+			return null;
+		}
+		List<String> result = new ArrayList<String>();
+		int end = value.length() - 1;
+		int i = 1;
+		while (i < end) {
+			StringBuilder element = new StringBuilder();
+			boolean quoted = value.charAt(i) == '"';
+			if (quoted) {
+				i++;
+				while (i < end && value.charAt(i) != '"') {
+					if (value.charAt(i) == '\\') {
+						i++;
+					}
+					element.append(value.charAt(i++));
+				}
+				i++;
+			} else {
+				while (i < end && value.charAt(i) != ',') {
+					element.append(value.charAt(i++));
+				}
+				if (element.toString().equalsIgnoreCase("NULL")) { //$NON-NLS-1$
+					return null;
+				}
+			}
+			result.add(element.toString());
+			i++; //skip the delimiter
+		}
+		return result;
+	}
+
+}
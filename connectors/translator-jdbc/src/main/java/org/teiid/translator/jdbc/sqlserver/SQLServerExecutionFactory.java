@@ -287,6 +287,17 @@ public class SQLServerExecutionFactory extends SybaseExecutionFactory {
     	return true;
     }
     
+    @Override
+    public boolean supportsMultiRowInsert() {
+    	return getDatabaseVersion().compareTo(V_2008) >= 0;
+    }
+    
+    @Override
+    public int getMaxPreparedParameters() {
+    	//the limit is 2100, leave room for driver usage
+    	return 2000;
+    }
+    
     @Override
     protected boolean setFetchSizeOnCallableStatements() {
     	return true;
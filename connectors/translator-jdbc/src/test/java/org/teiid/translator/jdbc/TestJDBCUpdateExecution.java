@@ -22,8 +22,11 @@
 
 package org.teiid.translator.jdbc;
 
+import static org.junit.Assert.*;
+
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.Types;
 import java.util.Arrays;
 import java.util.List;
 
@@ -62,4 +65,72 @@ public class TestJDBCUpdateExecution {
 		Mockito.verify(p, Mockito.times(2)).addBatch();
 	}
 	
+	@Test public void testMultiRowInsertIteratorUpdate() throws Exception {
+		Insert command = (Insert)TranslationHelper.helpTranslate(TranslationHelper.BQT_VDB, "insert into BQT1.SmallA (IntKey, IntNum) values (1, 2)"); //$NON-NLS-1$
+		Parameter param = new Parameter();
+		param.setType(DataTypeManager.DefaultDataClasses.INTEGER);
+		param.setValueIndex(0);
+		List<Expression> values = ((ExpressionValueSource)command.getValueSource()).getValues();
+		values.set(0, param);
+		param = new Parameter();
+		param.setType(DataTypeManager.DefaultDataClasses.INTEGER);
+		param.setValueIndex(1);
+		values.set(1, param);
+		command.setParameterValues(Arrays.asList(Arrays.asList(1, 2), Arrays.asList(3, 4), Arrays.asList(5, 6)).iterator());
+		Connection connection = Mockito.mock(Connection.class);
+		PreparedStatement multi = Mockito.mock(PreparedStatement.class);
+		Mockito.stub(multi.executeBatch()).toReturn(new int [] {2});
+		Mockito.stub(connection.prepareStatement("INSERT INTO SmallA (IntKey, IntNum) VALUES (?, ?), (?, ?)")).toReturn(multi); //$NON-NLS-1$
+		PreparedStatement single = Mockito.mock(PreparedStatement.class);
+		Mockito.stub(single.executeBatch()).toReturn(new int [] {1});
+		Mockito.stub(connection.prepareStatement("INSERT INTO SmallA (IntKey, IntNum) VALUES (?, ?)")).toReturn(single); //$NON-NLS-1$
+		
+		JDBCExecutionFactory config = new JDBCExecutionFactory() {
+			@Override
+			public boolean supportsMultiRowInsert() {
+				return true;
+			}
+		};
+		config.setMaxMultiRowInsertSize(2);
+		
+		JDBCUpdateExecution updateExecution = new JDBCUpdateExecution(command, connection, Mockito.mock(ExecutionContext.class), config);
+		updateExecution.execute();
+		Mockito.verify(multi, Mockito.times(1)).addBatch();
+		Mockito.verify(multi).setObject(4, 4, Types.INTEGER);
+		Mockito.verify(single, Mockito.times(1)).addBatch();
+		assertArrayEquals(new int[] {3}, updateExecution.getUpdateCounts());
+	}
+	
+	@Test public void testMultiRowInsertFewerRows() throws Exception {
+		Insert command = (Insert)TranslationHelper.helpTranslate(TranslationHelper.BQT_VDB, "insert into BQT1.SmallA (IntKey, IntNum) values (1, 2)"); //$NON-NLS-1$
+		Parameter param = new Parameter();
+		param.setType(DataTypeManager.DefaultDataClasses.INTEGER);
+		param.setValueIndex(0);
+		List<Expression> values = ((ExpressionValueSource)command.getValueSource()).getValues();
+		values.set(0, param);
+		param = new Parameter();
+		param.setType(DataTypeManager.DefaultDataClasses.INTEGER);
+		param.setValueIndex(1);
+		values.set(1, param);
+		command.setParameterValues(Arrays.asList(Arrays.asList(1, 2)).iterator());
+		Connection connection = Mockito.mock(Connection.class);
+		PreparedStatement single = Mockito.mock(PreparedStatement.class);
+		Mockito.stub(single.executeBatch()).toReturn(new int [] {1});
+		Mockito.stub(connection.prepareStatement("INSERT INTO SmallA (IntKey, IntNum) VALUES (?, ?)")).toReturn(single); //$NON-NLS-1$
+		
+		JDBCExecutionFactory config = new JDBCExecutionFactory() {
+			@Override
+			public boolean supportsMultiRowInsert() {
+				return true;
+			}
+		};
+		
+		JDBCUpdateExecution updateExecution = new JDBCUpdateExecution(command, connection, Mockito.mock(ExecutionContext.class), config);
+		updateExecution.execute();
+		Mockito.verify(connection, Mockito.never()).prepareStatement("INSERT INTO SmallA (IntKey, IntNum) VALUES (?, ?), (?, ?)"); //$NON-NLS-1$
+		Mockito.verify(connection, Mockito.times(1)).prepareStatement(Mockito.anyString());
+		Mockito.verify(single, Mockito.times(1)).addBatch();
+		assertArrayEquals(new int[] {1}, updateExecution.getUpdateCounts());
+	}
+	
 }
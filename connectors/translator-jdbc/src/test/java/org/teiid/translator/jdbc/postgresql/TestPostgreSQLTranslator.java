@@ -22,6 +22,10 @@
 
 package org.teiid.translator.jdbc.postgresql;
 
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.teiid.translator.TranslatorException;
@@ -554,4 +558,11 @@ public class TestPostgreSQLTranslator {
                 TRANSLATOR);
     }
     
+    @Test public void testParseStatisticsArray() throws Exception {
+        assertEquals(Arrays.asList("a", "b c", "d,\"e", ""), PostgreSQLMetadataProcessor.parseArray("{a,\"b c\",\"d,\\\"e\",\"\"}")); //$NON-NLS-1$
+        assertEquals(Arrays.asList("0.5", "0.25"), PostgreSQLMetadataProcessor.parseArray("{0.5,0.25}")); //$NON-NLS-1$
+        assertNull(PostgreSQLMetadataProcessor.parseArray("{a,NULL}")); //$NON-NLS-1$
+        assertNull(PostgreSQLMetadataProcessor.parseArray(null));
+    }
+    
 }
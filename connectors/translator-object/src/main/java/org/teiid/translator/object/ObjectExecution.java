@@ -22,16 +22,15 @@
 
 package org.teiid.translator.object;
 
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.regex.Pattern;
 
-import javax.script.CompiledScript;
-import javax.script.ScriptContext;
 import javax.script.ScriptException;
-import javax.script.SimpleScriptContext;
 
 import org.teiid.language.ColumnReference;
 import org.teiid.language.DerivedColumn;
@@ -52,13 +51,59 @@ import org.teiid.translator.TranslatorException;
  */
 public class ObjectExecution implements ResultSetExecution {
 
-	private static final String OBJECT_NAME = "o"; //$NON-NLS-1$
+	/**
+	 * Resolves a property path against the result object.  The getter for each 
+	 * part of the path is cached against the last class seen, so that the bean
+	 * introspection lookup is only performed when the class changes.
+	 */
+	static final class PropertyAccessor {
+		private String[] parts;
+		private Class<?>[] classes;
+		private Method[] methods;
+		
+		PropertyAccessor(String path) {
+			this.parts = splitter.split(path);
+			this.classes = new Class<?>[parts.length];
+			this.methods = new Method[parts.length];
+		}
+		
+		Object get(Object obj) throws TranslatorException {
+			for (int i = 0; i < parts.length && obj != null; i++) {
+				Class<?> clazz = obj.getClass();
+				Method m = methods[i];
+				if (clazz != classes[i]) {
+					try {
+						m = scriptEngine.getMethodMap(clazz).get(parts[i]);
+					} catch (ScriptException e) {
+						throw new TranslatorException(e);
+					}
+					if (m == null) {
+						throw new TranslatorException(ObjectPlugin.Util.getString("ObjectExecution.noSuchProperty", parts[i], clazz)); //$NON-NLS-1$
+					}
+					classes[i] = clazz;
+					methods[i] = m;
+				}
+				try {
+					obj = m.invoke(obj);
+				} catch (IllegalAccessException e) {
+					throw new TranslatorException(e);
+				} catch (InvocationTargetException e) {
+					throw new TranslatorException(e.getCause());
+				}
+			}
+			return obj;
+		}
+	}
+
+	private static Pattern splitter = Pattern.compile("\\."); //$NON-NLS-1$
+	private static TeiidScriptEngine scriptEngine = new TeiidScriptEngine();
+	
 	protected Select query;
 	protected ObjectConnection connection;
-	private ArrayList<CompiledScript> projects;
-	private ScriptContext sc = new SimpleScriptContext();
-	private static TeiidScriptEngine scriptEngine = new TeiidScriptEngine();
-	private Iterator<Object> resultsIt = null;
+	private ArrayList<PropertyAccessor> projects;
+	private Iterator<?> resultsIt = null;
+	private Class<?> type;
+	private int rowCount;
 	private ObjectExecutionFactory factory;
 
 	public ObjectExecution(Select query, RuntimeMetadata metadata,
@@ -66,18 +111,14 @@ public class ObjectExecution implements ResultSetExecution {
 		this.factory = factory;
 		this.query = query;
 		this.connection = connection;
-		projects = new ArrayList<CompiledScript>(query.getDerivedColumns().size());
+		projects = new ArrayList<PropertyAccessor>(query.getDerivedColumns().size());
 		for (DerivedColumn dc : query.getDerivedColumns()) {
 			Column c = ((ColumnReference) dc.getExpression()).getMetadataObject();
 			String name = getNameInSource(c);
 			if (name.equalsIgnoreCase("this")) { //$NON-NLS-1$
 				projects.add(null);
 			} else {
-				try {
-					projects.add(scriptEngine.compile(OBJECT_NAME + "." + name)); //$NON-NLS-1$
-				} catch (ScriptException e) {
-					throw new TranslatorException(e);
-				}
+				projects.add(new PropertyAccessor(name));
 			}
 		}
 	}
@@ -90,44 +131,35 @@ public class ObjectExecution implements ResultSetExecution {
 
 		String nameInSource = getNameInSource(((NamedTable)query.getFrom().get(0)).getMetadataObject());
 		Map<?, ?> map = this.connection.getMap(nameInSource);
-		Class<?> type = this.connection.getType(nameInSource);
-	    List<Object> results = factory.search(query, map, type); 	
-
-		if (results != null && results.size() > 0) {
-			LogManager.logDetail(LogConstants.CTX_CONNECTOR,
-					"ObjectExecution number of returned objects is :", results.size()); //$NON-NLS-1$
-
-		} else {
-			LogManager.logDetail(LogConstants.CTX_CONNECTOR,
-					"ObjectExecution number of objects returned is : 0"); //$NON-NLS-1$
-
-			results = Collections.emptyList();
-		}
-
-		this.resultsIt = results.iterator();
+		this.type = this.connection.getType(nameInSource);
+		this.resultsIt = factory.searchIterator(query, map, type);
 	}
 
 	@Override
 	public List<Object> next() throws TranslatorException,
 			DataNotAvailableException {
 		// create and return one row at a time for your resultset.
-		if (resultsIt.hasNext()) {
-			List<Object> r = new ArrayList<Object>(projects.size());
+		while (resultsIt.hasNext()) {
 			Object o = resultsIt.next();
-			sc.setAttribute(OBJECT_NAME, o, ScriptContext.ENGINE_SCOPE);
-			for (CompiledScript cs : this.projects) {
-				if (cs == null) {
+			if (o == null) {
+				continue;
+			}
+			if (!type.isInstance(o)) {
+				throw new TranslatorException(ObjectPlugin.Util.getString("MapCacheConnection.unexpectedObjectTypeInCache", o.getClass().getName(), type.getName())); //$NON-NLS-1$
+			}
+			rowCount++;
+			List<Object> r = new ArrayList<Object>(projects.size());
+			for (PropertyAccessor accessor : this.projects) {
+				if (accessor == null) {
 					r.add(o);
-					continue;
-				}
-				try {
-					r.add(cs.eval(sc));
-				} catch (ScriptException e) {
-					throw new TranslatorException(e);
+				} else {
+					r.add(accessor.get(o));
 				}
 			}
 			return r;
 		}
+		LogManager.logDetail(LogConstants.CTX_CONNECTOR,
+				"ObjectExecution number of returned objects is :", rowCount); //$NON-NLS-1$
 		return null;
 	}
 
@@ -22,11 +22,13 @@
 
 package org.teiid.translator.object;
 
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
 import javax.resource.cci.ConnectionFactory;
 
+import org.infinispan.client.hotrod.RemoteCache;
 import org.teiid.language.QueryExpression;
 import org.teiid.language.Select;
 import org.teiid.metadata.MetadataFactory;
@@ -103,6 +105,17 @@ public class ObjectExecutionFactory extends
 		return SearchByKey.get(query.getWhere(), map, type);
 	}
 	
+	/**
+	 * Return an iterator over the objects matching the query.  Full scans of a local map
+	 * are iterated lazily, otherwise the results of {@link #search(Select, Map, Class)} are used.
+	 */
+	public Iterator<?> searchIterator(Select query, Map<?, ?> map, Class<?> type) throws TranslatorException {
+		if (query.getWhere() == null && !(map instanceof RemoteCache<?, ?>)) {
+			return map.values().iterator();
+		}
+		return search(query, map, type).iterator();
+	}
+	
 	@Override
 	public void getMetadata(MetadataFactory metadataFactory, ObjectConnection connection) throws TranslatorException {
 		if (connection != null) {
@@ -21,14 +21,19 @@
  */
 package org.teiid.translator.object.infinispan;
 
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
 import org.teiid.language.Select;
+import org.teiid.metadata.Column.SearchType;
+import org.teiid.metadata.MetadataFactory;
 import org.teiid.translator.Translator;
 import org.teiid.translator.TranslatorException;
 import org.teiid.translator.TranslatorProperty;
+import org.teiid.translator.object.ObjectConnection;
 import org.teiid.translator.object.ObjectExecutionFactory;
+import org.teiid.translator.object.metadata.JavaBeanMetadataProcessor;
 
 /**
  * InfinispanExecutionFactory is the translator that will access an Infinispan local cache.
@@ -45,7 +50,9 @@ import org.teiid.translator.object.ObjectExecutionFactory;
  * <p>
  * Optional settings are:
  * <li>{@link #setSupportsLuceneSearching(boolean) dynamic Searching} - when <code>true</code>, will use the 
- * Hibernate/Lucene searching to locate objects in the cache</li>
+ * Hibernate/Lucene searching to locate objects in the cache.  Comparison, IN, AND/OR/NOT criteria, ORDER BY, and LIMIT
+ * are then translated into the search.  Imported columns are only searchable when the Hibernate Search annotations
+ * index them such that the search matches SQL semantics.</li>
  * 
  * @author vhalbert
  *
@@ -87,6 +94,26 @@ public class InfinispanExecutionFactory extends ObjectExecutionFactory {
 		return isFullTextSearchingSupported();
 	}
 	
+	@Override
+	public boolean supportsNotCriteria() {
+		return isFullTextSearchingSupported();
+	}
+	
+	@Override
+	public boolean supportsOrderBy() {
+		return isFullTextSearchingSupported();
+	}
+	
+	@Override
+	public boolean supportsRowLimit() {
+		return isFullTextSearchingSupported();
+	}
+	
+	@Override
+	public boolean supportsRowOffset() {
+		return isFullTextSearchingSupported();
+	}
+	
 	@Override
 	public boolean supportsLikeCriteria() {
 		// at this point, i've been unable to get the Like to work.
@@ -101,4 +128,29 @@ public class InfinispanExecutionFactory extends ObjectExecutionFactory {
 		}
 		return super.search(query, map, type);
 	}
+	
+	@Override
+	public Iterator<?> searchIterator(Select query, Map<?, ?> map, Class<?> type)
+			throws TranslatorException {
+		if (this.supportsLuceneSearching) {
+			return LuceneSearch.performSearch(query, map, type).iterator();
+		}
+		return super.searchIterator(query, map, type);
+	}
+	
+	@Override
+	public void getMetadata(MetadataFactory metadataFactory,
+			ObjectConnection connection) throws TranslatorException {
+		if (connection == null || !this.supportsLuceneSearching) {
+			super.getMetadata(metadataFactory, connection);
+			return;
+		}
+		JavaBeanMetadataProcessor processor = new JavaBeanMetadataProcessor() {
+			@Override
+			protected SearchType getSearchType(Class<?> entity, String attributeName, Class<?> type, boolean key) {
+				return LuceneSearch.getSearchType(entity, attributeName, type);
+			}
+		};
+		processor.getMetadata(metadataFactory, connection, this);
+	}
 }
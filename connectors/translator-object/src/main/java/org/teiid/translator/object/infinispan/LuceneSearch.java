@@ -21,22 +21,41 @@
  */
 package org.teiid.translator.object.infinispan;
 
+import java.beans.Introspector;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
+import org.apache.lucene.search.NumericRangeQuery;
 import org.apache.lucene.search.Query;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermRangeQuery;
+import org.hibernate.search.annotations.Analyze;
+import org.hibernate.search.annotations.DocumentId;
+import org.hibernate.search.annotations.Field;
+import org.hibernate.search.annotations.Fields;
+import org.hibernate.search.annotations.Index;
+import org.hibernate.search.annotations.NumericField;
 import org.hibernate.search.query.dsl.BooleanJunction;
 import org.hibernate.search.query.dsl.QueryBuilder;
+import org.hibernate.search.query.dsl.RangeTerminationExcludable;
 import org.infinispan.Cache;
 import org.infinispan.query.CacheQuery;
 import org.infinispan.query.Search;
 import org.infinispan.query.SearchManager;
 import org.teiid.language.*;
+import org.teiid.language.SortSpecification.Ordering;
 import org.teiid.logging.LogConstants;
 import org.teiid.logging.LogManager;
 import org.teiid.metadata.Column;
+import org.teiid.metadata.Column.SearchType;
 import org.teiid.translator.TranslatorException;
+import org.teiid.translator.TypeFacility;
 import org.teiid.translator.object.ObjectExecution;
 import org.teiid.translator.object.ObjectPlugin;
 
@@ -45,12 +64,24 @@ import org.teiid.translator.object.ObjectPlugin;
  * that's used to retrieve the results from an Infinispan cache.
  * 
  * Note:  As of Infinispan 5.x, it doesn't support fulltext searching the RemoteCache
+ * <p>
+ * The Hibernate Search annotations of the cached type determine which columns are imported as searchable, see 
+ * {@link #getSearchType(Class, String, Class)}.  Negated criteria, ranges and ORDER BY against a column that 
+ * the metadata marks searchable, but whose field does not qualify, raise an exception.
  * 
  * @author vhalbert
  * 
  */
 public final class LuceneSearch   {
 
+	/**
+	 * How a property is indexed, as determined by its Hibernate Search annotations.
+	 */
+	static final class IndexedField {
+		boolean analyzed;
+		boolean numeric;
+		boolean nullable;
+	}
 
 	public static List<Object> performSearch(Select command, Map<?, ?> cache, Class<?> type)
 			throws TranslatorException {
@@ -60,18 +91,26 @@ public final class LuceneSearch   {
 
 		QueryBuilder queryBuilder = searchManager.buildQueryBuilderForClass(type).get();
 
-		BooleanJunction<BooleanJunction> junction = queryBuilder.bool();
-		boolean createdQueries = buildQueryFromWhereClause(command.getWhere(),
-				junction, queryBuilder);
-
 		Query query = null;
-		if (createdQueries) {
-			query = junction.createQuery();
+		if (command.getWhere() != null) {
+			query = buildQueryFromWhereClause(command.getWhere(), false, queryBuilder, type);
 		} else {
 			query = queryBuilder.all().createQuery();
 		}
 
 		CacheQuery cacheQuery = searchManager.getQuery(query, type); // rootNodeType
+		
+		if (command.getOrderBy() != null) {
+			cacheQuery.sort(createSort(command.getOrderBy(), type));
+		}
+		
+		Limit limit = command.getLimit();
+		if (limit != null) {
+			if (limit.getRowOffset() > 0) {
+				cacheQuery.firstResult(limit.getRowOffset());
+			}
+			cacheQuery.maxResults(limit.getRowLimit());
+		}
 
 		List<Object> results = cacheQuery.list();
 		if (results == null || results.isEmpty()) {
@@ -81,91 +120,55 @@ public final class LuceneSearch   {
 		return results;
 	}
 
-	private static boolean buildQueryFromWhereClause(Condition criteria,
-			BooleanJunction<BooleanJunction> junction, QueryBuilder queryBuilder)
+	/**
+	 * Build the query for the criteria.  Negation is pushed to the predicates, so that 
+	 * each negated predicate can also require its field to have a value, as a SQL NOT 
+	 * does not match nulls.
+	 */
+	static Query buildQueryFromWhereClause(Condition criteria, boolean negated, QueryBuilder queryBuilder, Class<?> type)
 			throws TranslatorException {
-		boolean createdQueries = false;
-		BooleanJunction<BooleanJunction> inUse = junction;
-
 		if (criteria instanceof AndOr) {
 			LogManager.logTrace(LogConstants.CTX_CONNECTOR,
 					"Parsing compound criteria."); //$NON-NLS-1$
 			AndOr crit = (AndOr) criteria;
 			AndOr.Operator op = crit.getOperator();
+			Query left = buildQueryFromWhereClause(crit.getLeftCondition(), negated, queryBuilder, type);
+			Query right = buildQueryFromWhereClause(crit.getRightCondition(), negated, queryBuilder, type);
+			if (negated) {
+				op = op == AndOr.Operator.AND?AndOr.Operator.OR:AndOr.Operator.AND;
+			}
 
 			switch (op) {
 			case AND:
-
-				BooleanJunction<BooleanJunction> leftAnd = queryBuilder
-						.bool();
-				boolean andLeftHasQueries = buildQueryFromWhereClause(
-						crit.getLeftCondition(), leftAnd, queryBuilder);
-
-				BooleanJunction<BooleanJunction> rightAnd = queryBuilder
-						.bool();
-				boolean andRightHasQueries = buildQueryFromWhereClause(
-						crit.getRightCondition(), rightAnd, queryBuilder);
-
-				if (andLeftHasQueries && andRightHasQueries) {
-					leftAnd.must(rightAnd.createQuery());
-					inUse.should(leftAnd.createQuery());
-				} else if (andLeftHasQueries) {
-
-					inUse.should(leftAnd.createQuery());
-				} else if (andRightHasQueries) {
-					inUse.should(rightAnd.createQuery());
-				}
-
-				createdQueries = (andLeftHasQueries ? andLeftHasQueries
-						: andRightHasQueries);
-
-				break;
-
+				return queryBuilder.bool().must(left).must(right).createQuery();
 			case OR:
-
-				boolean orLeftHasQueries = buildQueryFromWhereClause(
-						crit.getLeftCondition(), inUse, queryBuilder);
-				boolean orRightHasQueries = buildQueryFromWhereClause(
-						crit.getRightCondition(), inUse, queryBuilder);
-
-				createdQueries = (orLeftHasQueries ? orLeftHasQueries
-						: orRightHasQueries);
-
-				break;
-
+				return queryBuilder.bool().should(left).should(right).createQuery();
 			default:
 				final String msg = ObjectPlugin.Util
 						.getString("LuceneSearch.invalidOperator", new Object[] { op, "And, Or" }); //$NON-NLS-1$ //$NON-NLS-2$
 				throw new TranslatorException(msg);
 			}
-
-		} else if (criteria instanceof Comparison) {
-			createdQueries = visit((Comparison) criteria, inUse, queryBuilder);
-
-		} else if (criteria instanceof Exists) {
-			LogManager.logTrace(LogConstants.CTX_CONNECTOR,
-					"Parsing EXISTS criteria: NOT IMPLEMENTED YET"); //$NON-NLS-1$
-			// TODO Exists should be supported in a future release.
-
-		} else if (criteria instanceof Like) {
-			createdQueries = visit((Like) criteria, inUse, queryBuilder);
-
-		} else if (criteria instanceof In) {
-			createdQueries = visit((In) criteria, inUse, queryBuilder);
-
+		} 
+		if (criteria instanceof Not) {
+			LogManager.logTrace(LogConstants.CTX_CONNECTOR, "Parsing NOT criteria."); //$NON-NLS-1$
+			return buildQueryFromWhereClause(((Not)criteria).getCriteria(), !negated, queryBuilder, type);
+		} 
+		if (criteria instanceof Comparison) {
+			return visit((Comparison) criteria, negated, queryBuilder, type);
+		} 
+		if (criteria instanceof Like) {
+			return visit((Like) criteria, negated, queryBuilder, type);
+		} 
+		if (criteria instanceof In) {
+			return visit((In) criteria, negated, queryBuilder, type);
 		}
-		// else if (criteria instanceof Not) {
-		//			LogManager.logTrace(LogConstants.CTX_CONNECTOR, "Parsing NOT criteria."); //$NON-NLS-1$
-		// isNegated = true;
-		// filterList.addAll(getSearchFilterFromWhereClause(((Not)criteria).getCriteria(),
-		// new LinkedList<String>()));
-		// }
-
-		return createdQueries;
+		final String msg = ObjectPlugin.Util.getString(
+				"LuceneSearch.Unsupported_expression", //$NON-NLS-1$
+				new Object[] { criteria, "WHERE" }); //$NON-NLS-1$
+		throw new TranslatorException(msg);
 	}
 
-	public static boolean visit(Comparison obj,
-			BooleanJunction<BooleanJunction> junction, QueryBuilder queryBuilder) throws TranslatorException {
+	public static Query visit(Comparison obj, boolean negated, QueryBuilder queryBuilder, Class<?> type) throws TranslatorException {
 
 		LogManager.logTrace(LogConstants.CTX_CONNECTOR,
 				"Parsing Comparison criteria."); //$NON-NLS-1$
@@ -174,25 +177,35 @@ public final class LuceneSearch   {
 		Expression lhs = obj.getLeftExpression();
 		Expression rhs = obj.getRightExpression();
 
-		// joins between the objects in the same cache is not usable
-		if ((lhs instanceof ColumnReference && rhs instanceof ColumnReference)
-				|| (lhs instanceof Literal && rhs instanceof Literal)) {
-			return false;
-		}
-
 		Object value = null;
 		Column mdIDElement = null;
-		Literal literal = null;
-		if (lhs instanceof ColumnReference) {
-
+		if (lhs instanceof ColumnReference && rhs instanceof Literal) {
 			mdIDElement = ((ColumnReference) lhs).getMetadataObject();
-			literal = (Literal) rhs;
-			value = literal.getValue();
-
-		} else if (rhs instanceof ColumnReference ){
+			value = ((Literal) rhs).getValue();
+		} else if (rhs instanceof ColumnReference && lhs instanceof Literal) {
 			mdIDElement = ((ColumnReference) rhs).getMetadataObject();
-			literal = (Literal) lhs;
-			value = literal.getValue();
+			value = ((Literal) lhs).getValue();
+			//reverse the operator
+			switch (op) {
+			case GT:
+				op = Comparison.Operator.LT;
+				break;
+			case GE:
+				op = Comparison.Operator.LE;
+				break;
+			case LT:
+				op = Comparison.Operator.GT;
+				break;
+			case LE:
+				op = Comparison.Operator.GE;
+				break;
+			}
+		} else {
+			// joins between the objects in the same cache are not usable
+			final String msg = ObjectPlugin.Util.getString(
+					"LuceneSearch.Unsupported_expression", //$NON-NLS-1$
+					new Object[] { obj, "Comparison" }); //$NON-NLS-1$
+			throw new TranslatorException(msg);
 		}
 
 		if (value == null) {
@@ -201,52 +214,76 @@ public final class LuceneSearch   {
 			throw new TranslatorException(msg);
 		}
 
+		if (negated) {
+			//with three valued logic the negation is the inverse comparison
+			switch (op) {
+			case EQ:
+				op = Comparison.Operator.NE;
+				break;
+			case NE:
+				op = Comparison.Operator.EQ;
+				break;
+			case GT:
+				op = Comparison.Operator.LE;
+				break;
+			case GE:
+				op = Comparison.Operator.LT;
+				break;
+			case LT:
+				op = Comparison.Operator.GE;
+				break;
+			case LE:
+				op = Comparison.Operator.GT;
+				break;
+			}
+		}
+
 		value = escapeReservedChars(value);
 		switch (op) {
 		case NE:
-			createEqualsQuery(mdIDElement, value, false, true, junction, queryBuilder);
-			break;
-
+			IndexedField field = checkExact(mdIDElement, type, "<>"); //$NON-NLS-1$
+			return createNotQuery(createEqualsQuery(mdIDElement, field, value, queryBuilder), mdIDElement, field, queryBuilder);
 		case EQ:
-			createEqualsQuery(mdIDElement, value, true, false, junction, queryBuilder);
-			break;
-
+			return createEqualsQuery(mdIDElement, getIndexedField(type, ObjectExecution.getNameInSource(mdIDElement)), value, queryBuilder);
 		case GT:
-			createRangeAboveQuery(mdIDElement, value, junction, queryBuilder);
-			break;
-
+			return createRangeAboveQuery(mdIDElement, checkRange(mdIDElement, type), value, true, queryBuilder);
+		case GE:
+			return createRangeAboveQuery(mdIDElement, checkRange(mdIDElement, type), value, false, queryBuilder);
 		case LT:
-			createRangeBelowQuery(mdIDElement, value, junction, queryBuilder);
-			break;
-
+			return createRangeBelowQuery(mdIDElement, checkRange(mdIDElement, type), value, true, queryBuilder);
+		case LE:
+			return createRangeBelowQuery(mdIDElement, checkRange(mdIDElement, type), value, false, queryBuilder);
 		default:
 			final String msg = ObjectPlugin.Util
-					.getString("LuceneSearch.invalidOperator", new Object[] { op, "NE, EQ, GT, LT" }); //$NON-NLS-1$ //$NON-NLS-2$
+					.getString("LuceneSearch.invalidOperator", new Object[] { op, "NE, EQ, GT, GE, LT, LE" }); //$NON-NLS-1$ //$NON-NLS-2$
 			throw new TranslatorException(msg);
 		}
-		return true;
-
 	}
 
-	public static boolean visit(In obj, BooleanJunction<BooleanJunction> junction, QueryBuilder queryBuilder) throws TranslatorException {
+	public static Query visit(In obj, boolean negated, QueryBuilder queryBuilder, Class<?> type) throws TranslatorException {
 		LogManager.logTrace(LogConstants.CTX_CONNECTOR, "Parsing IN criteria."); //$NON-NLS-1$
 
 		Expression lhs = obj.getLeftExpression();
 
 		Column mdIDElement = ((ColumnReference) lhs).getMetadataObject();
+		negated ^= obj.isNegated();
+		IndexedField field = null;
+		if (negated) {
+			field = checkExact(mdIDElement, type, "NOT IN"); //$NON-NLS-1$
+		} else {
+			field = getIndexedField(type, ObjectExecution.getNameInSource(mdIDElement));
+		}
 
 		List<Expression> rhsList = obj.getRightExpressions();
-		boolean createdQuery = false;
+		BooleanJunction<BooleanJunction> junction = queryBuilder.bool();
 		for (Expression expr : rhsList) {
 
 			if (expr instanceof Literal) {
 				Literal literal = (Literal) expr;
 
 				// add these as OR queries
-				createEqualsQuery(mdIDElement,
-						escapeReservedChars(literal.getValue()), false, false,
-						junction, queryBuilder);
-				createdQuery = true;
+				junction.should(createEqualsQuery(mdIDElement, field,
+						escapeReservedChars(literal.getValue()), queryBuilder));
 			} else {
 				String msg = ObjectPlugin.Util.getString(
 						"LuceneSearch.Unsupported_expression", //$NON-NLS-1$
@@ -254,10 +291,14 @@ public final class LuceneSearch   {
 				throw new TranslatorException(msg);
 			}
 		}
-		return createdQuery;
+		Query query = junction.createQuery();
+		if (negated) {
+			return createNotQuery(query, mdIDElement, field, queryBuilder);
+		}
+		return query;
 	}
 
-	public static boolean visit(Like obj, BooleanJunction<BooleanJunction> junction, QueryBuilder queryBuilder) throws TranslatorException {
+	public static Query visit(Like obj, boolean negated, QueryBuilder queryBuilder, Class<?> type) throws TranslatorException {
 		LogManager.logTrace(LogConstants.CTX_CONNECTOR,
 				"Parsing LIKE criteria."); //$NON-NLS-1$
 
@@ -274,20 +315,60 @@ public final class LuceneSearch   {
 			literalExp = lhs;
 		}
 
-		String value = null;
-		if (literalExp instanceof Literal) {
-
-			value = (String) escapeReservedChars(((Literal) literalExp)
-					.getValue());
-			createLikeQuery(c, value.replaceAll("%", ""), junction, queryBuilder); // "*" //$NON-NLS-1$ //$NON-NLS-2$
-		} else {
+		if (!(literalExp instanceof Literal)) {
 			final String msg = ObjectPlugin.Util.getString(
 					"LuceneSearch.Unsupported_expression", //$NON-NLS-1$
 					new Object[] { literalExp.toString(), "LIKE" }); //$NON-NLS-1$
 			throw new TranslatorException(msg);
 		}
-
-		return true;
+		String value = (String) escapeReservedChars(((Literal) literalExp)
+				.getValue());
+		Query query = createLikeQuery(c, value.replaceAll("%", ""), queryBuilder); // "*" //$NON-NLS-1$ //$NON-NLS-2$
+		if (negated ^ obj.isNegated()) {
+			IndexedField field = checkExact(c, type, "NOT LIKE"); //$NON-NLS-1$
+			return createNotQuery(query, c, field, queryBuilder);
+		}
+		return query;
+	}
+	
+	private static Sort createSort(OrderBy orderBy, Class<?> type) throws TranslatorException {
+		List<SortSpecification> items = orderBy.getSortSpecifications();
+		SortField[] fields = new SortField[items.size()];
+		for (int i = 0; i < fields.length; i++) {
+			SortSpecification item = items.get(i);
+			if (!(item.getExpression() instanceof ColumnReference) 
+					|| ((ColumnReference)item.getExpression()).getMetadataObject() == null) {
+				final String msg = ObjectPlugin.Util.getString(
+						"LuceneSearch.Unsupported_expression", //$NON-NLS-1$
+						new Object[] { item, "ORDER BY" }); //$NON-NLS-1$
+				throw new TranslatorException(msg);
+			}
+			Column c = ((ColumnReference)item.getExpression()).getMetadataObject();
+			IndexedField field = checkExact(c, type, "ORDER BY"); //$NON-NLS-1$
+			int sortType = getSortType(c.getJavaType());
+			if (sortType != SortField.STRING && field.nullable) {
+				//missing numeric values are sorted as 0 rather than low
+				throw new TranslatorException(ObjectPlugin.Util.getString("LuceneSearch.unsupportedField", c.getName(), "ORDER BY")); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+			fields[i] = new SortField(ObjectExecution.getNameInSource(c), sortType, item.getOrdering() == Ordering.DESC);
+		}
+		return new Sort(fields);
+	}
+	
+	private static int getSortType(Class<?> type) {
+		if (type == Integer.class || type == Short.class || type == Byte.class) {
+			return SortField.INT;
+		}
+		if (type == Long.class) {
+			return SortField.LONG;
+		}
+		if (type == Float.class) {
+			return SortField.FLOAT;
+		}
+		if (type == Double.class) {
+			return SortField.DOUBLE;
+		}
+		return SortField.STRING;
 	}
 
 	protected static Object escapeReservedChars(final Object value) {
@@ -324,50 +405,214 @@ public final class LuceneSearch   {
 		return sb.toString();
 	}
 
-	private static Query createEqualsQuery(Column column, Object value, boolean and,
-			boolean not, BooleanJunction<BooleanJunction> junction, QueryBuilder queryBuilder) {
-		Query queryKey = queryBuilder.keyword()
+	/**
+	 * Return the {@link IndexedField} for the property name from the annotations on the type
+	 * and its super classes, or null if there is no indexed field with the name.
+	 */
+	static IndexedField getIndexedField(Class<?> type, String name) {
+		IndexedField result = null;
+		for (Class<?> clazz = type; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+			for (java.lang.reflect.Field f : clazz.getDeclaredFields()) {
+				result = addIndexedField(result, f, f.getType(), f.getName(), name);
+			}
+			for (Method m : clazz.getDeclaredMethods()) {
+				if (m.getParameterTypes().length > 0) {
+					continue;
+				}
+				String property = null;
+				if (m.getName().startsWith("get") && m.getName().length() > 3) { //$NON-NLS-1$
+					property = Introspector.decapitalize(m.getName().substring(3));
+				} else if (m.getName().startsWith("is") && m.getName().length() > 2) { //$NON-NLS-1$
+					property = Introspector.decapitalize(m.getName().substring(2));
+				} else {
+					continue;
+				}
+				result = addIndexedField(result, m, m.getReturnType(), property, name);
+			}
+		}
+		return result;
+	}
+	
+	private static IndexedField addIndexedField(IndexedField result, AnnotatedElement element, Class<?> elementType, String property, String name) {
+		List<Field> fields = new ArrayList<Field>(1);
+		Field field = element.getAnnotation(Field.class);
+		if (field != null) {
+			fields.add(field);
+		}
+		Fields multipleFields = element.getAnnotation(Fields.class);
+		if (multipleFields != null) {
+			fields.addAll(Arrays.asList(multipleFields.value()));
+		}
+		boolean matched = false;
+		for (Field f : fields) {
+			String fieldName = f.name().length() == 0?property:f.name();
+			if (f.index() == Index.NO || !fieldName.equals(name)) {
+				continue;
+			}
+			if (result == null) {
+				result = new IndexedField();
+			}
+			matched = true;
+			//mixed settings for the same name are treated as analyzed
+			result.analyzed |= f.analyze() == Analyze.YES;
+		}
+		NumericField numericField = element.getAnnotation(NumericField.class);
+		if (matched && numericField != null && (numericField.forField().length() == 0?property:numericField.forField()).equals(name)) {
+			result.numeric = true;
+		}
+		DocumentId id = element.getAnnotation(DocumentId.class);
+		if (id != null && (id.name().length() == 0?property:id.name()).equals(name) && result == null) {
+			//the id is not analyzed
+			result = new IndexedField();
+			matched = true;
+		}
+		if (matched) {
+			result.nullable |= !elementType.isPrimitive();
+		}
+		return result;
+	}
+	
+	/**
+	 * Return the {@link SearchType} for the property of the type.  Only properties whose indexed field will 
+	 * match SQL semantics for comparisons, negation and sorting are searchable:
+	 * <ul>
+	 * <li>un-analyzed strings</li>
+	 * <li>booleans and characters, which are indexed as a single term</li>
+	 * <li>primitive int, short, byte, long, float, or double values with a {@link NumericField}.  Nullable 
+	 * values are excluded since Lucene sorts a missing value as 0.</li>
+	 * </ul>
+	 */
+	public static SearchType getSearchType(Class<?> type, String name, Class<?> propertyType) {
+		IndexedField field = getIndexedField(type, name);
+		if (field == null) {
+			return SearchType.Unsearchable;
+		}
+		Class<?> javaType = TypeFacility.getRuntimeType(propertyType);
+		if (javaType == String.class) {
+			return field.analyzed?SearchType.Unsearchable:SearchType.Searchable;
+		}
+		if (javaType == Boolean.class || javaType == Character.class) {
+			return SearchType.Searchable;
+		}
+		if (isNumeric(javaType, field) && !field.nullable) {
+			return SearchType.Searchable;
+		}
+		return SearchType.Unsearchable;
+	}
+	
+	/**
+	 * Ensure that the column is indexed such that an exact match, negation, or sort will match SQL semantics.
+	 * Non-string values are indexed as a single term, so only an analyzed string does not qualify.
+	 */
+	private static IndexedField checkExact(Column column, Class<?> type, String operation) throws TranslatorException {
+		IndexedField field = getIndexedField(type, ObjectExecution.getNameInSource(column));
+		if (field == null || (field.analyzed && !field.numeric && column.getJavaType() == String.class)) {
+			throw new TranslatorException(ObjectPlugin.Util.getString("LuceneSearch.unsupportedField", column.getName(), operation)); //$NON-NLS-1$
+		}
+		return field;
+	}
+	
+	/**
+	 * Ensure that a range against the column will match SQL semantics.  The index terms 
+	 * are compared as strings, so only numeric fields and un-analyzed strings qualify.
+	 */
+	private static IndexedField checkRange(Column column, Class<?> type) throws TranslatorException {
+		IndexedField field = getIndexedField(type, ObjectExecution.getNameInSource(column));
+		if (field == null || !(isNumeric(column, field) || (!field.analyzed && column.getJavaType() == String.class))) {
+			throw new TranslatorException(ObjectPlugin.Util.getString("LuceneSearch.unsupportedField", column.getName(), "range")); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		return field;
+	}
+	
+	private static boolean isNumeric(Column column, IndexedField field) {
+		return isNumeric(column.getJavaType(), field);
+	}
+	
+	private static boolean isNumeric(Class<?> javaType, IndexedField field) {
+		if (field == null || !field.numeric) {
+			return false;
+		}
+		return javaType == Integer.class || javaType == Short.class || javaType == Byte.class 
+				|| javaType == Long.class || javaType == Float.class || javaType == Double.class;
+	}
+	
+	/**
+	 * Create a range against a {@link NumericField}, which are indexed as encoded terms 
+	 * rather than as the string value.
+	 */
+	private static Query createNumericRangeQuery(Column column, Object lower, Object upper, boolean includeLower, boolean includeUpper) {
+		String name = ObjectExecution.getNameInSource(column);
+		Number min = (Number)lower;
+		Number max = (Number)upper;
+		Class<?> javaType = column.getJavaType();
+		if (javaType == Long.class) {
+			return NumericRangeQuery.newLongRange(name, min == null?null:min.longValue(), max == null?null:max.longValue(), includeLower, includeUpper);
+		}
+		if (javaType == Float.class) {
+			return NumericRangeQuery.newFloatRange(name, min == null?null:min.floatValue(), max == null?null:max.floatValue(), includeLower, includeUpper);
+		}
+		if (javaType == Double.class) {
+			return NumericRangeQuery.newDoubleRange(name, min == null?null:min.doubleValue(), max == null?null:max.doubleValue(), includeLower, includeUpper);
+		}
+		return NumericRangeQuery.newIntRange(name, min == null?null:min.intValue(), max == null?null:max.intValue(), includeLower, includeUpper);
+	}
+
+	private static Query createEqualsQuery(Column column, IndexedField field, Object value, QueryBuilder queryBuilder) {
+		if (isNumeric(column, field)) {
+			return createNumericRangeQuery(column, value, value, true, true);
+		}
+		return queryBuilder.keyword()
 				.onField(ObjectExecution.getNameInSource(column))
-				// .matching(value.toString() + "*")
 				.matching(value.toString()).createQuery();
-
-		if (not) {
-			junction.must(queryKey).not();
-		} else if (and) {
-			junction.must(queryKey);
+	}
+	
+	/**
+	 * Negation of the query.  All documents not matching that have a value for the column are returned,
+	 * since a SQL NOT does not match nulls.
+	 */
+	private static Query createNotQuery(Query query, Column column, IndexedField field, QueryBuilder queryBuilder) {
+		Query hasValue = null;
+		if (isNumeric(column, field)) {
+			hasValue = createNumericRangeQuery(column, null, null, true, true);
 		} else {
-			junction.should(queryKey);
+			hasValue = new TermRangeQuery(ObjectExecution.getNameInSource(column), null, null, true, true);
 		}
-		return queryKey;
+		return queryBuilder.bool().must(hasValue).must(query).not().createQuery();
 	}
 
-	private static Query createRangeAboveQuery(Column column, Object value,
-			BooleanJunction<BooleanJunction> junction, QueryBuilder queryBuilder) {
-
-		Query queryKey = queryBuilder.range()
+	private static Query createRangeAboveQuery(Column column, IndexedField field, Object value, boolean exclusive, 
+			QueryBuilder queryBuilder) {
+		if (isNumeric(column, field)) {
+			return createNumericRangeQuery(column, value, null, !exclusive, true);
+		}
+		RangeTerminationExcludable range = queryBuilder.range()
 				.onField(ObjectExecution.getNameInSource(column))
-				.above(value.toString()).excludeLimit().createQuery();
-		junction.must(queryKey);
-		return queryKey;
+				.above(value.toString());
+		if (exclusive) {
+			range = range.excludeLimit();
+		}
+		return range.createQuery();
 	}
 
-	private static Query createRangeBelowQuery(Column column, Object value,
-			BooleanJunction<BooleanJunction> junction, QueryBuilder queryBuilder) {
-
-		Query queryKey = queryBuilder.range()
+	private static Query createRangeBelowQuery(Column column, IndexedField field, Object value, boolean exclusive,
+			QueryBuilder queryBuilder) {
+		if (isNumeric(column, field)) {
+			return createNumericRangeQuery(column, null, value, true, !exclusive);
+		}
+		RangeTerminationExcludable range = queryBuilder.range()
 				.onField(ObjectExecution.getNameInSource(column))
-				.below(value.toString()).excludeLimit().createQuery();
-		junction.must(queryKey);
-		return queryKey;
+				.below(value.toString());
+		if (exclusive) {
+			range = range.excludeLimit();
+		}
+		return range.createQuery();
 	}
 
 	private static Query createLikeQuery(Column column, String value,
-			BooleanJunction<BooleanJunction> junction, QueryBuilder queryBuilder) {
-		Query queryKey = queryBuilder.phrase()
+			QueryBuilder queryBuilder) {
+		return queryBuilder.phrase()
 				.onField(ObjectExecution.getNameInSource(column)).sentence(value)
 				.createQuery();
-		junction.should(queryKey);
-		return queryKey;
 	}
 
 }
@@ -93,7 +93,7 @@ public class JavaBeanMetadataProcessor {
 		if (pkField != null) {
 			pkMethod = methods.get(pkField);
 			if (pkMethod != null) {
-				addColumn(mf, entity, pkMethod.getReturnType(), pkField, pkField, SearchType.Searchable, table);
+				addColumn(mf, entity, pkMethod.getReturnType(), pkField, pkField, getSearchType(entity, pkField, pkMethod.getReturnType(), true), table);
 			} else {
 				//TODO: warning/error?
 			}
@@ -116,7 +116,7 @@ public class JavaBeanMetadataProcessor {
 		}
 		
 		for (Map.Entry<Method, String> entry : methodsToAdd.entrySet()) {
-			addColumn(mf, entity, entry.getKey().getReturnType(), entry.getValue(), entry.getValue(), SearchType.Unsearchable, table);
+			addColumn(mf, entity, entry.getKey().getReturnType(), entry.getValue(), entry.getValue(), getSearchType(entity, entry.getValue(), entry.getKey().getReturnType(), false), table);
 		}
 		return table;
 	}
@@ -145,6 +145,17 @@ public class JavaBeanMetadataProcessor {
 		return this.isUpdatable;
 	}
 
+	/**
+	 * Return the {@link SearchType} of the column for the attribute.  By default only the key is searchable.
+	 * @param entity  
+	 * @param attributeName 
+	 * @param type 
+	 * @param key true if the attribute is the key of the cache
+	 */
+	protected SearchType getSearchType(Class<?> entity, String attributeName, Class<?> type, boolean key) {
+		return key?SearchType.Searchable:SearchType.Unsearchable;
+	}
+
 	protected Column addColumn(MetadataFactory mf, Class<?> entity, Class<?> type, String attributeName, String nis, SearchType searchType, Table entityTable) {
 		Column c = entityTable.getColumnByName(attributeName);
 		if (c != null) {
@@ -25,6 +25,7 @@ import static org.junit.Assert.*;
 import static org.mockito.Matchers.*;
 import static org.mockito.Mockito.*;
 
+import java.util.Date;
 import java.util.Map;
 import java.util.Properties;
 
@@ -113,5 +114,21 @@ public class TestMapCacheKeySearch extends BasicSearchTest {
 		//name
 		assertEquals("string", physicalTable.getColumns().get(2).getRuntimeType());
 	}
+	
+	@Test public void testPropertyAccessor() throws Exception {
+		ObjectExecution.PropertyAccessor accessor = new ObjectExecution.PropertyAccessor("tradeDate.time");
+		Trade trade = new Trade(1, "a", null, new Date(1000));
+		assertEquals(Long.valueOf(1000), accessor.get(trade));
+		trade.setTradeDate(null);
+		assertNull(accessor.get(trade));
+		
+		accessor = new ObjectExecution.PropertyAccessor("missing");
+		try {
+			accessor.get(trade);
+			fail();
+		} catch (TranslatorException e) {
+			
+		}
+	}
 
 }
@@ -21,19 +21,38 @@
  */
 package org.teiid.translator.object.infinispan;
 
+import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
 
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.lucene.search.Query;
+import org.hibernate.search.annotations.Field;
+import org.hibernate.search.annotations.NumericField;
+import org.infinispan.Cache;
 import org.infinispan.manager.CacheContainer;
 import org.infinispan.manager.DefaultCacheManager;
+import org.infinispan.query.Search;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.teiid.language.Select;
+import org.teiid.metadata.Column.SearchType;
+import org.teiid.metadata.Datatype;
+import org.teiid.metadata.MetadataFactory;
+import org.teiid.metadata.Table;
+import org.teiid.query.metadata.SystemMetadata;
 import org.teiid.translator.ExecutionContext;
 import org.teiid.translator.TranslatorException;
 import org.teiid.translator.object.BasicSearchTest;
 import org.teiid.translator.object.ObjectConnection;
 import org.teiid.translator.object.ObjectExecution;
+import org.teiid.translator.object.testdata.Leg;
+import org.teiid.translator.object.testdata.Trade;
 import org.teiid.translator.object.util.TradesCacheSource;
 import org.teiid.translator.object.util.VDBUtility;
 
@@ -114,4 +133,132 @@ public class TestInfinispanJndiILuceneSearch extends BasicSearchTest {
 					
 		performTest(command, 1, 2);
 	}	
+	
+	@Test public void testQueryOr() throws Exception {	
+		Select command = (Select)VDBUtility.TRANSLATION_UTILITY.parseCommand("select T.TradeId, T.Name as TradeName From Trade_Object.Trade as T WHERE T.TradeId = '1' or T.TradeId = '3'"); //$NON-NLS-1$
+					
+		performTest(command, 2, 2);
+	}	
+	
+	@Test public void testQueryRangeAboveInclusive() throws Exception {	
+		Select command = (Select)VDBUtility.TRANSLATION_UTILITY.parseCommand("select T.TradeId, T.Name as TradeName From Trade_Object.Trade as T WHERE T.TradeId >= '2'"); //$NON-NLS-1$
+					
+		performTest(command, 2, 2);
+	}
+	
+	@Test public void testQueryNotIn() throws Exception {	
+		Select command = (Select)VDBUtility.TRANSLATION_UTILITY.parseCommand("select T.TradeId, T.Name as TradeName From Trade_Object.Trade as T WHERE T.TradeId not in ('1', '2')"); //$NON-NLS-1$
+					
+		performTest(command, 1, 2);
+	}
+	
+	@Test public void testQueryOrderByLimit() throws Exception {	
+		Select command = (Select)VDBUtility.TRANSLATION_UTILITY.parseCommand("select T.TradeId, T.Name as TradeName From Trade_Object.Trade as T order by T.TradeId desc limit 1, 1"); //$NON-NLS-1$
+					
+		List<Object> rows = performTest(command, 1, 2);
+		assertEquals(Long.valueOf(2), ((List<?>)rows.get(0)).get(0));
+	}
+	
+	/**
+	 * Add trades with ids that order differently as strings and with a null name
+	 */
+	private void addTrades() {
+		Cache<String, Object> cache = container.getCache(TradesCacheSource.TRADES_CACHE_NAME);
+		cache.put("10", new Trade(10, "TradeName 10", new ArrayList<Leg>(), new Date()));
+		cache.put("11", new Trade(11, null, new ArrayList<Leg>(), new Date()));
+	}
+	
+	private void removeTrades() {
+		Cache<String, Object> cache = container.getCache(TradesCacheSource.TRADES_CACHE_NAME);
+		cache.remove("10");
+		cache.remove("11");
+	}
+	
+	@Test public void testQueryRangeNumeric() throws Exception {
+		addTrades();
+		try {
+			Select command = (Select)VDBUtility.TRANSLATION_UTILITY.parseCommand("select T.TradeId, T.Name as TradeName From Trade_Object.Trade as T WHERE T.TradeId > '2'"); //$NON-NLS-1$
+			performTest(command, 3, 2);
+			
+			command = (Select)VDBUtility.TRANSLATION_UTILITY.parseCommand("select T.TradeId, T.Name as TradeName From Trade_Object.Trade as T WHERE T.TradeId < '10'"); //$NON-NLS-1$
+			performTest(command, 3, 2);
+		} finally {
+			removeTrades();
+		}
+	}
+	
+	@Test public void testQueryOrderByNumeric() throws Exception {
+		addTrades();
+		try {
+			Select command = (Select)VDBUtility.TRANSLATION_UTILITY.parseCommand("select T.TradeId, T.Name as TradeName From Trade_Object.Trade as T order by T.TradeId desc limit 3"); //$NON-NLS-1$
+			List<Object> rows = performTest(command, 3, 2);
+			assertEquals(Long.valueOf(11), ((List<?>)rows.get(0)).get(0));
+			assertEquals(Long.valueOf(10), ((List<?>)rows.get(1)).get(0));
+			assertEquals(Long.valueOf(3), ((List<?>)rows.get(2)).get(0));
+		} finally {
+			removeTrades();
+		}
+	}
+	
+	@Test public void testQueryNot() throws Exception {
+		addTrades();
+		try {
+			Select command = (Select)VDBUtility.TRANSLATION_UTILITY.parseCommand("select T.TradeId, T.Name as TradeName From Trade_Object.Trade as T WHERE T.TradeId <> '1'"); //$NON-NLS-1$
+			performTest(command, 4, 2);
+			
+			command = (Select)VDBUtility.TRANSLATION_UTILITY.parseCommand("select T.TradeId, T.Name as TradeName From Trade_Object.Trade as T WHERE NOT (T.TradeId > '2' OR T.Settled = 'true')"); //$NON-NLS-1$
+			performTest(command, 1, 2);
+		} finally {
+			removeTrades();
+		}
+	}
+	
+	@Test public void testNotRequiresValue() throws Exception {
+		Select command = (Select)VDBUtility.TRANSLATION_UTILITY.parseCommand("select T.TradeId From Trade_Object.Trade as T WHERE T.TradeId <> '1'"); //$NON-NLS-1$
+		Cache<String, Object> cache = container.getCache(TradesCacheSource.TRADES_CACHE_NAME);
+		Query query = LuceneSearch.buildQueryFromWhereClause(command.getWhere(), false, Search.getSearchManager(cache).buildQueryBuilderForClass(Trade.class).get(), Trade.class);
+		assertEquals("+tradeId:[* TO *] -tradeId:[1 TO 1]", query.toString());
+	}
+	
+	@Test(expected=TranslatorException.class) public void testQueryNotAnalyzed() throws Exception {
+		addTrades();
+		try {
+			Select command = (Select)VDBUtility.TRANSLATION_UTILITY.parseCommand("select T.TradeId, T.Name as TradeName From Trade_Object.Trade as T WHERE T.Name <> 'TradeName 1'"); //$NON-NLS-1$
+			performTest(command, 3, 2);
+		} finally {
+			removeTrades();
+		}
+	}
+	
+	@Test(expected=TranslatorException.class) public void testQueryOrderByAnalyzed() throws Exception {
+		Select command = (Select)VDBUtility.TRANSLATION_UTILITY.parseCommand("select T.TradeId, T.Name as TradeName From Trade_Object.Trade as T order by T.Name"); //$NON-NLS-1$
+		performTest(command, 3, 2);
+	}
+	
+	static class NullableValue {
+		@Field @NumericField Long value;
+	}
+	
+	@Test public void testGetMetadata() throws Exception {
+		Map<String, Datatype> dts = SystemMetadata.getInstance().getSystemStore().getDatatypes();
+		MetadataFactory mfactory = new MetadataFactory("TestVDB", 1, "Trade",  dts, new Properties(), null);
+		factory.getMetadata(mfactory, TradesCacheSource.loadCache());
+		
+		Table table = mfactory.getSchema().getTable("Trade");
+		//numeric field
+		assertEquals(SearchType.Searchable, table.getColumnByName("tradeId").getSearchType());
+		//analyzed string
+		assertEquals(SearchType.Unsearchable, table.getColumnByName("name").getSearchType());
+		//date terms are not comparable with the values
+		assertEquals(SearchType.Unsearchable, table.getColumnByName("tradeDate").getSearchType());
+		assertEquals(SearchType.Searchable, table.getColumnByName("settled").getSearchType());
+	}
+	
+	@Test public void testSearchType() throws Exception {
+		//not a numeric field
+		assertEquals(SearchType.Unsearchable, LuceneSearch.getSearchType(Leg.class, "notational", double.class));
+		//missing values would sort as 0
+		assertEquals(SearchType.Unsearchable, LuceneSearch.getSearchType(NullableValue.class, "value", Long.class));
+		assertEquals(SearchType.Unsearchable, LuceneSearch.getSearchType(Trade.class, "legs", List.class));
+	}
 }
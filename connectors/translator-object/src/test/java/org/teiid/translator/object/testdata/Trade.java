@@ -34,6 +34,7 @@ import org.hibernate.search.annotations.Field;
 import org.hibernate.search.annotations.Index;
 import org.hibernate.search.annotations.Indexed;
 import org.hibernate.search.annotations.IndexedEmbedded;
+import org.hibernate.search.annotations.NumericField;
 import org.hibernate.search.annotations.ProvidedId;
 import org.hibernate.search.annotations.Resolution;
 
@@ -48,7 +49,7 @@ public class Trade  implements Serializable {
 	
 
 protected @IndexedEmbedded List<Leg> legs = new ArrayList<Leg>();
-protected  @Field(index=Index.YES) long tradeId;
+protected  @Field(index=Index.YES) @NumericField long tradeId;
 protected  @Field String name;
 protected  @Field @DateBridge(resolution=Resolution.MINUTE) Date tradeDate;
 protected  @Field boolean settled;
@@ -63,7 +64,6 @@ protected  @Field boolean settled;
        this.tradeDate=tradeDate;
    }
    
-   @Field 
    public long getTradeId() {
 	   return tradeId;
    }
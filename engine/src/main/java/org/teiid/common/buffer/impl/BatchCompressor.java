@@ -0,0 +1,458 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+
+package org.teiid.common.buffer.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutput;
+import java.io.ObjectOutputStream;
+import java.io.StreamCorruptedException;
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.teiid.client.BatchSerializer;
+import org.teiid.client.ResizingArrayList;
+import org.teiid.core.types.DataTypeManager;
+import org.teiid.core.util.AccessibleByteArrayOutputStream;
+
+/**
+ * Compresses batches written to the buffer storage.
+ * <br/>
+ * Non-decreasing integral and date/time columns are delta encoded as variable length values with
+ * run length encoded nulls.  All other columns are written with the {@link BatchSerializer}.
+ * The resulting bytes are then compressed with a simple LZ77 style codec that favors speed over
+ * ratio, which captures repeated values and runs.
+ */
+final class BatchCompressor {
+
+	private static final int DELTA_LONG = 0;
+	private static final int DELTA_INTEGER = 1;
+	private static final int DELTA_DATE = 2;
+	private static final int DELTA_TIME = 3;
+	private static final int DELTA_TIMESTAMP = 4;
+
+	private static final int MIN_MATCH = 4;
+	private static final int MAX_OFFSET = 1 << 16;
+	private static final int HASH_LOG = 12;
+	private static final int SKIP_TRIGGER = 6;
+
+	private AtomicLong bytesWritten = new AtomicLong();
+	private AtomicLong bytesSaved = new AtomicLong();
+
+	/**
+	 * @return the total number of compressed bytes written
+	 */
+	long getBytesWritten() {
+		return bytesWritten.get();
+	}
+
+	/**
+	 * @return the total number of bytes saved by compression
+	 */
+	long getBytesSaved() {
+		return bytesSaved.get();
+	}
+
+	void writeBatch(ObjectOutput out, String[] types, Class<?>[] typeClasses, List<? extends List<?>> batch) throws IOException {
+		AccessibleByteArrayOutputStream baos = new AccessibleByteArrayOutputStream(1 << 13);
+		ObjectOutputStream oos = new ObjectOutputStream(baos);
+		int rows = batch.size();
+		writeVarInt(oos, rows);
+		int[] deltaTypes = new int[types.length];
+		int deltaColumns = 0;
+		for (int col = 0; col < types.length; col++) {
+			deltaTypes[col] = getDeltaType(typeClasses[col], batch, col);
+			if (deltaTypes[col] != -1) {
+				deltaColumns++;
+			}
+		}
+		writeVarInt(oos, deltaColumns);
+		final int[] otherColumns = new int[types.length - deltaColumns];
+		String[] otherTypes = new String[otherColumns.length];
+		int other = 0;
+		for (int col = 0; col < types.length; col++) {
+			if (deltaTypes[col] == -1) {
+				otherTypes[other] = types[col];
+				otherColumns[other++] = col;
+				continue;
+			}
+			writeVarInt(oos, col);
+			oos.writeByte(deltaTypes[col]);
+			writeDeltaColumn(oos, deltaTypes[col], batch, col);
+		}
+		if (otherColumns.length > 0) {
+			final List<? extends List<?>> source = batch;
+			List<List<?>> projected = new AbstractList<List<?>>() {
+				@Override
+				public List<?> get(final int row) {
+					final List<?> tuple = source.get(row);
+					return new AbstractList<Object>() {
+						@Override
+						public Object get(int col) {
+							return tuple.get(otherColumns[col]);
+						}
+
+						@Override
+						public int size() {
+							return otherColumns.length;
+						}
+					};
+				}
+
+				@Override
+				public int size() {
+					return source.size();
+				}
+			};
+			BatchSerializer.writeBatch(oos, otherTypes, projected);
+		}
+		oos.close();
+		int length = baos.getCount();
+		byte[] compressed = new byte[length + (length >> 7) + 16];
+		int compressedLength = compress(baos.getBuffer(), length, compressed);
+		out.writeInt(length);
+		if (compressedLength >= length) {
+			//not worth it
+			out.writeInt(-1);
+			out.write(baos.getBuffer(), 0, length);
+			bytesWritten.addAndGet(length);
+			return;
+		}
+		out.writeInt(compressedLength);
+		out.write(compressed, 0, compressedLength);
+		bytesWritten.addAndGet(compressedLength);
+		bytesSaved.addAndGet(length - compressedLength);
+	}
+
+	List<List<Object>> readBatch(ObjectInput in, String[] types) throws IOException, ClassNotFoundException {
+		int length = in.readInt();
+		int compressedLength = in.readInt();
+		byte[] bytes = new byte[length];
+		if (compressedLength == -1) {
+			in.readFully(bytes);
+		} else {
+			byte[] compressed = new byte[compressedLength];
+			in.readFully(compressed);
+			decompress(compressed, compressedLength, bytes, length);
+		}
+		ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes));
+		int rows = readVarInt(ois);
+		List<List<Object>> batch = new ResizingArrayList<List<Object>>(rows);
+		for (int row = 0; row < rows; row++) {
+			batch.add(Arrays.asList(new Object[types.length]));
+		}
+		int deltaColumns = readVarInt(ois);
+		boolean[] isDelta = new boolean[types.length];
+		for (int i = 0; i < deltaColumns; i++) {
+			int col = readVarInt(ois);
+			isDelta[col] = true;
+			readDeltaColumn(ois, ois.readByte(), batch, col);
+		}
+		if (deltaColumns < types.length) {
+			String[] otherTypes = new String[types.length - deltaColumns];
+			int[] otherColumns = new int[otherTypes.length];
+			int other = 0;
+			for (int col = 0; col < types.length; col++) {
+				if (!isDelta[col]) {
+					otherTypes[other] = types[col];
+					otherColumns[other++] = col;
+				}
+			}
+			List<List<Object>> values = BatchSerializer.readBatch(ois, otherTypes);
+			for (int row = 0; row < rows; row++) {
+				List<Object> source = values.get(row);
+				List<Object> tuple = batch.get(row);
+				for (int col = 0; col < otherColumns.length; col++) {
+					tuple.set(otherColumns[col], source.get(col));
+				}
+			}
+		}
+		return batch;
+	}
+
+	/**
+	 * Return the delta encoding to use for the column or -1 if the column
+	 * should not be delta encoded.
+	 */
+	static int getDeltaType(Class<?> type, List<? extends List<?>> batch, int col) {
+		int deltaType = -1;
+		if (type == DataTypeManager.DefaultDataClasses.LONG) {
+			deltaType = DELTA_LONG;
+		} else if (type == DataTypeManager.DefaultDataClasses.INTEGER) {
+			deltaType = DELTA_INTEGER;
+		} else if (type == DataTypeManager.DefaultDataClasses.DATE) {
+			deltaType = DELTA_DATE;
+		} else if (type == DataTypeManager.DefaultDataClasses.TIME) {
+			deltaType = DELTA_TIME;
+		} else if (type == DataTypeManager.DefaultDataClasses.TIMESTAMP) {
+			deltaType = DELTA_TIMESTAMP;
+		} else {
+			return -1;
+		}
+		long last = Long.MIN_VALUE;
+		for (int row = 0; row < batch.size(); row++) {
+			Object value = batch.get(row).get(col);
+			if (value == null) {
+				continue;
+			}
+			if (value.getClass() != type) {
+				return -1;
+			}
+			long current = getLongValue(value);
+			if (current < last) {
+				return -1;
+			}
+			last = current;
+		}
+		return deltaType;
+	}
+
+	private static long getLongValue(Object value) {
+		if (value instanceof java.util.Date) {
+			return ((java.util.Date)value).getTime();
+		}
+		return ((Number)value).longValue();
+	}
+
+	/**
+	 * Writes alternating run lengths of non-null and null values followed by the
+	 * non-null values as deltas from the previous value.
+	 */
+	private static void writeDeltaColumn(DataOutput out, int deltaType, List<? extends List<?>> batch, int col) throws IOException {
+		int rows = batch.size();
+		int row = 0;
+		boolean nulls = false;
+		while (row < rows) {
+			int run = 0;
+			while (row < rows && (batch.get(row).get(col) == null) == nulls) {
+				run++;
+				row++;
+			}
+			writeVarInt(out, run);
+			nulls = !nulls;
+		}
+		long last = 0;
+		for (row = 0; row < rows; row++) {
+			Object value = batch.get(row).get(col);
+			if (value == null) {
+				continue;
+			}
+			long current = getLongValue(value);
+			writeVarLong(out, current - last);
+			last = current;
+			if (deltaType == DELTA_TIMESTAMP) {
+				writeVarInt(out, ((Timestamp)value).getNanos());
+			}
+		}
+	}
+
+	private static void readDeltaColumn(DataInput in, int deltaType, List<List<Object>> batch, int col) throws IOException {
+		int rows = batch.size();
+		boolean[] isNull = new boolean[rows];
+		int row = 0;
+		boolean nulls = false;
+		while (row < rows) {
+			int run = readVarInt(in);
+			if (nulls) {
+				Arrays.fill(isNull, row, row + run, true);
+			}
+			row += run;
+			nulls = !nulls;
+		}
+		long last = 0;
+		for (row = 0; row < rows; row++) {
+			if (isNull[row]) {
+				continue;
+			}
+			last += readVarLong(in);
+			Object value = null;
+			switch (deltaType) {
+			case DELTA_LONG:
+				value = last;
+				break;
+			case DELTA_INTEGER:
+				value = (int)last;
+				break;
+			case DELTA_DATE:
+				value = new Date(last);
+				break;
+			case DELTA_TIME:
+				value = new Time(last);
+				break;
+			case DELTA_TIMESTAMP:
+				Timestamp ts = new Timestamp(last);
+				ts.setNanos(readVarInt(in));
+				value = ts;
+				break;
+			default:
+				throw new StreamCorruptedException("Unknown encoding " + deltaType); //$NON-NLS-1$
+			}
+			batch.get(row).set(col, value);
+		}
+	}
+
+	static void writeVarInt(DataOutput out, int value) throws IOException {
+		writeVarLong(out, value & 0xffffffffl);
+	}
+
+	/**
+	 * Write the value as an unsigned variable length value
+	 */
+	static void writeVarLong(DataOutput out, long value) throws IOException {
+		while ((value & ~0x7fl) != 0) {
+			out.writeByte((int)((value & 0x7f) | 0x80));
+			value >>>= 7;
+		}
+		out.writeByte((int)value);
+	}
+
+	static int readVarInt(DataInput in) throws IOException {
+		return (int)readVarLong(in);
+	}
+
+	static long readVarLong(DataInput in) throws IOException {
+		long result = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			int b = in.readByte();
+			result |= (long)(b & 0x7f) << shift;
+			if ((b & 0x80) == 0) {
+				return result;
+			}
+		}
+		throw new StreamCorruptedException("Invalid variable length value"); //$NON-NLS-1$
+	}
+
+	/**
+	 * Compress the source into the destination, which must be at least
+	 * length + length/128 + 16 bytes.
+	 * <br/>
+	 * The output is a sequence of literal runs and back references:
+	 * a variable length literal count, the literal bytes, and then if more
+	 * input remains a two byte offset and variable length match length.
+	 * @return the compressed length
+	 */
+	static int compress(byte[] src, int length, byte[] dest) {
+		int[] table = new int[1 << HASH_LOG];
+		int pos = 0;
+		int anchor = 0;
+		int out = 0;
+		int limit = length - MIN_MATCH;
+		int misses = 0;
+		while (pos <= limit) {
+			int sequence = readInt(src, pos);
+			int hash = (sequence * -1640531535) >>> (32 - HASH_LOG);
+			int ref = table[hash] - 1;
+			table[hash] = pos + 1;
+			if (ref < 0 || pos - ref >= MAX_OFFSET || readInt(src, ref) != sequence) {
+				//skip faster through incompressible data
+				pos += 1 + (misses++ >> SKIP_TRIGGER);
+				continue;
+			}
+			misses = 0;
+			int matchLength = MIN_MATCH;
+			while (pos + matchLength < length && src[ref + matchLength] == src[pos + matchLength]) {
+				matchLength++;
+			}
+			out = writeLiterals(src, anchor, pos - anchor, dest, out);
+			int offset = pos - ref;
+			dest[out++] = (byte)offset;
+			dest[out++] = (byte)(offset >>> 8);
+			out = writeVarInt(dest, out, matchLength - MIN_MATCH);
+			pos += matchLength;
+			anchor = pos;
+		}
+		return writeLiterals(src, anchor, length - anchor, dest, out);
+	}
+
+	static void decompress(byte[] src, int length, byte[] dest, int destLength) throws IOException {
+		int in = 0;
+		int out = 0;
+		int[] value = new int[1];
+		try {
+			while (true) {
+				in = readVarInt(src, in, value);
+				System.arraycopy(src, in, dest, out, value[0]);
+				in += value[0];
+				out += value[0];
+				if (out == destLength) {
+					break;
+				}
+				int offset = (src[in++] & 0xff) | ((src[in++] & 0xff) << 8);
+				in = readVarInt(src, in, value);
+				int matchLength = value[0] + MIN_MATCH;
+				int ref = out - offset;
+				//byte at a time, since the match may overlap the output
+				for (int i = 0; i < matchLength; i++) {
+					dest[out++] = dest[ref++];
+				}
+			}
+		} catch (ArrayIndexOutOfBoundsException e) {
+			throw new StreamCorruptedException("Invalid compressed batch"); //$NON-NLS-1$
+		}
+		if (in != length) {
+			throw new StreamCorruptedException("Invalid compressed batch"); //$NON-NLS-1$
+		}
+	}
+
+	private static int writeLiterals(byte[] src, int start, int count, byte[] dest, int out) {
+		out = writeVarInt(dest, out, count);
+		System.arraycopy(src, start, dest, out, count);
+		return out + count;
+	}
+
+	private static int writeVarInt(byte[] dest, int out, int value) {
+		while ((value & ~0x7f) != 0) {
+			dest[out++] = (byte)((value & 0x7f) | 0x80);
+			value >>>= 7;
+		}
+		dest[out++] = (byte)value;
+		return out;
+	}
+
+	private static int readVarInt(byte[] src, int in, int[] value) {
+		int result = 0;
+		int shift = 0;
+		int b = 0;
+		do {
+			b = src[in++];
+			result |= (b & 0x7f) << shift;
+			shift += 7;
+		} while ((b & 0x80) != 0);
+		value[0] = result;
+		return in;
+	}
+
+	private static int readInt(byte[] src, int pos) {
+		return (src[pos] & 0xff) | ((src[pos + 1] & 0xff) << 8) | ((src[pos + 2] & 0xff) << 16) | (src[pos + 3] << 24);
+	}
+
+}
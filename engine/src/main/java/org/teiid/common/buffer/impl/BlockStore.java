@@ -36,6 +36,11 @@ import org.teiid.query.QueryPlugin;
 
 /**
  * Represents a FileStore that holds blocks of a fixed size.
+ * <br/>
+ * The blocks are striped over several files, each with its own lock.  Reads and writes
+ * of individual blocks only need the shared lock since the {@link FileStore} supports
+ * concurrent positional access and each block is exclusively owned.  The exclusive lock
+ * is only needed to change the length of the file.
  */
 class BlockStore {
 	final long blockSize;
@@ -58,7 +63,7 @@ class BlockStore {
 	}
 	
 	int getAndSetNextClearBit(PhysicalInfo info) {
-		int result = blocksInUse.getAndSetNextClearBit();
+		int result = blocksInUse.getAndSetNextClearBit(BufferFrontedFileStoreCache.getStripe(info.getId()));
 		if (result == -1) {
 			 throw new TeiidRuntimeException(QueryPlugin.Event.TEIID30059, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID30059, blockSize));
 		}
@@ -73,7 +78,7 @@ class BlockStore {
 		int block = getAndSetNextClearBit(info);
 		int segment = block/blocksInUse.getBitsPerSegment();
 		boolean success = false;
-		this.locks[segment].writeLock().lock();
+		this.locks[segment].readLock().lock();
 		try {
 			FileStore fs = stores[segment];
 			long blockOffset = (block%blocksInUse.getBitsPerSegment())*blockSize;
@@ -86,7 +91,7 @@ class BlockStore {
 			}
 			success = true;
 		} finally {
-			locks[segment].writeLock().unlock();
+			locks[segment].readLock().unlock();
 			if (!success) {
 				blocksInUse.clear(block);
 				block = BufferFrontedFileStoreCache.EMPTY_ADDRESS;
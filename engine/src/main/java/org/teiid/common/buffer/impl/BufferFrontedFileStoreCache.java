@@ -146,7 +146,7 @@ public class BufferFrontedFileStoreCache implements Cache<PhysicalInfo>, Storage
 			this.inode = inode;
 			this.gid = gid;
 			this.oid = oid;
-			this.blockSegment = blocksInuse.getNextSegment();
+			this.blockSegment = getStripe(oid);
 		}
 		
 		@Override
@@ -276,7 +276,7 @@ public class BufferFrontedFileStoreCache implements Cache<PhysicalInfo>, Storage
 		private ByteBuffer getInodeBlock() {
 			if (inodeBuffer == null) {
 				if (inode == EMPTY_ADDRESS) {
-					this.inode = inodesInuse.getAndSetNextClearBit();
+					this.inode = inodesInuse.getAndSetNextClearBit(blockSegment);
 					if (this.inode == -1) {
 						throw new AssertionError("Out of inodes"); //$NON-NLS-1$
 					}
@@ -539,6 +539,15 @@ public class BufferFrontedFileStoreCache implements Cache<PhysicalInfo>, Storage
 		return bitsSet > 0 && (blocks - bitsSet < (critical?criticalCleaningThreshold:cleaningThreshold)) && memoryBufferEntries.firstEntry(false) != null;
 	}
 	
+	/**
+	 * Get the stripe (bit set segment and storage file) for the given object.
+	 * Keying by the object id keeps all of the blocks for an object under the same
+	 * segment lock and spreads concurrent writers over different segments. 
+	 */
+	static int getStripe(long oid) {
+		return (int)(oid ^ (oid >>> 32));
+	}
+	
 	InodeBlockManager getBlockManager(long gid, long oid, int inode) {
 		return new InodeBlockManager(gid, oid, inode);
 	}
@@ -713,7 +722,7 @@ public class BufferFrontedFileStoreCache implements Cache<PhysicalInfo>, Storage
 					FileStore fs = blockStore.stores[segment];
 					long blockOffset = (info.block%blockStore.blocksInUse.getBitsPerSegment())*blockStore.blockSize;
 					is = fs.createInputStream(blockOffset, info.memoryBlockCount<<LOG_BLOCK_SIZE);
-					lock = blockStore.locks[segment].writeLock();
+					lock = blockStore.locks[segment].readLock();
 					memoryBlocks = info.memoryBlockCount;
 				} else {
 					return null;
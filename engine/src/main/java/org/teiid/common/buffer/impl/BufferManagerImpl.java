@@ -51,6 +51,7 @@ import org.teiid.common.buffer.AutoCleanupUtil.Removable;
 import org.teiid.common.buffer.LobManager.ReferenceMode;
 import org.teiid.core.TeiidComponentException;
 import org.teiid.core.TeiidRuntimeException;
+import org.teiid.core.util.PropertiesUtils;
 import org.teiid.core.types.DataTypeManager;
 import org.teiid.core.types.Streamable;
 import org.teiid.core.types.DataTypeManager.WeakReferenceHashedValueCache;
@@ -154,11 +155,15 @@ public class BufferManagerImpl implements BufferManager, StorageManager, Replica
 		private PhantomReference<Object> cleanup;
 		AtomicBoolean prefersMemory = new AtomicBoolean();
 		String[] types;
+		private Class<?>[] typeClasses;
 		private LobManager lobManager;
+		private boolean columnar;
+		private boolean compress;
 
 		private BatchManagerImpl(Long newID, Class<?>[] types) {
 			this.id = newID;
 			this.sizeUtility = new SizeUtility(types);
+			this.typeClasses = types;
 			this.types = new String[types.length];
 			for (int i = 0; i < types.length; i++) {
 				this.types[i] = DataTypeManager.getDataTypeName(types[i]);
@@ -174,6 +179,22 @@ public class BufferManagerImpl implements BufferManager, StorageManager, Replica
 			this.lobManager = lobManager;
 		}
 		
+		/**
+		 * Set to true to hold batches in the {@link ColumnarBatch} form.
+		 * Should only be used if the batches are not modified after being added. 
+		 */
+		public void setColumnar(boolean columnar) {
+			this.columnar = columnar;
+		}
+		
+		/**
+		 * Set to true to compress batches as they are serialized.
+		 * Must be set prior to any batches being added. 
+		 */
+		public void setCompress(boolean compress) {
+			this.compress = compress;
+		}
+		
 		@Override
 		public String[] getTypes() {
 			return types;
@@ -208,6 +229,9 @@ public class BufferManagerImpl implements BufferManager, StorageManager, Replica
 				cache.createCacheGroup(id);
 				cleanup = AutoCleanupUtil.setCleanupReference(this, new Remover(id, prefersMemory));
 			}
+			if (columnar && !batch.isEmpty()) {
+				batch = new ColumnarBatch(typeClasses, batch);
+			}
 			int sizeEstimate = getSizeEstimate(batch);
 			Long oid = batchAdded.getAndIncrement();
 			CacheEntry old = null;
@@ -233,7 +257,12 @@ public class BufferManagerImpl implements BufferManager, StorageManager, Replica
 		@Override
 		public List<? extends List<?>> deserialize(ObjectInput ois)
 				throws IOException, ClassNotFoundException {
-			List<? extends List<?>> batch = BatchSerializer.readBatch(ois, types);
+			List<? extends List<?>> batch = null;
+			if (compress) {
+				batch = batchCompressor.readBatch(ois, types);
+			} else {
+				batch = BatchSerializer.readBatch(ois, types);
+			}
 			if (lobManager != null) {
 				for (int i = batch.size() - 1; i >= 0; i--) {
 					try {
@@ -243,6 +272,9 @@ public class BufferManagerImpl implements BufferManager, StorageManager, Replica
 					}
 				}
 			}
+			if (columnar && !batch.isEmpty()) {
+				return new ColumnarBatch(typeClasses, batch);
+			}
 			return batch;
 		}
 		
@@ -253,10 +285,17 @@ public class BufferManagerImpl implements BufferManager, StorageManager, Replica
 			ResizingArrayList<?> list = null;
 			if (obj instanceof ResizingArrayList<?>) {
 				list = (ResizingArrayList<?>)obj;
+			} else if (obj instanceof ColumnarBatch) {
+				//the serializers are column oriented, so avoid materializing each row per column
+				obj = ((ColumnarBatch)obj).getRows();
 			}
 			try {
 				//it's expected that the containing structure has updated the lob manager
-				BatchSerializer.writeBatch(oos, types, obj);
+				if (compress) {
+					batchCompressor.writeBatch(oos, types, typeClasses, obj);
+				} else {
+					BatchSerializer.writeBatch(oos, types, obj);
+				}
 			} catch (RuntimeException e) {
 				//there is a chance of a concurrent persist while modifying 
 				//in which case we want to swallow this exception
@@ -267,6 +306,9 @@ public class BufferManagerImpl implements BufferManager, StorageManager, Replica
 		}
 		
 		public int getSizeEstimate(List<? extends List<?>> obj) {
+			if (obj instanceof ColumnarBatch) {
+				return (int) Math.max(1, ((ColumnarBatch)obj).getSizeEstimate(sizeUtility));
+			}
 			return (int) Math.max(1, sizeUtility.getBatchSize(DataTypeManager.isValueCacheEnabled(), obj));
 		}
 		
@@ -357,6 +399,9 @@ public class BufferManagerImpl implements BufferManager, StorageManager, Replica
     private int maxActivePlans = DQPConfiguration.DEFAULT_MAX_ACTIVE_PLANS; //used as a hint to set the reserveBatchKB
     private boolean useWeakReferences = true;
     private boolean inlineLobs = true;
+    private boolean columnarBatches = PropertiesUtils.getBooleanProperty(System.getProperties(), "org.teiid.columnarBatches", false); //$NON-NLS-1$
+    private boolean compressBatches = PropertiesUtils.getBooleanProperty(System.getProperties(), "org.teiid.compressBatches", false); //$NON-NLS-1$
+    private BatchCompressor batchCompressor = new BatchCompressor();
     private int targetBytesPerRow = TARGET_BYTES_PER_ROW;
     private int maxSoftReferences;
 
@@ -441,6 +486,20 @@ public class BufferManagerImpl implements BufferManager, StorageManager, Replica
 		return readAttempts.get();
 	}
 	
+	/**
+	 * @return the number of bytes saved by compressing serialized batches
+	 */
+	public long getCompressionBytesSaved() {
+		return batchCompressor.getBytesSaved();
+	}
+	
+	/**
+	 * @return the number of bytes written for compressed batches
+	 */
+	public long getCompressionBytesWritten() {
+		return batchCompressor.getBytesWritten();
+	}
+	
 	@Override
 	public int getMaxProcessingSize() {
 		return maxProcessingBytes;
@@ -487,6 +546,9 @@ public class BufferManagerImpl implements BufferManager, StorageManager, Replica
     	int[] lobIndexes = LobManager.getLobIndexes(elements);
     	Class<?>[] types = getTypeClasses(elements);
     	BatchManagerImpl batchManager = createBatchManager(newID, types);
+    	//tuplebuffer batches are not modified once saved
+    	batchManager.setColumnar(columnarBatches);
+    	batchManager.setCompress(compressBatches);
     	LobManager lobManager = null;
 		if (lobIndexes != null) {
 			FileStore lobStore = createFileStore(newID + "_lobs"); //$NON-NLS-1$
@@ -1077,6 +1139,22 @@ public class BufferManagerImpl implements BufferManager, StorageManager, Replica
 	public void setInlineLobs(boolean inlineLobs) {
 		this.inlineLobs = inlineLobs;
 	}
+	
+	/**
+	 * Set to true to hold {@link TupleBuffer} batches in a column oriented form
+	 * @param columnarBatches
+	 */
+	public void setColumnarBatches(boolean columnarBatches) {
+		this.columnarBatches = columnarBatches;
+	}
+	
+	/**
+	 * Set to true to compress {@link TupleBuffer} batches as they are written to the cache
+	 * @param compressBatches
+	 */
+	public void setCompressBatches(boolean compressBatches) {
+		this.compressBatches = compressBatches;
+	}
 
 	public int getMaxReserveKB() {
 		return (int)maxReserveBytes.get()>>10;
@@ -0,0 +1,371 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+
+package org.teiid.common.buffer.impl;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+import org.teiid.core.types.DataTypeManager;
+
+/**
+ * A column oriented representation of a batch.  Fixed width types are held in primitive
+ * arrays with a null bitmap and strings are dictionary encoded, which is considerably more compact
+ * than the row of boxed values representation.
+ * <br/>
+ * The batch is presented as an immutable list of rows.  Each row is materialized as a new
+ * {@link ArrayList} when requested, so callers may modify the row without affecting the batch.
+ */
+final class ColumnarBatch extends AbstractList<List<?>> implements RandomAccess {
+
+	private static final int BOOLEAN = 0;
+	private static final int BYTE = 1;
+	private static final int SHORT = 2;
+	private static final int CHAR = 3;
+	private static final int INTEGER = 4;
+	private static final int FLOAT = 5;
+	private static final int LONG = 6;
+	private static final int DOUBLE = 7;
+	private static final int DATE = 8;
+	private static final int TIME = 9;
+
+	private static final Map<Class<?>, Integer> FIXED_WIDTH_TYPES = new HashMap<Class<?>, Integer>();
+	static {
+		FIXED_WIDTH_TYPES.put(DataTypeManager.DefaultDataClasses.BOOLEAN, BOOLEAN);
+		FIXED_WIDTH_TYPES.put(DataTypeManager.DefaultDataClasses.BYTE, BYTE);
+		FIXED_WIDTH_TYPES.put(DataTypeManager.DefaultDataClasses.SHORT, SHORT);
+		FIXED_WIDTH_TYPES.put(DataTypeManager.DefaultDataClasses.CHAR, CHAR);
+		FIXED_WIDTH_TYPES.put(DataTypeManager.DefaultDataClasses.INTEGER, INTEGER);
+		FIXED_WIDTH_TYPES.put(DataTypeManager.DefaultDataClasses.FLOAT, FLOAT);
+		FIXED_WIDTH_TYPES.put(DataTypeManager.DefaultDataClasses.LONG, LONG);
+		FIXED_WIDTH_TYPES.put(DataTypeManager.DefaultDataClasses.DOUBLE, DOUBLE);
+		FIXED_WIDTH_TYPES.put(DataTypeManager.DefaultDataClasses.DATE, DATE);
+		FIXED_WIDTH_TYPES.put(DataTypeManager.DefaultDataClasses.TIME, TIME);
+	}
+
+	private static abstract class Column {
+		BitSet nulls;
+
+		abstract Object get(int row);
+
+		abstract long getSize(SizeUtility sizeUtility);
+
+		long getNullsSize() {
+			if (nulls == null) {
+				return 0;
+			}
+			return 24 + (nulls.size() >> 3);
+		}
+	}
+
+	/**
+	 * Holds types that fit in 32 bits
+	 */
+	private static class IntColumn extends Column {
+		int type;
+		int[] values;
+
+		@Override
+		Object get(int row) {
+			if (nulls != null && nulls.get(row)) {
+				return null;
+			}
+			int value = values[row];
+			switch (type) {
+			case BOOLEAN:
+				return value != 0;
+			case BYTE:
+				return (byte)value;
+			case SHORT:
+				return (short)value;
+			case CHAR:
+				return (char)value;
+			case FLOAT:
+				return Float.intBitsToFloat(value);
+			default:
+				return value;
+			}
+		}
+
+		@Override
+		long getSize(SizeUtility sizeUtility) {
+			return 16 + (values.length << 2) + getNullsSize();
+		}
+	}
+
+	/**
+	 * Holds types that fit in 64 bits
+	 */
+	private static class LongColumn extends Column {
+		int type;
+		long[] values;
+
+		@Override
+		Object get(int row) {
+			if (nulls != null && nulls.get(row)) {
+				return null;
+			}
+			long value = values[row];
+			switch (type) {
+			case DOUBLE:
+				return Double.longBitsToDouble(value);
+			case DATE:
+				return new Date(value);
+			case TIME:
+				return new Time(value);
+			default:
+				return value;
+			}
+		}
+
+		@Override
+		long getSize(SizeUtility sizeUtility) {
+			return 16 + (values.length << 3) + getNullsSize();
+		}
+	}
+
+	/**
+	 * Dictionary encoded strings.  A code of -1 represents null.
+	 */
+	private static class StringColumn extends Column {
+		String[] dictionary;
+		int[] codes;
+
+		@Override
+		Object get(int row) {
+			int code = codes[row];
+			if (code < 0) {
+				return null;
+			}
+			return dictionary[code];
+		}
+
+		@Override
+		long getSize(SizeUtility sizeUtility) {
+			long size = 32 + (codes.length << 2) + (dictionary.length * SizeUtility.REFERENCE_SIZE);
+			for (String value : dictionary) {
+				size += sizeUtility.getSize(value, DataTypeManager.DefaultDataClasses.STRING, false, false);
+			}
+			return size;
+		}
+	}
+
+	private static class ObjectColumn extends Column {
+		Class<?> type;
+		Object[] values;
+
+		@Override
+		Object get(int row) {
+			return values[row];
+		}
+
+		@Override
+		long getSize(SizeUtility sizeUtility) {
+			long size = 16 + values.length * SizeUtility.REFERENCE_SIZE;
+			int rowsSampled = 0;
+			long estimatedSize = 0;
+			for (int row = 0; row < values.length; row=(row*2)+1) {
+				rowsSampled++;
+				estimatedSize += sizeUtility.getSize(values[row], type, true, DataTypeManager.isValueCacheEnabled());
+			}
+			if (rowsSampled > 0) {
+				size += estimatedSize/(float)rowsSampled * values.length;
+			}
+			return size;
+		}
+	}
+
+	private Column[] columns;
+	private int rowCount;
+
+	ColumnarBatch(Class<?>[] types, List<? extends List<?>> rows) {
+		this.rowCount = rows.size();
+		this.columns = new Column[types.length];
+		for (int col = 0; col < types.length; col++) {
+			Column column = null;
+			Integer fixedType = FIXED_WIDTH_TYPES.get(types[col]);
+			if (fixedType != null) {
+				column = createFixedWidthColumn(fixedType, types[col], rows, col);
+			} else if (types[col] == DataTypeManager.DefaultDataClasses.STRING) {
+				column = createStringColumn(rows, col);
+			}
+			if (column == null) {
+				column = createObjectColumn(types[col], rows, col);
+			}
+			this.columns[col] = column;
+		}
+	}
+
+	/**
+	 * Create a primitive column or return null if an unexpected value type is found.
+	 */
+	private static Column createFixedWidthColumn(int type, Class<?> clazz, List<? extends List<?>> rows, int col) {
+		int[] ints = null;
+		long[] longs = null;
+		if (type < LONG) {
+			ints = new int[rows.size()];
+		} else {
+			longs = new long[rows.size()];
+		}
+		BitSet nulls = null;
+		for (int row = 0; row < rows.size(); row++) {
+			Object value = rows.get(row).get(col);
+			if (value == null) {
+				if (nulls == null) {
+					nulls = new BitSet(rows.size());
+				}
+				nulls.set(row);
+				continue;
+			}
+			if (value.getClass() != clazz) {
+				return null;
+			}
+			switch (type) {
+			case BOOLEAN:
+				ints[row] = ((Boolean)value)?1:0;
+				break;
+			case CHAR:
+				ints[row] = (Character)value;
+				break;
+			case FLOAT:
+				ints[row] = Float.floatToRawIntBits((Float)value);
+				break;
+			case BYTE:
+			case SHORT:
+			case INTEGER:
+				ints[row] = ((Number)value).intValue();
+				break;
+			case DOUBLE:
+				longs[row] = Double.doubleToRawLongBits((Double)value);
+				break;
+			case DATE:
+			case TIME:
+				longs[row] = ((java.util.Date)value).getTime();
+				break;
+			default:
+				longs[row] = (Long)value;
+			}
+		}
+		Column result = null;
+		if (ints != null) {
+			IntColumn column = new IntColumn();
+			column.type = type;
+			column.values = ints;
+			result = column;
+		} else {
+			LongColumn column = new LongColumn();
+			column.type = type;
+			column.values = longs;
+			result = column;
+		}
+		result.nulls = nulls;
+		return result;
+	}
+
+	/**
+	 * Create a dictionary encoded column or return null if an unexpected value type is found.
+	 */
+	private static Column createStringColumn(List<? extends List<?>> rows, int col) {
+		Map<String, Integer> codes = new HashMap<String, Integer>();
+		List<String> dictionary = new ArrayList<String>();
+		int[] values = new int[rows.size()];
+		for (int row = 0; row < rows.size(); row++) {
+			Object value = rows.get(row).get(col);
+			if (value == null) {
+				values[row] = -1;
+				continue;
+			}
+			if (!(value instanceof String)) {
+				return null;
+			}
+			Integer code = codes.get(value);
+			if (code == null) {
+				code = dictionary.size();
+				codes.put((String)value, code);
+				dictionary.add((String)value);
+			}
+			values[row] = code;
+		}
+		StringColumn column = new StringColumn();
+		column.codes = values;
+		column.dictionary = dictionary.toArray(new String[dictionary.size()]);
+		return column;
+	}
+
+	private static Column createObjectColumn(Class<?> type, List<? extends List<?>> rows, int col) {
+		Object[] values = new Object[rows.size()];
+		for (int row = 0; row < rows.size(); row++) {
+			values[row] = rows.get(row).get(col);
+		}
+		ObjectColumn column = new ObjectColumn();
+		column.type = type;
+		column.values = values;
+		return column;
+	}
+
+	@Override
+	public List<?> get(int index) {
+		if (index < 0 || index >= rowCount) {
+			throw new IndexOutOfBoundsException(String.valueOf(index));
+		}
+		ArrayList<Object> row = new ArrayList<Object>(columns.length);
+		for (int col = 0; col < columns.length; col++) {
+			row.add(columns[col].get(index));
+		}
+		return row;
+	}
+
+	/**
+	 * Materialize all rows at once.
+	 */
+	List<List<?>> getRows() {
+		ArrayList<List<?>> result = new ArrayList<List<?>>(rowCount);
+		for (int row = 0; row < rowCount; row++) {
+			result.add(get(row));
+		}
+		return result;
+	}
+
+	@Override
+	public int size() {
+		return rowCount;
+	}
+
+	/**
+	 * Get the estimated heap size of the batch
+	 */
+	long getSizeEstimate(SizeUtility sizeUtility) {
+		long size = 32 + columns.length * SizeUtility.REFERENCE_SIZE;
+		for (Column column : columns) {
+			size += 16 + column.getSize(sizeUtility);
+		}
+		return size;
+	}
+
+}
@@ -26,6 +26,10 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -53,38 +57,50 @@ public class FileStorageManager implements StorageManager {
 	private AtomicLong usedBufferSpace = new AtomicLong();
 	private AtomicInteger fileCounter = new AtomicInteger();
 	
+	/**
+	 * Tracks the open file for a {@link DiskStore}.  The file is returned to the 
+	 * file cache, where it may be closed, only when there are no concurrent users.
+	 */
 	private class FileInfo {
     	private File file;
         private RandomAccessFile fileData;       // may be null if not open
+        private int useCount;
 
         public FileInfo(File file) {
             this.file = file;
         }
 
-        public RandomAccessFile open() throws FileNotFoundException {
+        public synchronized FileChannel open() throws FileNotFoundException {
         	if(this.fileData == null) {
         		this.fileData = fileCache.remove(this.file);
-        		if (this.fileData == null) {
-        			this.fileData = new RandomAccessFile(file, "rw"); //$NON-NLS-1$
-        		}
-            }
-        	return this.fileData;
+        	}
+        	if (this.fileData != null && !this.fileData.getChannel().isOpen()) {
+        		//the channel may be closed by the interrupt of another user
+        		closeQuietly(this.fileData);
+        		this.fileData = null;
+        	}
+    		if (this.fileData == null) {
+    			this.fileData = new RandomAccessFile(file, "rw"); //$NON-NLS-1$
+    		}
+        	useCount++;
+        	return this.fileData.getChannel();
         }
 
-        public void close() {
+        public synchronized void close() {
+        	if (--useCount > 0 || this.fileData == null) {
+        		return;
+        	}
         	fileCache.put(this.file, this.fileData);
             this.fileData = null;
         }
         
-        public void delete()  {
+        public synchronized void delete()  {
         	if (fileData == null) {
         		fileData = fileCache.remove(this.file);
         	}
         	if (fileData != null) {
-        		try {
-        			fileData.close();
-				} catch (IOException e) {
-				}
+        		closeQuietly(fileData);
+        		fileData = null;
         	}
         	file.delete();
         }
@@ -94,9 +110,15 @@ public class FileStorageManager implements StorageManager {
         }
     }
 	
+	/**
+	 * A {@link FileStore} that uses positional {@link FileChannel} reads and writes, so that
+	 * concurrent access does not contend on a shared file pointer.  Only the length accounting 
+	 * is synchronized.
+	 */
 	public class DiskStore extends FileStore {
 	    private String name;
-		private FileInfo fileInfo; 
+		private volatile FileInfo fileInfo;
+		private long length;
 	    
 	    public DiskStore(String name) {
 			this.name = name;
@@ -104,62 +126,76 @@ public class FileStorageManager implements StorageManager {
 	    
 	    @Override
 	    public synchronized long getLength() {
-	    	if (fileInfo == null) {
-	    		return 0;
-	    	}
-	    	return fileInfo.file.length();
+	    	return length;
 	    }
 	    
 	    @Override
-	    protected synchronized int readWrite(long fileOffset, byte[] b, int offSet,
+	    protected int readWrite(long fileOffset, byte[] b, int offSet,
 	    		int length, boolean write) throws IOException {
+	    	FileInfo info = fileInfo;
 	    	if (!write) {
-	    		if (fileInfo == null) {
+	    		if (info == null) {
 	    			return -1;
 	    		}
-				try {
-					RandomAccessFile fileAccess = fileInfo.open();
-			        fileAccess.seek(fileOffset);
-			        return fileAccess.read(b, offSet, length);
-				} finally {
-					fileInfo.close();
-				}
+	    		return positionalReadWrite(info, fileOffset, b, offSet, length, false);
 	    	}
-			if (fileInfo == null) {
-				fileInfo = new FileInfo(createFile(name));
-	        }
-			long bytesUsed = 0;
-	        try {
-	        	RandomAccessFile fileAccess = fileInfo.open();
-	            long newLength = fileOffset + length;
-	            bytesUsed = newLength - fileAccess.length();
-	            if (bytesUsed > 0) {
+	    	long newLength = fileOffset + length;
+	    	synchronized (this) {
+	    		if (fileInfo == null) {
+	    			fileInfo = new FileInfo(createFile(name));
+	    		}
+	    		info = fileInfo;
+	    		long bytesUsed = newLength - this.length;
+	    		if (bytesUsed > 0) {
 		    		long used = usedBufferSpace.addAndGet(bytesUsed);
 					if (used > maxBufferSpace) {
+						usedBufferSpace.addAndGet(-bytesUsed);
 						//TODO: trigger a compaction before this is thrown
 						throw new IOException(QueryPlugin.Util.getString("FileStoreageManager.space_exhausted", maxBufferSpace)); //$NON-NLS-1$
 					}
-	            	fileAccess.setLength(newLength);
-	            	bytesUsed = 0;
-	            }
-	            fileAccess.seek(fileOffset);
-	            fileAccess.write(b, offSet, length);
-	        } finally {
-	        	if (bytesUsed > 0) {
-	        		usedBufferSpace.addAndGet(-bytesUsed);
-	        	}
-	        	fileInfo.close();
-	        }	    		
-	    	return length;
+					this.length = newLength;
+	    		}
+			}
+	    	return positionalReadWrite(info, fileOffset, b, offSet, length, true);
 	    }
+
+		private int positionalReadWrite(FileInfo info, long fileOffset, byte[] b,
+				int offSet, int length, boolean write) throws IOException {
+			for (int attempt = 0;; attempt++) {
+				FileChannel channel = info.open();
+		    	try {
+		    		ByteBuffer buffer = ByteBuffer.wrap(b, offSet, length);
+		    		if (write) {
+		    			return channel.write(buffer, fileOffset);
+		    		}
+		    		return channel.read(buffer, fileOffset);
+		    	} catch (ClosedByInterruptException e) {
+		    		throw e;
+		    	} catch (ClosedChannelException e) {
+		    		//closed by the interrupt of another user, retry with a new channel
+		    		if (attempt > 0) {
+		    			throw e;
+		    		}
+		    	} finally {
+		    		info.close();
+		    	}
+			}
+		}
 	    
 	    @Override
 	    public synchronized void setLength(long length) throws IOException {
 	    	if (fileInfo == null) {
 				fileInfo = new FileInfo(createFile(name));
 	        }
+	    	FileChannel channel = fileInfo.open();
 	    	try {
-	    		fileInfo.open().setLength(length);
+	    		if (length < channel.size()) {
+	    			channel.truncate(length);
+	    		} else if (length > channel.size()) {
+	    			//extend the file in the same way as RandomAccessFile.setLength
+	    			channel.write(ByteBuffer.allocate(1), length - 1);
+	    		}
+	    		this.length = length;
 	    	} finally {
 	    		fileInfo.close();
 	    	}
@@ -167,7 +203,7 @@ public class FileStorageManager implements StorageManager {
 		
 	    @Override
 		public synchronized void removeDirect() {
-			usedBufferSpace.addAndGet(-getLength());
+			usedBufferSpace.addAndGet(-length);
 			if (fileInfo != null){
 				fileInfo.delete();
 			}
@@ -189,16 +225,20 @@ public class FileStorageManager implements StorageManager {
     	protected boolean removeEldestEntry(
     			java.util.Map.Entry<File, RandomAccessFile> eldest) {
     		if (this.size() > maxOpenFiles) {
-    			try {
-					eldest.getValue().close();
-				} catch (IOException e) {
-				}
+    			closeQuietly(eldest.getValue());
     			return true;
     		}
     		return false;
     	}
     });
     
+    private static void closeQuietly(RandomAccessFile file) {
+    	try {
+    		file.close();
+		} catch (IOException e) {
+		}
+    }
+    
     /**
      * Initialize
      */
@@ -23,7 +23,10 @@
 package org.teiid.dqp.internal.datamgr;
 
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 import javax.naming.InitialContext;
@@ -32,6 +35,7 @@ import org.teiid.core.TeiidComponentException;
 import org.teiid.core.util.Assertion;
 import org.teiid.dqp.message.AtomicRequestID;
 import org.teiid.dqp.message.AtomicRequestMessage;
+import org.teiid.dqp.message.RequestID;
 import org.teiid.logging.CommandLogMessage;
 import org.teiid.logging.LogConstants;
 import org.teiid.logging.LogManager;
@@ -66,6 +70,16 @@ public class ConnectorManager  {
 	private volatile boolean stopped;
 	private ExecutionFactory<Object, Object> executionFactory;
 	
+	// execution limits - guarded by this
+	private int activeExecutions;
+	private LinkedList<ConnectorWorkItem> queuedExecutions = new LinkedList<ConnectorWorkItem>();
+	private long dequeuedCount;
+	private long rejectedCount;
+	private long timedOutCount;
+	private Map<RequestID, Integer> requestPermits = new HashMap<RequestID, Integer>();
+	private long totalQueueTime;
+	private long maxQueueTime;
+	
     public ConnectorManager(String translatorName, String connectionName) {
     	this.translatorName = translatorName;
     	this.connectionName = connectionName;
@@ -139,6 +153,147 @@ public class ConnectorManager  {
         return requestStates.size();
     }
     
+    /**
+     * Obtain an execution permit for the given work item.  If the max concurrent executions
+     * have been reached the item will be queued and will be notified via data available
+     * when the permit has been granted.
+     * @return true if the item holds a permit, false if it is queued
+     * @throws TranslatorException if the queue is full
+     */
+    synchronized boolean acquireExecution(ConnectorWorkItem item) throws TranslatorException {
+    	if (item.hasExecutionPermit()) {
+    		return true;
+    	}
+    	int maxActive = getExecutionFactory().getMaxConcurrentExecutions();
+    	if (item.getQueueStart() >= 0) {
+    		long timeout = getExecutionFactory().getExecutionQueueTimeout();
+    		if (timeout > 0 && System.currentTimeMillis() - item.getQueueStart() >= timeout) {
+    			removeQueued(item);
+    			timedOutCount++;
+    			throw new TranslatorException(QueryPlugin.Event.TEIID31129, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID31129, this.translatorName, this.connectionName, timeout, activeExecutions));
+    		}
+    		return false;
+    	}
+    	RequestID requestId = item.getId().getRequestID();
+    	Integer held = requestPermits.get(requestId);
+    	//a request that already holds a permit does not wait, otherwise it could deadlock with itself or other requests 
+    	if (maxActive < 1 || held != null || (activeExecutions < maxActive && queuedExecutions.isEmpty())) {
+    		grantExecution(item);
+    		return true;
+    	}
+    	int maxQueued = getExecutionFactory().getMaxQueuedExecutions();
+    	if (maxQueued >= 0 && queuedExecutions.size() >= maxQueued) {
+    		rejectedCount++;
+    		throw new TranslatorException(QueryPlugin.Event.TEIID31128, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID31128, this.translatorName, this.connectionName, maxActive, queuedExecutions.size()));
+    	}
+    	item.setQueueStart(System.currentTimeMillis());
+    	queuedExecutions.add(item);
+    	return false;
+    }
+    
+    /**
+     * Release the permit or queue position held by the given work item.
+     */
+    void releaseExecution(ConnectorWorkItem item) {
+    	ConnectorWorkItem next = null;
+    	synchronized (this) {
+    		if (!item.hasExecutionPermit()) {
+    			removeQueued(item);
+    			return;
+    		}
+    		item.setExecutionPermit(false);
+    		activeExecutions--;
+    		RequestID requestId = item.getId().getRequestID();
+    		Integer held = requestPermits.remove(requestId);
+    		if (held != null && held > 1) {
+    			requestPermits.put(requestId, held - 1);
+    		}
+    		int maxActive = getExecutionFactory().getMaxConcurrentExecutions();
+    		if (queuedExecutions.isEmpty() || (maxActive >= 1 && activeExecutions >= maxActive)) {
+    			return;
+    		}
+			next = queuedExecutions.removeFirst();
+			long queueTime = System.currentTimeMillis() - next.getQueueStart();
+			next.setQueueStart(-1);
+			grantExecution(next);
+			dequeuedCount++;
+			totalQueueTime += queueTime;
+			maxQueueTime = Math.max(queueTime, maxQueueTime);
+			LogManager.logDetail(LogConstants.CTX_CONNECTOR, new Object[] {next.getId(), "Granted execution after waiting", queueTime, "ms"}); //$NON-NLS-1$ //$NON-NLS-2$
+    	}
+    	next.executionPermitted();
+    }
+    
+    private void grantExecution(ConnectorWorkItem item) {
+    	item.setExecutionPermit(true);
+    	activeExecutions++;
+    	RequestID requestId = item.getId().getRequestID();
+    	Integer held = requestPermits.get(requestId);
+    	requestPermits.put(requestId, held == null?1:held + 1);
+    }
+    
+    /**
+     * Remove the item from the execution queue
+     * @return true if the item was queued
+     */
+    synchronized boolean removeQueued(ConnectorWorkItem item) {
+    	if (item.getQueueStart() < 0) {
+    		return false;
+    	}
+    	item.setQueueStart(-1);
+    	return queuedExecutions.remove(item);
+    }
+    
+    public synchronized int getActiveExecutionCount() {
+		return activeExecutions;
+	}
+    
+    public synchronized int getQueuedExecutionCount() {
+		return queuedExecutions.size();
+	}
+    
+    /**
+     * @return the number of executions that were granted after waiting in the queue
+     */
+    public synchronized long getDequeuedExecutionCount() {
+		return dequeuedCount;
+	}
+    
+    /**
+     * @return the number of executions that failed because the queue was full 
+     */
+    public synchronized long getRejectedExecutionCount() {
+		return rejectedCount;
+	}
+    
+    /**
+     * @return the number of executions that failed because they waited longer than the execution queue timeout
+     */
+    public synchronized long getTimedOutExecutionCount() {
+		return timedOutCount;
+	}
+    
+    /**
+     * @return the total time in milliseconds spent waiting by dequeued executions
+     */
+    public synchronized long getTotalQueueTime() {
+		return totalQueueTime;
+	}
+    
+    public synchronized long getMaxQueueTime() {
+		return maxQueueTime;
+	}
+    
+    /**
+     * Log the execution queue statistics if any execution had to wait
+     */
+    synchronized void logQueueStatistics() {
+    	if (dequeuedCount == 0 && rejectedCount == 0 && timedOutCount == 0) {
+    		return;
+    	}
+    	LogManager.logInfo(LogConstants.CTX_CONNECTOR, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID31130, this.translatorName, this.connectionName, dequeuedCount, totalQueueTime, maxQueueTime, rejectedCount, timedOutCount));
+    }
+    
     /**
      * initialize this <code>ConnectorManager</code>.
      * @throws TranslatorException 
@@ -152,6 +307,7 @@ public class ConnectorManager  {
      */
     public void stop() {    
     	stopped = true;
+    	logQueueStatistics();
         //ensure that all requests receive a response
         for (ConnectorWork workItem : this.requestStates.values()) {
     		workItem.cancel();
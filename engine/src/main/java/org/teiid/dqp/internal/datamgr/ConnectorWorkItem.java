@@ -77,6 +77,10 @@ public class ConnectorWorkItem implements ConnectorWork {
 	private org.teiid.language.Command translatedCommand;
 	
 	private DataNotAvailableException dnae;
+	
+	/* Execution limit state - guarded by the manager */
+	private boolean executionPermit;
+	private long queueStart = -1;
     
     ConnectorWorkItem(AtomicRequestMessage message, ConnectorManager manager) throws TeiidComponentException {
         this.id = message.getAtomicRequestID();
@@ -119,6 +123,10 @@ public class ConnectorWorkItem implements ConnectorWork {
             LogManager.logDetail(LogConstants.CTX_CONNECTOR, new Object[] {this.id, "Processing CANCEL request"}); //$NON-NLS-1$
             if (this.isCancelled.compareAndSet(false, true)) {
                 this.manager.logSRCCommand(this.requestMsg, this.securityContext, Event.CANCEL, -1);
+                if (this.manager.removeQueued(this)) {
+                	//wake the request so that the cancel is seen
+                	this.securityContext.dataAvailable();
+                }
     	        if(execution != null) {
     	            execution.cancel();
     	        }            
@@ -149,6 +157,7 @@ public class ConnectorWorkItem implements ConnectorWork {
     	if (!manager.removeState(this.id)) {
     		return; //already closed
     	}
+    	manager.releaseExecution(this);
     	LogManager.logDetail(LogConstants.CTX_CONNECTOR, new Object[] {this.id, "Processing Close :", this.requestMsg.getCommand()}); //$NON-NLS-1$
     	if (!error) {
             manager.logSRCCommand(this.requestMsg, this.securityContext, Event.END, this.rowCount);
@@ -204,6 +213,15 @@ public class ConnectorWorkItem implements ConnectorWork {
     		 throw new TranslatorException(QueryPlugin.Event.TEIID30476, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID30476));
     	}
     	try {
+    		if (!this.manager.acquireExecution(this)) {
+    			LogManager.logDetail(LogConstants.CTX_CONNECTOR, new Object[] {this.id, "Waiting for an available execution"}); //$NON-NLS-1$
+    			long timeout = this.connector.getExecutionQueueTimeout();
+    			if (timeout > 0) {
+    				//poll so that the timeout is enforced
+    				throw new DataNotAvailableException(Math.max(1, this.queueStart + timeout - System.currentTimeMillis()));
+    			}
+    			throw DataNotAvailableException.NO_POLLING;
+    		}
 	        if (this.execution == null) {
 	        	if (this.connection == null) {
 		        	LogManager.logDetail(LogConstants.CTX_CONNECTOR, new Object[] {this.requestMsg.getAtomicRequestID(), "Processing NEW request:", this.requestMsg.getCommand()}); //$NON-NLS-1$                                     
@@ -352,6 +370,8 @@ public class ConnectorWorkItem implements ConnectorWork {
     	}
                 
         if (lastBatch) {
+        	//the source is no longer being read, so allow other executions
+        	manager.releaseExecution(this);
         	if (this.procedureBatchHandler != null) {
         		List<?> row = this.procedureBatchHandler.getParameterRow();
         		if (row != null) {
@@ -421,6 +441,29 @@ public class ConnectorWorkItem implements ConnectorWork {
 		return cd;
 	}
 
+	boolean hasExecutionPermit() {
+		return executionPermit;
+	}
+	
+	void setExecutionPermit(boolean executionPermit) {
+		this.executionPermit = executionPermit;
+	}
+	
+	long getQueueStart() {
+		return queueStart;
+	}
+	
+	void setQueueStart(long queueStart) {
+		this.queueStart = queueStart;
+	}
+	
+	/**
+	 * Called by the manager when a queued execution has been granted a permit
+	 */
+	void executionPermitted() {
+		this.securityContext.dataAvailable();
+	}
+	
 	@Override
 	public boolean isForkable() {
 		return this.connector.isForkable();
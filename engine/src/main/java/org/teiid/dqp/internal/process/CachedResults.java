@@ -23,14 +23,18 @@
 package org.teiid.dqp.internal.process;
 
 import java.io.Serializable;
+import java.util.List;
 
 import org.teiid.api.exception.query.QueryParserException;
 import org.teiid.api.exception.query.QueryResolverException;
 import org.teiid.cache.Cachable;
+import org.teiid.common.buffer.TupleBatch;
 import org.teiid.common.buffer.TupleBuffer;
 import org.teiid.common.buffer.TupleBufferCache;
+import org.teiid.common.buffer.impl.SizeUtility;
 import org.teiid.core.TeiidComponentException;
 import org.teiid.core.TeiidException;
+import org.teiid.core.types.DataTypeManager;
 import org.teiid.core.util.Assertion;
 import org.teiid.logging.LogConstants;
 import org.teiid.logging.LogManager;
@@ -41,6 +45,7 @@ import org.teiid.query.parser.QueryParser;
 import org.teiid.query.processor.ProcessorPlan;
 import org.teiid.query.resolver.QueryResolver;
 import org.teiid.query.sql.lang.Command;
+import org.teiid.query.sql.symbol.Expression;
 
 
 public class CachedResults implements Serializable, Cachable {
@@ -52,6 +57,8 @@ public class CachedResults implements Serializable, Cachable {
 	private String uuid;
 	private boolean hasLobs;
 	private int rowLimit;
+	private long sizeEstimate;
+	private long computeTime;
 	
 	private AccessInfo accessInfo = new AccessInfo();
 	
@@ -67,11 +74,43 @@ public class CachedResults implements Serializable, Cachable {
 		this.results = results;
 		this.uuid = results.getId();
 		this.hasLobs = results.isLobs();
+		this.sizeEstimate = estimateSize(results);
 		if (plan != null) {
 			this.accessInfo.populate(plan.getContext(), true);
 		}
 	}
 	
+	/**
+	 * Estimate the memory footprint of the results by sizing the first batch
+	 * and scaling by the row count.
+	 */
+	static long estimateSize(TupleBuffer results) {
+		List<? extends Expression> schema = results.getSchema();
+		int rowCount = results.getRowCount();
+		//account for the entry itself even if there are no rows
+		long minSize = 64 + 8 * schema.size();
+		if (rowCount == 0) {
+			return minSize;
+		}
+		Class<?>[] types = new Class<?>[schema.size()];
+		for (int i = 0; i < types.length; i++) {
+			types[i] = schema.get(i).getType();
+		}
+		if (!results.isForwardOnly()) {
+			try {
+				TupleBatch batch = results.getBatch(1);
+				List<List<?>> tuples = batch.getTuples();
+				if (!tuples.isEmpty()) {
+					long batchSize = new SizeUtility(types).getBatchSize(DataTypeManager.isValueCacheEnabled(), tuples);
+					return Math.max(minSize, (long)((double)batchSize / tuples.size() * rowCount));
+				}
+			} catch (TeiidComponentException e) {
+				LogManager.logDetail(LogConstants.CTX_DQP, e, "Could not sample the results for a size estimate", results.getId()); //$NON-NLS-1$
+			}
+		}
+		return minSize + (long)rowCount * types.length * 32;
+	}
+	
 	public void setCommand(Command command) {
 		this.command = command;
 	}
@@ -125,4 +164,22 @@ public class CachedResults implements Serializable, Cachable {
 		this.rowLimit = rowLimit;
 	}
 	
+	/**
+	 * @return the estimated size in bytes of the results
+	 */
+	public long getSizeEstimate() {
+		return sizeEstimate;
+	}
+	
+	/**
+	 * @return the time in milliseconds that was spent producing the results
+	 */
+	public long getComputeTime() {
+		return computeTime;
+	}
+	
+	public void setComputeTime(long computeTime) {
+		this.computeTime = computeTime;
+	}
+	
 }
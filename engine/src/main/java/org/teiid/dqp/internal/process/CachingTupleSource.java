@@ -51,6 +51,7 @@ final class CachingTupleSource extends
 	private final CacheDirective cd;
 	private final Collection<GroupSymbol> accessedGroups;
 	DataTierTupleSource dtts;
+	private long startTime = System.currentTimeMillis();
 
 	CachingTupleSource(DataTierManagerImpl dataTierManagerImpl, TupleBuffer tb, DataTierTupleSource ts, CacheID cid,
 			RegisterRequestParameter parameterObject, CacheDirective cd,
@@ -81,6 +82,7 @@ final class CachingTupleSource extends
 				}
 				CachedResults cr = new CachedResults();
 		        cr.setResults(tb, null);
+		        cr.setComputeTime(System.currentTimeMillis() - startTime);
 		        if (!Boolean.FALSE.equals(cd.getUpdatable())) {
 		        	if (accessedGroups != null) {
 			        	for (GroupSymbol gs : accessedGroups) {
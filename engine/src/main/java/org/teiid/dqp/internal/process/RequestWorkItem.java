@@ -550,6 +550,7 @@ public class RequestWorkItem extends AbstractWorkItem implements PrioritizedRunn
         	request.processor.getContext().setDataObjects(new HashSet<Object>(4));
         }
 		processor = request.processor;
+		processor.getContext().setWorkItem(this);
 		this.dqpCore.logMMCommand(this, Event.PLAN, null);
 		collector = new BatchCollector(processor, processor.getBufferManager(), this.request.context, isForwardOnly()) {
 			protected void flushBatchDirect(TupleBatch batch, boolean add) throws TeiidComponentException,TeiidProcessingException {
@@ -639,6 +640,7 @@ public class RequestWorkItem extends AbstractWorkItem implements PrioritizedRunn
     	CachedResults cr = new CachedResults();
     	cr.setCommand(originalCommand);
         cr.setResults(resultsBuffer, processor.getProcessorPlan());
+        cr.setComputeTime(System.currentTimeMillis() - processingTimestamp);
         if (requestMsg.getRowLimit() > 0 && resultsBuffer.getRowCount() == requestMsg.getRowLimit()) {
         	cr.setRowLimit(resultsBuffer.getRowCount());
         }
@@ -25,18 +25,26 @@ package org.teiid.dqp.internal.process;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.teiid.adminapi.Admin;
 import org.teiid.cache.Cachable;
 import org.teiid.cache.Cache;
 import org.teiid.cache.CacheFactory;
 import org.teiid.common.buffer.TupleBufferCache;
+import org.teiid.core.TeiidRuntimeException;
 import org.teiid.core.util.Assertion;
 import org.teiid.core.util.EquivalenceUtil;
 import org.teiid.core.util.HashCodeUtil;
+import org.teiid.core.util.PropertiesUtils;
 import org.teiid.logging.LogConstants;
 import org.teiid.logging.LogManager;
 import org.teiid.metadata.FunctionMethod.Determinism;
@@ -67,6 +75,78 @@ public class SessionAwareCache<T> {
 	
 	private TupleBufferCache bufferManager;
 	
+	/**
+	 * Per vdb hit statistics
+	 */
+	public static class Statistics {
+		private AtomicInteger requestCount = new AtomicInteger();
+		private AtomicInteger hitCount = new AtomicInteger();
+		private AtomicLong bytesSaved = new AtomicLong();
+		private AtomicLong timeSaved = new AtomicLong();
+		
+		public int getRequestCount() {
+			return requestCount.get();
+		}
+		
+		public int getHitCount() {
+			return hitCount.get();
+		}
+		
+		/**
+		 * @return the estimated bytes of results served from the cache
+		 */
+		public long getBytesSaved() {
+			return bytesSaved.get();
+		}
+		
+		/**
+		 * @return the estimated milliseconds of processing avoided by cache hits
+		 */
+		public long getTimeSaved() {
+			return timeSaved.get();
+		}
+	}
+	
+	/**
+	 * A tracked result set entry.  The priority is the GreedyDual-Size value
+	 * L + cost/size, where L is the priority of the last evicted entry.
+	 */
+	private static class CostEntry implements Comparable<CostEntry> {
+		final CacheID id;
+		final boolean local;
+		final long size;
+		final long cost;
+		double priority;
+		long order;
+		
+		CostEntry(CacheID id, boolean local, long size, long cost) {
+			this.id = id;
+			this.local = local;
+			this.size = Math.max(1, size);
+			this.cost = Math.max(1, cost);
+		}
+		
+		@Override
+		public int compareTo(CostEntry o) {
+			int result = Double.compare(priority, o.priority);
+			if (result != 0) {
+				return result;
+			}
+			return order < o.order?-1:(order > o.order?1:0);
+		}
+	}
+	
+	private ConcurrentHashMap<VDBKey, Statistics> vdbStatistics = new ConcurrentHashMap<VDBKey, Statistics>();
+	
+	private long maxSizeBytes = PropertiesUtils.getLongProperty(System.getProperties(), "org.teiid.resultSetCacheMaxBytes", -1); //$NON-NLS-1$
+	private int maxEntries = PropertiesUtils.getIntProperty(System.getProperties(), "org.teiid.resultSetCacheMaxEntries", -1); //$NON-NLS-1$
+	private Map<CacheID, CostEntry> costEntries = new HashMap<CacheID, CostEntry>();
+	private TreeSet<CostEntry> evictionQueue = new TreeSet<CostEntry>();
+	private double inflation;
+	private long totalSize;
+	private long order;
+	private AtomicInteger evictions = new AtomicInteger();
+	
 	public SessionAwareCache (String cacheName, final CacheFactory cacheFactory, final Type type, int maxStaleness) {
 		assert (cacheFactory != null);
 		
@@ -91,17 +171,22 @@ public class SessionAwareCache<T> {
 	public T get(CacheID id){
 
 		this.totalRequests.getAndIncrement();
+		Statistics stats = getStatistics(id.getVDBKey());
+		stats.requestCount.getAndIncrement();
 		
 		id.setSessionId(id.originalSessionId);
 		T result = localCache.get(id);
 		
 		if (result == null) {
+			//the entry may have been expired or evicted by the underlying cache
+			untrack(id);
 			id.setSessionId(null);
 			
 			id.setUserName(id.originalUserName);
 			result = distributedCache.get(id);
 			
 			if (result == null) {
+				untrack(id);
 				id.setUserName(null);
 				result = distributedCache.get(id);
 			}
@@ -112,6 +197,9 @@ public class SessionAwareCache<T> {
 					result = null;
 				}
 			}
+			if (result == null) {
+				untrack(id);
+			}
 		}
 		
 		if (result != null) {
@@ -125,11 +213,19 @@ public class SessionAwareCache<T> {
 					} else {
 						this.localCache.remove(id);
 					}
+					untrack(id);
 					return null;
 				}
 			}
 			LogManager.logTrace(LogConstants.CTX_DQP, "Cache hit for", id); //$NON-NLS-1$
 			cacheHit.getAndIncrement();
+			stats.hitCount.getAndIncrement();
+			if (result instanceof CachedResults) {
+				CachedResults cr = (CachedResults)result;
+				stats.bytesSaved.addAndGet(cr.getSizeEstimate());
+				stats.timeSaved.addAndGet(cr.getComputeTime());
+				touch(id);
+			}
 		} else {
 			LogManager.logTrace(LogConstants.CTX_DQP, "Cache miss for", id); //$NON-NLS-1$
 		}
@@ -148,6 +244,34 @@ public class SessionAwareCache<T> {
 		return cachePuts.get();
 	}
 	
+	/**
+	 * @return the number of entries removed to stay within the size or entry limits
+	 */
+	public int getEvictionCount() {
+		return evictions.get();
+	}
+	
+	/**
+	 * @return the estimated size in bytes of the tracked result set entries
+	 */
+	public long getTotalSizeEstimate() {
+		synchronized (costEntries) {
+			return totalSize;
+		}
+	}
+	
+	public Statistics getStatistics(VDBKey vdbKey) {
+		Statistics stats = vdbStatistics.get(vdbKey);
+		if (stats == null) {
+			stats = new Statistics();
+			Statistics existing = vdbStatistics.putIfAbsent(vdbKey, stats);
+			if (existing != null) {
+				stats = existing;
+			}
+		}
+		return stats;
+	}
+	
 	public int getTotalCacheEntries() {
 		if (this.localCache == this.distributedCache) {
 			return this.localCache.size();
@@ -161,6 +285,7 @@ public class SessionAwareCache<T> {
 			id.setSessionId(id.originalSessionId);
 			LogManager.logTrace(LogConstants.CTX_DQP, "Adding to session/local cache", id); //$NON-NLS-1$
 			this.localCache.put(id, t, ttl);
+			track(id, t, true);
 		} 
 		else {
 			
@@ -183,10 +308,130 @@ public class SessionAwareCache<T> {
 			if (insert) {
 				LogManager.logTrace(LogConstants.CTX_DQP, "Adding to global/distributed cache", id); //$NON-NLS-1$
 				this.distributedCache.put(id, t, ttl);
+				track(id, t, false);
 			}
 		}
 	}
 	
+	private boolean isTracking() {
+		return this.type == Type.RESULTSET && (this.maxSizeBytes > 0 || this.maxEntries > 0);
+	}
+	
+	/**
+	 * Track a result set entry and evict by GreedyDual-Size until
+	 * the size and entry limits are satisfied.  Entries that are cheap to recompute
+	 * relative to their size are evicted first.
+	 */
+	private void track(CacheID id, T t, boolean local) {
+		if (!isTracking() || !(t instanceof CachedResults)) {
+			return;
+		}
+		CachedResults cr = (CachedResults)t;
+		CacheID key = id.clone();
+		List<CostEntry> toEvict = null;
+		synchronized (costEntries) {
+			removeEntry(key);
+			CostEntry entry = new CostEntry(key, local, cr.getSizeEstimate(), cr.getComputeTime());
+			entry.priority = inflation + (double)entry.cost/entry.size;
+			entry.order = order++;
+			costEntries.put(key, entry);
+			evictionQueue.add(entry);
+			totalSize += entry.size;
+			if (isOverLimit()) {
+				removeStaleEntries();
+			}
+			while (!evictionQueue.isEmpty() && isOverLimit()) {
+				CostEntry victim = evictionQueue.pollFirst();
+				costEntries.remove(victim.id);
+				totalSize -= victim.size;
+				inflation = victim.priority;
+				if (toEvict == null) {
+					toEvict = new ArrayList<CostEntry>(2);
+				}
+				toEvict.add(victim);
+			}
+		}
+		if (toEvict != null) {
+			for (CostEntry victim : toEvict) {
+				LogManager.logTrace(LogConstants.CTX_DQP, "Evicting cache entry", victim.id); //$NON-NLS-1$
+				if (victim.local) {
+					this.localCache.remove(victim.id);
+				} else {
+					this.distributedCache.remove(victim.id);
+				}
+				evictions.getAndIncrement();
+			}
+		}
+	}
+	
+	private boolean isOverLimit() {
+		return (maxSizeBytes > 0 && totalSize > maxSizeBytes) || (maxEntries > 0 && costEntries.size() > maxEntries);
+	}
+	
+	/**
+	 * Stop tracking the entries that the underlying caches have already expired or evicted, 
+	 * so that they do not count against the limits
+	 */
+	private void removeStaleEntries() {
+		Set<CacheID> localKeys = null;
+		Set<CacheID> distributedKeys = null;
+		for (Iterator<CostEntry> iter = costEntries.values().iterator(); iter.hasNext();) {
+			CostEntry entry = iter.next();
+			Set<CacheID> keys = null;
+			if (entry.local) {
+				if (localKeys == null) {
+					localKeys = this.localCache.keySet();
+				}
+				keys = localKeys;
+			} else {
+				if (distributedKeys == null) {
+					distributedKeys = this.distributedCache.keySet();
+				}
+				keys = distributedKeys;
+			}
+			if (!keys.contains(entry.id)) {
+				iter.remove();
+				evictionQueue.remove(entry);
+				totalSize -= entry.size;
+			}
+		}
+	}
+	
+	/**
+	 * Restore the priority of an entry on a hit
+	 */
+	private void touch(CacheID id) {
+		if (!isTracking()) {
+			return;
+		}
+		synchronized (costEntries) {
+			CostEntry entry = costEntries.get(id);
+			if (entry != null) {
+				evictionQueue.remove(entry);
+				entry.priority = inflation + (double)entry.cost/entry.size;
+				entry.order = order++;
+				evictionQueue.add(entry);
+			}
+		}
+	}
+	
+	private void untrack(CacheID id) {
+		if (!isTracking()) {
+			return;
+		}
+		synchronized (costEntries) {
+			removeEntry(id);
+		}
+	}
+
+	private void removeEntry(CacheID id) {
+		CostEntry old = costEntries.remove(id);
+		if (old != null) {
+			evictionQueue.remove(old);
+			totalSize -= old.size;
+		}
+	}
+	
 	/**
 	 * Clear all the cached plans for all the clientConns
 	 * @param clientConn ClientConnection
@@ -197,11 +442,31 @@ public class SessionAwareCache<T> {
 		this.totalRequests.set(0);
 		this.cacheHit.set(0);
 		this.cachePuts.set(0);
+		this.evictions.set(0);
+		this.vdbStatistics.clear();
+		synchronized (costEntries) {
+			this.costEntries.clear();
+			this.evictionQueue.clear();
+			this.totalSize = 0;
+			this.inflation = 0;
+		}
 	}	
 	
 	public void clearForVDB(String vdbName, int version) {
 		clearCache(this.localCache, vdbName, version);
 		clearCache(this.distributedCache, vdbName, version);
+		VDBKey vdbKey = new VDBKey(vdbName, version);
+		this.vdbStatistics.remove(vdbKey);
+		synchronized (costEntries) {
+			for (Iterator<CostEntry> iter = evictionQueue.iterator(); iter.hasNext();) {
+				CostEntry entry = iter.next();
+				if (entry.id.vdbInfo.equals(vdbKey)) {
+					iter.remove();
+					costEntries.remove(entry.id);
+					totalSize -= entry.size;
+				}
+			}
+		}
 	}
 	
 	private void clearCache(Cache<CacheID, T> cache, String vdbName, int version) {
@@ -214,7 +479,7 @@ public class SessionAwareCache<T> {
 		}
 	}
 	
-	public static class CacheID implements Serializable {
+	public static class CacheID implements Serializable, Cloneable {
 		private static final long serialVersionUID = 8261905111156764744L;
 		private String sql;
 		private VDBKey vdbInfo;
@@ -304,6 +569,15 @@ public class SessionAwareCache<T> {
 	    	return "Cache Entry<" + originalSessionId + "="+ originalUserName + "> params:" + parameters + " sql:" + sql; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
 	    }
 	    
+	    @Override
+	    public CacheID clone() {
+	    	try {
+				return (CacheID)super.clone();
+			} catch (CloneNotSupportedException e) {
+				throw new TeiidRuntimeException(e);
+			}
+	    }
+	    
 	}
 	
     public void setTupleBufferCache(TupleBufferCache bufferManager) {
@@ -314,6 +588,22 @@ public class SessionAwareCache<T> {
 		this.modTime = modTime;
 	}
     
+    /**
+     * Set the estimated size limit in bytes for result set entries.  
+     * A value less than 1 leaves eviction to the underlying cache.
+     */
+    public void setMaxSizeBytes(long maxSizeBytes) {
+		this.maxSizeBytes = maxSizeBytes;
+	}
+    
+    /**
+     * Set the entry limit for result set entries.  
+     * A value less than 1 leaves eviction to the underlying cache.
+     */
+    public void setMaxEntries(int maxEntries) {
+		this.maxEntries = maxEntries;
+	}
+    
     public static Collection<String> getCacheTypes(){
     	ArrayList<String> caches = new ArrayList<String>();
     	caches.add(Admin.Cache.PREPARED_PLAN_CACHE.toString());
@@ -32,6 +32,7 @@ import org.teiid.api.exception.query.QueryMetadataException;
 import org.teiid.core.TeiidComponentException;
 import org.teiid.core.types.DataTypeManager;
 import org.teiid.core.util.StringUtil;
+import org.teiid.metadata.ColumnStats;
 import org.teiid.query.metadata.BasicQueryMetadataWrapper;
 import org.teiid.query.metadata.QueryMetadataInterface;
 import org.teiid.query.metadata.SupportConstants;
@@ -236,6 +237,15 @@ public class MultiSourceMetadataWrapper extends BasicQueryMetadataWrapper {
         
         return actualMetadata.getNullValues(elementID);
     }
+    
+    @Override
+    public ColumnStats getColumnStats(Object elementID) throws TeiidComponentException, QueryMetadataException {
+        if(elementID instanceof MultiSourceElement) {
+            return null;
+        } 
+        
+        return actualMetadata.getColumnStats(elementID);
+    }
 
 	/**
 	 * @see org.teiid.query.metadata.QueryMetadataInterface#getPosition(java.lang.Object)
@@ -541,5 +541,8 @@ public class QueryPlugin { // extends Plugin {
     	TEIID31125, 
     	TEIID31126,
     	TEIID31127,
+    	TEIID31128,
+    	TEIID31129,
+    	TEIID31130,
 	}
 }
@@ -0,0 +1,678 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+
+package org.teiid.query.eval;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.teiid.api.exception.query.ExpressionEvaluationException;
+import org.teiid.common.buffer.BlockedException;
+import org.teiid.core.TeiidComponentException;
+import org.teiid.core.types.DataTypeManager;
+import org.teiid.core.util.EquivalenceUtil;
+import org.teiid.query.QueryPlugin;
+import org.teiid.query.function.FunctionDescriptor;
+import org.teiid.query.function.FunctionLibrary;
+import org.teiid.query.sql.LanguageObject;
+import org.teiid.query.sql.lang.CompareCriteria;
+import org.teiid.query.sql.lang.CompoundCriteria;
+import org.teiid.query.sql.lang.Criteria;
+import org.teiid.query.sql.lang.IsNullCriteria;
+import org.teiid.query.sql.lang.NotCriteria;
+import org.teiid.query.sql.symbol.CaseExpression;
+import org.teiid.query.sql.symbol.Constant;
+import org.teiid.query.sql.symbol.DerivedExpression;
+import org.teiid.query.sql.symbol.Expression;
+import org.teiid.query.sql.symbol.ExpressionSymbol;
+import org.teiid.query.sql.symbol.Function;
+import org.teiid.query.sql.symbol.Reference;
+import org.teiid.query.sql.symbol.SearchedCaseExpression;
+import org.teiid.query.sql.visitor.FunctionCollectorVisitor;
+import org.teiid.query.sql.visitor.ValueIteratorProviderCollectorVisitor;
+
+/**
+ * A pre-resolved form of an {@link Expression} or {@link Criteria} for repeated evaluation
+ * against tuples with the same element positions.
+ * <br/>
+ * Element lookups are resolved to tuple indexes, function descriptors and operators are resolved
+ * once, and the language object type dispatch is replaced with a tree of specialized nodes.
+ * Any construct that is not specialized, such as subqueries or xml functions, is delegated
+ * back to the {@link Evaluator}, which also supplies the runtime state.
+ * <br/>
+ * Expressions may also be evaluated a column at a time and criteria may be applied to a batch with a selection vector,
+ * see {@link #evaluate(Evaluator, List, int[], int)} and {@link #select(Evaluator, List, int[], int)}.  
+ * Nodes without a specialized batch form evaluate row by row.
+ * <br/>
+ * Compiled expressions hold no processing state and may be shared by copies of a plan.
+ */
+public abstract class CompiledExpression {
+
+	/**
+	 * Evaluate the expression against the tuple.  Criteria will return a three valued logic result.
+	 */
+	public abstract Object evaluate(Evaluator evaluator, List<?> tuple)
+	throws ExpressionEvaluationException, BlockedException, TeiidComponentException;
+
+	/**
+	 * Evaluate criteria against the tuple, with unknown treated as false
+	 */
+	public boolean evaluateCriteria(Evaluator evaluator, List<?> tuple)
+	throws ExpressionEvaluationException, BlockedException, TeiidComponentException {
+		return Boolean.TRUE.equals(evaluate(evaluator, tuple));
+	}
+	
+	/**
+	 * Evaluate the expression against the selected rows of the batch.
+	 * @param tuples the batch
+	 * @param selection the indexes of the rows to evaluate
+	 * @param count the number of entries in the selection
+	 * @return the values in selection order
+	 */
+	public Object[] evaluate(Evaluator evaluator, List<? extends List<?>> tuples, int[] selection, int count)
+	throws ExpressionEvaluationException, BlockedException, TeiidComponentException {
+		Object[] result = new Object[count];
+		for (int i = 0; i < count; i++) {
+			result[i] = evaluate(evaluator, tuples.get(selection[i]));
+		}
+		return result;
+	}
+	
+	/**
+	 * Reduce the selected rows of the batch to those for which the criteria is true.
+	 * @param tuples the batch
+	 * @param selection the indexes of the rows to evaluate, which will be updated in place
+	 * @param count the number of entries in the selection
+	 * @return the number of entries remaining in the selection
+	 */
+	public int select(Evaluator evaluator, List<? extends List<?>> tuples, int[] selection, int count)
+	throws ExpressionEvaluationException, BlockedException, TeiidComponentException {
+		int selected = 0;
+		for (int i = 0; i < count; i++) {
+			int row = selection[i];
+			if (evaluateCriteria(evaluator, tuples.get(row))) {
+				selection[selected++] = row;
+			}
+		}
+		return selected;
+	}
+	
+	/**
+	 * Return true if the objects may be evaluated a batch at a time, which requires that 
+	 * evaluation will not block or depend upon per row subquery state.
+	 */
+	public static boolean canEvaluateBatch(Collection<? extends LanguageObject> objects) {
+		if (!ValueIteratorProviderCollectorVisitor.getValueIteratorProviders(objects).isEmpty()) {
+			return false;
+		}
+		for (LanguageObject object : objects) {
+			for (Function function : FunctionCollectorVisitor.getFunctions(object, false)) {
+				if (function.getName().equalsIgnoreCase(FunctionLibrary.LOOKUP)) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Compile the expression with the same error handling as {@link Evaluator#evaluate(Expression, List)}
+	 * @param expression
+	 * @param elements the map of expressions to tuple indexes
+	 */
+	public static CompiledExpression compile(Expression expression, Map<? extends Expression, Integer> elements) {
+		return new RootExpression(expression, compileExpression(expression, elements));
+	}
+
+	/**
+	 * Compile the criteria.
+	 * @param criteria
+	 * @param elements the map of expressions to tuple indexes
+	 */
+	public static CompiledExpression compile(Criteria criteria, Map<? extends Expression, Integer> elements) {
+		return compileCriteria(criteria, elements);
+	}
+
+	static CompiledExpression compileExpression(Expression expression, Map<? extends Expression, Integer> elements) {
+		if (expression instanceof DerivedExpression) {
+			if (elements != null) {
+				Integer index = elements.get(expression);
+				if (index != null) {
+					return new ColumnReference(index);
+				}
+			}
+			if (expression instanceof ExpressionSymbol) {
+				return compileExpression(((ExpressionSymbol)expression).getExpression(), elements);
+			}
+		} else if (expression instanceof Constant) {
+			return new ConstantValue(((Constant)expression).getValue());
+		} else if (expression instanceof Function) {
+			Function function = (Function)expression;
+			FunctionDescriptor fd = function.getFunctionDescriptor();
+			if (fd != null && !function.getName().equalsIgnoreCase(FunctionLibrary.LOOKUP)) {
+				Expression[] args = function.getArgs();
+				CompiledExpression[] compiledArgs = new CompiledExpression[args.length];
+				for (int i = 0; i < args.length; i++) {
+					compiledArgs[i] = compileExpression(args[i], elements);
+				}
+				return new FunctionInvocation(fd, compiledArgs);
+			}
+		} else if (expression instanceof CaseExpression) {
+			CaseExpression expr = (CaseExpression)expression;
+			CompiledExpression[] whens = new CompiledExpression[expr.getWhenCount()];
+			CompiledExpression[] thens = new CompiledExpression[expr.getWhenCount()];
+			for (int i = 0; i < whens.length; i++) {
+				whens[i] = compileExpression(expr.getWhenExpression(i), elements);
+				thens[i] = compileExpression(expr.getThenExpression(i), elements);
+			}
+			CompiledExpression elseExpr = expr.getElseExpression() != null?compileExpression(expr.getElseExpression(), elements):null;
+			return new Case(compileExpression(expr.getExpression(), elements), whens, thens, elseExpr);
+		} else if (expression instanceof SearchedCaseExpression) {
+			SearchedCaseExpression expr = (SearchedCaseExpression)expression;
+			CompiledExpression[] whens = new CompiledExpression[expr.getWhenCount()];
+			CompiledExpression[] thens = new CompiledExpression[expr.getWhenCount()];
+			for (int i = 0; i < whens.length; i++) {
+				whens[i] = compileCriteria(expr.getWhenCriteria(i), elements);
+				thens[i] = compileExpression(expr.getThenExpression(i), elements);
+			}
+			CompiledExpression elseExpr = expr.getElseExpression() != null?compileExpression(expr.getElseExpression(), elements):null;
+			return new Case(null, whens, thens, elseExpr);
+		} else if (expression instanceof Reference) {
+			Reference ref = (Reference)expression;
+			if (ref.getExpression() != null) {
+				return compileExpression(ref.getExpression(), elements);
+			}
+		} else if (expression instanceof Criteria) {
+			return new CriteriaValue(compileCriteria((Criteria)expression, elements));
+		}
+		return new DelegateExpression(expression);
+	}
+
+	static CompiledExpression compileCriteria(Criteria criteria, Map<? extends Expression, Integer> elements) {
+		if (criteria instanceof CompoundCriteria) {
+			CompoundCriteria compound = (CompoundCriteria)criteria;
+			CompiledExpression[] crits = new CompiledExpression[compound.getCriteriaCount()];
+			for (int i = 0; i < crits.length; i++) {
+				crits[i] = compileCriteria(compound.getCriteria(i), elements);
+			}
+			return new Compound(compound.getOperator() == CompoundCriteria.AND, crits);
+		} else if (criteria instanceof NotCriteria) {
+			return new Not(compileCriteria(((NotCriteria)criteria).getCriteria(), elements));
+		} else if (criteria instanceof CompareCriteria) {
+			CompareCriteria compare = (CompareCriteria)criteria;
+			return new Compare(compare, compile(compare.getLeftExpression(), elements), compile(compare.getRightExpression(), elements));
+		} else if (criteria instanceof IsNullCriteria) {
+			IsNullCriteria isNull = (IsNullCriteria)criteria;
+			return new IsNull(isNull, compile(isNull.getExpression(), elements));
+		}
+		return new DelegateCriteria(criteria);
+	}
+
+	private static final class RootExpression extends CompiledExpression {
+		private Expression expression;
+		private CompiledExpression compiled;
+
+		public RootExpression(Expression expression, CompiledExpression compiled) {
+			this.expression = expression;
+			this.compiled = compiled;
+		}
+
+		@Override
+		public Object evaluate(Evaluator evaluator, List<?> tuple)
+				throws ExpressionEvaluationException, BlockedException,
+				TeiidComponentException {
+			try {
+				return compiled.evaluate(evaluator, tuple);
+			} catch (ExpressionEvaluationException e) {
+				throw new ExpressionEvaluationException(QueryPlugin.Event.TEIID30328, e, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID30328, new Object[] {expression, e.getMessage()}));
+			}
+		}
+		
+		@Override
+		public Object[] evaluate(Evaluator evaluator,
+				List<? extends List<?>> tuples, int[] selection, int count)
+				throws ExpressionEvaluationException, BlockedException,
+				TeiidComponentException {
+			try {
+				return compiled.evaluate(evaluator, tuples, selection, count);
+			} catch (ExpressionEvaluationException e) {
+				throw new ExpressionEvaluationException(QueryPlugin.Event.TEIID30328, e, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID30328, new Object[] {expression, e.getMessage()}));
+			}
+		}
+	}
+
+	private static final class ColumnReference extends CompiledExpression {
+		private int index;
+
+		public ColumnReference(int index) {
+			this.index = index;
+		}
+
+		@Override
+		public Object evaluate(Evaluator evaluator, List<?> tuple) {
+			return tuple.get(index);
+		}
+		
+		@Override
+		public Object[] evaluate(Evaluator evaluator,
+				List<? extends List<?>> tuples, int[] selection, int count) {
+			Object[] result = new Object[count];
+			for (int i = 0; i < count; i++) {
+				result[i] = tuples.get(selection[i]).get(index);
+			}
+			return result;
+		}
+	}
+
+	private static final class ConstantValue extends CompiledExpression {
+		private Object value;
+
+		public ConstantValue(Object value) {
+			this.value = value;
+		}
+
+		@Override
+		public Object evaluate(Evaluator evaluator, List<?> tuple) {
+			return value;
+		}
+		
+		@Override
+		public Object[] evaluate(Evaluator evaluator,
+				List<? extends List<?>> tuples, int[] selection, int count) {
+			Object[] result = new Object[count];
+			Arrays.fill(result, value);
+			return result;
+		}
+	}
+
+	private static final class FunctionInvocation extends CompiledExpression {
+		private FunctionDescriptor fd;
+		private CompiledExpression[] args;
+		private int start;
+
+		public FunctionInvocation(FunctionDescriptor fd, CompiledExpression[] args) {
+			this.fd = fd;
+			this.args = args;
+			this.start = fd.requiresContext()?1:0;
+		}
+
+		@Override
+		public Object evaluate(Evaluator evaluator, List<?> tuple)
+				throws ExpressionEvaluationException, BlockedException,
+				TeiidComponentException {
+			Object[] values = new Object[args.length + start];
+			if (start == 1) {
+				values[0] = evaluator.context;
+			}
+			for (int i = 0; i < args.length; i++) {
+				values[i + start] = args[i].evaluate(evaluator, tuple);
+			}
+			fd.checkNotPushdown();
+			return fd.invokeFunction(values, evaluator.context, null);
+		}
+		
+		/**
+		 * Evaluates the arguments a column at a time, then invokes the function per row
+		 */
+		@Override
+		public Object[] evaluate(Evaluator evaluator,
+				List<? extends List<?>> tuples, int[] selection, int count)
+				throws ExpressionEvaluationException, BlockedException,
+				TeiidComponentException {
+			Object[][] argValues = new Object[args.length][];
+			for (int i = 0; i < args.length; i++) {
+				argValues[i] = args[i].evaluate(evaluator, tuples, selection, count);
+			}
+			fd.checkNotPushdown();
+			Object[] result = new Object[count];
+			for (int row = 0; row < count; row++) {
+				Object[] values = new Object[args.length + start];
+				if (start == 1) {
+					values[0] = evaluator.context;
+				}
+				for (int i = 0; i < args.length; i++) {
+					values[i + start] = argValues[i][row];
+				}
+				result[row] = fd.invokeFunction(values, evaluator.context, null);
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * Handles both the simple and searched forms.  The searched form has no expression.
+	 */
+	private static final class Case extends CompiledExpression {
+		private CompiledExpression expression;
+		private CompiledExpression[] whens;
+		private CompiledExpression[] thens;
+		private CompiledExpression elseExpression;
+
+		public Case(CompiledExpression expression, CompiledExpression[] whens,
+				CompiledExpression[] thens, CompiledExpression elseExpression) {
+			this.expression = expression;
+			this.whens = whens;
+			this.thens = thens;
+			this.elseExpression = elseExpression;
+		}
+
+		@Override
+		public Object evaluate(Evaluator evaluator, List<?> tuple)
+				throws ExpressionEvaluationException, BlockedException,
+				TeiidComponentException {
+			if (expression != null) {
+				Object exprVal = expression.evaluate(evaluator, tuple);
+				for (int i = 0; i < whens.length; i++) {
+					if (EquivalenceUtil.areEqual(exprVal, whens[i].evaluate(evaluator, tuple))) {
+						return thens[i].evaluate(evaluator, tuple);
+					}
+				}
+			} else {
+				for (int i = 0; i < whens.length; i++) {
+					if (whens[i].evaluateCriteria(evaluator, tuple)) {
+						return thens[i].evaluate(evaluator, tuple);
+					}
+				}
+			}
+			if (elseExpression != null) {
+				return elseExpression.evaluate(evaluator, tuple);
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * Criteria used as a value are two valued
+	 */
+	private static final class CriteriaValue extends CompiledExpression {
+		private CompiledExpression criteria;
+
+		public CriteriaValue(CompiledExpression criteria) {
+			this.criteria = criteria;
+		}
+
+		@Override
+		public Object evaluate(Evaluator evaluator, List<?> tuple)
+				throws ExpressionEvaluationException, BlockedException,
+				TeiidComponentException {
+			return criteria.evaluateCriteria(evaluator, tuple);
+		}
+	}
+
+	private static final class DelegateExpression extends CompiledExpression {
+		private Expression expression;
+
+		public DelegateExpression(Expression expression) {
+			this.expression = expression;
+		}
+
+		@Override
+		public Object evaluate(Evaluator evaluator, List<?> tuple)
+				throws ExpressionEvaluationException, BlockedException,
+				TeiidComponentException {
+			return evaluator.internalEvaluate(expression, tuple);
+		}
+	}
+
+	private static final class Compound extends CompiledExpression {
+		private boolean and;
+		private CompiledExpression[] crits;
+
+		public Compound(boolean and, CompiledExpression[] crits) {
+			this.and = and;
+			this.crits = crits;
+		}
+
+		@Override
+		public Object evaluate(Evaluator evaluator, List<?> tuple)
+				throws ExpressionEvaluationException, BlockedException,
+				TeiidComponentException {
+			Boolean result = and?Boolean.TRUE:Boolean.FALSE;
+			for (int i = 0; i < crits.length; i++) {
+				Boolean value = (Boolean)crits[i].evaluate(evaluator, tuple);
+				if (value == null) {
+					result = null;
+				} else if (!value.booleanValue()) {
+					if (and) {
+						return Boolean.FALSE;
+					}
+				} else if (!and) {
+					return Boolean.TRUE;
+				}
+			}
+			return result;
+		}
+		
+		/**
+		 * A conjunct is only true if all of its criteria are true, so each successive criteria 
+		 * need only be evaluated against the rows that remain selected.
+		 */
+		@Override
+		public int select(Evaluator evaluator, List<? extends List<?>> tuples,
+				int[] selection, int count)
+				throws ExpressionEvaluationException, BlockedException,
+				TeiidComponentException {
+			if (!and) {
+				return super.select(evaluator, tuples, selection, count);
+			}
+			for (int i = 0; i < crits.length && count > 0; i++) {
+				count = crits[i].select(evaluator, tuples, selection, count);
+			}
+			return count;
+		}
+	}
+
+	private static final class Not extends CompiledExpression {
+		private CompiledExpression crit;
+
+		public Not(CompiledExpression crit) {
+			this.crit = crit;
+		}
+
+		@Override
+		public Object evaluate(Evaluator evaluator, List<?> tuple)
+				throws ExpressionEvaluationException, BlockedException,
+				TeiidComponentException {
+			Boolean result = (Boolean)crit.evaluate(evaluator, tuple);
+			if (result == null) {
+				return null;
+			}
+			return !result.booleanValue();
+		}
+	}
+
+	private static final class Compare extends CompiledExpression {
+		private CompareCriteria criteria;
+		private CompiledExpression left;
+		private CompiledExpression right;
+
+		public Compare(CompareCriteria criteria, CompiledExpression left, CompiledExpression right) {
+			this.criteria = criteria;
+			this.left = left;
+			this.right = right;
+		}
+
+		@Override
+		public Object evaluate(Evaluator evaluator, List<?> tuple)
+				throws ExpressionEvaluationException, BlockedException,
+				TeiidComponentException {
+			Object leftValue = null;
+			try {
+				leftValue = left.evaluate(evaluator, tuple);
+			} catch(ExpressionEvaluationException e) {
+	             throw new ExpressionEvaluationException(QueryPlugin.Event.TEIID30312, e, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID30312, "left", criteria)); //$NON-NLS-1$
+			}
+			if (leftValue == null) {
+				return null;
+			}
+			Object rightValue = null;
+			try {
+				rightValue = right.evaluate(evaluator, tuple);
+			} catch(ExpressionEvaluationException e) {
+	             throw new ExpressionEvaluationException(QueryPlugin.Event.TEIID30312, e, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID30312, "right", criteria)); //$NON-NLS-1$
+			}
+			if (rightValue == null) {
+				return null;
+			}
+			return Evaluator.compare(criteria, leftValue, rightValue);
+		}
+		
+		/**
+		 * Evaluates the left and right expressions a column at a time.  Integral values are compared directly, 
+		 * other values use the same logic as the row based evaluation.
+		 */
+		@Override
+		public int select(Evaluator evaluator, List<? extends List<?>> tuples,
+				int[] selection, int count)
+				throws ExpressionEvaluationException, BlockedException,
+				TeiidComponentException {
+			Object[] leftValues = null;
+			try {
+				leftValues = left.evaluate(evaluator, tuples, selection, count);
+			} catch(ExpressionEvaluationException e) {
+	             throw new ExpressionEvaluationException(QueryPlugin.Event.TEIID30312, e, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID30312, "left", criteria)); //$NON-NLS-1$
+			}
+			//the right side is not evaluated for null left values
+			int nonNull = 0;
+			for (int i = 0; i < count; i++) {
+				if (leftValues[i] != null) {
+					leftValues[nonNull] = leftValues[i];
+					selection[nonNull++] = selection[i];
+				}
+			}
+			if (nonNull == 0) {
+				return 0;
+			}
+			Object[] rightValues = null;
+			try {
+				rightValues = right.evaluate(evaluator, tuples, selection, nonNull);
+			} catch(ExpressionEvaluationException e) {
+	             throw new ExpressionEvaluationException(QueryPlugin.Event.TEIID30312, e, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID30312, "right", criteria)); //$NON-NLS-1$
+			}
+			int operator = criteria.getOperator();
+			int selected = 0;
+			for (int i = 0; i < nonNull; i++) {
+				Object leftValue = leftValues[i];
+				Object rightValue = rightValues[i];
+				if (rightValue == null) {
+					continue;
+				}
+				Class<?> clazz = leftValue.getClass();
+				boolean result = false;
+				if (clazz == rightValue.getClass() && (clazz == DataTypeManager.DefaultDataClasses.INTEGER || clazz == DataTypeManager.DefaultDataClasses.LONG)) {
+					long l = ((Number)leftValue).longValue();
+					long r = ((Number)rightValue).longValue();
+					switch (operator) {
+					case CompareCriteria.EQ:
+						result = l == r;
+						break;
+					case CompareCriteria.NE:
+						result = l != r;
+						break;
+					case CompareCriteria.LT:
+						result = l < r;
+						break;
+					case CompareCriteria.LE:
+						result = l <= r;
+						break;
+					case CompareCriteria.GT:
+						result = l > r;
+						break;
+					case CompareCriteria.GE:
+						result = l >= r;
+						break;
+					default:
+						throw new AssertionError();
+					}
+				} else {
+					result = Boolean.TRUE.equals(Evaluator.compare(criteria, leftValue, rightValue));
+				}
+				if (result) {
+					selection[selected++] = selection[i];
+				}
+			}
+			return selected;
+		}
+	}
+
+	private static final class IsNull extends CompiledExpression {
+		private IsNullCriteria criteria;
+		private CompiledExpression expression;
+
+		public IsNull(IsNullCriteria criteria, CompiledExpression expression) {
+			this.criteria = criteria;
+			this.expression = expression;
+		}
+
+		@Override
+		public Object evaluate(Evaluator evaluator, List<?> tuple)
+				throws ExpressionEvaluationException, BlockedException,
+				TeiidComponentException {
+			Object value = null;
+			try {
+				value = expression.evaluate(evaluator, tuple);
+			} catch(ExpressionEvaluationException e) {
+	             throw new ExpressionEvaluationException(QueryPlugin.Event.TEIID30323, e, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID30323, criteria));
+			}
+			return (value == null ^ criteria.isNegated());
+		}
+		
+		@Override
+		public int select(Evaluator evaluator, List<? extends List<?>> tuples,
+				int[] selection, int count)
+				throws ExpressionEvaluationException, BlockedException,
+				TeiidComponentException {
+			Object[] values = null;
+			try {
+				values = expression.evaluate(evaluator, tuples, selection, count);
+			} catch(ExpressionEvaluationException e) {
+	             throw new ExpressionEvaluationException(QueryPlugin.Event.TEIID30323, e, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID30323, criteria));
+			}
+			boolean negated = criteria.isNegated();
+			int selected = 0;
+			for (int i = 0; i < count; i++) {
+				if (values[i] == null ^ negated) {
+					selection[selected++] = selection[i];
+				}
+			}
+			return selected;
+		}
+	}
+
+	private static final class DelegateCriteria extends CompiledExpression {
+		private Criteria criteria;
+
+		public DelegateCriteria(Criteria criteria) {
+			this.criteria = criteria;
+		}
+
+		@Override
+		public Object evaluate(Evaluator evaluator, List<?> tuple)
+				throws ExpressionEvaluationException, BlockedException,
+				TeiidComponentException {
+			return evaluator.evaluateTVL(criteria, tuple);
+		}
+	}
+
+}
@@ -34,6 +34,7 @@ import javax.script.ScriptEngine;
 import org.teiid.api.exception.query.QueryMetadataException;
 import org.teiid.core.TeiidComponentException;
 import org.teiid.core.TeiidProcessingException;
+import org.teiid.metadata.ColumnStats;
 import org.teiid.query.eval.TeiidScriptEngine;
 import org.teiid.query.function.FunctionLibrary;
 import org.teiid.query.mapping.relational.QueryNode;
@@ -159,6 +160,14 @@ public class BasicQueryMetadata implements QueryMetadataInterface {
         return -1;
     }
     
+    /** 
+     * @see org.teiid.query.metadata.QueryMetadataInterface#getColumnStats(java.lang.Object)
+     */
+    public ColumnStats getColumnStats(Object elementID) throws TeiidComponentException,
+                                              QueryMetadataException {
+        return null;
+    }
+    
     public int getPosition(Object elementID) throws TeiidComponentException, QueryMetadataException {
         return 0;
     }
@@ -33,6 +33,7 @@ import javax.script.ScriptEngine;
 import org.teiid.api.exception.query.QueryMetadataException;
 import org.teiid.core.TeiidComponentException;
 import org.teiid.core.TeiidProcessingException;
+import org.teiid.metadata.ColumnStats;
 import org.teiid.query.function.FunctionLibrary;
 import org.teiid.query.mapping.relational.QueryNode;
 import org.teiid.query.mapping.xml.MappingNode;
@@ -88,6 +89,11 @@ public class BasicQueryMetadataWrapper implements QueryMetadataInterface {
 			throws TeiidComponentException, QueryMetadataException {
 		return actualMetadata.getDistinctValues(elementID);
 	}
+	
+	public ColumnStats getColumnStats(Object elementID)
+			throws TeiidComponentException, QueryMetadataException {
+		return actualMetadata.getColumnStats(elementID);
+	}
 
 	public Object getElementID(String elementName)
 			throws TeiidComponentException, QueryMetadataException {
@@ -33,6 +33,7 @@ import javax.script.ScriptEngine;
 import org.teiid.api.exception.query.QueryMetadataException;
 import org.teiid.core.TeiidComponentException;
 import org.teiid.core.TeiidProcessingException;
+import org.teiid.metadata.ColumnStats;
 import org.teiid.query.function.FunctionLibrary;
 import org.teiid.query.mapping.relational.QueryNode;
 import org.teiid.query.mapping.xml.MappingNode;
@@ -257,6 +258,17 @@ public interface QueryMetadataInterface {
     int getNullValues(Object elementID)
         throws TeiidComponentException, QueryMetadataException;        
 
+    /**
+     * Get the value distribution statistics, the histogram and most common values, for this column.  
+     * Only applicable for physical columns.
+     * @param elementID The element ID
+     * @return The statistics or null if there are no value distribution statistics
+     * @throws QueryMetadataException Metadata implementation detected a problem during the request
+     * @throws TeiidComponentException Unexpected internal system problem during request
+     */
+    ColumnStats getColumnStats(Object elementID)
+        throws TeiidComponentException, QueryMetadataException;        
+
 	/**
 	 * Determine whether a group is virtual or not.
 	 * @param symbol Group symbol
@@ -34,6 +34,7 @@ import org.teiid.api.exception.query.QueryMetadataException;
 import org.teiid.core.TeiidComponentException;
 import org.teiid.core.types.DataTypeManager;
 import org.teiid.core.util.StringUtil;
+import org.teiid.metadata.ColumnStats;
 import org.teiid.query.QueryPlugin;
 import org.teiid.query.mapping.relational.QueryNode;
 import org.teiid.query.mapping.xml.MappingNode;
@@ -245,6 +246,10 @@ public class TempMetadataAdapter extends BasicQueryMetadataWrapper {
     public Object getMaximumValue(Object elementID) throws TeiidComponentException, QueryMetadataException {
         if (elementID instanceof TempMetadataID) {
             TempMetadataID id = (TempMetadataID)elementID;
+            ColumnStats stats = id.getColumnStats();
+            if (stats != null && stats.getMaximumValue() != null) {
+            	return stats.getMaximumValue();
+            }
             elementID = id.getOriginalMetadataID();
             if (elementID == null) {
                 return null;
@@ -256,6 +261,10 @@ public class TempMetadataAdapter extends BasicQueryMetadataWrapper {
     public Object getMinimumValue(Object elementID) throws TeiidComponentException, QueryMetadataException {
         if (elementID instanceof TempMetadataID) {
             TempMetadataID id = (TempMetadataID)elementID;
+            ColumnStats stats = id.getColumnStats();
+            if (stats != null && stats.getMinimumValue() != null) {
+            	return stats.getMinimumValue();
+            }
             elementID = id.getOriginalMetadataID();
             if (elementID == null) {
                 return null;
@@ -269,6 +278,10 @@ public class TempMetadataAdapter extends BasicQueryMetadataWrapper {
      */
     public int getDistinctValues(Object elementID) throws TeiidComponentException, QueryMetadataException {
         if(elementID instanceof TempMetadataID) {
+            ColumnStats stats = ((TempMetadataID)elementID).getColumnStats();
+            if (stats != null && stats.getDistinctValues() != null) {
+            	return stats.getDistinctValues();
+            }
             return -1;
         }         
         return this.actualMetadata.getDistinctValues(elementID);
@@ -280,6 +293,10 @@ public class TempMetadataAdapter extends BasicQueryMetadataWrapper {
     public int getNullValues(Object elementID) throws TeiidComponentException, QueryMetadataException {
         if (elementID instanceof TempMetadataID) {
             TempMetadataID id = (TempMetadataID)elementID;
+            ColumnStats stats = id.getColumnStats();
+            if (stats != null && stats.getNullValues() != null) {
+            	return stats.getNullValues();
+            }
             elementID = id.getOriginalMetadataID();
             if (elementID == null) {
                 return -1;
@@ -287,6 +304,24 @@ public class TempMetadataAdapter extends BasicQueryMetadataWrapper {
         }         
         return this.actualMetadata.getNullValues(elementID);
     }
+    
+    /**
+     * @see org.teiid.query.metadata.QueryMetadataInterface#getColumnStats(java.lang.Object)
+     */
+    public ColumnStats getColumnStats(Object elementID) throws TeiidComponentException, QueryMetadataException {
+        if (elementID instanceof TempMetadataID) {
+            TempMetadataID id = (TempMetadataID)elementID;
+            ColumnStats stats = id.getColumnStats();
+            if (stats != null) {
+            	return stats;
+            }
+            elementID = id.getOriginalMetadataID();
+            if (elementID == null) {
+                return null;
+            }
+        }         
+        return this.actualMetadata.getColumnStats(elementID);
+    }
 
     public QueryNode getVirtualPlan(Object groupID)
         throws TeiidComponentException, QueryMetadataException {
@@ -30,6 +30,7 @@ import java.util.LinkedList;
 import java.util.List;
 
 import org.teiid.core.util.LRUCache;
+import org.teiid.metadata.ColumnStats;
 import org.teiid.metadata.AbstractMetadataRecord.DataModifiable;
 import org.teiid.metadata.AbstractMetadataRecord.Modifiable;
 import org.teiid.query.mapping.relational.QueryNode;
@@ -127,6 +128,7 @@ public class TempMetadataID implements Serializable, Modifiable, DataModifiable
     private boolean autoIncrement;
     private boolean notNull;
     private boolean updatable;
+    private volatile ColumnStats columnStats;
     
     /**
      * Constructor for group form of metadata ID.
@@ -425,6 +427,17 @@ public class TempMetadataID implements Serializable, Modifiable, DataModifiable
 	public boolean isUpdatable() {
 		return updatable;
 	}
+	
+	/**
+	 * @return the statistics gathered from the data of this column or null if unknown
+	 */
+	public ColumnStats getColumnStats() {
+		return columnStats;
+	}
+	
+	public void setColumnStats(ColumnStats columnStats) {
+		this.columnStats = columnStats;
+	}
 
 	public String getName() {
 		if (this.name == null) {
@@ -947,6 +947,23 @@ public class TransformationMetadata extends BasicQueryMetadata implements Serial
             throw createInvalidRecordTypeException(elementID);            
         }
     }
+    
+    public ColumnStats getColumnStats(final Object elementID) throws TeiidComponentException, QueryMetadataException {
+        if(elementID instanceof Column) {
+        	Column column = (Column) elementID;
+        	if (column.getHistogram() == null && column.getMostCommonValues() == null) {
+        		return null;
+        	}
+        	ColumnStats stats = new ColumnStats();
+        	stats.setHistogram(column.getHistogram());
+        	stats.setMostCommonValues(column.getMostCommonValues(), column.getMostCommonFrequencies());
+            return stats;
+        } else if(elementID instanceof ProcedureParameter) {
+            return null;            
+        } else {
+            throw createInvalidRecordTypeException(elementID);            
+        }
+    }
 
     public String getNativeType(final Object elementID) throws TeiidComponentException, QueryMetadataException {
         if(elementID instanceof Column) {
@@ -332,7 +332,11 @@ public interface SourceCapabilities {
         QUERY_ONLY_SINGLE_TABLE_GROUP_BY,
         ONLY_FORMAT_LITERALS,
         CRITERIA_ON_SUBQUERY,
-        ARRAY_TYPE;
+        ARRAY_TYPE,
+        /**
+         * The number of partitions to use for large single table scans (Integer)
+         */
+        SCAN_PARTITION_COUNT;
         
         private final String toString;
         
@@ -22,6 +22,7 @@
 
 package org.teiid.query.optimizer.relational;
 
+import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -38,11 +39,17 @@ import org.teiid.core.CoreConstants;
 import org.teiid.core.TeiidComponentException;
 import org.teiid.core.TeiidRuntimeException;
 import org.teiid.core.id.IDGenerator;
+import org.teiid.core.types.DataTypeManager;
 import org.teiid.core.util.Assertion;
+import org.teiid.core.util.PropertiesUtils;
+import org.teiid.metadata.AbstractMetadataRecord;
 import org.teiid.metadata.FunctionMethod.Determinism;
 import org.teiid.query.QueryPlugin;
 import org.teiid.query.analysis.AnalysisRecord;
+import org.teiid.query.function.FunctionDescriptor;
+import org.teiid.query.function.FunctionLibrary;
 import org.teiid.query.metadata.QueryMetadataInterface;
+import org.teiid.query.metadata.SupportConstants;
 import org.teiid.query.metadata.TempMetadataAdapter;
 import org.teiid.query.metadata.TempMetadataID;
 import org.teiid.query.optimizer.capabilities.CapabilitiesFinder;
@@ -53,6 +60,7 @@ import org.teiid.query.optimizer.relational.plantree.NodeConstants.Info;
 import org.teiid.query.optimizer.relational.plantree.PlanNode;
 import org.teiid.query.optimizer.relational.rules.CapabilitiesUtil;
 import org.teiid.query.optimizer.relational.rules.FrameUtil;
+import org.teiid.query.optimizer.relational.rules.NewCalculateCostUtil;
 import org.teiid.query.optimizer.relational.rules.RuleAssignOutputElements;
 import org.teiid.query.optimizer.relational.rules.RuleChooseJoinStrategy;
 import org.teiid.query.processor.ProcessorPlan;
@@ -67,16 +75,20 @@ import org.teiid.query.sql.lang.ObjectTable.ObjectColumn;
 import org.teiid.query.sql.lang.SetQuery.Operation;
 import org.teiid.query.sql.lang.SourceHint.SpecificHint;
 import org.teiid.query.sql.lang.XMLTable.XMLColumn;
+import org.teiid.query.sql.symbol.Constant;
 import org.teiid.query.sql.symbol.ElementSymbol;
 import org.teiid.query.sql.symbol.Expression;
 import org.teiid.query.sql.symbol.ExpressionSymbol;
+import org.teiid.query.sql.symbol.Function;
 import org.teiid.query.sql.symbol.GroupSymbol;
 import org.teiid.query.sql.symbol.WindowFunction;
 import org.teiid.query.sql.util.SymbolMap;
+import org.teiid.query.sql.visitor.AggregateSymbolCollectorVisitor;
 import org.teiid.query.sql.visitor.EvaluatableVisitor;
 import org.teiid.query.sql.visitor.EvaluatableVisitor.EvaluationLevel;
 import org.teiid.query.sql.visitor.GroupCollectorVisitor;
 import org.teiid.query.util.CommandContext;
+import org.teiid.translator.SourceSystemFunctions;
 
 
 public class PlanToProcessConverter {
@@ -90,6 +102,12 @@ public class PlanToProcessConverter {
 	private CommandContext context;
 	private static AtomicInteger sharedId = new AtomicInteger();
 	
+	/**
+	 * Table extension property naming an integral column to use for partitioned scans
+	 */
+	public static final String PARTITION_COLUMN = AbstractMetadataRecord.RELATIONAL_URI + "partition-column"; //$NON-NLS-1$
+	private static final int MIN_PARTITIONED_SCAN_ROWS = PropertiesUtils.getIntProperty(System.getProperties(), "org.teiid.partitionedScanMinRows", 100000); //$NON-NLS-1$
+	
 	public static class SharedStateKey {
 		int id;
 		int expectedReaders;
@@ -114,6 +132,9 @@ public class PlanToProcessConverter {
 	
 	        // Convert plan tree nodes into process tree nodes
 	        RelationalNode processNode = convertPlan(planNode);
+	        if (context != null && context.getOptions().isParallelBranches()) {
+	        	addExchanges(processNode);
+	        }
 	        if(debug) {
 	            analysisRecord.println("\nPROCESS PLAN = \n" + processNode); //$NON-NLS-1$
 	            analysisRecord.println("============================================================================"); //$NON-NLS-1$
@@ -162,6 +183,34 @@ public class PlanToProcessConverter {
 		return convertedNode;
 	}
 
+	/**
+	 * Wrap independent branches of unions and joins that perform in engine 
+	 * processing so that they may be processed concurrently.
+	 */
+	private void addExchanges(RelationalNode node) {
+		boolean independent = node instanceof UnionAllNode;
+		if (node instanceof JoinNode) {
+			JoinNode joinNode = (JoinNode)node;
+			independent = !joinNode.isDependent() && !(joinNode.getJoinStrategy() instanceof NestedTableJoinStrategy);
+		}
+		RelationalNode[] children = node.getChildren();
+		for (int i = 0; i < children.length; i++) {
+			RelationalNode child = children[i];
+			if (child == null) {
+				break;
+			}
+			if (independent && ExchangeNode.hasProcessingWork(child) && ExchangeNode.canProcessInParallel(child)) {
+				ExchangeNode exchange = new ExchangeNode(getID());
+				exchange.setElements(child.getElements());
+				exchange.addChild(child);
+				exchange.setParent(node);
+				children[i] = exchange;
+			} else {
+				addExchanges(child);
+			}
+		}
+	}
+
     protected int getID() {
         return idGenerator.nextInt();
     }
@@ -254,6 +303,10 @@ public class PlanToProcessConverter {
                     List rightExpressions = (List) node.getProperty(NodeConstants.Info.RIGHT_EXPRESSIONS);
                     jnode.setJoinExpressions(leftExpressions, rightExpressions);
                     joinCrits = (List) node.getProperty(NodeConstants.Info.NON_EQUI_JOIN_CRITERIA);
+                } else if (stype == JoinStrategyType.HASH) {
+                	jnode.setJoinStrategy(new HashJoinStrategy());
+                    jnode.setJoinExpressions((List) node.getProperty(NodeConstants.Info.LEFT_EXPRESSIONS), (List) node.getProperty(NodeConstants.Info.RIGHT_EXPRESSIONS));
+                    joinCrits = (List) node.getProperty(NodeConstants.Info.NON_EQUI_JOIN_CRITERIA);
                 } else if (stype == JoinStrategyType.NESTED_TABLE) {
                 	NestedTableJoinStrategy ntjStrategy = new NestedTableJoinStrategy();
                 	jnode.setJoinStrategy(ntjStrategy);
@@ -271,6 +324,7 @@ public class PlanToProcessConverter {
                 processNode = jnode;
                 
                 jnode.setDependentValueSource(depValueSource);
+                jnode.setAdaptiveDependent(node.hasBooleanProperty(NodeConstants.Info.IS_ADAPTIVE_DEP));
                 
 				break;
 
@@ -374,6 +428,13 @@ public class PlanToProcessConverter {
                     if (minimizeProject() && !aNode.isShouldEvaluate()) {
                     	aNode.minimizeProject(command);
                     }
+                    if (processNode == aNode) {
+                    	RelationalNode partitioned = partitionAccess(node, aNode, modelID);
+                    	if (partitioned != null) {
+                    		processNode = partitioned;
+                    		break;
+                    	}
+                    }
                     //check if valid to share this with other nodes
                     if (ev != null && ev.getDeterminismLevel().compareTo(Determinism.COMMAND_DETERMINISTIC) >= 0 && command.areResultsCachable()) {
                     	checkForSharedSourceCommand(aNode);
@@ -413,6 +474,7 @@ public class PlanToProcessConverter {
 				SymbolMap groupingMap = (SymbolMap)node.getProperty(NodeConstants.Info.SYMBOL_MAP);
 				gnode.setOutputMapping(groupingMap);
 				gnode.setRemoveDuplicates(node.hasBooleanProperty(NodeConstants.Info.IS_DUP_REMOVAL));
+				gnode.setHashAggregation(node.hasBooleanProperty(NodeConstants.Info.IS_HASH_GROUP));
 				List<Expression> gCols = (List) node.getProperty(NodeConstants.Info.GROUP_COLS);
 				orderBy = (OrderBy) node.getProperty(Info.SORT_ORDER);
 				if (orderBy == null) {
@@ -559,6 +621,131 @@ public class PlanToProcessConverter {
 		return processNode;
 	}
 	
+	/**
+	 * Split a large single table scan into a union of scans over hash partitions of an integral column
+	 * so that the source queries may be executed concurrently, subject to the user request source concurrency.
+	 * <br/>
+	 * Outside of a transaction each partition query sees its own snapshot, so the union is not a consistent read.
+	 * @return the union of the partitioned access nodes or null if partitioning does not apply
+	 */
+	private RelationalNode partitionAccess(PlanNode node, AccessNode aNode, Object modelID) throws QueryMetadataException, TeiidComponentException {
+		if (modelID == null || node.getChildCount() != 0 || aNode.getClass() != AccessNode.class || aNode.isShouldEvaluate() || !(aNode.getCommand() instanceof Query)) {
+			return null;
+		}
+		if (node.getParent() != null && node.getParent().getType() == NodeConstants.Types.TUPLE_LIMIT) {
+			//the limit is passed to a single access node as a row limit, so don't partition
+			return null;
+		}
+		int partitions = CapabilitiesUtil.getScanPartitionCount(modelID, metadata, capFinder);
+		if (partitions < 2) {
+			return null;
+		}
+		Query query = (Query)aNode.getCommand();
+		if (query.getFrom() == null || query.getFrom().getClauses().size() != 1 || !(query.getFrom().getClauses().get(0) instanceof UnaryFromClause)
+				|| query.getGroupBy() != null || query.getHaving() != null || query.getOrderBy() != null || query.getLimit() != null
+				|| query.getSelect().isDistinct() || query.getInto() != null 
+				|| !AggregateSymbolCollectorVisitor.getAggregates(query.getSelect(), false).isEmpty()) {
+			return null;
+		}
+		GroupSymbol group = ((UnaryFromClause)query.getFrom().getClauses().get(0)).getGroup();
+		Object groupId = group.getMetadataID();
+		if (groupId instanceof TempMetadataID) {
+			return null;
+		}
+		float cardinality = NewCalculateCostUtil.UNKNOWN_VALUE;
+		Number estimate = (Number) node.getProperty(NodeConstants.Info.EST_CARDINALITY);
+		if (estimate != null) {
+			cardinality = estimate.floatValue();
+		}
+		if (cardinality == NewCalculateCostUtil.UNKNOWN_VALUE) {
+			cardinality = metadata.getCardinality(groupId);
+		}
+		if (cardinality < MIN_PARTITIONED_SCAN_ROWS) {
+			return null;
+		}
+		Object columnId = getPartitionColumn(groupId);
+		if (columnId == null) {
+			return null;
+		}
+		ElementSymbol column = new ElementSymbol(metadata.getName(columnId), group.clone());
+		column.setMetadataID(columnId);
+		Class<?> type = DataTypeManager.getDataTypeClass(metadata.getElementType(columnId));
+		column.setType(type);
+		FunctionLibrary library = metadata.getFunctionLibrary();
+		FunctionDescriptor modFd = library.findFunction(SourceSystemFunctions.MOD, new Class[] {type, type});
+		FunctionDescriptor absFd = library.findFunction(SourceSystemFunctions.ABS, new Class[] {type});
+		if (modFd == null || absFd == null) {
+			return null;
+		}
+		Function mod = new Function(SourceSystemFunctions.MOD, new Expression[] {column, new Constant(getIntegralValue(partitions, type), type)});
+		mod.setFunctionDescriptor(modFd);
+		mod.setType(type);
+		Function abs = new Function(SourceSystemFunctions.ABS, new Expression[] {mod});
+		abs.setFunctionDescriptor(absFd);
+		abs.setType(type);
+		boolean nullable = metadata.elementSupports(columnId, SupportConstants.Element.NULL);
+		if (!CapabilitiesUtil.supportsScalarFunction(modelID, mod, metadata, capFinder) 
+				|| !CapabilitiesUtil.supportsScalarFunction(modelID, abs, metadata, capFinder)
+				|| !CapabilitiesUtil.supports(Capability.CRITERIA_COMPARE_EQ, modelID, metadata, capFinder)
+				|| (nullable && (!CapabilitiesUtil.supports(Capability.CRITERIA_ISNULL, modelID, metadata, capFinder) 
+						|| !CapabilitiesUtil.supports(Capability.CRITERIA_OR, modelID, metadata, capFinder)))) {
+			return null;
+		}
+		UnionAllNode union = new UnionAllNode(getID());
+		for (int i = 0; i < partitions; i++) {
+			AccessNode partition = (AccessNode)aNode.clone();
+			partition.setID(getID());
+			Query partitionQuery = (Query)query.clone();
+			Criteria crit = new CompareCriteria((Expression)abs.clone(), CompareCriteria.EQ, new Constant(getIntegralValue(i, type), type));
+			if (i == 0 && nullable) {
+				//nulls are placed in the first partition
+				crit = new CompoundCriteria(CompoundCriteria.OR, crit, new IsNullCriteria(column.clone()));
+			}
+			partitionQuery.setCriteria(Criteria.combineCriteria(partitionQuery.getCriteria(), crit));
+			partition.setCommand(partitionQuery);
+			union.addChild(prepareToAdd(node, partition));
+		}
+		return union;
+	}
+	
+	/**
+	 * Return the column set by the partition-column extension property or the single column
+	 * primary key.  Only integral types are considered.
+	 */
+	private Object getPartitionColumn(Object groupId) throws QueryMetadataException, TeiidComponentException {
+		Object columnId = null;
+		String columnName = metadata.getExtensionProperties(groupId).getProperty(PARTITION_COLUMN);
+		if (columnName != null) {
+			columnId = metadata.getElementID(metadata.getFullName(groupId) + ElementSymbol.SEPARATOR + columnName);
+		} else {
+			Object pk = metadata.getPrimaryKey(groupId);
+			if (pk == null) {
+				return null;
+			}
+			List<?> columns = metadata.getElementIDsInKey(pk);
+			if (columns.size() != 1) {
+				return null;
+			}
+			columnId = columns.get(0);
+		}
+		Class<?> type = DataTypeManager.getDataTypeClass(metadata.getElementType(columnId));
+		if (type != DataTypeManager.DefaultDataClasses.INTEGER && type != DataTypeManager.DefaultDataClasses.LONG 
+				&& type != DataTypeManager.DefaultDataClasses.BIG_INTEGER) {
+			return null;
+		}
+		return columnId;
+	}
+	
+	private static Object getIntegralValue(int value, Class<?> type) {
+		if (type == DataTypeManager.DefaultDataClasses.LONG) {
+			return Long.valueOf(value);
+		}
+		if (type == DataTypeManager.DefaultDataClasses.BIG_INTEGER) {
+			return BigInteger.valueOf(value);
+		}
+		return Integer.valueOf(value);
+	}
+	
 	private void checkForSharedSourceCommand(AccessNode aNode) {
 		//create a top level key to avoid the full command toString
 		String modelName = aNode.getModelName();
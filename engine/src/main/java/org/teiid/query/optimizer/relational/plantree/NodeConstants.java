@@ -94,6 +94,7 @@ public final class NodeConstants {
         IS_LEFT_DISTINCT, 	// Boolean
         IS_RIGHT_DISTINCT, 	// Boolean
         IS_SEMI_DEP,		// Boolean
+        IS_ADAPTIVE_DEP,	// Boolean - the dependent join was chosen by costing and may be abandoned at runtime
 
         // Project node properties
         PROJECT_COLS,       // List <SingleElementSymbol>
@@ -131,6 +132,7 @@ public final class NodeConstants {
         
         // Group node properties
         GROUP_COLS,         // List <Expression>
+        IS_HASH_GROUP,      // Boolean
 
         // Special constant used in converting plan to process for all nodes
         OUTPUT_COLS,        // List <SingleElementSymbol>
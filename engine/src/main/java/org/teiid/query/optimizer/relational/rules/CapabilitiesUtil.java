@@ -342,6 +342,11 @@ public class CapabilitiesUtil {
     	return getProperty(Capability.MAX_DEPENDENT_PREDICATES, modelID, metadata, capFinder);
     }
     
+    public static int getScanPartitionCount(Object modelID, QueryMetadataInterface metadata, CapabilitiesFinder capFinder) 
+    throws QueryMetadataException, TeiidComponentException {
+    	return getProperty(Capability.SCAN_PARTITION_COUNT, modelID, metadata, capFinder);
+    }
+    
     public static int getMaxFromGroups(Object modelID, QueryMetadataInterface metadata, CapabilitiesFinder capFinder) 
     throws QueryMetadataException, TeiidComponentException {
 
@@ -0,0 +1,256 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+
+package org.teiid.query.optimizer.relational.rules;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import org.teiid.core.types.DataTypeManager;
+import org.teiid.core.types.TransformationException;
+import org.teiid.metadata.ColumnStats;
+import org.teiid.query.sql.symbol.Constant;
+
+/**
+ * Computes and estimates selectivity from the value distribution statistics of {@link ColumnStats}.
+ * <br/>
+ * The most common value frequencies are relative to the non-null values and the 
+ * histogram is equi-depth over the non-null values that are not most common values.
+ */
+public class ColumnStatsUtil {
+	
+	public static final int MAX_BUCKETS = 50;
+	public static final int MAX_MOST_COMMON_VALUES = 50;
+	
+	/**
+	 * Compute the statistics from a sample of the values of a column.
+	 * @param sample the sampled values including nulls
+	 * @param rowCount the total number of rows
+	 * @param type the column type
+	 * @return the statistics or null if the type is not comparable
+	 * @throws TransformationException
+	 */
+	public static ColumnStats computeColumnStats(List<?> sample, int rowCount, Class<?> type) throws TransformationException {
+		if (DataTypeManager.isNonComparable(DataTypeManager.getDataTypeName(type))) {
+			return null;
+		}
+		List<Object> values = new ArrayList<Object>(sample.size());
+		for (Object value : sample) {
+			if (value != null) {
+				values.add(value);
+			}
+		}
+		ColumnStats stats = new ColumnStats();
+		int nonNullCount = values.size();
+		if (!sample.isEmpty()) {
+			nonNullCount = (int)Math.round((double)values.size() * rowCount / sample.size());
+			stats.setNullValues(rowCount - nonNullCount);
+		}
+		if (values.isEmpty()) {
+			stats.setDistinctValues(0);
+			return stats;
+		}
+		Collections.sort(values, Constant.COMPARATOR);
+		int n = values.size();
+		//count each distinct value
+		List<Object> distinct = new ArrayList<Object>();
+		final List<Integer> counts = new ArrayList<Integer>();
+		int singletons = 0;
+		for (int i = 0; i < n;) {
+			Object value = values.get(i);
+			int j = i + 1;
+			while (j < n && Constant.COMPARATOR.compare(value, values.get(j)) == 0) {
+				j++;
+			}
+			distinct.add(value);
+			counts.add(j - i);
+			if (j - i == 1) {
+				singletons++;
+			}
+			i = j;
+		}
+		int d = distinct.size();
+		int ndv = d;
+		if (n < nonNullCount) {
+			//Duj1 estimator
+			ndv = (int)Math.round(n * (double)d / (n - singletons + singletons * (double)n / nonNullCount));
+			ndv = Math.max(d, Math.min(ndv, nonNullCount));
+		}
+		stats.setDistinctValues(ndv);
+		stats.setMinimumValue(toString(values.get(0)));
+		stats.setMaximumValue(toString(values.get(n - 1)));
+		
+		boolean[] mostCommon = new boolean[d];
+		if (d < n) {
+			Integer[] order = new Integer[d];
+			for (int i = 0; i < d; i++) {
+				order[i] = i;
+			}
+			Arrays.sort(order, new Comparator<Integer>() {
+				@Override
+				public int compare(Integer o1, Integer o2) {
+					return counts.get(o2) - counts.get(o1);
+				}
+			});
+			//when the sample contains every value, all of them are most common values
+			boolean all = d <= MAX_MOST_COMMON_VALUES && (n == nonNullCount || singletons == 0);
+			double threshold = Math.max(2, 1.25 * n / d);
+			List<String> mcv = new ArrayList<String>();
+			List<Float> frequencies = new ArrayList<Float>();
+			for (int i = 0; i < d && i < MAX_MOST_COMMON_VALUES; i++) {
+				int count = counts.get(order[i]);
+				if (!all && count < threshold) {
+					break;
+				}
+				mostCommon[order[i]] = true;
+				mcv.add(toString(distinct.get(order[i])));
+				frequencies.add((float)count / n);
+			}
+			if (!mcv.isEmpty()) {
+				float[] freqs = new float[frequencies.size()];
+				for (int i = 0; i < freqs.length; i++) {
+					freqs[i] = frequencies.get(i);
+				}
+				stats.setMostCommonValues(mcv.toArray(new String[mcv.size()]), freqs);
+			}
+		}
+		
+		List<Object> rest = new ArrayList<Object>(n);
+		for (int i = 0; i < d; i++) {
+			if (!mostCommon[i]) {
+				rest.addAll(Collections.nCopies(counts.get(i), distinct.get(i)));
+			}
+		}
+		int m = rest.size();
+		if (m > 1) {
+			int buckets = Math.min(MAX_BUCKETS, m - 1);
+			String[] histogram = new String[buckets + 1];
+			for (int i = 0; i <= buckets; i++) {
+				histogram[i] = toString(rest.get((int)((long)i * (m - 1) / buckets)));
+			}
+			stats.setHistogram(histogram);
+		}
+		return stats;
+	}
+	
+	/**
+	 * Estimate the fraction of the non-null values that are equal to the value
+	 * @param ndv the number of distinct values or a negative value if unknown
+	 * @return the selectivity or -1 if unknown
+	 * @throws TransformationException
+	 */
+	public static float getEqualitySelectivity(ColumnStats stats, Object value, Class<?> type, int ndv) throws TransformationException {
+		String[] mcv = stats.getMostCommonValues();
+		if (mcv == null) {
+			return -1;
+		}
+		float[] frequencies = stats.getMostCommonFrequencies();
+		float remaining = 1;
+		for (int i = 0; i < mcv.length; i++) {
+			if (Constant.COMPARATOR.compare(value, parse(mcv[i], type)) == 0) {
+				return frequencies[i];
+			}
+			remaining -= frequencies[i];
+		}
+		if (remaining < .001) {
+			//allow for rounding of the frequencies
+			return 0;
+		}
+		if (ndv <= mcv.length) {
+			return -1;
+		}
+		return remaining / (ndv - mcv.length);
+	}
+	
+	/**
+	 * Estimate the fraction of the non-null values that are less than, or equal to, the value
+	 * @return the selectivity or -1 if unknown
+	 * @throws TransformationException
+	 */
+	public static float getLessThanSelectivity(ColumnStats stats, Object value, Class<?> type, boolean orEqual) throws TransformationException {
+		String[] mcv = stats.getMostCommonValues();
+		float mcvTotal = 0;
+		float mcvMatch = 0;
+		if (mcv != null) {
+			float[] frequencies = stats.getMostCommonFrequencies();
+			for (int i = 0; i < mcv.length; i++) {
+				int compare = Constant.COMPARATOR.compare(parse(mcv[i], type), value);
+				if (compare < 0 || (orEqual && compare == 0)) {
+					mcvMatch += frequencies[i];
+				}
+				mcvTotal += frequencies[i];
+			}
+		}
+		float histFraction = Math.max(0, 1 - mcvTotal);
+		String[] histogram = stats.getHistogram();
+		if (histogram == null || histogram.length < 2) {
+			if (mcv == null || histFraction > .01) {
+				return -1;
+			}
+			return Math.min(1, mcvMatch);
+		}
+		int buckets = histogram.length - 1;
+		float position = 0;
+		Object low = parse(histogram[0], type);
+		if (Constant.COMPARATOR.compare(value, low) >= 0) {
+			position = buckets;
+			for (int i = 0; i < buckets; i++) {
+				Object high = parse(histogram[i + 1], type);
+				if (Constant.COMPARATOR.compare(value, high) < 0) {
+					float within = .5f;
+					double lowValue = toDouble(low);
+					double highValue = toDouble(high);
+					double v = toDouble(value);
+					if (!Double.isNaN(lowValue) && !Double.isNaN(highValue) && !Double.isNaN(v) && highValue > lowValue) {
+						within = (float)((v - lowValue) / (highValue - lowValue));
+					}
+					position = i + within;
+					break;
+				}
+				low = high;
+			}
+		}
+		return Math.min(1, mcvMatch + histFraction * position / buckets);
+	}
+	
+	private static double toDouble(Object value) {
+		if (value instanceof Number) {
+			return ((Number)value).doubleValue();
+		}
+		if (value instanceof java.util.Date) {
+			return ((java.util.Date)value).getTime();
+		}
+		return Double.NaN;
+	}
+	
+	private static Object parse(String value, Class<?> type) throws TransformationException {
+		return DataTypeManager.transformValue(value, type);
+	}
+
+	private static String toString(Object value) throws TransformationException {
+		return DataTypeManager.transformValue(value, DataTypeManager.DefaultDataClasses.STRING);
+	}
+
+}
@@ -345,6 +345,230 @@ class JoinRegion {
         return totalIntermediatCost;
     }
 
+    /**
+     * A left linear join prefix remembered by {@link JoinRegion#findJoinOrder(QueryMetadataInterface, CapabilitiesFinder, CommandContext, int)}
+     */
+    private static class JoinPrefix {
+    	JoinPrefix previous;
+    	int source;
+    	int mask;
+    	int size;
+    	double cost = 1;
+    	double totalIntermediatCost;
+    	boolean hasUnknown;
+    }
+    
+    /**
+     * Find the best left linear join order by dynamic programming over the subsets of join sources.
+     * <br/>
+     * The cheapest prefix for each subset of join sources is remembered and extended 
+     * by sources that are connected to it by join criteria.  Unconnected sources are only
+     * considered when a cross join cannot be avoided.  Prefixes are costed the same as
+     * {@link #scoreRegion(Object[], int, QueryMetadataInterface, CapabilitiesFinder, CommandContext)}, including 
+     * access pattern and dependent join considerations.
+     *  
+     * @param budget the maximum number of prefix extensions to consider
+     * @return the join order or null if the budget was exceeded or there is no valid order
+     */
+    public Object[] findJoinOrder(QueryMetadataInterface metadata, CapabilitiesFinder capFinder, CommandContext context, int budget) throws QueryMetadataException, TeiidComponentException, QueryPlannerException {
+        List<Map.Entry<PlanNode, PlanNode>> joinSourceEntries = new ArrayList<Map.Entry<PlanNode, PlanNode>>(joinSourceNodes.entrySet());
+        int sourceCount = joinSourceEntries.size();
+        if (sourceCount >= Integer.SIZE - 1) {
+        	return null;
+        }
+        Map<GroupSymbol, Integer> groupSources = new HashMap<GroupSymbol, Integer>();
+        for (int i = 0; i < sourceCount; i++) {
+        	for (GroupSymbol group : joinSourceEntries.get(i).getValue().getGroups()) {
+        		groupSources.put(group, i);
+        	}
+        }
+        List<PlanNode> criteria = new ArrayList<PlanNode>(this.criteriaNodes.size());
+        List<Integer> criteriaMasks = new ArrayList<Integer>(this.criteriaNodes.size());
+        int[] connections = new int[sourceCount];
+        for (PlanNode critNode : this.criteriaNodes) {
+        	int mask = getSourceMask(critNode.getGroups(), groupSources);
+        	if (mask == -1) {
+        		continue; //can never be applied
+        	}
+        	criteria.add(critNode);
+        	criteriaMasks.add(mask);
+        	for (int i = 0; i < sourceCount; i++) {
+        		if ((mask & (1 << i)) != 0) {
+        			connections[i] |= mask & ~(1 << i);
+        		}
+        	}
+        }
+        int[] requiredMasks = new int[sourceCount];
+        if (!this.unsatisfiedAccessPatterns.isEmpty() || this.containsNestedTable) {
+        	for (int i = 0; i < sourceCount; i++) {
+        		Collection<GroupSymbol> requiredGroups = (Collection<GroupSymbol>)joinSourceEntries.get(i).getKey().getProperty(NodeConstants.Info.REQUIRED_ACCESS_PATTERN_GROUPS);
+        		if (requiredGroups != null) {
+        			requiredMasks[i] = getSourceMask(requiredGroups, groupSources);
+        		}
+        	}
+        }
+        int all = (int)((1l << sourceCount) - 1);
+        Map<List<PlanNode>, Boolean> usesKey = new HashMap<List<PlanNode>, Boolean>();
+        Map<Integer, JoinPrefix> prefixes = new HashMap<Integer, JoinPrefix>();
+        for (int size = 0; size < sourceCount; size++) {
+        	Map<Integer, JoinPrefix> next = new HashMap<Integer, JoinPrefix>();
+        	Collection<JoinPrefix> toExtend = prefixes.values();
+        	if (size == 0) {
+        		toExtend = Arrays.asList((JoinPrefix)null);
+        	}
+        	for (JoinPrefix prefix : toExtend) {
+        		int mask = prefix == null?0:prefix.mask;
+        		int available = 0;
+        		int connected = 0;
+        		for (int i = 0; i < sourceCount; i++) {
+        			int bit = 1 << i;
+        			if ((mask & bit) != 0 || (requiredMasks[i] & ~mask) != 0) {
+        				continue;
+        			}
+        			available |= bit;
+        			if ((connections[i] & mask) != 0) {
+        				connected |= bit;
+        			}
+        		}
+        		if (connected != 0) {
+        			available = connected;
+        		}
+        		for (int i = 0; i < sourceCount; i++) {
+        			if ((available & (1 << i)) == 0) {
+        				continue;
+        			}
+        			if (--budget < 0) {
+        				return null;
+        			}
+        			JoinPrefix extended = extendPrefix(prefix, i, joinSourceEntries, criteria, criteriaMasks, usesKey, metadata, capFinder, context);
+        			if (extended == null) {
+        				continue;
+        			}
+        			JoinPrefix existing = next.get(extended.mask);
+        			if (existing == null || extended.totalIntermediatCost < existing.totalIntermediatCost) {
+        				next.put(extended.mask, extended);
+        			}
+        		}
+        	}
+        	prefixes = next;
+        }
+        JoinPrefix best = prefixes.get(all);
+        if (best == null) {
+        	return null;
+        }
+        Integer[] result = new Integer[sourceCount];
+        for (int i = sourceCount - 1; i >= 0; i--) {
+        	result[i] = best.source;
+        	best = best.previous;
+        }
+        return result;
+    }
+
+	private int getSourceMask(Collection<GroupSymbol> groups, Map<GroupSymbol, Integer> groupSources) {
+		int mask = 0;
+		for (GroupSymbol group : groups) {
+			Integer source = groupSources.get(group);
+			if (source == null) {
+				return -1;
+			}
+			mask |= 1 << source;
+		}
+		return mask;
+	}
+    
+	/**
+	 * Extend the prefix by the given source following the logic of scoreRegion
+	 * @return the extended prefix or null if the cost cannot be determined
+	 */
+    private JoinPrefix extendPrefix(JoinPrefix prefix, int source, List<Map.Entry<PlanNode, PlanNode>> joinSourceEntries, 
+    		List<PlanNode> criteria, List<Integer> criteriaMasks, Map<List<PlanNode>, Boolean> usesKey,
+    		QueryMetadataInterface metadata, CapabilitiesFinder capFinder, CommandContext context) throws QueryMetadataException, TeiidComponentException, QueryPlannerException {
+    	JoinPrefix result = new JoinPrefix();
+    	result.previous = prefix;
+    	result.source = source;
+    	result.mask = 1 << source;
+    	int i = 0;
+    	if (prefix != null) {
+    		i = prefix.size;
+    		result.mask |= prefix.mask;
+    		result.cost = prefix.cost;
+    		result.hasUnknown = prefix.hasUnknown;
+    		result.totalIntermediatCost = prefix.totalIntermediatCost;
+    	}
+    	result.size = i + 1;
+    	PlanNode joinSourceRoot = joinSourceEntries.get(source).getValue();
+        float sourceCost = ((Float)joinSourceRoot.getProperty(NodeConstants.Info.EST_CARDINALITY)).floatValue();
+        
+        List<PlanNode> applicableCriteria = null;
+        if (i > 0) {
+        	applicableCriteria = new ArrayList<PlanNode>(2);
+        	for (int k = 0; k < criteria.size(); k++) {
+        		int critMask = criteriaMasks.get(k);
+        		//the criteria between the first two sources are all applied at the second
+        		if ((critMask & ~result.mask) == 0 && (i == 1 || (critMask & ~prefix.mask) != 0)) {
+        			applicableCriteria.add(criteria.get(k));
+        		}
+        	}
+        }
+        
+    	if (sourceCost == NewCalculateCostUtil.UNKNOWN_VALUE) {
+    		sourceCost = UNKNOWN_TUPLE_EST;
+    		result.hasUnknown = true;
+            if (applicableCriteria != null && !applicableCriteria.isEmpty()) {
+            	Boolean key = usesKey.get(applicableCriteria);
+            	if (key == null) {
+	            	CompoundCriteria cc = new CompoundCriteria();
+	            	for (PlanNode planNode : applicableCriteria) {
+						cc.addCriteria((Criteria) planNode.getProperty(NodeConstants.Info.SELECT_CRITERIA));
+					}
+	            	key = NewCalculateCostUtil.usesKey(cc, metadata);
+	            	usesKey.put(applicableCriteria, key);
+            	}
+            	sourceCost = (float)result.cost;
+            	applicableCriteria = null;
+        		if (key || (i == 1 && joinSourceRoot.hasBooleanProperty(Info.MAKE_DEP) && !joinSourceRoot.hasBooleanProperty(Info.MAKE_NOT_DEP))) {
+	            	sourceCost = Math.min(UNKNOWN_TUPLE_EST, sourceCost * Math.min(NewCalculateCostUtil.UNKNOWN_JOIN_SCALING, sourceCost));
+        		} else {
+	            	sourceCost = Math.min(UNKNOWN_TUPLE_EST, sourceCost * Math.min(NewCalculateCostUtil.UNKNOWN_JOIN_SCALING * 2, sourceCost));
+        		}
+            }
+        } else if (Double.isInfinite(sourceCost) || Double.isNaN(sourceCost)) {
+        	return null;
+        } else if (i == 1 && !applicableCriteria.isEmpty()) {
+        	List<Object> key = Arrays.asList((Object)prefix.source, source);
+        	Float depJoinCost = null;
+        	if (depCache != null && depCache.containsKey(key)) {
+    			depJoinCost = depCache.get(key);
+        	} else {
+                PlanNode possibleInd = joinSourceEntries.get(prefix.source).getValue();
+                depJoinCost = getDepJoinCost(metadata, capFinder, context, possibleInd, applicableCriteria, joinSourceRoot);
+                if (depCache == null) {
+                	depCache = new HashMap<List<Object>, Float>();
+                }
+                depCache.put(key, depJoinCost);
+        	}
+            if (depJoinCost != null) {
+            	sourceCost = depJoinCost;
+            }
+        }
+    	
+    	if (i > 0 && (applicableCriteria == null || applicableCriteria.isEmpty()) && result.hasUnknown) {
+    		sourceCost *= 10; //cross join penalty
+    	}
+    
+        result.cost *= sourceCost;
+        
+        if (applicableCriteria != null) {
+            for (PlanNode criteriaNode : applicableCriteria) {
+                float filter = ((Float)criteriaNode.getProperty(NodeConstants.Info.EST_SELECTIVITY)).floatValue();
+                
+                result.cost *= filter;
+            }
+        }
+        result.totalIntermediatCost += result.cost;
+        return result;
+    }
+
 	private Float getDepJoinCost(QueryMetadataInterface metadata,
 			CapabilitiesFinder capFinder, CommandContext context,
 			PlanNode indNode, List<PlanNode> applicableCriteria,
@@ -33,9 +33,11 @@ import org.teiid.api.exception.query.QueryPlannerException;
 import org.teiid.common.buffer.BufferManager;
 import org.teiid.core.TeiidComponentException;
 import org.teiid.core.types.DataTypeManager;
+import org.teiid.core.types.TransformationException;
 import org.teiid.language.Like.MatchMode;
 import org.teiid.logging.LogConstants;
 import org.teiid.logging.LogManager;
+import org.teiid.metadata.ColumnStats;
 import org.teiid.query.QueryPlugin;
 import org.teiid.query.metadata.QueryMetadataInterface;
 import org.teiid.query.optimizer.capabilities.CapabilitiesFinder;
@@ -808,6 +810,12 @@ public class NewCalculateCostUtil {
                     return UNKNOWN_VALUE;
                 }
                 cost = childCost / ndv;
+                if (!unknownChildCost) {
+                	float selectivity = getEqualitySelectivity(compCrit.getLeftExpression(), compCrit.getRightExpression(), metadata);
+                	if (selectivity != UNKNOWN_VALUE) {
+                		cost = Math.max(childCost * selectivity, Math.min(childCost, 1));
+                	}
+                }
                 if (compCrit.getOperator() == CompareCriteria.NE) {
                     isNegatedPredicateCriteria = true;
                 }
@@ -830,6 +838,15 @@ public class NewCalculateCostUtil {
             }
             cost = childCost * setCriteria.getNumberOfValues() / ndv;
             
+            float selectivity = 0;
+            for (Iterator<?> iter = setCriteria.getValues().iterator(); iter.hasNext() && selectivity != UNKNOWN_VALUE;) {
+            	float valueSelectivity = getEqualitySelectivity(setCriteria.getExpression(), (Expression)iter.next(), metadata);
+            	selectivity = valueSelectivity == UNKNOWN_VALUE?UNKNOWN_VALUE:selectivity + valueSelectivity;
+            }
+            if (selectivity != UNKNOWN_VALUE) {
+            	cost = Math.max(childCost * selectivity, Math.min(childCost, 1));
+            }
+            
             isNegatedPredicateCriteria = setCriteria.isNegated();
             
         } else if(predicateCriteria instanceof SubquerySetCriteria) {
@@ -921,6 +938,21 @@ public class NewCalculateCostUtil {
         }
         ElementSymbol element = (ElementSymbol)compCrit.getLeftExpression();
         Class<?> dataType = compCrit.getRightExpression().getType();
+        
+        ColumnStats stats = metadata.getColumnStats(element.getMetadataID());
+        Constant value = (Constant)compCrit.getRightExpression();
+        if (stats != null && !unknownChildCost && value.getValue() != null && !value.isMultiValued()) {
+        	try {
+        		boolean lessThan = compCrit.getOperator() == CompareCriteria.LT || compCrit.getOperator() == CompareCriteria.LE;
+        		float selectivity = ColumnStatsUtil.getLessThanSelectivity(stats, value.getValue(), dataType, 
+        				compCrit.getOperator() == CompareCriteria.LE || compCrit.getOperator() == CompareCriteria.GT);
+        		if (selectivity != UNKNOWN_VALUE) {
+        			return childCost * getNonNullFraction(element, metadata) * (lessThan?selectivity:(1 - selectivity));
+        		}
+        	} catch (TransformationException e) {
+        		//fall back to the min/max estimate
+        	}
+        }
     
         String max = (String)metadata.getMaximumValue(element.getMetadataID());
         String min = (String)metadata.getMinimumValue(element.getMetadataID());
@@ -935,7 +967,6 @@ public class NewCalculateCostUtil {
             float maxValue = 0;
             float minValue = 0;
 
-            Constant value = (Constant)compCrit.getRightExpression();
             float compareValue = 0;
         	// Case 6257 - handling added for time and date.  If the max/min values are not
             // in the expected format, NumberFormatException is thrown and reverts to default costing.
@@ -995,6 +1026,51 @@ public class NewCalculateCostUtil {
         return cost;
     }
     
+    /**
+     * Estimate the fraction of rows where the element equals the constant value using
+     * the most common value statistics.
+     * @return the selectivity or UNKNOWN_VALUE if it cannot be determined
+     */
+    private static float getEqualitySelectivity(Expression ex, Expression valueEx, QueryMetadataInterface metadata) throws QueryMetadataException, TeiidComponentException {
+    	if (!(ex instanceof ElementSymbol) || !(valueEx instanceof Constant)) {
+    		return UNKNOWN_VALUE;
+    	}
+    	Constant value = (Constant)valueEx;
+    	if (value.getValue() == null || value.isMultiValued()) {
+    		return UNKNOWN_VALUE;
+    	}
+    	ElementSymbol element = (ElementSymbol)ex;
+    	ColumnStats stats = metadata.getColumnStats(element.getMetadataID());
+    	if (stats == null) {
+    		return UNKNOWN_VALUE;
+    	}
+    	try {
+    		float selectivity = ColumnStatsUtil.getEqualitySelectivity(stats, value.getValue(), element.getType(), metadata.getDistinctValues(element.getMetadataID()));
+    		if (selectivity == UNKNOWN_VALUE) {
+    			return UNKNOWN_VALUE;
+    		}
+    		return selectivity * getNonNullFraction(element, metadata);
+    	} catch (TransformationException e) {
+    		return UNKNOWN_VALUE;
+    	}
+    }
+    
+    /**
+     * The histogram and most common value frequencies are relative to the non-null values,
+     * so scale them by the fraction of the group's rows that are not null. 
+     */
+    private static float getNonNullFraction(ElementSymbol element, QueryMetadataInterface metadata) throws QueryMetadataException, TeiidComponentException {
+    	float nnv = metadata.getNullValues(element.getMetadataID());
+    	if (nnv <= 0 || element.getGroupSymbol() == null) {
+    		return 1;
+    	}
+    	int groupCardinality = metadata.getCardinality(element.getGroupSymbol().getMetadataID());
+    	if (groupCardinality <= 0) {
+    		return 1;
+    	}
+    	return Math.max(0, 1 - nnv / groupCardinality);
+    }
+    
     static boolean usesKey(PlanNode planNode, Collection<? extends Expression> allElements, QueryMetadataInterface metadata) throws QueryMetadataException, TeiidComponentException {
     	//TODO: key preserved joins should be marked
     	return isSingleTable(planNode)
@@ -103,16 +103,16 @@ public final class RuleChooseDependent implements OptimizerRule {
             }
             
             if (dca.expectedCardinality != null) {
-                pushCriteria |= markDependent(dependentNode, joinNode, metadata, dca);
+                pushCriteria |= markAdaptiveDependent(dependentNode, joinNode, metadata, dca);
             } else {
             	float sourceCost = NewCalculateCostUtil.computeCostForTree(sourceNode, metadata);
             	float siblingCost = NewCalculateCostUtil.computeCostForTree(siblingNode, metadata);
             	
                 if (bothCandidates && sourceCost != NewCalculateCostUtil.UNKNOWN_VALUE && sourceCost < RuleChooseDependent.DEFAULT_INDEPENDENT_CARDINALITY 
                 		&& (sourceCost < siblingCost || siblingCost == NewCalculateCostUtil.UNKNOWN_VALUE)) {
-                    pushCriteria |= markDependent(siblingNode, joinNode, metadata, null);
+                    pushCriteria |= markAdaptiveDependent(siblingNode, joinNode, metadata, null);
                 } else if (siblingCost != NewCalculateCostUtil.UNKNOWN_VALUE && siblingCost < RuleChooseDependent.DEFAULT_INDEPENDENT_CARDINALITY) {
-                    pushCriteria |= markDependent(sourceNode, joinNode, metadata, null);
+                    pushCriteria |= markAdaptiveDependent(sourceNode, joinNode, metadata, null);
                 }
             }
         }
@@ -253,6 +253,19 @@ public final class RuleChooseDependent implements OptimizerRule {
         return null;
     }
 
+    /**
+     * Mark the specified access node to be made dependent based upon estimates.  Unlike a hinted or 
+     * access pattern dependent join, the join may fall back to a full fetch of the dependent side if
+     * the actual independent values would require too many dependent queries.
+     */
+    private boolean markAdaptiveDependent(PlanNode sourceNode, PlanNode joinNode, QueryMetadataInterface metadata, DependentCostAnalysis dca) throws QueryMetadataException, TeiidComponentException {
+    	if (!markDependent(sourceNode, joinNode, metadata, dca)) {
+    		return false;
+    	}
+    	joinNode.setProperty(NodeConstants.Info.IS_ADAPTIVE_DEP, Boolean.TRUE);
+    	return true;
+    }
+
     /**
      * Mark the specified access node to be made dependent
      * @param sourceNode Node to make dependent
@@ -44,6 +44,7 @@ import org.teiid.query.optimizer.relational.plantree.NodeEditor;
 import org.teiid.query.optimizer.relational.plantree.NodeFactory;
 import org.teiid.query.optimizer.relational.plantree.PlanNode;
 import org.teiid.query.optimizer.relational.plantree.NodeConstants.Info;
+import org.teiid.query.processor.relational.HashJoinStrategy;
 import org.teiid.query.processor.relational.RelationalNode;
 import org.teiid.query.processor.relational.JoinNode.JoinStrategyType;
 import org.teiid.query.processor.relational.MergeJoinStrategy.SortOption;
@@ -101,6 +102,11 @@ public class RuleImplementJoinStrategy implements OptimizerRule {
             	continue;
             } 
             
+            if (context != null && shouldUseHashJoin(joinNode, metadata, capabilitiesFinder, context)) {
+            	joinNode.setProperty(NodeConstants.Info.JOIN_STRATEGY, JoinStrategyType.HASH);
+            	continue;
+            }
+            
             /**
              * Don't push sorts for unbalanced inner joins, we prefer to use a processing time cost based decision 
              */
@@ -204,6 +210,49 @@ public class RuleImplementJoinStrategy implements OptimizerRule {
         return plan;
     }
 
+    /**
+     * Prefer a hash join over sorting when both sides are large, neither side can have its
+     * sort pushed to the source, and the join keys can be hashed.
+     */
+    static boolean shouldUseHashJoin(PlanNode joinNode, QueryMetadataInterface metadata, CapabilitiesFinder capFinder, CommandContext context) 
+    		throws QueryMetadataException, TeiidComponentException {
+    	JoinType joinType = (JoinType) joinNode.getProperty(NodeConstants.Info.JOIN_TYPE);
+    	if ((joinType != JoinType.JOIN_INNER && joinType != JoinType.JOIN_LEFT_OUTER) 
+    			|| joinNode.getProperty(NodeConstants.Info.DEPENDENT_VALUE_SOURCE) != null) {
+    		return false;
+    	}
+    	List<Expression> leftExpressions = (List<Expression>) joinNode.getProperty(NodeConstants.Info.LEFT_EXPRESSIONS);
+        List<Expression> rightExpressions = (List<Expression>) joinNode.getProperty(NodeConstants.Info.RIGHT_EXPRESSIONS);
+        for (int i = 0; i < leftExpressions.size(); i++) {
+        	Class<?> type = leftExpressions.get(i).getType();
+        	if (type != rightExpressions.get(i).getType() || !HashJoinStrategy.isHashable(type)) {
+        		return false;
+        	}
+        }
+    	float leftCost = NewCalculateCostUtil.computeCostForTree(joinNode.getFirstChild(), metadata);
+    	float rightCost = NewCalculateCostUtil.computeCostForTree(joinNode.getLastChild(), metadata);
+    	if (leftCost == NewCalculateCostUtil.UNKNOWN_VALUE || rightCost == NewCalculateCostUtil.UNKNOWN_VALUE 
+    			|| leftCost <= context.getProcessorBatchSize() || rightCost <= context.getProcessorBatchSize()) {
+    		//small sides are handled well by the enhanced sort join index
+    		return false;
+    	}
+    	return !canAvoidSort(joinNode.getFirstChild(), leftExpressions, metadata, capFinder) 
+    		&& !canAvoidSort(joinNode.getLastChild(), rightExpressions, metadata, capFinder);
+    }
+    
+    private static boolean canAvoidSort(PlanNode childNode, List<Expression> expressions, QueryMetadataInterface metadata, CapabilitiesFinder capFinder) 
+    		throws QueryMetadataException, TeiidComponentException {
+    	PlanNode sourceNode = FrameUtil.findJoinSourceNode(childNode);
+    	if (sourceNode.getType() == NodeConstants.Types.GROUP) {
+    		return true;
+    	}
+    	if (sourceNode.getType() != NodeConstants.Types.ACCESS) {
+    		return false;
+    	}
+    	PlanNode sortNode = createSortNode(new ArrayList<Expression>(new LinkedHashSet<Expression>(expressions)), (List<Expression>)childNode.getProperty(NodeConstants.Info.OUTPUT_COLS));
+    	return RuleRaiseAccess.canRaiseOverSort(sourceNode, metadata, capFinder, sortNode, null, false);
+    }
+
     /**
      * Insert a sort node under the merge join node.  If necessary, also insert a project
      * node to handle function evaluation.  
@@ -27,6 +27,7 @@ import java.util.*;
 import org.teiid.api.exception.query.QueryMetadataException;
 import org.teiid.api.exception.query.QueryPlannerException;
 import org.teiid.core.TeiidComponentException;
+import org.teiid.core.util.PropertiesUtils;
 import org.teiid.query.QueryPlugin;
 import org.teiid.query.analysis.AnalysisRecord;
 import org.teiid.query.metadata.QueryMetadataInterface;
@@ -79,11 +80,19 @@ import org.teiid.translator.ExecutionFactory.SupportedJoinCriteria;
  *         
  *  Stage 5.  The remaining join regions will be ordered in a left linear tree based
  *  upon a an exhaustive, or random, algorithm that considers costing and criteria information.
+ *      a. Regions larger than the exhaustive search size are planned by dynamic programming
+ *         over the subsets of join sources.  If that exceeds the search budget, the partially
+ *         exhaustive and greedy search is used instead.
  *   
  */
 public class RulePlanJoins implements OptimizerRule {
     
     public static final int EXHAUSTIVE_SEARCH_GROUPS = 6;
+    
+    /**
+     * The maximum number of join prefixes considered by the dynamic programming search
+     */
+    public static final int JOIN_ENUMERATION_BUDGET = PropertiesUtils.getIntProperty(System.getProperties(), "org.teiid.joinEnumerationBudget", 1 << 20); //$NON-NLS-1$
                 
     /** 
      * @see org.teiid.query.optimizer.relational.OptimizerRule#execute(org.teiid.query.optimizer.relational.plantree.PlanNode, org.teiid.query.metadata.QueryMetadataInterface, org.teiid.query.optimizer.capabilities.CapabilitiesFinder, org.teiid.query.optimizer.relational.RuleStack, org.teiid.query.analysis.AnalysisRecord, org.teiid.query.util.CommandContext)
@@ -504,7 +513,10 @@ public class RulePlanJoins implements OptimizerRule {
      * regions up to the exhaustive search group size all possible left linear join
      * trees will be searched in O(n!) time.
      * 
-     * Beyond this number, every join will be determined greedily in O(n^2) time.
+     * Beyond this number the best order is found by dynamic programming over the subsets 
+     * of join sources in at most O(n*2^n) time.  If the search budget is exceeded, the
+     * exhaustive search is limited and every remaining join will be determined greedily 
+     * in O(n^2) time.
      *  
      * TODO: this method together with scoreRegion have not been optimized 
      * 
@@ -516,6 +528,13 @@ public class RulePlanJoins implements OptimizerRule {
     Object[] findBestJoinOrder(JoinRegion region, QueryMetadataInterface metadata, CapabilitiesFinder capFinder, CommandContext context) throws QueryMetadataException, TeiidComponentException, QueryPlannerException {
         int regionCount = region.getJoinSourceNodes().size();
         
+        if (regionCount > EXHAUSTIVE_SEARCH_GROUPS) {
+        	Object[] order = region.findJoinOrder(metadata, capFinder, context, JOIN_ENUMERATION_BUDGET);
+        	if (order != null) {
+        		return order;
+        	}
+        }
+        
         List<Integer> orderList = new ArrayList<Integer>(regionCount);
         for(int i=0; i<regionCount; i++) {
             orderList.add(new Integer(i));
@@ -37,6 +37,8 @@ import org.teiid.query.optimizer.relational.plantree.NodeConstants;
 import org.teiid.query.optimizer.relational.plantree.NodeEditor;
 import org.teiid.query.optimizer.relational.plantree.PlanNode;
 import org.teiid.query.optimizer.relational.plantree.NodeConstants.Info;
+import org.teiid.query.processor.relational.GroupingNode;
+import org.teiid.query.processor.relational.HashJoinStrategy;
 import org.teiid.query.processor.relational.JoinNode.JoinStrategyType;
 import org.teiid.query.processor.relational.MergeJoinStrategy.SortOption;
 import org.teiid.query.sql.lang.OrderBy;
@@ -58,16 +60,21 @@ import org.teiid.query.util.CommandContext;
  */
 public class RulePlanSorts implements OptimizerRule {
 	
+	/**
+	 * The minimum ratio of input rows to groups for hash aggregation
+	 */
+	static final int HASH_GROUP_RATIO = 8;
+	
 	@Override
 	public PlanNode execute(PlanNode plan, QueryMetadataInterface metadata,
 			CapabilitiesFinder capabilitiesFinder, RuleStack rules,
 			AnalysisRecord analysisRecord, CommandContext context)
 			throws QueryPlannerException, QueryMetadataException,
 			TeiidComponentException {
-		return optimizeSorts(false, plan, plan, metadata, capabilitiesFinder, analysisRecord);
+		return optimizeSorts(false, plan, plan, metadata, capabilitiesFinder, analysisRecord, context);
 	}
 
-	private PlanNode optimizeSorts(boolean parentBlocking, PlanNode node, PlanNode root, QueryMetadataInterface metadata, CapabilitiesFinder capFinder, AnalysisRecord record) throws QueryMetadataException, TeiidComponentException, QueryPlannerException {
+	private PlanNode optimizeSorts(boolean parentBlocking, PlanNode node, PlanNode root, QueryMetadataInterface metadata, CapabilitiesFinder capFinder, AnalysisRecord record, CommandContext context) throws QueryMetadataException, TeiidComponentException, QueryPlannerException {
 		node = NodeEditor.findNodePreOrder(node, 
 				NodeConstants.Types.SORT 
 				| NodeConstants.Types.DUP_REMOVE 
@@ -164,13 +171,16 @@ public class RulePlanSorts implements OptimizerRule {
 						child = child.getFirstChild();
 					}
 				}
+			} else if (context != null && shouldUseHashGroup(node, map, metadata, context)) {
+				node.setProperty(NodeConstants.Info.IS_HASH_GROUP, true);
 			}
 			//TODO: check the join interesting order
 			parentBlocking = true;
 			break;
 		case NodeConstants.Types.JOIN:
 			if (node.getProperty(NodeConstants.Info.JOIN_STRATEGY) == JoinStrategyType.NESTED_LOOP 
-					|| node.getProperty(NodeConstants.Info.JOIN_STRATEGY) == JoinStrategyType.NESTED_TABLE) {
+					|| node.getProperty(NodeConstants.Info.JOIN_STRATEGY) == JoinStrategyType.NESTED_TABLE
+					|| node.getProperty(NodeConstants.Info.JOIN_STRATEGY) == JoinStrategyType.HASH) {
 				break;
 			}
 			/*
@@ -206,11 +216,40 @@ public class RulePlanSorts implements OptimizerRule {
 			break;
 		}
 		for (PlanNode child : node.getChildren()) {
-			root = optimizeSorts(parentBlocking, child, root, metadata, capFinder, record);
+			root = optimizeSorts(parentBlocking, child, root, metadata, capFinder, record, context);
 		}
 		return root;
 	}
 
+	/**
+	 * Use hash aggregation when the output order is not needed and the number of groups
+	 * is expected to be small relative to the input.
+	 */
+	static boolean shouldUseHashGroup(PlanNode node, SymbolMap map, QueryMetadataInterface metadata, CommandContext context) 
+			throws QueryMetadataException, TeiidComponentException {
+		if (node.getProperty(Info.SORT_ORDER) != null) {
+			//the parent relies on the ordering of the groups
+			return false;
+		}
+		List<Expression> groupCols = (List<Expression>)node.getProperty(Info.GROUP_COLS);
+		for (Expression ex : groupCols) {
+			if (!HashJoinStrategy.isHashable(ex.getType())) {
+				return false;
+			}
+		}
+		for (Expression ex : map.asMap().values()) {
+			if (ex instanceof AggregateSymbol && !GroupingNode.supportsHashAggregation((AggregateSymbol)ex)) {
+				return false;
+			}
+		}
+		float childCost = NewCalculateCostUtil.computeCostForTree(node.getFirstChild(), metadata);
+		if (childCost == NewCalculateCostUtil.UNKNOWN_VALUE || childCost <= context.getProcessorBatchSize()) {
+			return false;
+		}
+		float ndv = NewCalculateCostUtil.getNDVEstimate(node.getFirstChild(), metadata, childCost, groupCols, false);
+		return ndv != NewCalculateCostUtil.UNKNOWN_VALUE && ndv * HASH_GROUP_RATIO <= childCost;
+	}
+
 	private PlanNode checkForProjectOptimization(PlanNode node, PlanNode root, 
 			QueryMetadataInterface metadata, CapabilitiesFinder capFinder, AnalysisRecord record) throws QueryMetadataException, TeiidComponentException, QueryPlannerException {
 		PlanNode projectNode = node.getFirstChild();
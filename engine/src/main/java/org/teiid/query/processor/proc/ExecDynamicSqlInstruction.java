@@ -26,10 +26,12 @@ import static org.teiid.query.analysis.AnalysisRecord.*;
 
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.teiid.api.exception.query.QueryProcessingException;
 import org.teiid.client.plan.PlanNode;
@@ -38,14 +40,17 @@ import org.teiid.core.TeiidComponentException;
 import org.teiid.core.TeiidProcessingException;
 import org.teiid.core.id.IDGenerator;
 import org.teiid.core.types.DataTypeManager;
+import org.teiid.dqp.internal.process.PreparedPlan;
 import org.teiid.dqp.internal.process.Request;
 import org.teiid.language.SQLConstants.Reserved;
 import org.teiid.logging.LogManager;
 import org.teiid.metadata.Column;
+import org.teiid.metadata.FunctionMethod.Determinism;
 import org.teiid.query.QueryPlugin;
 import org.teiid.query.analysis.AnalysisRecord;
 import org.teiid.query.metadata.QueryMetadataInterface;
 import org.teiid.query.metadata.TempMetadataAdapter;
+import org.teiid.query.metadata.TempMetadataID;
 import org.teiid.query.metadata.TempMetadataStore;
 import org.teiid.query.optimizer.QueryOptimizer;
 import org.teiid.query.optimizer.capabilities.CapabilitiesFinder;
@@ -68,6 +73,7 @@ import org.teiid.query.sql.symbol.ElementSymbol;
 import org.teiid.query.sql.symbol.Expression;
 import org.teiid.query.sql.symbol.GroupSymbol;
 import org.teiid.query.sql.util.VariableContext;
+import org.teiid.query.sql.visitor.ElementCollectorVisitor;
 import org.teiid.query.util.CommandContext;
 import org.teiid.query.validator.ValidationVisitor;
 
@@ -142,52 +148,94 @@ public class ExecDynamicSqlInstruction extends ProgramInstruction {
 			LogManager.logTrace(org.teiid.logging.LogConstants.CTX_DQP,
 					new Object[] { "Executing dynamic sql ", value }); //$NON-NLS-1$
 
-			Command command = QueryParser.getQueryParser().parseCommand(value.toString());
-			command.setExternalGroupContexts(dynamicCommand.getExternalGroupContexts());
-			command.setTemporaryMetadata(dynamicCommand.getTemporaryMetadata().clone());
+			String query = value.toString();
 			updateContextWithUsingValues(procEnv, localContext);
 			
-			TempMetadataStore metadataStore = command.getTemporaryMetadata();
-            
-            if (dynamicCommand.getUsing() != null
-                            && !dynamicCommand.getUsing().isEmpty()) {
-                metadataStore.addTempGroup(Reserved.USING, new LinkedList<ElementSymbol>(dynamicCommand.getUsing().getClauseMap().keySet()));
-                GroupSymbol using = new GroupSymbol(Reserved.USING);
-                using.setMetadataID(metadataStore.getTempGroupID(Reserved.USING));
-                command.addExternalGroupToContext(using);
-                metadataStore.addTempGroup(ProcedureReservedWords.DVARS, new LinkedList<ElementSymbol>(dynamicCommand.getUsing().getClauseMap().keySet()));
-                using = new GroupSymbol(ProcedureReservedWords.DVARS);
-                using.setMetadataID(metadataStore.getTempGroupID(ProcedureReservedWords.DVARS));
-                command.addExternalGroupToContext(using);
-            }
-
-			QueryResolver.resolveCommand(command, metadata.getDesignTimeMetadata());
-
-			validateDynamicCommand(procEnv, command);
-
-			// create a new set of variables including vars
-			Map<ElementSymbol, Expression> nameValueMap = createVariableValuesMap(localContext);
-            ValidationVisitor visitor = new ValidationVisitor();
-            Request.validateWithVisitor(visitor, metadata, command);
-
-            if (dynamicCommand.getAsColumns() != null
-					&& !dynamicCommand.getAsColumns().isEmpty()) {
-        		command = QueryRewriter.createInlineViewQuery(new GroupSymbol("X"), command, metadata, dynamicCommand.getAsColumns()); //$NON-NLS-1$
-				if (dynamicCommand.getIntoGroup() != null) {
-					Insert insert = new Insert(dynamicCommand.getIntoGroup(), dynamicCommand.getAsColumns(), Collections.emptyList());
-					insert.setQueryExpression((Query)command);
-					command = insert;
+			CommandContext context = procEnv.getContext();
+			String planKey = getPlanCacheKey(query);
+			PreparedPlan pp = context.getPlan(planKey);
+			Command command = null;
+			ProcessorPlan commandPlan = null;
+			if (pp != null) {
+				LogManager.logTrace(org.teiid.logging.LogConstants.CTX_DQP,
+						new Object[] { "Using the cached plan for dynamic sql ", query }); //$NON-NLS-1$
+				pushCall(context);
+				command = pp.getCommand();
+				commandPlan = pp.getPlan().clone();
+				for (Object id : pp.getAccessInfo().getObjectsAccessed()) {
+					context.accessedPlanningObject(id);
 				}
+			} else {
+				command = QueryParser.getQueryParser().parseCommand(query);
+				command.setExternalGroupContexts(dynamicCommand.getExternalGroupContexts());
+				command.setTemporaryMetadata(dynamicCommand.getTemporaryMetadata().clone());
+				
+				TempMetadataStore metadataStore = command.getTemporaryMetadata();
+	            
+	            if (dynamicCommand.getUsing() != null
+	                            && !dynamicCommand.getUsing().isEmpty()) {
+	                metadataStore.addTempGroup(Reserved.USING, new LinkedList<ElementSymbol>(dynamicCommand.getUsing().getClauseMap().keySet()));
+	                GroupSymbol using = new GroupSymbol(Reserved.USING);
+	                using.setMetadataID(metadataStore.getTempGroupID(Reserved.USING));
+	                command.addExternalGroupToContext(using);
+	                metadataStore.addTempGroup(ProcedureReservedWords.DVARS, new LinkedList<ElementSymbol>(dynamicCommand.getUsing().getClauseMap().keySet()));
+	                using = new GroupSymbol(ProcedureReservedWords.DVARS);
+	                using.setMetadataID(metadataStore.getTempGroupID(ProcedureReservedWords.DVARS));
+	                command.addExternalGroupToContext(using);
+	            }
+	
+				QueryResolver.resolveCommand(command, metadata.getDesignTimeMetadata());
+	
+				validateDynamicCommand(procEnv, command);
+	
+	            ValidationVisitor visitor = new ValidationVisitor();
+	            Request.validateWithVisitor(visitor, metadata, command);
+	            
+	            //the plan may only be reused if it does not depend upon the values of procedure variables
+	            boolean cacheable = !hasVariableReferences(command);
+	
+	            if (dynamicCommand.getAsColumns() != null
+						&& !dynamicCommand.getAsColumns().isEmpty()) {
+	        		command = QueryRewriter.createInlineViewQuery(new GroupSymbol("X"), command, metadata, dynamicCommand.getAsColumns()); //$NON-NLS-1$
+					if (dynamicCommand.getIntoGroup() != null) {
+						Insert insert = new Insert(dynamicCommand.getIntoGroup(), dynamicCommand.getAsColumns(), Collections.emptyList());
+						insert.setQueryExpression((Query)command);
+						command = insert;
+					}
+				}
+	            
+	            if (cacheable) {
+	            	//using values are left as references, so that the plan may be reused
+	            	Determinism determinismLevel = context.resetDeterminismLevel();
+	            	CommandContext clone = context.clone();
+	            	command = QueryRewriter.rewrite(command, metadata, clone);
+	            	commandPlan = QueryOptimizer.optimizePlan(command, metadata,
+	    					idGenerator, capFinder, AnalysisRecord
+	    							.createNonRecordingRecord(), clone);
+	            	pp = new PreparedPlan();
+	            	pp.setPlan(commandPlan.clone(), clone);
+	            	pp.setCommand(command);
+	            	Determinism planDeterminism = context.getDeterminismLevel();
+	            	//the plan may depend upon session scoped temp tables
+	            	if (planDeterminism.compareTo(Determinism.SESSION_DETERMINISTIC) > 0) {
+	            		planDeterminism = Determinism.SESSION_DETERMINISTIC;
+	            	}
+	            	context.putPlan(planKey, pp, planDeterminism);
+	            	context.setDeterminismLevel(determinismLevel);
+	            	for (Object id : clone.getPlanningObjects()) {
+	            		context.accessedPlanningObject(id);
+	            	}
+	            } else {
+	    			// create a new set of variables including vars
+	    			Map<ElementSymbol, Expression> nameValueMap = createVariableValuesMap(localContext);
+	    			command = QueryRewriter.rewrite(command, metadata, context,
+	    					nameValueMap);
+	    			commandPlan = QueryOptimizer.optimizePlan(command, metadata,
+	    					idGenerator, capFinder, AnalysisRecord
+	    							.createNonRecordingRecord(), context);
+	            }
 			}
             
-			command = QueryRewriter.rewrite(command, metadata, procEnv.getContext(),
-					nameValueMap);
-
-            ProcessorPlan commandPlan = QueryOptimizer.optimizePlan(command, metadata,
-					idGenerator, capFinder, AnalysisRecord
-							.createNonRecordingRecord(), procEnv
-							.getContext());
-            
 			CreateCursorResultSetInstruction inst = new CreateCursorResultSetInstruction(null, commandPlan, dynamicCommand.getIntoGroup() != null?Mode.UPDATE:returnable?Mode.HOLD:Mode.NOHOLD) {
 				@Override
 				public void process(ProcedurePlan procEnv)
@@ -224,6 +272,54 @@ public class ExecDynamicSqlInstruction extends ProgramInstruction {
 		} 
 	}
 
+	/**
+	 * Get the key for the plan cache.  The plan depends upon the dynamic command
+	 * (including the using clause, as columns, and into group), the temporary
+	 * metadata visible to the procedure, and the sql string. 
+	 */
+	private String getPlanCacheKey(String query) {
+		StringBuilder key = new StringBuilder("dynamic sql:"); //$NON-NLS-1$
+		key.append(parentProcCommand.getVirtualGroup()).append(' ').append(dynamicCommand);
+		if (dynamicCommand.getUsing() != null) {
+			for (ElementSymbol es : dynamicCommand.getUsing().getClauseMap().keySet()) {
+				key.append(' ').append(es.getShortName()).append(' ').append(DataTypeManager.getDataTypeName(es.getType()));
+			}
+		}
+		for (Map.Entry<String, TempMetadataID> entry : dynamicCommand.getTemporaryMetadata().getData().entrySet()) {
+			key.append(' ').append(entry.getKey()).append('(');
+			List<TempMetadataID> elements = entry.getValue().getElements();
+			if (elements != null) {
+				for (TempMetadataID element : elements) {
+					key.append(element.getName()).append(' ').append(DataTypeManager.getDataTypeName(element.getType())).append(',');
+				}
+			}
+			key.append(')');
+		}
+		key.append('\n').append(query);
+		return key.toString();
+	}
+	
+	/**
+	 * Return true if the command references procedure variables other than the using values.
+	 * Those values are propagated as constants into the plan.
+	 */
+	private boolean hasVariableReferences(Command command) {
+		Set<GroupSymbol> variableGroups = new HashSet<GroupSymbol>();
+		if (command.getExternalGroupContexts() != null) {
+			for (GroupSymbol group : command.getExternalGroupContexts().getAllGroups()) {
+				if (!group.getName().equalsIgnoreCase(Reserved.USING) && !group.getName().equalsIgnoreCase(ProcedureReservedWords.DVARS)) {
+					variableGroups.add(group);
+				}
+			}
+		}
+		for (ElementSymbol es : ElementCollectorVisitor.getElements(command, true, true)) {
+			if (es.isExternalReference() && variableGroups.contains(es.getGroupSymbol())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 	/**
 	 * @param procEnv
 	 * @param localContext
@@ -316,9 +412,14 @@ public class ExecDynamicSqlInstruction extends ProgramInstruction {
 			}
 		}
 
-		// do a recursion check
-		// Add group to recursion stack
-		CommandContext context = procEnv.getContext();
+		pushCall(procEnv.getContext());
+	}
+
+	/**
+	 * Add the parent procedure to the recursion stack.  It is removed once the 
+	 * dynamic command has been processed. 
+	 */
+	private void pushCall(CommandContext context) throws QueryProcessingException {
 		if (parentProcCommand.getUpdateType() != Command.TYPE_UNKNOWN) {
 			context.pushCall(Command.getCommandToken(parentProcCommand.getUpdateType()) + " " + parentProcCommand.getVirtualGroup()); //$NON-NLS-1$
 		} else {
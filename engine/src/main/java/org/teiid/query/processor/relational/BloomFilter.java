@@ -0,0 +1,121 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+
+package org.teiid.query.processor.relational;
+
+/**
+ * A simple Bloom filter over the {@link Object#hashCode()} of values.  It should only be 
+ * used for types where equality is consistent with the hash code, see 
+ * {@link org.teiid.core.types.DataTypeManager#isHashable(Class)}.
+ * <br/>
+ * Bit positions are derived by double hashing a 64 bit mix of the hash code.
+ */
+class BloomFilter {
+	
+	static final int MAX_BITS = 1 << 28;
+	
+	private final long[] bits;
+	private final int bitCount;
+	private final int hashCount;
+	
+	/**
+	 * @param expectedValues the number of values that will be added
+	 * @param falsePositiveRate the desired false positive rate, which will be 
+	 * exceeded if the filter size is capped
+	 */
+	BloomFilter(int expectedValues, double falsePositiveRate) {
+		this(expectedValues, falsePositiveRate, MAX_BITS);
+	}
+	
+	/**
+	 * @param maxBits the cap on the filter size, which should be based upon the memory reserved for the filter
+	 */
+	BloomFilter(int expectedValues, double falsePositiveRate, int maxBits) {
+		int n = Math.max(1, expectedValues);
+		long m = getOptimalBitCount(n, falsePositiveRate);
+		m = Math.max(64, Math.min(Math.min(MAX_BITS, maxBits), m));
+		this.bitCount = (int)m;
+		this.bits = new long[(bitCount + 63) >>> 6];
+		this.hashCount = Math.max(1, Math.min(16, (int)Math.round((double)m / n * Math.log(2))));
+	}
+	
+	/**
+	 * @return the number of bits needed for the false positive rate
+	 */
+	static long getOptimalBitCount(int expectedValues, double falsePositiveRate) {
+		int n = Math.max(1, expectedValues);
+		return (long)Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+	}
+	
+	/**
+	 * Add a non-null value
+	 */
+	void add(Object value) {
+		long hash = mix(value.hashCode());
+		int h1 = (int)hash;
+		int h2 = (int)(hash >>> 32);
+		for (int i = 0; i < hashCount; i++) {
+			int index = ((h1 + i * h2) & Integer.MAX_VALUE) % bitCount;
+			bits[index >>> 6] |= 1l << index;
+		}
+	}
+	
+	/**
+	 * @return false if the value was definitely not added.  null values are never contained.
+	 */
+	boolean mightContain(Object value) {
+		if (value == null) {
+			return false;
+		}
+		long hash = mix(value.hashCode());
+		int h1 = (int)hash;
+		int h2 = (int)(hash >>> 32);
+		for (int i = 0; i < hashCount; i++) {
+			int index = ((h1 + i * h2) & Integer.MAX_VALUE) % bitCount;
+			if ((bits[index >>> 6] & (1l << index)) == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	int getBitCount() {
+		return bitCount;
+	}
+	
+	int getHashCount() {
+		return hashCount;
+	}
+	
+	/**
+	 * the murmur3 64 bit finalizer
+	 */
+	private static long mix(long h) {
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdl;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53l;
+		h ^= h >>> 33;
+		return h;
+	}
+
+}
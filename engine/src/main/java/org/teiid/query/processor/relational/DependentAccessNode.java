@@ -25,6 +25,7 @@ package org.teiid.query.processor.relational;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import org.teiid.core.TeiidComponentException;
 import org.teiid.core.TeiidProcessingException;
@@ -34,6 +35,8 @@ import org.teiid.query.sql.lang.Criteria;
 import org.teiid.query.sql.lang.DependentSetCriteria;
 import org.teiid.query.sql.lang.Query;
 import org.teiid.query.sql.lang.QueryCommand;
+import org.teiid.query.sql.symbol.Expression;
+import org.teiid.query.sql.util.SymbolMap;
 
 
 /**
@@ -53,6 +56,8 @@ public class DependentAccessNode extends AccessNode {
     private DependentCriteriaProcessor criteriaProcessor;
     private Criteria dependentCrit;
     private boolean sort = true;
+    private BloomFilter[] filters;
+    private int[] filterIndexes;
     /**
      * Cached rewritten command to be used as the base for all dependent queries.
      */
@@ -79,6 +84,8 @@ public class DependentAccessNode extends AccessNode {
         dependentCrit = null;
         sort = true;
         rewrittenCommand = null;
+        filters = null;
+        filterIndexes = null;
     }
     
     @Override
@@ -165,6 +172,9 @@ public class DependentAccessNode extends AccessNode {
         
         if (this.dependentCrit == null) {
             dependentCrit = criteriaProcessor.prepareCriteria();
+            if (this.filters == null) {
+            	initFilters(query);
+            }
         }
         
         query.setCriteria(dependentCrit);
@@ -196,6 +206,47 @@ public class DependentAccessNode extends AccessNode {
         return result;
     }
 
+    /**
+     * Determine the output columns that can be pruned by the filters of unused dependent criteria.
+     * The rows are checked after projection, so the indexes are against the original select.
+     */
+    private void initFilters(Query query) {
+    	Map<Expression, BloomFilter> filterMap = criteriaProcessor.getFilters();
+    	List<BloomFilter> filterList = new ArrayList<BloomFilter>(filterMap.size());
+    	List<Integer> indexes = new ArrayList<Integer>(filterMap.size());
+    	List<Expression> select = query.getSelect().getSymbols();
+    	if (getProjection() != null && getProjection().length > 0 && getOriginalSelect() != null) {
+    		select = getOriginalSelect();
+    	}
+    	for (Map.Entry<Expression, BloomFilter> entry : filterMap.entrySet()) {
+    		for (int i = 0; i < select.size(); i++) {
+    			if (SymbolMap.getExpression(select.get(i)).equals(entry.getKey())) {
+    				filterList.add(entry.getValue());
+    				indexes.add(i);
+    				break;
+    			}
+    		}
+		}
+    	this.filters = filterList.toArray(new BloomFilter[filterList.size()]);
+    	this.filterIndexes = new int[indexes.size()];
+    	for (int i = 0; i < filterIndexes.length; i++) {
+    		filterIndexes[i] = indexes.get(i);
+    	}
+    }
+    
+    @Override
+    protected void addBatchRow(List<?> row) {
+    	if (filters != null) {
+    		for (int i = 0; i < filters.length; i++) {
+    			if (!filters[i].mightContain(row.get(filterIndexes[i]))) {
+    				//the row cannot match the independent side
+    				return;
+    			}
+    		}
+    	}
+    	super.addBatchRow(row);
+    }
+
     /**
      * @see org.teiid.query.processor.relational.AccessNode#hasNextCommand()
      */
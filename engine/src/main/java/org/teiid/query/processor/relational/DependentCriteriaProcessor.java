@@ -26,9 +26,12 @@ import java.util.*;
 
 import org.teiid.api.exception.query.ExpressionEvaluationException;
 import org.teiid.common.buffer.BlockedException;
+import org.teiid.common.buffer.BufferManager;
+import org.teiid.common.buffer.BufferManager.BufferReserveMode;
 import org.teiid.core.TeiidComponentException;
 import org.teiid.core.TeiidProcessingException;
 import org.teiid.core.types.DataTypeManager;
+import org.teiid.core.util.PropertiesUtils;
 import org.teiid.logging.LogConstants;
 import org.teiid.logging.LogManager;
 import org.teiid.query.QueryPlugin;
@@ -67,6 +70,8 @@ public class DependentCriteriaProcessor {
         
         boolean overMax;
         
+        BloomFilter filter;
+        
         long replacementSize() {
     		return replacement.size() * valueCount;
     	}
@@ -113,6 +118,9 @@ public class DependentCriteriaProcessor {
                 }
             	for (SetState setState : dependentSetStates) {
                     setState.valueIterator = dvs.getValueIterator(setState.valueExpression);
+                    if (setState.maxNdv <= 0 && originalVs.isAdaptive()) {
+                    	setState.maxNdv = getAdaptiveMaxNdv(setState);
+                    }
                     int distinctCount = dvs.getTupleBuffer().getRowCount();
                     if (setState.maxNdv <= 0 || setState.maxNdv >= distinctCount) {
                     	continue;
@@ -158,11 +166,50 @@ public class DependentCriteriaProcessor {
                 	if (!setState.overMax && distinctCount > setState.maxNdv) {
                 		LogManager.logWarning(LogConstants.CTX_DQP, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID30011, valueSource, setState.valueExpression, setState.maxNdv));
                 		setState.overMax = true;
+                		createFilter(setState);
                 	}
     			}
             }
         }
         
+        /**
+         * Create a filter over the independent values so that the dependent rows can still be 
+         * pruned when the criteria is not used
+         */
+        private void createFilter(SetState setState) throws TeiidComponentException {
+        	if (!USE_BLOOM_FILTER || setState.valueCount > 1 || !DataTypeManager.isHashable(setState.valueExpression.getType())) {
+        		return;
+        	}
+        	int expectedValues = dvs.getTupleBuffer().getRowCount();
+        	//reserve the filter memory, falling back to a smaller filter with a higher false positive rate
+        	int bytes = (int)Math.min(BloomFilter.MAX_BITS >> 3, (BloomFilter.getOptimalBitCount(expectedValues, BLOOM_FILTER_FALSE_POSITIVE_RATE) >> 3) + 8);
+        	//below one bit per value the filter is of little use
+        	int minBytes = (expectedValues >> 3) + 8;
+        	BufferManager bm = dependentNode.getBufferManager();
+        	int reserved = 0;
+        	while (true) {
+        		reserved = bm.reserveBuffers(bytes, BufferReserveMode.NO_WAIT);
+        		if (reserved > 0 || bytes <= minBytes) {
+        			break;
+        		}
+        		bytes = Math.max(minBytes, bytes / 2);
+        	}
+        	if (reserved == 0) {
+        		LogManager.logDetail(LogConstants.CTX_DQP, "Not enough memory available for a dependent join bloom filter of", expectedValues, "values"); //$NON-NLS-1$ //$NON-NLS-2$
+        		return;
+        	}
+        	filterReserved += reserved;
+        	BloomFilter filter = new BloomFilter(expectedValues, BLOOM_FILTER_FALSE_POSITIVE_RATE, reserved << 3);
+        	ValueIterator vi = dvs.getValueIterator(setState.valueExpression);
+        	while (vi.hasNext()) {
+        		Object next = vi.next();
+        		if (next != null) {
+        			filter.add(next);
+        		}
+        	}
+        	setState.filter = filter;
+        }
+        
         public void close() {
             if (dvs != null) {
             	sortUtility = null;
@@ -179,6 +226,19 @@ public class DependentCriteriaProcessor {
         
     }
     
+    /**
+     * The number of source queries beyond which an adaptive dependent join will instead fetch the 
+     * dependent side without the dependent criteria
+     */
+    public static final int MAX_DEPENDENT_QUERIES = PropertiesUtils.getIntProperty(System.getProperties(), "org.teiid.maxDependentQueries", 256); //$NON-NLS-1$
+    
+    /**
+     * If a Bloom filter of the independent values should be used to prune the dependent rows
+     * when the dependent criteria is not used
+     */
+    public static final boolean USE_BLOOM_FILTER = PropertiesUtils.getBooleanProperty(System.getProperties(), "org.teiid.dependentJoinBloomFilter", true); //$NON-NLS-1$
+    private static final double BLOOM_FILTER_FALSE_POSITIVE_RATE = .01;
+    
     private static final int SORT = 2;
     private static final int SET_PROCESSING = 3;
 
@@ -186,6 +246,7 @@ public class DependentCriteriaProcessor {
     private int maxSetSize;
     private int maxPredicates;
     private RelationalNode dependentNode;
+    private int filterReserved;
     private Criteria dependentCrit;
 
     //initialization state
@@ -250,7 +311,41 @@ public class DependentCriteriaProcessor {
         }        
     }
 
+    /**
+     * Get the number of distinct values that can be processed by an adaptive 
+     * dependent join within {@link #MAX_DEPENDENT_QUERIES}
+     */
+    float getAdaptiveMaxNdv(SetState state) {
+    	if (this.maxSetSize <= 0 || MAX_DEPENDENT_QUERIES <= 0) {
+    		//a single query will be used
+    		return NewCalculateCostUtil.UNKNOWN_VALUE;
+    	}
+    	long valuesPerQuery = Math.max(1, this.maxSetSize/state.valueCount);
+    	if (this.maxPredicates > 0) {
+    		valuesPerQuery *= Math.max(1, this.maxPredicates/setStates.size());
+    	}
+    	return (float)valuesPerQuery * MAX_DEPENDENT_QUERIES;
+    }
+
+    /**
+     * Get the filters for the dependent expressions whose criteria will not be used.
+     * Only valid after the first call to {@link #prepareCriteria()}
+     */
+    public Map<Expression, BloomFilter> getFilters() {
+    	Map<Expression, BloomFilter> result = new LinkedHashMap<Expression, BloomFilter>();
+    	for (Map.Entry<Integer, SetState> entry : setStates.entrySet()) {
+    		if (entry.getValue().filter != null) {
+    			result.put(((AbstractSetCriteria)queryCriteria.get(entry.getKey())).getExpression(), entry.getValue().filter);
+    		}
+    	}
+    	return result;
+    }
+
     public void close() {
+        if (filterReserved > 0) {
+        	dependentNode.getBufferManager().releaseBuffers(filterReserved);
+        	filterReserved = 0;
+        }
         if (dependentState != null) {
             for (TupleState state : dependentState.values()) {
 				state.close();
@@ -53,6 +53,7 @@ public class DependentValueSource implements
     private Map<Expression, Set<Object>> cachedSets;
     private boolean unused; //TODO: use this value instead of the context
     private boolean distinct;
+    private boolean adaptive;
 
     public DependentValueSource(TupleBuffer tb) {
     	this(tb, tb.getSchema());
@@ -167,5 +168,17 @@ public class DependentValueSource implements
     public void setDistinct(boolean distinct) {
 		this.distinct = distinct;
 	}
+    
+    /**
+     * @return true if the dependent criteria may be replaced by a full fetch when 
+     * the values would require too many dependent queries
+     */
+    public boolean isAdaptive() {
+		return adaptive;
+	}
+    
+    public void setAdaptive(boolean adaptive) {
+		this.adaptive = adaptive;
+	}
            
 }
@@ -0,0 +1,293 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+
+package org.teiid.query.processor.relational;
+
+import java.util.ArrayDeque;
+
+import org.teiid.common.buffer.BlockedException;
+import org.teiid.common.buffer.TupleBatch;
+import org.teiid.core.TeiidComponentException;
+import org.teiid.core.TeiidException;
+import org.teiid.core.TeiidProcessingException;
+import org.teiid.core.TeiidRuntimeException;
+import org.teiid.dqp.internal.process.DQPWorkContext;
+import org.teiid.dqp.internal.process.RequestWorkItem;
+import org.teiid.dqp.service.TransactionContext;
+import org.teiid.dqp.service.TransactionContext.Scope;
+import org.teiid.logging.LogConstants;
+import org.teiid.logging.LogManager;
+import org.teiid.logging.MessageLevel;
+import org.teiid.query.sql.visitor.ValueIteratorProviderCollectorVisitor;
+import org.teiid.query.util.CommandContext;
+
+/**
+ * Processes the child subtree using a thread from the {@link org.teiid.query.util.CommandContext#getExecutor()}
+ * so that independent branches of the plan may be processed concurrently.
+ * <br/>
+ * Batches are exchanged with the processing thread through a bounded queue.  The worker
+ * stops when the queue is full or the child blocks and is resumed when the parent pulls the next batch.
+ * <br/>
+ * If there is no work item to notify or the request is transactional the child is processed
+ * by the calling thread.  Otherwise the child subtree is given its own {@link CommandContext}
+ * so that caches which are not safe for concurrent use are not shared with the processing thread.
+ */
+public class ExchangeNode extends RelationalNode {
+
+	static final int MAX_QUEUED_BATCHES = 2;
+
+	private enum State {
+		IDLE,
+		RUNNING,
+		DONE
+	}
+
+	private ArrayDeque<TupleBatch> queue = new ArrayDeque<TupleBatch>(MAX_QUEUED_BATCHES);
+	private State state = State.IDLE;
+	private boolean parallel;
+	private boolean closing;
+	private boolean consumerWaiting;
+	private TeiidRuntimeException asynchException;
+	private RequestWorkItem workItem;
+
+	public ExchangeNode(int nodeID) {
+		super(nodeID);
+	}
+
+	/**
+	 * Return true if the subtree can be safely processed by a thread other than the
+	 * processing thread.  Nodes that depend upon state set by their parent,
+	 * such as dependent criteria or nested table references, or that evaluate subqueries are excluded.
+	 */
+	public static boolean canProcessInParallel(RelationalNode node) {
+		Class<?> clazz = node.getClass();
+		if (clazz != AccessNode.class && clazz != ProjectNode.class && clazz != SelectNode.class
+				&& clazz != SortNode.class && clazz != GroupingNode.class && clazz != JoinNode.class
+				&& clazz != UnionAllNode.class && clazz != LimitNode.class) {
+			return false;
+		}
+		if (node instanceof JoinNode) {
+			JoinNode joinNode = (JoinNode)node;
+			if (joinNode.isDependent() || joinNode.getJoinStrategy() instanceof NestedTableJoinStrategy) {
+				return false;
+			}
+		}
+		if (node instanceof SubqueryAwareRelationalNode
+				&& !ValueIteratorProviderCollectorVisitor.getValueIteratorProviders(((SubqueryAwareRelationalNode)node).getObjects()).isEmpty()) {
+			return false;
+		}
+		for (RelationalNode child : node.getChildren()) {
+			if (child == null) {
+				break;
+			}
+			if (!canProcessInParallel(child)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Return true if the subtree performs processing beyond passing through source results.
+	 */
+	public static boolean hasProcessingWork(RelationalNode node) {
+		if (node instanceof SortNode || node instanceof GroupingNode || node instanceof JoinNode || node instanceof UnionAllNode) {
+			return true;
+		}
+		for (RelationalNode child : node.getChildren()) {
+			if (child == null) {
+				break;
+			}
+			if (hasProcessingWork(child)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public void open() throws TeiidComponentException,
+			TeiidProcessingException {
+		this.workItem = getContext().getWorkItem();
+		TransactionContext tc = getContext().getTransactionContext();
+		this.parallel = this.workItem != null && (tc == null || tc.getTransactionType() == Scope.NONE);
+		if (this.parallel) {
+			setContext(getChildren()[0], getContext().cloneForWorker());
+		}
+		super.open();
+		if (this.parallel) {
+			synchronized (this) {
+				schedule();
+			}
+		}
+	}
+
+	@Override
+	protected TupleBatch nextBatchDirect() throws BlockedException,
+			TeiidComponentException, TeiidProcessingException {
+		if (!this.parallel) {
+			return getChildren()[0].nextBatch();
+		}
+		synchronized (this) {
+			unwrapException(asynchException);
+			TupleBatch batch = queue.poll();
+			if (state == State.IDLE) {
+				//there is room in the queue or the child was previously blocked
+				schedule();
+			} else if (batch == null && state == State.RUNNING) {
+				//the worker must wake us even if the child blocks
+				consumerWaiting = true;
+			}
+			if (batch == null) {
+				throw BlockedException.block(getContext().getRequestId(), "Blocking on exchange", getID()); //$NON-NLS-1$
+			}
+			return batch;
+		}
+	}
+
+	private static void setContext(RelationalNode node, CommandContext context) {
+		node.setContext(context);
+		for (RelationalNode child : node.getChildren()) {
+			if (child == null) {
+				break;
+			}
+			setContext(child, context);
+		}
+	}
+
+	private void schedule() {
+		state = State.RUNNING;
+		Runnable work = new Runnable() {
+			@Override
+			public void run() {
+				produce();
+			}
+		};
+		final DQPWorkContext workContext = getContext().getDQPWorkContext();
+		if (workContext != null) {
+			final Runnable toRun = work;
+			work = new Runnable() {
+				@Override
+				public void run() {
+					workContext.runInContext(toRun);
+				}
+			};
+		}
+		getContext().getExecutor().execute(work);
+	}
+
+	/**
+	 * Pull batches from the child until the queue is full, the child blocks, or the results are complete.
+	 */
+	private void produce() {
+		boolean notify = false;
+		State next = State.IDLE;
+		try {
+			while (true) {
+				synchronized (this) {
+					if (closing || queue.size() >= MAX_QUEUED_BATCHES) {
+						break;
+					}
+				}
+				TupleBatch batch = null;
+				try {
+					batch = getChildren()[0].nextBatch();
+				} catch (BlockedException e) {
+					break;
+				}
+				synchronized (this) {
+					queue.add(batch);
+					notify = true;
+					if (batch.getTerminationFlag()) {
+						next = State.DONE;
+						break;
+					}
+				}
+			}
+		} catch (TeiidException e) {
+			setException(new TeiidRuntimeException(e));
+			notify = true;
+		} catch (TeiidRuntimeException e) {
+			setException(e);
+			notify = true;
+		} catch (RuntimeException e) {
+			setException(new TeiidRuntimeException(e));
+			notify = true;
+		} finally {
+			synchronized (this) {
+				if (asynchException != null) {
+					next = State.DONE;
+				}
+				state = next;
+				if (consumerWaiting) {
+					consumerWaiting = false;
+					notify = true;
+				}
+				this.notifyAll();
+			}
+			if (notify) {
+				this.workItem.moreWork();
+			}
+		}
+	}
+
+	private synchronized void setException(TeiidRuntimeException e) {
+		if (LogManager.isMessageToBeRecorded(LogConstants.CTX_DQP, MessageLevel.DETAIL)) {
+			LogManager.logDetail(LogConstants.CTX_DQP, e, "Exchange", getID(), "failed"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		this.asynchException = e;
+	}
+
+	@Override
+	public synchronized void closeDirect() {
+		//the child cannot be closed until the worker is done with it
+		closing = true;
+		while (state == State.RUNNING) {
+			try {
+				this.wait();
+			} catch (InterruptedException e) {
+				throw new TeiidRuntimeException(e);
+			}
+		}
+		queue.clear();
+	}
+
+	@Override
+	public synchronized void reset() {
+		super.reset();
+		queue.clear();
+		state = State.IDLE;
+		parallel = false;
+		closing = false;
+		consumerWaiting = false;
+		asynchException = null;
+		workItem = null;
+	}
+
+	@Override
+	public Object clone() {
+		ExchangeNode clone = new ExchangeNode(getID());
+		copyTo(clone);
+		return clone;
+	}
+
+}
@@ -27,6 +27,7 @@ import static org.teiid.query.analysis.AnalysisRecord.*;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.ListIterator;
@@ -39,9 +40,14 @@ import org.teiid.common.buffer.BufferManager;
 import org.teiid.common.buffer.TupleBatch;
 import org.teiid.common.buffer.TupleBuffer;
 import org.teiid.common.buffer.TupleSource;
+import org.teiid.common.buffer.BufferManager.BufferReserveMode;
+import org.teiid.common.buffer.BufferManager.TupleSourceType;
 import org.teiid.core.TeiidComponentException;
 import org.teiid.core.TeiidProcessingException;
 import org.teiid.language.SortSpecification.NullOrdering;
+import org.teiid.logging.LogConstants;
+import org.teiid.logging.LogManager;
+import org.teiid.logging.MessageLevel;
 import org.teiid.query.eval.Evaluator;
 import org.teiid.query.function.aggregate.*;
 import org.teiid.query.processor.BatchCollector;
@@ -92,6 +98,7 @@ public class GroupingNode extends SubqueryAwareRelationalNode {
 	private List<OrderByItem> orderBy;
 	private boolean removeDuplicates;
 	private SymbolMap outputMapping;
+	private boolean hashAggregation;
     
     // Collection phase
     private int phase = COLLECTION;
@@ -108,10 +115,24 @@ public class GroupingNode extends SubqueryAwareRelationalNode {
     private AggregateFunction[] functions;
     private List<?> lastRow;
 	private List<?> currentGroupTuple;
+	
+	// Hash group phase
+	private LinkedHashMap<List<?>, AggregateFunction[]> groups;
+	private Iterator<AggregateFunction[]> groupOutput;
+	private int hashReserved;
+	private boolean spilling;
+	private TupleBuffer[] partitions;
+	private int partitionIndex;
 
     private static final int COLLECTION = 1;
     private static final int SORT = 2;
     private static final int GROUP = 3;
+    private static final int HASH_GROUP = 4;
+    
+    /**
+     * The number of partitions used for groups that do not fit in memory
+     */
+    static final int SPILL_PARTITIONS = 16;
 	private int[] indexes;
 
 	public GroupingNode(int nodeID) {
@@ -129,6 +150,8 @@ public class GroupingNode extends SubqueryAwareRelationalNode {
         lastRow = null;
         currentGroupTuple = null;
         
+        closeHashGroups();
+        
         if (this.functions != null) {
 	    	for (AggregateFunction function : this.functions) {
 				function.reset();
@@ -147,6 +170,38 @@ public class GroupingNode extends SubqueryAwareRelationalNode {
     public void setOutputMapping(SymbolMap outputMapping) {
 		this.outputMapping = outputMapping;
 	}
+    
+    /**
+     * Use a hash table of accumulators rather than sorting to determine the groups.
+     * The output will not be ordered by the grouping columns.
+     */
+    public void setHashAggregation(boolean hashAggregation) {
+		this.hashAggregation = hashAggregation;
+	}
+    
+    public boolean isHashAggregation() {
+		return hashAggregation;
+	}
+    
+    /**
+     * Return true if the aggregate has a fixed size state that can be held per group
+     */
+    public static boolean supportsHashAggregation(AggregateSymbol aggSymbol) {
+    	if (aggSymbol.isDistinct() || aggSymbol.getOrderBy() != null) {
+    		return false;
+    	}
+    	switch (aggSymbol.getAggregateFunction()) {
+    	case XMLAGG:
+    	case TEXTAGG:
+    	case ARRAY_AGG:
+    	case RANK:
+    	case DENSE_RANK:
+    	case ROW_NUMBER:
+    	case USER_DEFINED:
+    		return false;
+    	}
+    	return true;
+    }
 
 	@Override
 	public void initialize(CommandContext context, BufferManager bufferManager,
@@ -176,7 +231,11 @@ public class GroupingNode extends SubqueryAwareRelationalNode {
         }
         
         // Construct aggregate function state accumulators
-        functions = new AggregateFunction[getElements().size()];
+        functions = createFunctions();
+    }
+
+	private AggregateFunction[] createFunctions() {
+		AggregateFunction[] result = new AggregateFunction[getElements().size()];
         for(int i=0; i<getElements().size(); i++) {
             Expression symbol = getElements().get(i);
             if (this.outputMapping != null) {
@@ -185,14 +244,15 @@ public class GroupingNode extends SubqueryAwareRelationalNode {
             Class<?> outputType = symbol.getType();
             if(symbol instanceof AggregateSymbol) {
             	AggregateSymbol aggSymbol = (AggregateSymbol) symbol;
-            	functions[i] = initAccumulator(aggSymbol, this, this.collectedExpressions);
+            	result[i] = initAccumulator(aggSymbol, this, this.collectedExpressions);
             } else {
-                functions[i] = new ConstantFunction();
-                functions[i].setArgIndexes(new int[] {this.collectedExpressions.get(symbol)});
-                functions[i].initialize(outputType, new Class<?>[]{symbol.getType()});
+                result[i] = new ConstantFunction();
+                result[i].setArgIndexes(new int[] {this.collectedExpressions.get(symbol)});
+                result[i].initialize(outputType, new Class<?>[]{symbol.getType()});
             }
         }
-    }
+        return result;
+	}
 	
 	static Integer getIndex(Expression ex, LinkedHashMap<Expression, Integer> expressionIndexes) {
 		Integer index = expressionIndexes.get(ex);
@@ -319,6 +379,10 @@ public class GroupingNode extends SubqueryAwareRelationalNode {
             return groupPhase();
         }
         
+        if(this.phase == HASH_GROUP) {
+        	return hashGroupPhase();
+        }
+        
         this.terminateBatches();
         return pullBatch();
     }
@@ -338,6 +402,14 @@ public class GroupingNode extends SubqueryAwareRelationalNode {
             // No need to sort
             this.groupTupleSource = getCollectionTupleSource();
             this.phase = GROUP;
+        } else if (this.hashAggregation && !this.removeDuplicates) {
+        	this.groupTupleSource = getCollectionTupleSource();
+        	this.indexes = new int[this.orderBy.size()];
+        	for (int i = 0; i < this.indexes.length; i++) {
+        		this.indexes[i] = i;
+        	}
+        	this.groups = new LinkedHashMap<List<?>, AggregateFunction[]>();
+        	this.phase = HASH_GROUP;
         } else {
         	List<NullOrdering> nullOrdering = new ArrayList<NullOrdering>(orderBy.size());
         	List<Boolean> sortTypes = new ArrayList<Boolean>(orderBy.size());
@@ -361,6 +433,7 @@ public class GroupingNode extends SubqueryAwareRelationalNode {
         	this.indexes = Arrays.copyOf(sortIndexes, orderBy.size());
             this.sortUtility = new SortUtility(getCollectionTupleSource(), removeDuplicates?Mode.DUP_REMOVE_SORT:Mode.SORT, getBufferManager(),
                     getConnectionID(), new ArrayList<Expression>(collectedExpressions.keySet()), sortTypes, nullOrdering, sortIndexes);
+            this.sortUtility.setWorkContext(getContext());
             this.phase = SORT;
         }
     }
@@ -422,6 +495,162 @@ public class GroupingNode extends SubqueryAwareRelationalNode {
         return pullBatch();
     }
 
+    /**
+     * Accumulate each group in a hash table.  Once the reservable memory is exhausted 
+     * rows for new groups are spilled into hash partitions that are aggregated after 
+     * the in memory groups have been output.
+     */
+    private TupleBatch hashGroupPhase() throws BlockedException, TeiidComponentException, TeiidProcessingException {
+    	while (true) {
+	    	if (this.groupOutput == null) {
+	    		while (true) {
+	    			if (currentGroupTuple == null) {
+	    				currentGroupTuple = this.groupTupleSource.nextTuple();
+	    				if (currentGroupTuple == null) {
+	    					break;
+	    				}
+	    			}
+	    			List<?> key = getGroupKey(currentGroupTuple);
+	    			AggregateFunction[] groupFunctions = this.groups.get(key);
+	    			if (groupFunctions == null) {
+	    				if (!reserveGroup()) {
+	    					spill(key, currentGroupTuple);
+	    					currentGroupTuple = null;
+	    					continue;
+	    				}
+	    				groupFunctions = createFunctions();
+	    				this.groups.put(key, groupFunctions);
+	    			}
+	    			for (AggregateFunction function : groupFunctions) {
+	    				function.addInput(currentGroupTuple, getContext());
+	    			}
+	    			currentGroupTuple = null;
+	    		}
+	    		if (this.partitions != null && this.partitionIndex == 0) {
+	    			for (TupleBuffer tb : this.partitions) {
+						tb.close();
+					}
+	    		}
+	    		this.groupOutput = this.groups.values().iterator();
+	    	}
+	    	while (this.groupOutput.hasNext()) {
+	    		AggregateFunction[] groupFunctions = this.groupOutput.next();
+	    		List<Object> row = new ArrayList<Object>(groupFunctions.length);
+	    		for (AggregateFunction function : groupFunctions) {
+	    			row.add(function.getResult(getContext()));
+				}
+	    		addBatchRow(row);
+	    		if (this.isBatchFull()) {
+	    			return pullBatch();
+	    		}
+	    	}
+	    	if (!nextPartition()) {
+	    		break;
+	    	}
+    	}
+    	closeHashGroups();
+    	this.terminateBatches();
+        return pullBatch();
+    }
+    
+    private List<?> getGroupKey(List<?> tuple) {
+    	List<Object> key = new ArrayList<Object>(this.indexes.length);
+    	for (int i : this.indexes) {
+			key.add(HashJoinStrategy.normalizeKeyValue(tuple.get(i)));
+		}
+    	return key;
+    }
+    
+    /**
+     * Reserve memory for each additional batch worth of groups.
+     * @return false if the memory could not be reserved and new groups should be spilled
+     */
+    private boolean reserveGroup() {
+    	if (this.spilling) {
+    		return false;
+    	}
+    	if (this.groups.size() % getBatchSize() != 0) {
+    		return true;
+    	}
+    	BufferManager bm = getBufferManager();
+    	int schemaSize = 2 * bm.getSchemaSize(getElements());
+    	if (this.partitionIndex > 0) {
+    		//partitions are not split further
+    		this.hashReserved += bm.reserveBuffers(schemaSize, BufferReserveMode.FORCE);
+    		return true;
+    	}
+    	int reserved = bm.reserveBuffers(schemaSize, (this.hashReserved + schemaSize <= bm.getMaxProcessingSize())?BufferReserveMode.FORCE:BufferReserveMode.NO_WAIT);
+    	this.hashReserved += reserved;
+    	if (reserved == schemaSize) {
+    		return true;
+    	}
+    	if (LogManager.isMessageToBeRecorded(LogConstants.CTX_DQP, MessageLevel.DETAIL)) {
+			LogManager.logDetail(LogConstants.CTX_DQP, "Spilling hash groups after", this.groups.size(), "groups", getID()); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+    	this.spilling = true;
+    	return false;
+    }
+    
+    private void spill(List<?> key, List<?> tuple) throws TeiidComponentException {
+    	if (this.partitions == null) {
+    		this.partitions = new TupleBuffer[SPILL_PARTITIONS];
+    		List<Expression> schema = new ArrayList<Expression>(collectedExpressions.keySet());
+    		for (int i = 0; i < this.partitions.length; i++) {
+    			this.partitions[i] = getBufferManager().createTupleBuffer(schema, getConnectionID(), TupleSourceType.PROCESSOR);
+    			this.partitions[i].setForwardOnly(true);
+    		}
+    	}
+    	int h = key.hashCode();
+    	h ^= (h >>> 16);
+    	this.partitions[(h & Integer.MAX_VALUE) % this.partitions.length].addTuple(tuple);
+    }
+    
+    /**
+     * Release the current groups and move to the next non-empty partition
+     */
+    private boolean nextPartition() {
+    	releaseHashReserved();
+    	this.groups = new LinkedHashMap<List<?>, AggregateFunction[]>();
+    	this.groupOutput = null;
+    	if (this.partitions == null) {
+    		return false;
+    	}
+    	while (this.partitionIndex < this.partitions.length) {
+    		TupleBuffer tb = this.partitions[this.partitionIndex++];
+    		if (tb.getRowCount() == 0) {
+    			tb.remove();
+    			continue;
+    		}
+    		this.spilling = false;
+    		this.groupTupleSource = tb.createIndexedTupleSource(true);
+    		return true;
+    	}
+    	return false;
+    }
+    
+	private void releaseHashReserved() {
+		if (this.hashReserved > 0) {
+    		getBufferManager().releaseBuffers(this.hashReserved);
+    		this.hashReserved = 0;
+    	}
+	}
+    
+    private void closeHashGroups() {
+    	if (this.partitions != null) {
+    		for (TupleBuffer tb : this.partitions) {
+				tb.remove();
+			}
+    		this.partitions = null;
+    	}
+    	if (this.groups != null) {
+    		releaseHashReserved();
+    	}
+    	this.groups = null;
+    	this.groupOutput = null;
+    	this.partitionIndex = 0;
+    	this.spilling = false;
+    }
+
 	public static boolean sameGroup(int[] indexes, List<?> newTuple, List<?> oldTuple) {
 		if (indexes == null) {
 			return true;
@@ -442,11 +671,15 @@ public class GroupingNode extends SubqueryAwareRelationalNode {
     		this.sortBuffer.remove();
     		this.sortBuffer = null;
     	}
+    	closeHashGroups();
     }
 
 	protected void getNodeString(StringBuffer str) {
 		super.getNodeString(str);
 		str.append(orderBy);
+		if (hashAggregation) {
+			str.append(" [HASH]"); //$NON-NLS-1$
+		}
 		if (outputMapping != null) {
 			str.append(outputMapping);
 		}
@@ -458,6 +691,7 @@ public class GroupingNode extends SubqueryAwareRelationalNode {
 		clonedNode.removeDuplicates = removeDuplicates;
 		clonedNode.outputMapping = outputMapping;
 		clonedNode.orderBy = orderBy;
+		clonedNode.hashAggregation = hashAggregation;
 		return clonedNode;
 	}
 
@@ -0,0 +1,424 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+
+package org.teiid.query.processor.relational;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.teiid.common.buffer.BufferManager;
+import org.teiid.common.buffer.TupleBuffer;
+import org.teiid.common.buffer.TupleSource;
+import org.teiid.common.buffer.BufferManager.BufferReserveMode;
+import org.teiid.core.TeiidComponentException;
+import org.teiid.core.TeiidProcessingException;
+import org.teiid.core.types.DataTypeManager;
+import org.teiid.logging.LogConstants;
+import org.teiid.logging.LogManager;
+import org.teiid.logging.MessageLevel;
+import org.teiid.query.optimizer.relational.rules.NewCalculateCostUtil;
+import org.teiid.query.processor.relational.SourceState.ImplicitBuffer;
+import org.teiid.query.sql.lang.JoinType;
+import org.teiid.query.sql.symbol.Constant;
+
+
+/**
+ * A hybrid hash join supporting Inner, Left Outer, Semi and Anti-Semi joins with at least one equi-join criteria.
+ * Any additional non-equi join criteria is evaluated against each key match.
+ *
+ * The build side is fully buffered and hashed by the join keys.  For inner joins the build side is the
+ * side with the smaller estimated cardinality, otherwise it is always the right side.
+ *
+ * If the hash table cannot be held within the memory that can be reserved, the build and
+ * probe sides are partitioned by key hash into {@link TupleBuffer}s.  The first partition is kept in memory
+ * and probed while the probe side is being partitioned, the remaining partitions are then joined one at a time.
+ *
+ * Keys are only considered equal if they are equal under {@link Constant#COMPARATOR}, so key values are normalized
+ * prior to hashing.  The planner will not choose this strategy for key types that cannot be hashed consistently
+ * - see {@link #isHashable(Class)}.
+ */
+public class HashJoinStrategy extends JoinStrategy {
+
+	/**
+	 * Upper bound on the number of partitions written at the same time
+	 */
+	static final int MAX_PARTITIONS = 64;
+
+	private boolean buildLeft;
+	private SourceState buildSource;
+	private SourceState probeSource;
+
+	private int partitionCount;
+	private int partition;
+	private TupleBuffer[] buildPartitions;
+	private TupleBuffer[] probePartitions;
+	private Map<List<?>, List<List<?>>> table;
+	private int tableReserved;
+
+	//probe state
+	private TupleSource probeTs;
+	private List<?> probeTuple;
+	private List<List<?>> matches;
+	private int matchIndex;
+	private boolean probeMatched;
+
+	@Override
+	public void initialize(JoinNode joinNode) {
+		super.initialize(joinNode);
+		this.buildLeft = false;
+		if (joinNode.getJoinType() == JoinType.JOIN_INNER) {
+			Number leftCard = this.leftSource.getSource().getEstimateNodeCardinality();
+			Number rightCard = this.rightSource.getSource().getEstimateNodeCardinality();
+			if (leftCard != null && rightCard != null
+					&& leftCard.floatValue() != NewCalculateCostUtil.UNKNOWN_VALUE
+					&& rightCard.floatValue() != NewCalculateCostUtil.UNKNOWN_VALUE) {
+				this.buildLeft = leftCard.floatValue() < rightCard.floatValue();
+			}
+		}
+		if (buildLeft) {
+			this.buildSource = this.leftSource;
+			this.probeSource = this.rightSource;
+		} else {
+			this.buildSource = this.rightSource;
+			this.probeSource = this.leftSource;
+		}
+		this.partitionCount = 0;
+		this.partition = 0;
+		this.probeTuple = null;
+		this.matches = null;
+	}
+
+	@Override
+	public void close() {
+		if (joinNode == null) {
+			return;
+		}
+		try {
+			super.close();
+		} finally {
+			releaseTable();
+			removePartitions(this.buildPartitions);
+			removePartitions(this.probePartitions);
+			this.buildPartitions = null;
+			this.probePartitions = null;
+			this.buildSource = null;
+			this.probeSource = null;
+			this.probeTs = null;
+			this.probeTuple = null;
+			this.matches = null;
+		}
+	}
+
+	private void removePartitions(TupleBuffer[] partitions) {
+		if (partitions == null) {
+			return;
+		}
+		for (TupleBuffer tb : partitions) {
+			if (tb != null) {
+				tb.remove();
+			}
+		}
+	}
+
+	private void releaseTable() {
+		this.table = null;
+		if (this.tableReserved > 0) {
+			this.joinNode.getBufferManager().releaseBuffers(this.tableReserved);
+			this.tableReserved = 0;
+		}
+	}
+
+	@Override
+	protected void loadLeft() throws TeiidComponentException,
+			TeiidProcessingException {
+		if (buildLeft) {
+			this.leftSource.getTupleBuffer();
+		}
+	}
+
+	@Override
+	protected void loadRight() throws TeiidComponentException,
+			TeiidProcessingException {
+		if (this.partitionCount > 0) {
+			return; //already built
+		}
+		if (buildLeft) {
+			this.rightSource.setImplicitBuffer(ImplicitBuffer.NONE);
+		}
+		TupleBuffer buffer = this.buildSource.getTupleBuffer();
+		BufferManager bm = this.joinNode.getBufferManager();
+		int needed = estimateTableSize(buffer.getRowCount());
+		int maxReserve = Math.max(bm.getMaxProcessingSize(), getSchemaSize() * 2);
+		int reserved = bm.reserveBuffers(needed, needed <= maxReserve?BufferReserveMode.FORCE:BufferReserveMode.NO_WAIT);
+		if (reserved >= needed) {
+			this.tableReserved = reserved;
+			this.partitionCount = 1;
+			this.table = new HashMap<List<?>, List<List<?>>>();
+			TupleSource ts = buffer.createIndexedTupleSource(!this.joinNode.isDependent());
+			List<?> tuple = null;
+			while ((tuple = ts.nextTuple()) != null) {
+				addToTable(tuple);
+			}
+			ts.closeSource();
+		} else {
+			bm.releaseBuffers(reserved);
+			partitionBuildSide(buffer, needed, maxReserve);
+		}
+		this.probeTs = this.probeSource.getIterator();
+	}
+
+	/**
+	 * Split the build side into partitions by key hash.  The first partition is
+	 * hashed directly into memory.
+	 */
+	private void partitionBuildSide(TupleBuffer buffer, int needed, int maxReserve)
+			throws TeiidComponentException, TeiidProcessingException {
+		this.partitionCount = Math.min(MAX_PARTITIONS, Math.max(2, needed / maxReserve + 1));
+		if (LogManager.isMessageToBeRecorded(LogConstants.CTX_DQP, MessageLevel.DETAIL)) {
+			LogManager.logDetail(LogConstants.CTX_DQP, "Partitioning hash join build side into", partitionCount, "partitions", this.joinNode.getID()); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		this.buildPartitions = new TupleBuffer[partitionCount];
+		this.probePartitions = new TupleBuffer[partitionCount];
+		for (int i = 1; i < partitionCount; i++) {
+			this.buildPartitions[i] = this.buildSource.createSourceTupleBuffer();
+			this.buildPartitions[i].setForwardOnly(true);
+			this.probePartitions[i] = this.probeSource.createSourceTupleBuffer();
+			this.probePartitions[i].setForwardOnly(true);
+		}
+		this.tableReserved = this.joinNode.getBufferManager().reserveBuffers(needed / partitionCount + 1, BufferReserveMode.FORCE);
+		this.table = new HashMap<List<?>, List<List<?>>>();
+		TupleSource ts = buffer.createIndexedTupleSource(!this.joinNode.isDependent());
+		List<?> tuple = null;
+		int[] indexes = this.buildSource.getExpressionIndexes();
+		while ((tuple = ts.nextTuple()) != null) {
+			List<?> key = getKey(tuple, indexes);
+			if (key == null) {
+				continue;
+			}
+			int p = getPartition(key);
+			if (p == 0) {
+				addToTable(key, tuple);
+			} else {
+				this.buildPartitions[p].addTuple(tuple);
+			}
+		}
+		ts.closeSource();
+		for (int i = 1; i < partitionCount; i++) {
+			this.buildPartitions[i].close();
+		}
+	}
+
+	/**
+	 * Move to the next non-empty partition
+	 * @return true if there is another partition to probe
+	 */
+	private boolean nextPartition() throws TeiidComponentException, TeiidProcessingException {
+		if (this.partition == 0 && this.probePartitions != null) {
+			for (int i = 1; i < partitionCount; i++) {
+				this.probePartitions[i].close();
+			}
+		}
+		releaseTable();
+		while (++this.partition < this.partitionCount) {
+			TupleBuffer build = this.buildPartitions[this.partition];
+			TupleBuffer probe = this.probePartitions[this.partition];
+			if (probe.getRowCount() == 0 || (build.getRowCount() == 0 && !this.joinNode.getJoinType().isOuter())) {
+				build.remove();
+				probe.remove();
+				continue;
+			}
+			this.tableReserved = this.joinNode.getBufferManager().reserveBuffers(estimateTableSize(build.getRowCount()), BufferReserveMode.FORCE);
+			this.table = new HashMap<List<?>, List<List<?>>>();
+			TupleSource ts = build.createIndexedTupleSource(true);
+			List<?> tuple = null;
+			while ((tuple = ts.nextTuple()) != null) {
+				addToTable(tuple);
+			}
+			ts.closeSource();
+			build.remove();
+			this.probeTs = probe.createIndexedTupleSource(true);
+			return true;
+		}
+		return false;
+	}
+
+	private void addToTable(List<?> tuple) {
+		List<?> key = getKey(tuple, this.buildSource.getExpressionIndexes());
+		if (key != null) {
+			addToTable(key, tuple);
+		}
+	}
+
+	private void addToTable(List<?> key, List<?> tuple) {
+		List<List<?>> values = this.table.get(key);
+		if (values == null) {
+			values = new ArrayList<List<?>>(2);
+			this.table.put(key, values);
+		}
+		values.add(tuple);
+	}
+
+	private int getSchemaSize() {
+		return this.joinNode.getBufferManager().getSchemaSize(this.buildSource.getSource().getOutputElements());
+	}
+
+	/**
+	 * Approximate the table as twice the size of the equivalent batches to account for the hashing overhead
+	 */
+	private int estimateTableSize(int rowCount) {
+		int batchSize = this.joinNode.getBufferManager().getProcessorBatchSize(this.buildSource.getSource().getOutputElements());
+		return 2 * getSchemaSize() * (rowCount / batchSize + 1);
+	}
+
+	private int getPartition(List<?> key) {
+		int h = key.hashCode();
+		h ^= (h >>> 16);
+		return (h & Integer.MAX_VALUE) % this.partitionCount;
+	}
+
+	@Override
+	protected void process() throws TeiidComponentException,
+			TeiidProcessingException {
+		if (this.partition >= this.partitionCount) {
+			return;
+		}
+		int[] probeIndexes = this.probeSource.getExpressionIndexes();
+		JoinType joinType = this.joinNode.getJoinType();
+		while (true) {
+			if (this.probeTuple == null) {
+				List<?> tuple = this.probeTs.nextTuple();
+				if (tuple == null) {
+					if (!nextPartition()) {
+						return;
+					}
+					continue;
+				}
+				List<?> key = getKey(tuple, probeIndexes);
+				if (key != null && this.partition == 0 && this.partitionCount > 1) {
+					int p = getPartition(key);
+					if (p != 0) {
+						this.probePartitions[p].addTuple(tuple);
+						continue;
+					}
+				}
+				this.probeTuple = tuple;
+				this.probeMatched = false;
+				this.matchIndex = 0;
+				this.matches = key == null?null:this.table.get(key);
+			}
+			if (this.matches != null) {
+				while (this.matchIndex < this.matches.size()) {
+					List<?> buildTuple = this.matches.get(this.matchIndex);
+					List outputTuple = buildLeft?outputTuple(buildTuple, this.probeTuple):outputTuple(this.probeTuple, buildTuple);
+					boolean match = this.joinNode.matchesCriteria(outputTuple);
+					this.matchIndex++;
+					if (!match) {
+						continue;
+					}
+					this.probeMatched = true;
+					if (joinType == JoinType.JOIN_ANTI_SEMI) {
+						break;
+					}
+					if (joinType == JoinType.JOIN_SEMI) {
+						this.matchIndex = this.matches.size(); //only one match is needed for semi join
+					}
+					this.joinNode.addBatchRow(outputTuple);
+				}
+			}
+			List<?> tuple = this.probeTuple;
+			this.probeTuple = null;
+			if (!this.probeMatched && joinType.isOuter()) {
+				this.joinNode.addBatchRow(outputTuple(tuple, this.buildSource.getOuterVals()));
+			}
+		}
+	}
+
+	/**
+	 * Get a normalized key that is consistent with {@link Constant#COMPARATOR} equality
+	 * @return the key or null if any key value is null
+	 */
+	static List<?> getKey(List<?> tuple, int[] indexes) {
+		List<Object> key = new ArrayList<Object>(indexes.length);
+		for (int i : indexes) {
+			Object value = tuple.get(i);
+			if (value == null) {
+				return null;
+			}
+			key.add(normalizeKeyValue(value));
+		}
+		return key;
+	}
+
+	/**
+	 * Normalize a value so that equals/hashCode are consistent with {@link Constant#COMPARATOR}
+	 */
+	static Object normalizeKeyValue(Object value) {
+		if (value instanceof BigDecimal) {
+			BigDecimal bd = (BigDecimal)value;
+			return bd.signum() == 0?BigDecimal.ZERO:bd.stripTrailingZeros();
+		} 
+		if (DataTypeManager.PAD_SPACE && value instanceof String) {
+			String s = (String)value;
+			int end = s.length();
+			while (end > 0 && s.charAt(end - 1) == ' ') {
+				end--;
+			}
+			return s.substring(0, end);
+		}
+		return value;
+	}
+
+	/**
+	 * Determine if values of the given type have hashing consistent with {@link Constant#COMPARATOR}
+	 */
+	public static boolean isHashable(Class<?> type) {
+		if (type == null || type.isArray()
+				|| DataTypeManager.isLOB(type)
+				|| type == DataTypeManager.DefaultDataClasses.OBJECT
+				|| DataTypeManager.isNonComparable(DataTypeManager.getDataTypeName(type))) {
+			return false;
+		}
+		if (Constant.COLLATION_LOCALE != null
+				&& (type == DataTypeManager.DefaultDataClasses.STRING || type == DataTypeManager.DefaultDataClasses.CHAR)) {
+			return false;
+		}
+		return true;
+	}
+
+	@Override
+	public HashJoinStrategy clone() {
+		return new HashJoinStrategy();
+	}
+
+	public String getName() {
+		return "HASH JOIN"; //$NON-NLS-1$
+	}
+
+	@Override
+	public String toString() {
+		return getName();
+	}
+
+}
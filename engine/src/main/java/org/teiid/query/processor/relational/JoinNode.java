@@ -57,6 +57,7 @@ public class JoinNode extends SubqueryAwareRelationalNode {
 	public enum JoinStrategyType {    
 	    MERGE,
 	    ENHANCED_SORT,
+	    HASH,
 	    NESTED_LOOP,
 	    NESTED_TABLE
 	}
@@ -67,6 +68,7 @@ public class JoinNode extends SubqueryAwareRelationalNode {
     private JoinStrategy joinStrategy;
     private JoinType joinType;
     private String dependentValueSource;
+    private boolean adaptiveDependent;
    
     private List leftExpressions;
     private List rightExpressions;
@@ -165,6 +167,7 @@ public class JoinNode extends SubqueryAwareRelationalNode {
         
         clonedNode.rightExpressions = rightExpressions;
         clonedNode.dependentValueSource = this.dependentValueSource;
+        clonedNode.adaptiveDependent = this.adaptiveDependent;
         clonedNode.rightDistinct = rightDistinct;
         clonedNode.leftDistinct = leftDistinct;
         
@@ -189,6 +192,7 @@ public class JoinNode extends SubqueryAwareRelationalNode {
                 //the tuplebuffer may be from a lower node, so pass in the schema
                 dvs = new DependentValueSource(buffer, this.joinStrategy.leftSource.getSource().getElements());
                 dvs.setDistinct(this.joinStrategy.leftSource.isDistinct());
+                dvs.setAdaptive(this.adaptiveDependent);
                 this.getContext().getVariableContext().setGlobalValue(this.dependentValueSource, dvs);
             }
             state = State.LOAD_RIGHT;
@@ -281,6 +285,18 @@ public class JoinNode extends SubqueryAwareRelationalNode {
 		return dependentValueSource;
 	}
     
+    public boolean isAdaptiveDependent() {
+		return adaptiveDependent;
+	}
+    
+    /**
+     * @param adaptiveDependent true if the dependent criteria may be abandoned when 
+     * the independent side has too many distinct values
+     */
+    public void setAdaptiveDependent(boolean adaptiveDependent) {
+		this.adaptiveDependent = adaptiveDependent;
+	}
+    
     public void closeDirect() {
         super.closeDirect();
         joinStrategy.close();
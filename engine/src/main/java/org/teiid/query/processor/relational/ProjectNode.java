@@ -39,6 +39,7 @@ import org.teiid.common.buffer.TupleBuffer;
 import org.teiid.core.TeiidComponentException;
 import org.teiid.core.TeiidProcessingException;
 import org.teiid.query.analysis.AnalysisRecord;
+import org.teiid.query.eval.CompiledExpression;
 import org.teiid.query.sql.LanguageObject;
 import org.teiid.query.sql.symbol.AliasSymbol;
 import org.teiid.query.sql.symbol.Expression;
@@ -54,10 +55,14 @@ public class ProjectNode extends SubqueryAwareRelationalNode {
     private boolean needsProject = true;
     private List<Expression> expressions;
     private int[] projectionIndexes;
+    private CompiledExpression[] compiledExpressions;
+    private boolean batchEvaluation;
 
     // Saved state when blocked on evaluating a row - must be reset
     private TupleBatch currentBatch;
     private int currentRow = 1;
+    // the expression values of the current batch if it was evaluated as a whole
+    private Object[][] columnValues;
     
     protected ProjectNode() {
     	super();
@@ -72,6 +77,7 @@ public class ProjectNode extends SubqueryAwareRelationalNode {
 
         currentBatch = null;
         currentRow = 1;
+        columnValues = null;
     }
 
     /**
@@ -92,6 +98,20 @@ public class ProjectNode extends SubqueryAwareRelationalNode {
     	for (Expression ses : this.selectSymbols) {
 			this.expressions.add(SymbolMap.getExpression(ses));
 		}
+    	compile();
+	}
+	
+	/**
+	 * Compile the expressions that are not simple projections of child values
+	 */
+	private void compile() {
+		this.compiledExpressions = new CompiledExpression[this.expressions.size()];
+		for (int i = 0; i < this.compiledExpressions.length; i++) {
+			if (this.projectionIndexes[i] == -1) {
+				this.compiledExpressions[i] = CompiledExpression.compile(this.expressions.get(i), this.elementMap);
+			}
+		}
+		this.batchEvaluation = CompiledExpression.canEvaluateBatch(this.selectSymbols);
 	}
 	
 	@Override
@@ -130,6 +150,7 @@ public class ProjectNode extends SubqueryAwareRelationalNode {
             	projectionIndexes[i] = index;
             }
         }
+        compile();
 	}
 	
 	public TupleBatch nextBatchDirect()
@@ -152,6 +173,10 @@ public class ProjectNode extends SubqueryAwareRelationalNode {
             	currentBatch = null;
                 return result;
             }
+            
+            if (batchEvaluation) {
+            	evaluateBatch();
+            }
         }
 
         while (currentRow <= currentBatch.getEndRow() && !isBatchFull()) {
@@ -159,10 +184,22 @@ public class ProjectNode extends SubqueryAwareRelationalNode {
 
 			List<Object> projectedTuple = new ArrayList<Object>(selectSymbols.size());
 
-			// Walk through symbols
-            for(int i=0; i<expressions.size(); i++) {
-				Expression symbol = expressions.get(i);
-				updateTuple(symbol, i, tuple, projectedTuple);
+			if (columnValues != null) {
+				int row = currentRow - currentBatch.getBeginRow();
+				for(int i=0; i<expressions.size(); i++) {
+					int index = this.projectionIndexes[i];
+					if (index != -1) {
+						projectedTuple.add(tuple.get(index));
+					} else {
+						projectedTuple.add(columnValues[i][row]);
+					}
+				}
+			} else {
+				// Walk through symbols
+	            for(int i=0; i<expressions.size(); i++) {
+					Expression symbol = expressions.get(i);
+					updateTuple(symbol, i, tuple, projectedTuple);
+				}
 			}
 
             // Add to batch
@@ -175,10 +212,30 @@ public class ProjectNode extends SubqueryAwareRelationalNode {
 	            terminateBatches();
 	        }
 	        currentBatch = null;
+	        columnValues = null;
         }
         
     	return pullBatch();
 	}
+	
+	/**
+	 * Evaluate the expressions a column at a time against the whole batch.
+	 * If the evaluation blocks the batch will instead be processed a row at a time.
+	 */
+	private void evaluateBatch() throws BlockedException, TeiidComponentException, ExpressionEvaluationException {
+		List<List<?>> tuples = currentBatch.getTuples();
+		int[] rows = new int[tuples.size()];
+		for (int i = 0; i < rows.length; i++) {
+			rows[i] = i;
+		}
+		Object[][] values = new Object[expressions.size()][];
+		for (int i = 0; i < values.length; i++) {
+			if (this.projectionIndexes[i] == -1) {
+				values[i] = this.compiledExpressions[i].evaluate(getEvaluator(this.elementMap), tuples, rows, rows.length);
+			}
+		}
+		this.columnValues = values;
+	}
 
 	private void updateTuple(Expression symbol, int projectionIndex, List<?> values, List<Object> tuple)
 		throws BlockedException, TeiidComponentException, ExpressionEvaluationException {
@@ -187,7 +244,7 @@ public class ProjectNode extends SubqueryAwareRelationalNode {
         if(index != -1) {
 			tuple.add(values.get(index));
         } else { 
-			tuple.add(getEvaluator(this.elementMap).evaluate(symbol, values));
+			tuple.add(this.compiledExpressions[projectionIndex].evaluate(getEvaluator(this.elementMap), values));
 		}
 	}
 
@@ -209,6 +266,8 @@ public class ProjectNode extends SubqueryAwareRelationalNode {
         target.elementMap = elementMap;
         target.expressions = expressions;
         target.projectionIndexes = projectionIndexes;
+        target.compiledExpressions = compiledExpressions;
+        target.batchEvaluation = batchEvaluation;
     }
 
     public PlanNode getDescriptionProperties() {
@@ -36,6 +36,7 @@ import org.teiid.common.buffer.TupleBatch;
 import org.teiid.core.TeiidComponentException;
 import org.teiid.core.TeiidProcessingException;
 import org.teiid.query.analysis.AnalysisRecord;
+import org.teiid.query.eval.CompiledExpression;
 import org.teiid.query.processor.ProcessorDataManager;
 import org.teiid.query.sql.LanguageObject;
 import org.teiid.query.sql.lang.Criteria;
@@ -51,10 +52,16 @@ public class SelectNode extends SubqueryAwareRelationalNode {
     // Derived element lookup map
     private Map<Expression, Integer> elementMap; 
     private int[] projectionIndexes;
+    private CompiledExpression compiledCriteria;
+    private boolean batchEvaluation;
 	
     // State if blocked on evaluating a criteria
     private TupleBatch currentBatch;
     private int currentRow = 1;
+    // the selected row indexes of the current batch if it was evaluated as a whole
+    private int[] selection;
+    private int selectionCount;
+    private int selectionIndex;
 
 	protected SelectNode() {
 		super();
@@ -69,6 +76,7 @@ public class SelectNode extends SubqueryAwareRelationalNode {
         
         currentBatch = null;
         currentRow = 1;
+        selection = null;
     }
 
 	public void setCriteria(Criteria criteria) { 
@@ -91,6 +99,8 @@ public class SelectNode extends SubqueryAwareRelationalNode {
         if(this.elementMap == null) {
             this.elementMap = createLookupMap(this.getChildren()[0].getElements());
             this.projectionIndexes = getProjectionIndexes(this.elementMap, projectedExpressions!=null?projectedExpressions:getElements());
+            this.compiledCriteria = CompiledExpression.compile(this.criteria, this.elementMap);
+            this.batchEvaluation = CompiledExpression.canEvaluateBatch(getObjects());
         }
 	}
 	
@@ -102,12 +112,25 @@ public class SelectNode extends SubqueryAwareRelationalNode {
 		
         if(currentBatch == null) {
         	currentBatch = this.getChildren()[0].nextBatch();
+        	if (batchEvaluation) {
+        		selectBatch();
+        	}
+        }
+        
+        if (selection != null) {
+        	List<List<?>> tuples = currentBatch.getTuples();
+        	while (selectionIndex < selectionCount && !isBatchFull()) {
+        		addBatchRow(projectTuple(this.projectionIndexes, tuples.get(selection[selectionIndex++])));
+        	}
+        	if (selectionIndex == selectionCount) {
+        		currentRow = currentBatch.getEndRow() + 1;
+        	}
         }
 
         while (currentRow <= currentBatch.getEndRow() && !isBatchFull()) {
     		List<?> tuple = currentBatch.getTuple(currentRow);
 
-            if(getEvaluator(this.elementMap).evaluate(this.criteria, tuple)) {
+            if(this.compiledCriteria.evaluateCriteria(getEvaluator(this.elementMap), tuple)) {
                 addBatchRow(projectTuple(this.projectionIndexes, tuple));
             }
             currentRow++;
@@ -118,10 +141,27 @@ public class SelectNode extends SubqueryAwareRelationalNode {
 	            terminateBatches();
 	        }
 	        currentBatch = null;
+	        selection = null;
         }
         
     	return pullBatch();
 	}
+	
+	/**
+	 * Apply the criteria to the whole batch using a selection vector.  
+	 * If the evaluation blocks the batch will instead be processed a row at a time.
+	 */
+	private void selectBatch() throws TeiidComponentException, TeiidProcessingException {
+		List<List<?>> tuples = currentBatch.getTuples();
+		int[] rows = new int[tuples.size()];
+		for (int i = 0; i < rows.length; i++) {
+			rows[i] = i;
+		}
+		int count = this.compiledCriteria.select(getEvaluator(this.elementMap), tuples, rows, rows.length);
+		this.selection = rows;
+		this.selectionCount = count;
+		this.selectionIndex = 0;
+	}
     
 	protected void getNodeString(StringBuffer str) {
 		super.getNodeString(str);
@@ -139,6 +179,8 @@ public class SelectNode extends SubqueryAwareRelationalNode {
 		target.criteria = criteria;
 		target.elementMap = elementMap;
 		target.projectionIndexes = projectionIndexes;
+		target.compiledCriteria = compiledCriteria;
+		target.batchEvaluation = batchEvaluation;
 		target.projectedExpressions = projectedExpressions;
 	}
     
@@ -98,6 +98,7 @@ public class SortNode extends RelationalNode {
     	if (this.sortUtility == null) {
 	        this.sortUtility = new SortUtility(new BatchIterator(getChildren()[0]), items, this.mode, getBufferManager(),
 	                                            getConnectionID(), getChildren()[0].getElements());
+	        this.sortUtility.setWorkContext(getContext());
 		}
 		this.output = this.sortUtility.sort();
 		if (this.outputTs == null) {
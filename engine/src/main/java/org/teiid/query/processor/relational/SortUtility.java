@@ -28,6 +28,11 @@ import java.util.Collections;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.teiid.common.buffer.BlockedException;
 import org.teiid.common.buffer.BufferManager;
@@ -46,6 +51,7 @@ import org.teiid.logging.MessageLevel;
 import org.teiid.query.sql.lang.OrderBy;
 import org.teiid.query.sql.lang.OrderByItem;
 import org.teiid.query.sql.symbol.Expression;
+import org.teiid.query.util.CommandContext;
 
 
 /**
@@ -87,6 +93,21 @@ public class SortUtility {
 		}
 	}
 
+	/**
+	 * A unit of sort work that may be performed by a worker thread.
+	 * The sorting thread will run the task itself if it has not yet been started.
+	 */
+	private static class SortTask extends FutureTask<TupleBuffer> {
+		public SortTask(Callable<TupleBuffer> callable) {
+			super(callable);
+		}
+	}
+	
+	/**
+	 * The maximum number of sort tasks that may be outstanding at once
+	 */
+	static final int MAX_SORT_TASKS = 4;
+	
 	//constructor state
     private TupleSource source;
     private Mode mode;
@@ -110,6 +131,10 @@ public class SortUtility {
     private static final int MERGE = 2;
     private static final int DONE = 3;
 	private Collection<List<?>> workingTuples;
+	
+	private Executor workExecutor;
+	private List<SortTask> pendingTasks = new ArrayList<SortTask>(MAX_SORT_TASKS);
+	private AtomicInteger pendingReserved = new AtomicInteger();
     
     public SortUtility(TupleSource sourceID, List<OrderByItem> items, Mode mode, BufferManager bufferMgr,
                         String groupName, List<? extends Expression> schema) {
@@ -177,6 +202,16 @@ public class SortUtility {
 		this(ts, new OrderBy(expressions, types).getOrderByItems(), mode, bufferManager, connectionID, schema);
 	}
 
+    /**
+     * Allow the initial sort and intermediate merges to be performed concurrently 
+     * by the context executor if parallel sorting is enabled.
+     */
+    public void setWorkContext(CommandContext context) {
+    	if (context != null && context.getOptions().isParallelSort()) {
+    		this.workExecutor = context.getExecutor();
+    	}
+    }
+    
     public TupleBuffer sort()
         throws TeiidComponentException, TeiidProcessingException {
 
@@ -236,7 +271,7 @@ public class SortUtility {
 		        	//attempt to reserve more working memory if there are additional rows available before blocking
 		        	if (workingTuples.size() >= maxRows) {
 	        			int reserved = bufferManager.reserveBuffers(schemaSize, 
-	        					(totalReservedBuffers + schemaSize <= bufferManager.getMaxProcessingSize())?BufferReserveMode.FORCE:BufferReserveMode.NO_WAIT);
+	        					(pendingReserved.get() + totalReservedBuffers + schemaSize <= bufferManager.getMaxProcessingSize())?BufferReserveMode.FORCE:BufferReserveMode.NO_WAIT);
 		        		totalReservedBuffers += reserved;
 	        			if (reserved != schemaSize) {
 		        			break;
@@ -272,21 +307,23 @@ public class SortUtility {
 			
 		        TupleBuffer sublist = createTupleBuffer();
 		        activeTupleBuffers.add(sublist);
-		        if (this.mode == Mode.SORT) {
-		        	//perform a stable sort
-		    		Collections.sort((List<List<?>>)workingTuples, comparator);
+		        if (this.mode == Mode.SORT && this.workExecutor != null) {
+		        	//the task takes ownership of the reservation
+		        	submit(createSublistTask((List<List<?>>)workingTuples, sublist, totalReservedBuffers));
+		        	totalReservedBuffers = 0;
+		        } else {
+		        	writeSublist(workingTuples, sublist);
 		        }
-		        for (List<?> list : workingTuples) {
-					sublist.addTuple(list);
-				}
 		        workingTuples = null;
-	            
-		        sublist.saveBatch();
             } finally {
         		bufferManager.releaseBuffers(totalReservedBuffers);
             }
         }
     	
+    	while (!this.pendingTasks.isEmpty()) {
+    		complete(this.pendingTasks.remove(0));
+    	}
+    	
     	if (this.activeTupleBuffers.isEmpty()) {
             activeTupleBuffers.add(createTupleBuffer());
         }  
@@ -294,7 +331,142 @@ public class SortUtility {
         this.phase = MERGE;
     }
 
+	private void writeSublist(Collection<List<?>> tuples, TupleBuffer sublist)
+			throws TeiidComponentException {
+		if (this.mode == Mode.SORT) {
+			//perform a stable sort
+			Collections.sort((List<List<?>>)tuples, comparator);
+		}
+		for (List<?> list : tuples) {
+			sublist.addTuple(list);
+		}
+		sublist.saveBatch();
+	}
+	
+	private SortTask createSublistTask(final List<List<?>> tuples, final TupleBuffer sublist, final int reserved) {
+		pendingReserved.addAndGet(reserved);
+		return new SortTask(new Callable<TupleBuffer>() {
+			@Override
+			public TupleBuffer call() throws Exception {
+				try {
+					writeSublist(tuples, sublist);
+					return sublist;
+				} finally {
+					pendingReserved.addAndGet(-reserved);
+					bufferManager.releaseBuffers(reserved);
+				}
+			}
+		});
+	}
+	
+	private SortTask createMergeTask(final List<TupleBuffer> toMerge) {
+		return new SortTask(new Callable<TupleBuffer>() {
+			@Override
+			public TupleBuffer call() throws Exception {
+				int reserved = bufferManager.reserveBuffers(toMerge.size() * schemaSize, BufferReserveMode.FORCE);
+				try {
+					return merge(toMerge);
+				} finally {
+					bufferManager.releaseBuffers(reserved);
+				}
+			}
+		});
+	}
+	
+	private void submit(SortTask task) throws TeiidComponentException, TeiidProcessingException {
+		this.pendingTasks.add(task);
+		this.workExecutor.execute(task);
+		while (this.pendingTasks.size() > MAX_SORT_TASKS) {
+			complete(this.pendingTasks.remove(0));
+		}
+	}
+	
+	/**
+	 * Wait for the task to complete, running it with the calling thread if it has not yet started.
+	 */
+	private TupleBuffer complete(SortTask task) throws TeiidComponentException, TeiidProcessingException {
+		task.run();
+		try {
+			return task.get();
+		} catch (InterruptedException e) {
+			throw new TeiidComponentException(e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof TeiidComponentException) {
+				throw (TeiidComponentException)cause;
+			}
+			if (cause instanceof TeiidProcessingException) {
+				throw (TeiidProcessingException)cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException)cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error)cause;
+			}
+			throw new TeiidComponentException(cause);
+		}
+	}
+	
+	/**
+	 * Reduce the number of sublists with concurrent merges of disjoint sublists 
+	 * until the remaining sublists can be merged in a single pass. 
+	 */
+	private void parallelMerge() throws TeiidComponentException, TeiidProcessingException {
+		int maxWidth = Math.max(2, this.bufferManager.getMaxProcessingSize() / schemaSize);
+		int width = Math.max(2, maxWidth / MAX_SORT_TASKS);
+		while (this.activeTupleBuffers.size() > maxWidth) {
+			List<Object> next = new ArrayList<Object>();
+			for (int i = 0; i < this.activeTupleBuffers.size(); i += width) {
+				List<TupleBuffer> toMerge = new ArrayList<TupleBuffer>(this.activeTupleBuffers.subList(i, Math.min(i + width, this.activeTupleBuffers.size())));
+				if (toMerge.size() == 1) {
+					next.add(toMerge.get(0));
+					continue;
+				}
+				SortTask task = createMergeTask(toMerge);
+				next.add(task);
+				submit(task);
+			}
+			this.activeTupleBuffers.clear();
+			this.pendingTasks.clear();
+			for (Object o : next) {
+				if (o instanceof SortTask) {
+					this.activeTupleBuffers.add(complete((SortTask)o));
+				} else {
+					this.activeTupleBuffers.add((TupleBuffer)o);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Merge the sublists into a new buffer, removing the sublists
+	 */
+	private TupleBuffer merge(List<TupleBuffer> toMerge) throws TeiidComponentException, TeiidProcessingException {
+		TupleBuffer merged = createTupleBuffer();
+		ArrayList<SortedSublist> sublists = new ArrayList<SortedSublist>(toMerge.size());
+		for (int i = 0; i < toMerge.size(); i++) {
+			SortedSublist sortedSublist = new SortedSublist();
+			sortedSublist.its = toMerge.get(i).createIndexedTupleSource();
+			sortedSublist.index = i;
+			incrementWorkingTuple(sublists, sortedSublist);
+		}
+		while (sublists.size() > 0) {
+			SortedSublist sortedSublist = sublists.remove(sublists.size() - 1);
+			merged.addTuple(sortedSublist.tuple);
+			incrementWorkingTuple(sublists, sortedSublist);
+		}
+		for (TupleBuffer tb : toMerge) {
+			tb.remove();
+		}
+		merged.saveBatch();
+		return merged;
+	}
+
     protected void mergePhase() throws TeiidComponentException, TeiidProcessingException {
+    	if (this.workExecutor != null && this.output == null && this.doneReading) {
+    		parallelMerge();
+    	}
     	while(this.activeTupleBuffers.size() > 1) {    		
     		ArrayList<SortedSublist> sublists = new ArrayList<SortedSublist>(activeTupleBuffers.size());
             
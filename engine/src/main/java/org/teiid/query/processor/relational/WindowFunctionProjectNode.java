@@ -327,6 +327,7 @@ public class WindowFunctionProjectNode extends SubqueryAwareRelationalNode {
 					partitionMapping[specIndex] = this.getBufferManager().createSTree(elements, this.getConnectionID(), 1);
 				}
 				SortUtility su = new SortUtility(specificationTs, Mode.SORT, this.getBufferManager(), this.getConnectionID(), tb.getSchema(), info.orderType, info.nullOrderings, sortKeys);
+				su.setWorkContext(getContext());
 				TupleBuffer sorted = su.sort();
 				specificationTs = sorted.createIndexedTupleSource(true);
 			}
@@ -93,6 +93,7 @@ public class GlobalTableStoreImpl implements GlobalTableStore, ReplicatedObject<
 		private long ttl = -1;
 		private boolean valid;
 		private boolean asynch; //sub state of loading
+		private Object incrementalValue; //max value of the update column as of the last load
 		
 		protected MatTableInfo() {}
 		
@@ -175,6 +176,17 @@ public class GlobalTableStoreImpl implements GlobalTableStore, ReplicatedObject<
 			return ttl;
 		}
 		
+		/**
+		 * @return the max value of the update column from the last load or null if an incremental load is not possible
+		 */
+		public synchronized Object getIncrementalValue() {
+			return incrementalValue;
+		}
+		
+		public synchronized void setIncrementalValue(Object incrementalValue) {
+			this.incrementalValue = incrementalValue;
+		}
+		
 	}
 	
 	private ConcurrentHashMap<String, MatTableInfo> matTables = new ConcurrentHashMap<String, MatTableInfo>();
@@ -558,6 +570,7 @@ public class GlobalTableStoreImpl implements GlobalTableStore, ReplicatedObject<
 			info.setState(state, true);
 			info.updateTime = updateTime;
 			info.loadingAddress = loadingAddress;
+			info.incrementalValue = null;
 		}
 	}
 
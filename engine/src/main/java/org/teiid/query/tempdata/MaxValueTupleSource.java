@@ -0,0 +1,74 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+
+package org.teiid.query.tempdata;
+
+import java.util.List;
+
+import org.teiid.common.buffer.TupleSource;
+import org.teiid.core.TeiidComponentException;
+import org.teiid.core.TeiidProcessingException;
+import org.teiid.query.sql.symbol.Constant;
+
+/**
+ * Tracks the maximum value of a column in the tuples read from the wrapped source.
+ */
+class MaxValueTupleSource implements TupleSource {
+	
+	private TupleSource source;
+	private int index;
+	private Object maxValue;
+	private int count;
+	
+	public MaxValueTupleSource(TupleSource source, int index) {
+		this.source = source;
+		this.index = index;
+	}
+
+	@Override
+	public List<?> nextTuple() throws TeiidComponentException,
+			TeiidProcessingException {
+		List<?> tuple = source.nextTuple();
+		if (tuple != null) {
+			count++;
+			Object value = tuple.get(index);
+			if (value != null && (maxValue == null || Constant.COMPARATOR.compare(value, maxValue) > 0)) {
+				maxValue = value;
+			}
+		}
+		return tuple;
+	}
+	
+	@Override
+	public void closeSource() {
+		source.closeSource();
+	}
+	
+	public Object getMaxValue() {
+		return maxValue;
+	}
+	
+	public int getCount() {
+		return count;
+	}
+
+}
@@ -788,6 +788,54 @@ public class TempTable implements Cloneable, SearchableTable {
 		}
 	}
 	
+	/**
+	 * Insert or update each tuple by primary key, keeping the indexes consistent.
+	 * The tuples are in the order of the variables, which must include all columns.
+	 * @return the number of tuples processed
+	 */
+	int upsert(TupleSource tuples, List<ElementSymbol> variables) throws TeiidComponentException, TeiidProcessingException {
+		List<ElementSymbol> cols = getColumns();
+		int[] columnIndexes = new int[cols.size()];
+		boolean shouldProject = false;
+		for (int i = 0; i < cols.size(); i++) {
+			columnIndexes[i] = variables.indexOf(cols.get(i));
+			shouldProject |= (columnIndexes[i] != i);
+		}
+		int count = 0;
+		lock.writeLock().lock();
+		try {
+			List<TempTable> indexes = Collections.emptyList();
+			List<int[]> projections = Collections.emptyList();
+			if (indexTables != null) {
+				indexes = new ArrayList<TempTable>(indexTables.values());
+				projections = new ArrayList<int[]>(indexes.size());
+				for (TempTable index : indexes) {
+					projections.add(RelationalNode.getProjectionIndexes(index.getColumnMap(), index.columns));
+				}
+			}
+			List<?> tuple = null;
+			while ((tuple = tuples.nextTuple()) != null) {
+				if (shouldProject) {
+					tuple = RelationalNode.projectTuple(columnIndexes, tuple);
+				}
+				List<?> old = tree.insert(tuple, InsertMode.UPDATE, -1);
+				for (int i = 0; i < indexes.size(); i++) {
+					STree indexTree = indexes.get(i).tree;
+					if (old != null) {
+						indexTree.remove(RelationalNode.projectTuple(projections.get(i), old));
+					}
+					indexTree.insert(RelationalNode.projectTuple(projections.get(i), tuple), InsertMode.NEW, -1);
+				}
+				count++;
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+		tid.setCardinality(tree.getRowCount());
+		tid.getTableData().dataModified(count);
+		return count;
+	}
+	
 	private void updateTuple(List<?> tuple) throws TeiidComponentException {
 		if (tree.insert(tuple, InsertMode.UPDATE, -1) == null) {
 			throw new AssertionError("Update failed"); //$NON-NLS-1$
@@ -42,9 +42,12 @@ import org.teiid.common.buffer.TupleBuffer;
 import org.teiid.common.buffer.TupleSource;
 import org.teiid.core.CoreConstants;
 import org.teiid.core.TeiidComponentException;
+import org.teiid.core.TeiidException;
 import org.teiid.core.TeiidProcessingException;
 import org.teiid.core.types.DataTypeManager;
+import org.teiid.core.types.TransformationException;
 import org.teiid.core.util.Assertion;
+import org.teiid.core.util.PropertiesUtils;
 import org.teiid.core.util.StringUtil;
 import org.teiid.dqp.internal.process.CachedResults;
 import org.teiid.dqp.internal.process.DQPWorkContext;
@@ -56,6 +59,7 @@ import org.teiid.language.SQLConstants;
 import org.teiid.language.SQLConstants.Reserved;
 import org.teiid.logging.LogConstants;
 import org.teiid.logging.LogManager;
+import org.teiid.metadata.AbstractMetadataRecord;
 import org.teiid.metadata.FunctionMethod.Determinism;
 import org.teiid.query.QueryPlugin;
 import org.teiid.query.eval.Evaluator;
@@ -63,6 +67,7 @@ import org.teiid.query.metadata.QueryMetadataInterface;
 import org.teiid.query.metadata.TempMetadataAdapter;
 import org.teiid.query.metadata.TempMetadataID;
 import org.teiid.query.optimizer.relational.RelationalPlanner;
+import org.teiid.query.optimizer.relational.rules.ColumnStatsUtil;
 import org.teiid.query.parser.ParseInfo;
 import org.teiid.query.processor.BatchCollector;
 import org.teiid.query.processor.CollectionTupleSource;
@@ -94,6 +99,14 @@ public class TempTableDataManager implements ProcessorDataManager {
 	private static final String REFRESHMATVIEWROW = ".refreshmatviewrow"; //$NON-NLS-1$
 	private static final String REFRESHMATVIEW = ".refreshmatview"; //$NON-NLS-1$
 	public static final String CODE_PREFIX = "#CODE_"; //$NON-NLS-1$
+	private static final boolean MATVIEW_STATISTICS = PropertiesUtils.getBooleanProperty(System.getProperties(), "org.teiid.materializationStatistics", false); //$NON-NLS-1$
+	private static final int STATISTICS_SAMPLE_SIZE = 10000;
+	/**
+	 * View extension property naming a column that is greater for rows inserted or updated since the last load.
+	 * Deletes are not captured by the column, so a full load is needed to remove deleted rows.
+	 */
+	public static final String MATVIEW_UPDATE_COLUMN = AbstractMetadataRecord.RELATIONAL_URI + "matview-update-column"; //$NON-NLS-1$
+	
 	private static String REFRESH_SQL = SQLConstants.Reserved.CALL + ' ' + CoreConstants.SYSTEM_ADMIN_MODEL + REFRESHMATVIEW + "(?, ?)"; //$NON-NLS-1$
 
 	private ProcessorDataManager processorDataManager;
@@ -256,6 +269,7 @@ public class TempTableDataManager implements ProcessorDataManager {
 		option.setNoCache(true);
 		option.addNoCacheGroup(fullName);
 		proc.setOption(option);
+		long startTime = System.currentTimeMillis();
 		Determinism determinismLevel = context.resetDeterminismLevel();
 		StoredProcedure cloneProc = (StoredProcedure)proc.clone();
 		int i = 0;
@@ -269,6 +283,7 @@ public class TempTableDataManager implements ProcessorDataManager {
 		TupleBuffer tb = bc.collectTuples();
 		CachedResults cr = new CachedResults();
 		cr.setResults(tb, qp.getProcessorPlan());
+		cr.setComputeTime(System.currentTimeMillis() - startTime);
 		if (hint != null && hint.getDeterminism() != null) {
 			LogManager.logTrace(LogConstants.CTX_DQP, new Object[] { "Cache hint modified the query determinism from ",determinismLevel, " to ", hint.getDeterminism() }); //$NON-NLS-1$ //$NON-NLS-2$
 			determinismLevel = hint.getDeterminism();
@@ -443,9 +458,17 @@ public class TempTableDataManager implements ProcessorDataManager {
 		LogManager.logInfo(LogConstants.CTX_MATVIEWS, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID30013, tableName));
 		QueryMetadataInterface metadata = context.getMetadata();
 		List<ElementSymbol> allColumns = ResolverUtil.resolveElementsInGroup(group, metadata); 
+		int updateColumn = getUpdateColumnIndex(metadata, group, allColumns);
+		if (updateColumn >= 0) {
+			int rowCount = incrementalLoad(context, tableName, globalStore, allColumns, updateColumn);
+			if (rowCount >= 0) {
+				return rowCount;
+			}
+		}
 		TempTable table = globalStore.createMatTable(tableName, group);
 		table.setUpdatable(false);
 		int rowCount = -1;
+		MaxValueTupleSource maxValue = null;
 		try {
 			String fullName = metadata.getFullName(group.getMetadataID());
 			String transformation = metadata.getVirtualPlan(group.getMetadataID()).getQuery();
@@ -453,10 +476,20 @@ public class TempTableDataManager implements ProcessorDataManager {
 			qp.setNonBlocking(true);
 			qp.getContext().setDataObjects(null);
 			TupleSource ts = new BatchCollector.BatchProducerTupleSource(qp);
+			SamplingTupleSource sampler = null;
+			if (MATVIEW_STATISTICS) {
+				ts = sampler = new SamplingTupleSource(ts, STATISTICS_SAMPLE_SIZE);
+			}
+			if (updateColumn >= 0) {
+				ts = maxValue = new MaxValueTupleSource(ts, updateColumn);
+			}
 			
 			table.insert(ts, allColumns, false);
 			table.getTree().compact();
 			rowCount = table.getRowCount();
+			if (sampler != null) {
+				setColumnStats(table, allColumns, sampler.getSample(), rowCount);
+			}
 			//TODO: could pre-process indexes to remove overlap
 			for (Object index : metadata.getIndexesInGroup(group.getMetadataID())) {
 				List<ElementSymbol> columns = GlobalTableStoreImpl.resolveIndex(metadata, allColumns, index);
@@ -480,6 +513,7 @@ public class TempTableDataManager implements ProcessorDataManager {
 			if (rowCount == -1) {
 				globalStore.failedLoad(tableName);
 			} else {
+				globalStore.getMatTableInfo(tableName).setIncrementalValue(maxValue != null?maxValue.getMaxValue():null);
 				globalStore.loaded(tableName, table);
 				LogManager.logInfo(LogConstants.CTX_MATVIEWS, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID30014, tableName, rowCount));
 			}
@@ -487,6 +521,109 @@ public class TempTableDataManager implements ProcessorDataManager {
 		return rowCount;
 	}
 
+	/**
+	 * Return the index of the update column for incremental loading or -1 if not configured.
+	 * Tables with function based index columns are not eligible since they are not 
+	 * directly populated from the view.
+	 */
+	private int getUpdateColumnIndex(QueryMetadataInterface metadata, GroupSymbol group, List<ElementSymbol> allColumns) 
+			throws TeiidComponentException, QueryMetadataException {
+		if (!(group.getMetadataID() instanceof TempMetadataID)) {
+			return -1;
+		}
+		TempMetadataID id = (TempMetadataID)group.getMetadataID();
+		Object viewId = id.getOriginalMetadataID();
+		if (viewId == null || id.getTableData().getFunctionBasedExpressions() != null) {
+			return -1;
+		}
+		String columnName = metadata.getExtensionProperties(viewId).getProperty(MATVIEW_UPDATE_COLUMN);
+		if (columnName == null) {
+			return -1;
+		}
+		for (int i = 0; i < allColumns.size(); i++) {
+			if (allColumns.get(i).getShortName().equalsIgnoreCase(columnName)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+	
+	/**
+	 * Apply the rows inserted or updated since the last load to a copy of the current table,
+	 * then swap the copy in so that readers are not blocked.  Rows with an update value equal
+	 * to the last max are applied again, since later changes may share that value and the
+	 * upsert by primary key is idempotent.  Deletes are not captured by
+	 * the update column, so if the resulting row count does not match the source the
+	 * changes are discarded.  The count will not detect a delete offset by an insert, so 
+	 * removing rows from the view requires a full load, such as refreshMatView with invalidate=true.
+	 * @param allColumns the view columns in select order
+	 * @param updateColumn the index of the update column in allColumns
+	 * @return the row count or -1 if a full load is needed
+	 */
+	private int incrementalLoad(CommandContext context, String tableName, GlobalTableStore globalStore, List<ElementSymbol> allColumns, int updateColumn) 
+			throws TeiidComponentException {
+		MatTableInfo info = globalStore.getMatTableInfo(tableName);
+		Object lastValue = info.getIncrementalValue();
+		TempTable current = globalStore.getTempTableStore().getTempTable(tableName);
+		if (lastValue == null || !info.isValid() || current == null || current.getPkLength() == 0) {
+			return -1;
+		}
+		QueryMetadataInterface metadata = context.getMetadata();
+		try {
+			Object viewId = current.getMetadataId().getOriginalMetadataID();
+			String viewName = metadata.getFullName(viewId);
+			String columnName = viewName + ElementSymbol.SEPARATOR + allColumns.get(updateColumn).getShortName();
+			String queryString = Reserved.SELECT + " * " + Reserved.FROM + ' ' + viewName + ' ' + Reserved.WHERE + ' ' + //$NON-NLS-1$
+				columnName + " >= ?" + ' ' + Reserved.OPTION + ' ' + Reserved.NOCACHE + ' ' + viewName; //$NON-NLS-1$
+			QueryProcessor qp = context.getQueryProcessorFactory().createQueryProcessor(queryString, viewName.toUpperCase(), context, lastValue);
+			qp.setNonBlocking(true);
+			qp.getContext().setDataObjects(null);
+			MaxValueTupleSource ts = new MaxValueTupleSource(new BatchCollector.BatchProducerTupleSource(qp), updateColumn);
+			TempTable table = current.clone();
+			table.upsert(ts, allColumns);
+			int rowCount = table.getRowCount();
+			queryString = Reserved.SELECT + " COUNT(*) " + Reserved.FROM + ' ' + viewName + ' ' + Reserved.OPTION + ' ' + Reserved.NOCACHE + ' ' + viewName; //$NON-NLS-1$
+			qp = context.getQueryProcessorFactory().createQueryProcessor(queryString, viewName.toUpperCase(), context);
+			qp.setNonBlocking(true);
+			qp.getContext().setDataObjects(null);
+			List<?> count = new BatchCollector.BatchProducerTupleSource(qp).nextTuple();
+			if (count == null || ((Number)count.get(0)).intValue() != rowCount) {
+				LogManager.logDetail(LogConstants.CTX_MATVIEWS, "Incremental load row count does not match the source, performing a full load of", tableName); //$NON-NLS-1$
+				return -1;
+			}
+			if (ts.getMaxValue() != null) {
+				info.setIncrementalValue(ts.getMaxValue());
+			}
+			globalStore.loaded(tableName, table);
+			LogManager.logDetail(LogConstants.CTX_MATVIEWS, "Incrementally applied", ts.getCount(), "rows to", tableName); //$NON-NLS-1$ //$NON-NLS-2$
+			LogManager.logInfo(LogConstants.CTX_MATVIEWS, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID30014, tableName, rowCount));
+			return rowCount;
+		} catch (TeiidException e) {
+			LogManager.logDetail(LogConstants.CTX_MATVIEWS, e, "Incremental load failed, performing a full load of", tableName); //$NON-NLS-1$
+			return -1;
+		}
+	}
+
+	/**
+	 * Set the statistics of the columns of the table from the sampled rows so that queries
+	 * against the materialized table can use them for planning.
+	 */
+	private void setColumnStats(TempTable table, List<ElementSymbol> allColumns, List<List<?>> sample, int rowCount) {
+		List<TempMetadataID> elements = table.getMetadataId().getElements();
+		List<Object> values = new ArrayList<Object>(sample.size());
+		for (int i = 0; i < allColumns.size(); i++) {
+			values.clear();
+			for (List<?> tuple : sample) {
+				values.add(tuple.get(i));
+			}
+			try {
+				elements.get(i).setColumnStats(ColumnStatsUtil.computeColumnStats(values, rowCount, allColumns.get(i).getType()));
+			} catch (TransformationException e) {
+				LogManager.logDetail(LogConstants.CTX_MATVIEWS, e, "Could not compute the statistics for", allColumns.get(i)); //$NON-NLS-1$
+			}
+		}
+	}
+
 	public Object lookupCodeValue(CommandContext context, String codeTableName,
 			String returnElementName, String keyElementName, Object keyValue)
 			throws BlockedException, TeiidComponentException,
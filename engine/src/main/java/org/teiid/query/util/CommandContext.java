@@ -44,6 +44,7 @@ import org.teiid.core.util.ExecutorUtils;
 import org.teiid.core.util.LRUCache;
 import org.teiid.dqp.internal.process.DQPWorkContext;
 import org.teiid.dqp.internal.process.PreparedPlan;
+import org.teiid.dqp.internal.process.RequestWorkItem;
 import org.teiid.dqp.internal.process.SessionAwareCache;
 import org.teiid.dqp.internal.process.SessionAwareCache.CacheID;
 import org.teiid.dqp.internal.process.TupleSourceCache;
@@ -135,14 +136,13 @@ public class CommandContext implements Cloneable, org.teiid.CommandContext {
 		private RequestID requestId;
 		
 		private DQPWorkContext dqpWorkContext;
+		private RequestWorkItem workItem;
 		private TransactionContext transactionContext;
 		private TransactionService transactionService;
 		private SourceHint sourceHint;
 		private Executor executor = ExecutorUtils.getDirectExecutor();
 		Map<String, ReusableExecution<?>> reusableExecutions;
 	    Set<CommandListener> commandListeners = null;
-	    private LRUCache<String, DecimalFormat> decimalFormatCache;
-		private LRUCache<String, SimpleDateFormat> dateFormatCache;
 		private AtomicLong reuseCount = null;
 		private ClassLoader classLoader;
 		
@@ -160,6 +160,8 @@ public class CommandContext implements Cloneable, org.teiid.CommandContext {
     private HashSet<Object> planningObjects;
     private HashSet<Object> dataObjects = this.globalState.dataObjects;
     private TupleSourceCache tupleSourceCache;
+    private LRUCache<String, DecimalFormat> decimalFormatCache;
+    private LRUCache<String, SimpleDateFormat> dateFormatCache;
 
     /**
      * Construct a new context.
@@ -205,8 +207,10 @@ public class CommandContext implements Cloneable, org.teiid.CommandContext {
     }
     
     public void setDeterminismLevel(Determinism level) {
-    	if (globalState.determinismLevel == null || level.compareTo(globalState.determinismLevel) < 0) {
-    		globalState.determinismLevel = level;
+    	synchronized (this.globalState) {
+	    	if (globalState.determinismLevel == null || level.compareTo(globalState.determinismLevel) < 0) {
+	    		globalState.determinismLevel = level;
+	    	}
     	}
     }
     
@@ -234,6 +238,20 @@ public class CommandContext implements Cloneable, org.teiid.CommandContext {
         }
     	clone.setNonBlocking(this.nonBlocking);
     	clone.tupleSourceCache = this.tupleSourceCache;
+    	clone.decimalFormatCache = this.decimalFormatCache;
+    	clone.dateFormatCache = this.dateFormatCache;
+    	return clone;
+    }
+    
+    /**
+     * Create a clone for processing by a thread other than the processing thread.
+     * The tuple source and format caches are not safe for concurrent use and are not shared. 
+     */
+    public CommandContext cloneForWorker() {
+    	CommandContext clone = clone();
+    	clone.tupleSourceCache = null;
+    	clone.decimalFormatCache = null;
+    	clone.dateFormatCache = null;
     	return clone;
     }
     
@@ -326,18 +344,22 @@ public class CommandContext implements Cloneable, org.teiid.CommandContext {
     }
     
     public double getNextRand() {
-        if (globalState.random == null) {
-        	globalState.random = new Random();
-        }
-        return globalState.random.nextDouble();
+    	synchronized (this.globalState) {
+	        if (globalState.random == null) {
+	        	globalState.random = new Random();
+	        }
+	        return globalState.random.nextDouble();
+    	}
     }
     
     public double getNextRand(long seed) {
-        if (globalState.random == null) {
-        	globalState.random = new Random();
-        }
-        globalState.random.setSeed(seed);
-        return globalState.random.nextDouble();
+    	synchronized (this.globalState) {
+	        if (globalState.random == null) {
+	        	globalState.random = new Random();
+	        }
+	        globalState.random.setSeed(seed);
+	        return globalState.random.nextDouble();
+    	}
     }
     
     void setRandom(Random random) {
@@ -573,7 +595,9 @@ public class CommandContext implements Cloneable, org.teiid.CommandContext {
 	
 	public void accessedDataObject(Object id) {
 		if (this.dataObjects != null) {
-			this.dataObjects.add(id);
+			synchronized (this.dataObjects) {
+				this.dataObjects.add(id);
+			}
 		}
 	}
 	
@@ -621,6 +645,14 @@ public class CommandContext implements Cloneable, org.teiid.CommandContext {
 		return this.globalState.dqpWorkContext;
 	}
 	
+	public RequestWorkItem getWorkItem() {
+		return this.globalState.workItem;
+	}
+	
+	public void setWorkItem(RequestWorkItem workItem) {
+		this.globalState.workItem = workItem;
+	}
+	
 	public TransactionContext getTransactionContext() {
 		return globalState.transactionContext;
 	}
@@ -722,17 +754,17 @@ public class CommandContext implements Cloneable, org.teiid.CommandContext {
 	public static DecimalFormat getDecimalFormat(CommandContext context, String format) {
 		DecimalFormat result = null;
 		if (context != null) {
-			if (context.globalState.decimalFormatCache == null) {
-				context.globalState.decimalFormatCache = new LRUCache<String, DecimalFormat>(32);
+			if (context.decimalFormatCache == null) {
+				context.decimalFormatCache = new LRUCache<String, DecimalFormat>(32);
 			} else {
-				result = context.globalState.decimalFormatCache.get(format);
+				result = context.decimalFormatCache.get(format);
 			}
 		}
 		if (result == null) {
 			result = new DecimalFormat(format); //TODO: could be locale sensitive
 			result.setParseBigDecimal(true);
 			if (context != null) {
-				context.globalState.decimalFormatCache.put(format, result);
+				context.decimalFormatCache.put(format, result);
 			}
 		}
 		return result;
@@ -741,16 +773,16 @@ public class CommandContext implements Cloneable, org.teiid.CommandContext {
 	public static SimpleDateFormat getDateFormat(CommandContext context, String format) {
 		SimpleDateFormat result = null;
 		if (context != null) {
-			if (context.globalState.dateFormatCache == null) {
-				context.globalState.dateFormatCache = new LRUCache<String, SimpleDateFormat>(32);
+			if (context.dateFormatCache == null) {
+				context.dateFormatCache = new LRUCache<String, SimpleDateFormat>(32);
 			} else {
-				result = context.globalState.dateFormatCache.get(format);
+				result = context.dateFormatCache.get(format);
 			}
 		}
 		if (result == null) {
 			result = new SimpleDateFormat(format); //TODO: could be locale sensitive
 			if (context != null) {
-				context.globalState.dateFormatCache.put(format, result);
+				context.dateFormatCache.put(format, result);
 			}
 		}
 		return result;
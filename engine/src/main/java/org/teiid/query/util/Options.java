@@ -31,10 +31,14 @@ public class Options {
 
 	public static final String UNNEST_DEFAULT = "org.teiid.subqueryUnnestDefault"; //$NON-NLS-1$
 	public static final String PUSHDOWN_DEFAULT_NULL_ORDER = "org.teiid.pushdownDefaultNullOrder"; //$NON-NLS-1$ 
+	public static final String PARALLEL_BRANCHES = "org.teiid.parallelBranches"; //$NON-NLS-1$
+	public static final String PARALLEL_SORT = "org.teiid.parallelSort"; //$NON-NLS-1$
 
 	private Properties properties;
 	private boolean subqueryUnnestDefault;
 	private boolean pushdownDefaultNullOrder;
+	private boolean parallelBranches;
+	private boolean parallelSort;
 	
 	public Properties getProperties() {
 		return properties;
@@ -69,5 +73,31 @@ public class Options {
 		this.pushdownDefaultNullOrder = p;
 		return this;
 	}
+	
+	public boolean isParallelBranches() {
+		return parallelBranches;
+	}
+	
+	public void setParallelBranches(boolean parallelBranches) {
+		this.parallelBranches = parallelBranches;
+	}
+	
+	public Options parallelBranches(boolean p) {
+		this.parallelBranches = p;
+		return this;
+	}
+	
+	public boolean isParallelSort() {
+		return parallelSort;
+	}
+	
+	public void setParallelSort(boolean parallelSort) {
+		this.parallelSort = parallelSort;
+	}
+	
+	public Options parallelSort(boolean p) {
+		this.parallelSort = p;
+		return this;
+	}
 
 }
@@ -0,0 +1,143 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+
+package org.teiid.common.buffer.impl;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import org.teiid.common.buffer.BufferManager.TupleSourceType;
+import org.teiid.common.buffer.BufferManagerFactory;
+import org.teiid.common.buffer.TupleBatch;
+import org.teiid.common.buffer.TupleBuffer;
+import org.teiid.core.types.DataTypeManager;
+import org.teiid.query.sql.symbol.ElementSymbol;
+
+@SuppressWarnings("nls")
+public class TestBatchCompressor {
+
+	private static final Class<?>[] TYPES = new Class<?>[] {DataTypeManager.DefaultDataClasses.LONG,
+		DataTypeManager.DefaultDataClasses.TIMESTAMP, DataTypeManager.DefaultDataClasses.INTEGER,
+		DataTypeManager.DefaultDataClasses.STRING};
+
+	private static String[] getTypeNames(Class<?>[] types) {
+		String[] result = new String[types.length];
+		for (int i = 0; i < types.length; i++) {
+			result[i] = DataTypeManager.getDataTypeName(types[i]);
+		}
+		return result;
+	}
+
+	private List<List<Object>> roundTrip(BatchCompressor compressor, List<List<?>> rows) throws Exception {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		ObjectOutputStream oos = new ObjectOutputStream(baos);
+		compressor.writeBatch(oos, getTypeNames(TYPES), TYPES, rows);
+		oos.close();
+		ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(baos.toByteArray()));
+		return compressor.readBatch(ois, getTypeNames(TYPES));
+	}
+
+	@Test public void testRoundTrip() throws Exception {
+		List<List<?>> rows = new ArrayList<List<?>>();
+		Random r = new Random(1);
+		for (int i = 0; i < 1000; i++) {
+			Timestamp ts = new Timestamp(1000000000000l + i * 60000l);
+			ts.setNanos(i * 1000);
+			if (i % 7 == 0) {
+				rows.add(Arrays.asList(null, null, r.nextInt(), null));
+			} else {
+				rows.add(Arrays.asList((long)i * 3, ts, r.nextInt(), "value" + (i % 5)));
+			}
+		}
+		BatchCompressor compressor = new BatchCompressor();
+		assertEquals(rows, roundTrip(compressor, rows));
+		assertTrue(compressor.getBytesSaved() > 0);
+	}
+
+	@Test public void testUnsorted() throws Exception {
+		List<List<?>> rows = new ArrayList<List<?>>();
+		rows.add(Arrays.asList(5l, new Timestamp(5), 1, "a"));
+		rows.add(Arrays.asList(Long.MIN_VALUE, new Timestamp(-5), Integer.MAX_VALUE, null));
+		rows.add(Arrays.asList(Long.MAX_VALUE, null, Integer.MIN_VALUE, "b"));
+		assertEquals(-1, BatchCompressor.getDeltaType(TYPES[0], rows, 0));
+		assertEquals(rows, roundTrip(new BatchCompressor(), rows));
+	}
+
+	@Test public void testCompress() throws Exception {
+		byte[] bytes = new byte[100000];
+		Random r = new Random(2);
+		for (int i = 0; i < bytes.length; i++) {
+			if (i > 70000 || (i/100) % 2 == 0) {
+				bytes[i] = (byte)(i % 10);
+			} else {
+				bytes[i] = (byte)r.nextInt();
+			}
+		}
+		helpTestCompress(bytes, true);
+		//incompressible
+		r.nextBytes(bytes);
+		helpTestCompress(bytes, false);
+		helpTestCompress(new byte[3], false);
+	}
+
+	private void helpTestCompress(byte[] bytes, boolean compressible) throws Exception {
+		byte[] compressed = new byte[bytes.length + (bytes.length >> 7) + 16];
+		int length = BatchCompressor.compress(bytes, bytes.length, compressed);
+		assertEquals(compressible, length < bytes.length);
+		byte[] result = new byte[bytes.length];
+		BatchCompressor.decompress(compressed, length, result, result.length);
+		assertArrayEquals(bytes, result);
+	}
+
+	@Test public void testTupleBuffer() throws Exception {
+		BufferManagerImpl bm = BufferManagerFactory.getTestBufferManager(0, 2);
+		bm.setCompressBatches(true);
+		ElementSymbol x = new ElementSymbol("x");
+		x.setType(DataTypeManager.DefaultDataClasses.LONG);
+		ElementSymbol y = new ElementSymbol("y");
+		y.setType(DataTypeManager.DefaultDataClasses.STRING);
+		TupleBuffer tb = bm.createTupleBuffer(Arrays.asList(x, y), "x", TupleSourceType.PROCESSOR);
+		tb.setBatchSize(100);
+		for (int i = 0; i < 1000; i++) {
+			tb.addTuple(Arrays.asList((long)i, i % 2 == 0?null:"value"));
+		}
+		tb.close();
+		for (int i = 1; i <= 1000; i+=100) {
+			TupleBatch batch = tb.getBatch(i);
+			assertEquals(Arrays.asList((long)i - 1, null), batch.getTuple(i));
+			assertEquals(Arrays.asList((long)i, "value"), batch.getTuple(i + 1));
+		}
+		assertTrue(bm.getCompressionBytesSaved() > 0);
+		tb.remove();
+	}
+
+}
@@ -28,6 +28,12 @@ import java.io.IOException;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
 import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.Test;
 import org.teiid.common.buffer.CacheEntry;
@@ -177,6 +183,46 @@ public class TestBufferFrontedFileStoreCache {
 		assertEquals(Integer.valueOf(5001), ce.getObject());
 	}
 
+	@Test public void testConcurrentStorage() throws Exception {
+		final BufferFrontedFileStoreCache cache = createLayeredCache(1<<16, 1<<15);
+		final Serializer<Integer> s = new SimpleSerializer();
+		final WeakReference<? extends Serializer<?>> ref = new WeakReference<Serializer<?>>(s);
+		cache.createCacheGroup(s.getId());
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<Void>> futures = new ArrayList<Future<Void>>();
+			for (int i = 0; i < 4; i++) {
+				final int thread = i;
+				futures.add(executor.submit(new Callable<Void>() {
+					@Override
+					public Void call() throws Exception {
+						for (long oid = thread; oid < 200; oid += 4) {
+							CacheEntry ce = new CacheEntry(oid);
+							ce.setSerializer(ref);
+							ce.setObject(Integer.valueOf(1000 + (int)oid));
+							cache.addToCacheGroup(s.getId(), oid);
+							cache.add(ce, s);
+						}
+						for (long oid = thread; oid < 200; oid += 4) {
+							CacheEntry ce = get(cache, oid, s);
+							assertEquals(Integer.valueOf(1000 + (int)oid), ce.getObject());
+						}
+						return null;
+					}
+				}));
+			}
+			for (Future<Void> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		assertTrue(cache.getStorageWrites() > 0);
+		cache.removeCacheGroup(s.getId());
+		assertEquals(0, cache.getDataBlocksInUse());
+		assertEquals(0, cache.getInodesInUse());
+	}
+
 	private static BufferFrontedFileStoreCache createLayeredCache(int bufferSpace, int objectSize) throws TeiidComponentException {
 		BufferFrontedFileStoreCache fsc = new BufferFrontedFileStoreCache();
 		fsc.setMemoryBufferSpace(bufferSpace);
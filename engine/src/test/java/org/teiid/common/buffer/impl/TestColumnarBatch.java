@@ -0,0 +1,111 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+
+package org.teiid.common.buffer.impl;
+
+import static org.junit.Assert.*;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Time;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.teiid.common.buffer.BufferManager.TupleSourceType;
+import org.teiid.common.buffer.BufferManagerFactory;
+import org.teiid.common.buffer.TupleBatch;
+import org.teiid.common.buffer.TupleBuffer;
+import org.teiid.core.types.DataTypeManager;
+import org.teiid.query.sql.symbol.ElementSymbol;
+
+@SuppressWarnings({"nls", "unchecked"})
+public class TestColumnarBatch {
+
+	private static final Class<?>[] TYPES = new Class<?>[] {DataTypeManager.DefaultDataClasses.INTEGER,
+		DataTypeManager.DefaultDataClasses.STRING, DataTypeManager.DefaultDataClasses.DOUBLE,
+		DataTypeManager.DefaultDataClasses.BOOLEAN, DataTypeManager.DefaultDataClasses.DATE,
+		DataTypeManager.DefaultDataClasses.TIME, DataTypeManager.DefaultDataClasses.BIG_DECIMAL,
+		DataTypeManager.DefaultDataClasses.CHAR};
+
+	private List<List<?>> getRows(int count) {
+		List<List<?>> rows = new ArrayList<List<?>>();
+		for (int i = 0; i < count; i++) {
+			if (i % 5 == 0) {
+				rows.add(Arrays.asList(null, null, null, null, null, null, null, null));
+				continue;
+			}
+			rows.add(Arrays.asList(i, "value" + (i % 3), i/2.0, i % 2 == 0, new Date(i * 86400000l), new Time(i * 1000l), BigDecimal.valueOf(i), (char)('a' + i % 26)));
+		}
+		return rows;
+	}
+
+	@Test public void testRoundTrip() {
+		List<List<?>> rows = getRows(100);
+		ColumnarBatch batch = new ColumnarBatch(TYPES, rows);
+		assertEquals(100, batch.size());
+		assertEquals(rows, batch);
+		assertEquals(rows, batch.getRows());
+		//rows are copies
+		((List<Object>)batch.get(1)).set(0, 5);
+		assertEquals(1, batch.get(1).get(0));
+	}
+
+	@Test public void testUnexpectedType() {
+		List<List<?>> rows = new ArrayList<List<?>>();
+		rows.add(Arrays.asList(1));
+		rows.add(Arrays.asList("a"));
+		ColumnarBatch batch = new ColumnarBatch(new Class<?>[] {DataTypeManager.DefaultDataClasses.INTEGER}, rows);
+		assertEquals(rows, batch);
+	}
+
+	@Test public void testSizeEstimate() {
+		List<List<?>> rows = getRows(1000);
+		SizeUtility sizeUtility = new SizeUtility(TYPES);
+		long rowSize = sizeUtility.getBatchSize(false, rows);
+		long columnarSize = new ColumnarBatch(TYPES, rows).getSizeEstimate(sizeUtility);
+		assertTrue(columnarSize < rowSize/2);
+	}
+
+	@Test public void testTupleBuffer() throws Exception {
+		BufferManagerImpl bm = BufferManagerFactory.getTestBufferManager(0, 2);
+		bm.setColumnarBatches(true);
+		ElementSymbol x = new ElementSymbol("x");
+		x.setType(DataTypeManager.DefaultDataClasses.INTEGER);
+		ElementSymbol y = new ElementSymbol("y");
+		y.setType(DataTypeManager.DefaultDataClasses.STRING);
+		TupleBuffer tb = bm.createTupleBuffer(Arrays.asList(x, y), "x", TupleSourceType.PROCESSOR);
+		tb.setBatchSize(2);
+		for (int i = 0; i < 10; i++) {
+			tb.addTuple(Arrays.asList(i, i % 2 == 0?null:String.valueOf(i)));
+		}
+		tb.close();
+		for (int i = 1; i <= 10; i+=2) {
+			TupleBatch batch = tb.getBatch(i);
+			assertEquals(Arrays.asList(i - 1, (i - 1) % 2 == 0?null:String.valueOf(i - 1)), batch.getTuple(i));
+			assertEquals(Arrays.asList(i, String.valueOf(i)), batch.getTuple(i + 1));
+		}
+		tb.remove();
+	}
+
+}
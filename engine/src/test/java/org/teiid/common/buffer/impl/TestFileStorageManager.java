@@ -28,8 +28,14 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.Test;
 import org.teiid.common.buffer.FileStore;
@@ -114,6 +120,39 @@ public class TestFileStorageManager {
     	fsos.close();
     }
 
+    @Test public void testConcurrentReadWrite() throws Exception {
+    	final FileStorageManager sm = getStorageManager(1, null);
+    	final FileStore store = sm.createFileStore("0");
+    	final FileStore other = sm.createFileStore("1");
+    	ExecutorService executor = Executors.newFixedThreadPool(4);
+    	try {
+	    	List<Future<Void>> futures = new ArrayList<Future<Void>>();
+	    	for (int i = 0; i < 8; i++) {
+	    		final int block = i;
+	    		futures.add(executor.submit(new Callable<Void>() {
+	    			@Override
+	    			public Void call() throws Exception {
+	    				for (int j = 0; j < 10; j++) {
+	    					writeBytes(store, (block * 10 + j) * 2048);
+	    					writeBytes(other, (block * 10 + j) * 2048);
+	    				}
+	    				return null;
+	    			}
+	    		}));
+	    	}
+	    	for (Future<Void> future : futures) {
+	    		future.get();
+	    	}
+    	} finally {
+    		executor.shutdownNow();
+    	}
+    	assertEquals(80 * 2048, store.getLength());
+    	assertEquals(2 * 80 * 2048, sm.getUsedBufferSpace());
+    	store.remove();
+    	other.remove();
+    	assertEquals(0, sm.getUsedBufferSpace());
+    }
+
     static Random r = new Random();
     
 	static void writeBytes(FileStore store) throws IOException {
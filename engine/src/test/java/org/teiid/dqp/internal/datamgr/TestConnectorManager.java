@@ -34,6 +34,7 @@ import org.teiid.dqp.message.AtomicRequestID;
 import org.teiid.dqp.message.AtomicRequestMessage;
 import org.teiid.dqp.message.RequestID;
 import org.teiid.translator.ExecutionFactory;
+import org.teiid.translator.TranslatorException;
 
 
 /**
@@ -104,5 +105,84 @@ public final class TestConnectorManager extends TestCase {
 
         assertEquals("Expected size of 1", 1, csm.size()); //$NON-NLS-1$
     }
+    
+    public void testExecutionLimits() throws Exception {
+    	csm.getExecutionFactory().setMaxConcurrentExecutions(1);
+    	csm.getExecutionFactory().setMaxQueuedExecutions(1);
+    	ConnectorWorkItem first = (ConnectorWorkItem)csm.registerRequest(request);
+    	ConnectorWorkItem second = (ConnectorWorkItem)csm.registerRequest(TestConnectorWorkItem.createNewAtomicRequestMessage(2, 2));
+    	ConnectorWorkItem third = (ConnectorWorkItem)csm.registerRequest(TestConnectorWorkItem.createNewAtomicRequestMessage(3, 3));
+    	second.setRequestWorkItem(null);
+    	third.setRequestWorkItem(null);
+    	assertTrue(csm.acquireExecution(first));
+    	assertFalse(csm.acquireExecution(second));
+    	assertFalse(csm.acquireExecution(second));
+    	try {
+    		csm.acquireExecution(third);
+    		fail("expected exception"); //$NON-NLS-1$
+    	} catch (TranslatorException e) {
+    		assertTrue(e.getMessage().startsWith("TEIID31128")); //$NON-NLS-1$
+    	}
+    	assertEquals(1, csm.getRejectedExecutionCount());
+    	assertEquals(1, csm.getQueuedExecutionCount());
+    	
+    	first.close();
+    	assertEquals(1, csm.getActiveExecutionCount());
+    	assertEquals(0, csm.getQueuedExecutionCount());
+    	assertEquals(1, csm.getDequeuedExecutionCount());
+    	assertTrue(second.isDataAvailable());
+    	assertTrue(csm.acquireExecution(second));
+    	
+    	//a queued item may be cancelled
+    	assertFalse(csm.acquireExecution(third));
+    	third.cancel();
+    	assertEquals(0, csm.getQueuedExecutionCount());
+    	assertTrue(third.isDataAvailable());
+    	
+    	second.close();
+    	third.close();
+    	assertEquals(0, csm.getActiveExecutionCount());
+    }
+    
+    public void testExecutionLimitsSameRequest() throws Exception {
+    	csm.getExecutionFactory().setMaxConcurrentExecutions(1);
+    	ConnectorWorkItem first = (ConnectorWorkItem)csm.registerRequest(request);
+    	ConnectorWorkItem second = (ConnectorWorkItem)csm.registerRequest(TestConnectorWorkItem.createNewAtomicRequestMessage(1, 2));
+    	ConnectorWorkItem other = (ConnectorWorkItem)csm.registerRequest(TestConnectorWorkItem.createNewAtomicRequestMessage(2, 3));
+    	other.setRequestWorkItem(null);
+    	assertTrue(csm.acquireExecution(first));
+    	//the same request should not wait on itself
+    	assertTrue(csm.acquireExecution(second));
+    	assertEquals(2, csm.getActiveExecutionCount());
+    	assertFalse(csm.acquireExecution(other));
+    	
+    	first.close();
+    	assertEquals(0, csm.getDequeuedExecutionCount());
+    	second.close();
+    	assertEquals(1, csm.getDequeuedExecutionCount());
+    	assertTrue(csm.acquireExecution(other));
+    	other.close();
+    	assertEquals(0, csm.getActiveExecutionCount());
+    }
+    
+    public void testExecutionQueueTimeout() throws Exception {
+    	csm.getExecutionFactory().setMaxConcurrentExecutions(1);
+    	csm.getExecutionFactory().setExecutionQueueTimeout(1);
+    	ConnectorWorkItem first = (ConnectorWorkItem)csm.registerRequest(request);
+    	ConnectorWorkItem second = (ConnectorWorkItem)csm.registerRequest(TestConnectorWorkItem.createNewAtomicRequestMessage(2, 2));
+    	assertTrue(csm.acquireExecution(first));
+    	assertFalse(csm.acquireExecution(second));
+    	second.setQueueStart(second.getQueueStart() - 1);
+    	try {
+    		csm.acquireExecution(second);
+    		fail("expected exception"); //$NON-NLS-1$
+    	} catch (TranslatorException e) {
+    		assertTrue(e.getMessage().startsWith("TEIID31129")); //$NON-NLS-1$
+    	}
+    	assertEquals(1, csm.getTimedOutExecutionCount());
+    	assertEquals(0, csm.getQueuedExecutionCount());
+    	first.close();
+    	assertEquals(0, csm.getActiveExecutionCount());
+    }
            
 }
\ No newline at end of file
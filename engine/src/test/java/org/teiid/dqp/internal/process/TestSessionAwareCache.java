@@ -21,6 +21,8 @@
  */
 package org.teiid.dqp.internal.process;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.anyObject;
@@ -30,11 +32,16 @@ import org.junit.Test;
 import org.mockito.Mockito;
 import org.teiid.adminapi.impl.SessionMetadata;
 import org.teiid.cache.Cachable;
+import org.teiid.cache.Cache;
+import org.teiid.cache.CacheConfiguration;
+import org.teiid.cache.CacheConfiguration.Policy;
+import org.teiid.cache.CacheFactory;
 import org.teiid.cache.DefaultCacheFactory;
 import org.teiid.common.buffer.BufferManager;
 import org.teiid.dqp.internal.process.SessionAwareCache.CacheID;
 import org.teiid.metadata.FunctionMethod.Determinism;
 import org.teiid.query.parser.ParseInfo;
+import org.teiid.vdb.runtime.VDBKey;
 
 
 @SuppressWarnings("nls")
@@ -138,6 +145,107 @@ public class TestSessionAwareCache {
 		assertNull(cache.get(id));
 	}
 
+	@Test
+	public void testCostBasedEviction() {
+		SessionAwareCache<CachedResults> cache = new SessionAwareCache<CachedResults>("resultset", DefaultCacheFactory.INSTANCE, SessionAwareCache.Type.RESULTSET, 0);
+		cache.setMaxSizeBytes(250);
+		
+		CacheID expensive = new CacheID(buildWorkContext(), new ParseInfo(), "SELECT * FROM FOO");
+		CacheID cheap = new CacheID(buildWorkContext(), new ParseInfo(), "SELECT * FROM BAR");
+		CacheID other = new CacheID(buildWorkContext(), new ParseInfo(), "SELECT * FROM BAZ");
+		
+		cache.put(expensive, Determinism.SESSION_DETERMINISTIC, mockResults(100, 1000), null);
+		cache.put(cheap, Determinism.SESSION_DETERMINISTIC, mockResults(100, 10), null);
+		assertEquals(200, cache.getTotalSizeEstimate());
+		
+		//exceeds the size limit, the cheapest to recompute per byte should be removed
+		cache.put(other, Determinism.SESSION_DETERMINISTIC, mockResults(100, 500), null);
+		assertEquals(1, cache.getEvictionCount());
+		assertEquals(200, cache.getTotalSizeEstimate());
+		
+		assertNull(cache.get(cheap));
+		assertNotNull(cache.get(expensive));
+		assertNotNull(cache.get(other));
+		
+		SessionAwareCache.Statistics stats = cache.getStatistics(new VDBKey("vdb-name", 1));
+		assertEquals(3, stats.getRequestCount());
+		assertEquals(2, stats.getHitCount());
+		assertEquals(200, stats.getBytesSaved());
+		assertEquals(1500, stats.getTimeSaved());
+		
+		cache.clearForVDB("vdb-name", 1);
+		assertEquals(0, cache.getTotalSizeEstimate());
+	}
+
+	@Test
+	public void testTrackingExpiredEntries() {
+		final Cache<Object, Object> underlying = DefaultCacheFactory.INSTANCE.get("resultset");
+		CacheFactory cacheFactory = new CacheFactory() {
+			@SuppressWarnings("unchecked")
+			@Override
+			public <K, V> Cache<K, V> get(String name) {
+				return (Cache<K, V>)underlying;
+			}
+			
+			@Override
+			public void destroy() {
+			}
+		};
+		SessionAwareCache<CachedResults> cache = new SessionAwareCache<CachedResults>("resultset", cacheFactory, SessionAwareCache.Type.RESULTSET, 0);
+		cache.setMaxSizeBytes(250);
+		
+		CacheID a = new CacheID(buildWorkContext(), new ParseInfo(), "SELECT * FROM FOO");
+		CacheID b = new CacheID(buildWorkContext(), new ParseInfo(), "SELECT * FROM BAR");
+		CacheID c = new CacheID(buildWorkContext(), new ParseInfo(), "SELECT * FROM BAZ");
+		
+		cache.put(a, Determinism.SESSION_DETERMINISTIC, mockResults(100, 1000), null);
+		cache.put(b, Determinism.SESSION_DETERMINISTIC, mockResults(100, 10), null);
+		
+		//simulate the expiration of an entry by the underlying cache
+		underlying.remove(a);
+		assertEquals(200, cache.getTotalSizeEstimate());
+		
+		//the stale entry is removed rather than evicting a live entry
+		cache.put(c, Determinism.SESSION_DETERMINISTIC, mockResults(100, 500), null);
+		assertEquals(0, cache.getEvictionCount());
+		assertEquals(200, cache.getTotalSizeEstimate());
+		assertNotNull(cache.get(b));
+		assertNotNull(cache.get(c));
+		
+		//a miss stops tracking the entry
+		underlying.remove(b);
+		assertNull(cache.get(b));
+		assertEquals(100, cache.getTotalSizeEstimate());
+	}
+	
+	@Test
+	public void testTrackingUnderlyingEviction() {
+		CacheFactory cacheFactory = new DefaultCacheFactory(new CacheConfiguration(Policy.LRU, 60, 2, "test"));
+		SessionAwareCache<CachedResults> cache = new SessionAwareCache<CachedResults>("resultset", cacheFactory, SessionAwareCache.Type.RESULTSET, 0);
+		cache.setMaxEntries(2);
+		
+		CacheID a = new CacheID(buildWorkContext(), new ParseInfo(), "SELECT * FROM FOO");
+		CacheID b = new CacheID(buildWorkContext(), new ParseInfo(), "SELECT * FROM BAR");
+		CacheID c = new CacheID(buildWorkContext(), new ParseInfo(), "SELECT * FROM BAZ");
+		
+		cache.put(a, Determinism.SESSION_DETERMINISTIC, mockResults(100, 10), null);
+		cache.put(b, Determinism.SESSION_DETERMINISTIC, mockResults(100, 1000), null);
+		//the underlying lru cache removes a
+		cache.put(c, Determinism.SESSION_DETERMINISTIC, mockResults(100, 1000), null);
+		
+		assertEquals(0, cache.getEvictionCount());
+		assertEquals(200, cache.getTotalSizeEstimate());
+		assertNull(cache.get(a));
+		assertNotNull(cache.get(b));
+		assertNotNull(cache.get(c));
+	}
+	
+	private CachedResults mockResults(long size, long cost) {
+		CachedResults result = Mockito.mock(CachedResults.class);
+		Mockito.stub(result.getSizeEstimate()).toReturn(size);
+		Mockito.stub(result.getComputeTime()).toReturn(cost);
+		return result;
+	}
 	
 	public static DQPWorkContext buildWorkContext() {
 		DQPWorkContext workContext = new DQPWorkContext();
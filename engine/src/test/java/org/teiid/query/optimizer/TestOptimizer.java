@@ -6699,6 +6699,48 @@ public class TestOptimizer {
 		getPlan(helpGetCommand("select * from x", metadata, null), metadata, getGenericFinder(), null, false, null);		
 	}
     
+	@Test public void testPartitionedScan() throws Exception {
+		String ddl = "CREATE foreign table x (y integer not null primary key, z string) OPTIONS (CARDINALITY 1000000)";
+
+		QueryMetadataInterface metadata = RealMetadataFactory.fromDDL(ddl, "x", "phy");
+		BasicSourceCapabilities bsc = getTypicalCapabilities();
+		bsc.setSourceProperty(Capability.SCAN_PARTITION_COUNT, 2);
+		bsc.setFunctionSupport(SourceSystemFunctions.MOD, true);
+		bsc.setFunctionSupport(SourceSystemFunctions.ABS, true);
+		
+		ProcessorPlan plan = helpPlan("select z from x where z like 'a%'", metadata, null, new DefaultCapabilitiesFinder(bsc), 
+				new String[] {"SELECT g_0.z AS c_0 FROM phy.x AS g_0 WHERE (g_0.z LIKE 'a%') AND (ABS(MOD(g_0.y, 2)) = 0)", 
+				"SELECT g_0.z AS c_0 FROM phy.x AS g_0 WHERE (g_0.z LIKE 'a%') AND (ABS(MOD(g_0.y, 2)) = 1)"}, ComparisonMode.EXACT_COMMAND_STRING); //$NON-NLS-1$
+		
+		checkNodeTypes(plan, new int[] {
+	            2,      // Access
+	            0,      // DependentAccess
+	            0,      // DependentSelect
+	            0,      // DependentProject
+	            0,      // DupRemove
+	            0,      // Grouping
+	            0,      // NestedLoopJoinStrategy
+	            0,      // MergeJoinStrategy
+	            0,      // Null
+	            0,      // PlanExecution
+	            0,      // Project
+	            0,      // Select
+	            0,      // Sort
+	            1       // UnionAll
+	        });
+		
+		//distinct is not partitioned
+		plan = helpPlan("select distinct z from x", metadata, null, new DefaultCapabilitiesFinder(bsc), 
+				new String[] {"SELECT DISTINCT g_0.z AS c_0 FROM phy.x AS g_0"}, ComparisonMode.EXACT_COMMAND_STRING); //$NON-NLS-1$
+		checkNodeTypes(plan, FULL_PUSHDOWN);
+		
+		//an engine limit is not partitioned, so that the row limit can be passed to the source query
+		plan = helpPlan("select z from x limit 10", metadata, null, new DefaultCapabilitiesFinder(bsc), 
+				new String[] {"SELECT g_0.z AS c_0 FROM phy.x AS g_0"}, ComparisonMode.EXACT_COMMAND_STRING); //$NON-NLS-1$
+		checkNodeTypes(plan, new int[] {1}, new Class[] {LimitNode.class});
+		checkNodeTypes(plan, new int[] {0}, new Class[] {UnionAllNode.class});
+	}
+    
 	public static final boolean DEBUG = false;
 
 }
@@ -24,13 +24,17 @@ package org.teiid.query.optimizer.relational.rules;
 
 import static org.junit.Assert.*;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 import org.junit.Ignore;
 import org.junit.Test;
 import org.teiid.api.exception.query.QueryMetadataException;
 import org.teiid.core.TeiidComponentException;
 import org.teiid.core.TeiidProcessingException;
+import org.teiid.core.types.DataTypeManager;
 import org.teiid.metadata.Column;
 import org.teiid.query.metadata.QueryMetadataInterface;
 import org.teiid.query.metadata.TransformationMetadata;
@@ -778,4 +782,26 @@ public class TestCalculateCostUtil {
     	helpTestSetOp("INTERSECT ", 375000.0f); //$NON-NLS-1$
     }
 
+    /**
+     * The statistics are relative to the non-null values, so half of the rows being null 
+     * halves the estimates
+     */
+    @Test public void testEstimateCostWithColumnStatsAndNulls() throws Exception {
+        TransformationMetadata metadata = RealMetadataFactory.example4();
+        List<Object> sample = new ArrayList<Object>();
+        sample.addAll(Collections.nCopies(500, 1));
+        sample.addAll(Collections.nCopies(250, 2));
+        for (int i = 1000; i < 1250; i++) {
+        	sample.add(i);
+        }
+        sample.addAll(Collections.nCopies(1000, null));
+        RealMetadataFactory.setCardinality("pm1.g1", 2000, metadata);
+        metadata.getElementID("pm1.g1.e2").setColumnStats(ColumnStatsUtil.computeColumnStats(sample, 2000, DataTypeManager.DefaultDataClasses.INTEGER));
+        
+        helpTestEstimateCost("pm1.g1.e2 = 1", 2000, 500, metadata);
+        helpTestEstimateCost("pm1.g1.e2 in (1, 2)", 2000, 750, metadata);
+        helpTestEstimateCost("pm1.g1.e2 >= 1000", 2000, 250, metadata);
+        helpTestEstimateCost("pm1.g1.e2 < 1000", 2000, 750, metadata);
+    }
+    
 }
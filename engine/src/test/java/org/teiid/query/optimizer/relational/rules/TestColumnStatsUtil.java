@@ -0,0 +1,113 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+
+package org.teiid.query.optimizer.relational.rules;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import org.teiid.core.types.DataTypeManager;
+import org.teiid.metadata.ColumnStats;
+
+@SuppressWarnings("nls")
+public class TestColumnStatsUtil {
+	
+	private static final Class<?> INTEGER = DataTypeManager.DefaultDataClasses.INTEGER;
+
+	/**
+	 * half of the values are 1, the rest are unique values from 1000 to 1499
+	 */
+	private static List<Object> getSkewedSample() {
+		List<Object> sample = new ArrayList<Object>();
+		sample.addAll(Collections.nCopies(500, 1));
+		for (int i = 1000; i < 1500; i++) {
+			sample.add(i);
+		}
+		Collections.shuffle(sample);
+		return sample;
+	}
+	
+	@Test public void testComputeSkewed() throws Exception {
+		ColumnStats stats = ColumnStatsUtil.computeColumnStats(getSkewedSample(), 1000, INTEGER);
+		assertEquals(501, stats.getDistinctValues());
+		assertEquals(0, stats.getNullValues());
+		assertEquals("1", stats.getMinimumValue());
+		assertEquals("1499", stats.getMaximumValue());
+		assertArrayEquals(new String[] {"1"}, stats.getMostCommonValues());
+		assertEquals(.5, stats.getMostCommonFrequencies()[0], .0001);
+		String[] histogram = stats.getHistogram();
+		assertEquals(ColumnStatsUtil.MAX_BUCKETS + 1, histogram.length);
+		assertEquals("1000", histogram[0]);
+		assertEquals("1499", histogram[histogram.length - 1]);
+	}
+	
+	@Test public void testComputeSampled() throws Exception {
+		List<Object> sample = getSkewedSample();
+		sample.addAll(Collections.nCopies(1000, null));
+		ColumnStats stats = ColumnStatsUtil.computeColumnStats(sample, 4000, INTEGER);
+		assertEquals(2000, stats.getNullValues());
+		//the singletons imply more distinct values than were seen
+		assertTrue(stats.getDistinctValues() > 501);
+		assertTrue(stats.getDistinctValues() <= 2000);
+		assertArrayEquals(new String[] {"1"}, stats.getMostCommonValues());
+	}
+	
+	@Test public void testComputeAllCommon() throws Exception {
+		List<Object> sample = new ArrayList<Object>();
+		for (int i = 0; i < 100; i++) {
+			sample.add(i % 3 == 0?"a":(i % 3 == 1?"b":null));
+		}
+		ColumnStats stats = ColumnStatsUtil.computeColumnStats(sample, 100, DataTypeManager.DefaultDataClasses.STRING);
+		assertEquals(33, stats.getNullValues());
+		assertEquals(2, stats.getDistinctValues());
+		assertEquals(2, stats.getMostCommonValues().length);
+		assertNull(stats.getHistogram());
+		assertEquals(.5, ColumnStatsUtil.getLessThanSelectivity(stats, "b", DataTypeManager.DefaultDataClasses.STRING, false), .02);
+		assertEquals(0, ColumnStatsUtil.getEqualitySelectivity(stats, "c", DataTypeManager.DefaultDataClasses.STRING, 2), 0);
+	}
+	
+	@Test public void testNonComparable() throws Exception {
+		assertNull(ColumnStatsUtil.computeColumnStats(getSkewedSample(), 1000, DataTypeManager.DefaultDataClasses.XML));
+	}
+	
+	@Test public void testEqualitySelectivity() throws Exception {
+		ColumnStats stats = ColumnStatsUtil.computeColumnStats(getSkewedSample(), 1000, INTEGER);
+		assertEquals(.5, ColumnStatsUtil.getEqualitySelectivity(stats, 1, INTEGER, 501), .0001);
+		assertEquals(.001, ColumnStatsUtil.getEqualitySelectivity(stats, 1200, INTEGER, 501), .0001);
+		assertEquals(-1, ColumnStatsUtil.getEqualitySelectivity(new ColumnStats(), 1200, INTEGER, 501), 0);
+	}
+	
+	@Test public void testLessThanSelectivity() throws Exception {
+		ColumnStats stats = ColumnStatsUtil.computeColumnStats(getSkewedSample(), 1000, INTEGER);
+		assertEquals(0, ColumnStatsUtil.getLessThanSelectivity(stats, 0, INTEGER, false), .0001);
+		assertEquals(.5, ColumnStatsUtil.getLessThanSelectivity(stats, 1, INTEGER, true), .0001);
+		assertEquals(.5, ColumnStatsUtil.getLessThanSelectivity(stats, 1000, INTEGER, false), .0001);
+		assertEquals(.75, ColumnStatsUtil.getLessThanSelectivity(stats, 1250, INTEGER, false), .01);
+		assertEquals(1, ColumnStatsUtil.getLessThanSelectivity(stats, 2000, INTEGER, false), .0001);
+		assertEquals(-1, ColumnStatsUtil.getLessThanSelectivity(new ColumnStats(), 2000, INTEGER, false), 0);
+	}
+
+}
@@ -23,6 +23,7 @@
 package org.teiid.query.optimizer.relational.rules;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.teiid.query.optimizer.relational.plantree.NodeConstants;
@@ -30,7 +31,11 @@ import org.teiid.query.optimizer.relational.plantree.NodeFactory;
 import org.teiid.query.optimizer.relational.plantree.PlanNode;
 import org.teiid.query.optimizer.relational.rules.JoinRegion;
 import org.teiid.query.optimizer.relational.rules.RulePlanJoins;
+import org.teiid.query.sql.lang.CompareCriteria;
+import org.teiid.query.sql.lang.Criteria;
 import org.teiid.query.sql.lang.JoinType;
+import org.teiid.query.sql.symbol.ElementSymbol;
+import org.teiid.query.sql.symbol.GroupSymbol;
 
 
 import junit.framework.TestCase;
@@ -118,4 +123,63 @@ public class TestJoinRegion extends TestCase {
         assertEquals(NodeConstants.Types.ACCESS, region.getJoinRoot().getType());
     }
     
+    private PlanNode helpCreateSource(GroupSymbol group, float cardinality) {
+        PlanNode accessNode = NodeFactory.getNewNode(NodeConstants.Types.ACCESS);
+        accessNode.addGroup(group);
+        accessNode.setProperty(NodeConstants.Info.EST_CARDINALITY, cardinality);
+        accessNode.setProperty(NodeConstants.Info.MAKE_NOT_DEP, Boolean.TRUE);
+        return accessNode;
+    }
+    
+    private Criteria helpCreateJoinCriteria(GroupSymbol left, String leftName, GroupSymbol right, String rightName) {
+        return new CompareCriteria(new ElementSymbol(leftName, left), CompareCriteria.EQ, new ElementSymbol(rightName, right));
+    }
+    
+    private void setSelectivity(JoinRegion region, float selectivity) {
+        for (PlanNode critNode : region.getCriteriaNodes()) {
+            critNode.setProperty(NodeConstants.Info.EST_SELECTIVITY, selectivity);
+        }
+    }
+    
+    /**
+     * A star join with more sources than the exhaustive search should start with the smallest
+     * dimension and add the remaining dimensions by increasing size
+     */
+    public void testFindJoinOrder() throws Exception {
+        JoinRegion region = new JoinRegion();
+        GroupSymbol fact = new GroupSymbol("f"); //$NON-NLS-1$
+        region.addJoinSourceNode(helpCreateSource(fact, 1000000));
+        List<Criteria> crits = new ArrayList<Criteria>();
+        //add the dimensions from largest to smallest
+        for (int i = 9; i > 0; i--) {
+            GroupSymbol dim = new GroupSymbol("d" + i); //$NON-NLS-1$
+            region.addJoinSourceNode(helpCreateSource(dim, 10 * i));
+            crits.add(helpCreateJoinCriteria(fact, "k" + i, dim, "k")); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        region.addJoinCriteriaList(crits);
+        setSelectivity(region, .01f);
+        
+        Object[] order = region.findJoinOrder(null, null, null, RulePlanJoins.JOIN_ENUMERATION_BUDGET);
+        assertEquals(Arrays.asList(9, 0, 8, 7, 6, 5, 4, 3, 2, 1), Arrays.asList(order));
+        
+        //the budget is exceeded
+        assertNull(region.findJoinOrder(null, null, null, 20));
+    }
+    
+    public void testFindJoinOrderWithCrossJoin() throws Exception {
+        JoinRegion region = new JoinRegion();
+        GroupSymbol a = new GroupSymbol("a"); //$NON-NLS-1$
+        GroupSymbol b = new GroupSymbol("b"); //$NON-NLS-1$
+        GroupSymbol c = new GroupSymbol("c"); //$NON-NLS-1$
+        region.addJoinSourceNode(helpCreateSource(a, 1000));
+        region.addJoinSourceNode(helpCreateSource(b, 1000));
+        region.addJoinSourceNode(helpCreateSource(c, 1));
+        region.addJoinCriteriaList(Arrays.asList(helpCreateJoinCriteria(a, "x", b, "x"))); //$NON-NLS-1$ //$NON-NLS-2$
+        setSelectivity(region, .001f);
+        
+        Object[] order = region.findJoinOrder(null, null, null, RulePlanJoins.JOIN_ENUMERATION_BUDGET);
+        assertEquals(Arrays.asList(2, 0, 1), Arrays.asList(order));
+        assertEquals(2001, region.scoreRegion(order, 0, null, null, null), .01);
+    }
+    
 }
@@ -27,6 +27,7 @@ import static org.junit.Assert.*;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.sql.Timestamp;
 import java.util.Arrays;
 import java.util.List;
 
@@ -35,15 +36,21 @@ import org.junit.Test;
 import org.teiid.cache.DefaultCacheFactory;
 import org.teiid.common.buffer.BufferManager;
 import org.teiid.common.buffer.BufferManagerFactory;
+import org.teiid.common.buffer.TupleSource;
+import org.teiid.core.CoreConstants;
 import org.teiid.core.TeiidProcessingException;
 import org.teiid.dqp.internal.process.CachedResults;
 import org.teiid.dqp.internal.process.QueryProcessorFactoryImpl;
 import org.teiid.dqp.internal.process.SessionAwareCache;
+import org.teiid.metadata.Table;
 import org.teiid.query.metadata.QueryMetadataInterface;
 import org.teiid.query.metadata.TempMetadataAdapter;
 import org.teiid.query.optimizer.capabilities.CapabilitiesFinder;
 import org.teiid.query.optimizer.capabilities.DefaultCapabilitiesFinder;
 import org.teiid.query.optimizer.relational.RelationalPlanner;
+import org.teiid.query.sql.lang.SPParameter;
+import org.teiid.query.sql.lang.StoredProcedure;
+import org.teiid.query.sql.symbol.Constant;
 import org.teiid.query.tempdata.GlobalTableStoreImpl;
 import org.teiid.query.tempdata.TempTableDataManager;
 import org.teiid.query.tempdata.TempTableStore;
@@ -88,6 +95,23 @@ public class TestMaterialization {
 		cc.setQueryProcessorFactory(new QueryProcessorFactoryImpl(BufferManagerFactory.getStandaloneBufferManager(), dataManager, finder, null, metadata));
 		TestProcessor.doProcess(previousPlan, dataManager, expectedResults, cc);
 	}
+	
+	/**
+	 * Same as calling SYSADMIN.refreshMatView with invalidate=false
+	 */
+	private int refreshMatView(String viewName) throws Exception {
+		CommandContext cc = TestProcessor.createCommandContext();
+		cc.setTempTableStore(tempStore);
+		cc.setGlobalTableStore(globalStore);
+		cc.setMetadata(metadata);
+		cc.setQueryProcessorFactory(new QueryProcessorFactoryImpl(BufferManagerFactory.getStandaloneBufferManager(), dataManager, new DefaultCapabilitiesFinder(), null, metadata));
+		StoredProcedure proc = new StoredProcedure();
+		proc.setProcedureName(CoreConstants.SYSTEM_ADMIN_MODEL + ".refreshMatView");
+		proc.setParameter(new SPParameter(2, new Constant(viewName)));
+		proc.setParameter(new SPParameter(3, new Constant(Boolean.FALSE)));
+		TupleSource ts = dataManager.registerRequest(cc, proc, CoreConstants.SYSTEM_ADMIN_MODEL, new RegisterRequestParameter());
+		return (Integer)ts.nextTuple().get(0);
+	}
 
 	@Test public void testPopulate() throws Exception {
 		execute("SELECT * from vgroup3 where x = 'one'", Arrays.asList("one", "zne"));
@@ -137,6 +161,78 @@ public class TestMaterialization {
 		assertEquals(2, hdm.getCommandHistory().size());
 	}
 	
+	@Test public void testIncrementalLoad() throws Exception {
+		Table vgroup3 = (Table)metadata.getGroupID("MatView.VGroup3");
+		vgroup3.setProperty(TempTableDataManager.MATVIEW_UPDATE_COLUMN, "x");
+		execute("SELECT * from vgroup3 where x = 'one'", Arrays.asList("one", "zne"));
+		assertEquals(1, hdm.getCommandHistory().size());
+		String matTableName = RelationalPlanner.MAT_PREFIX + "MATVIEW.VGROUP3";
+		MatTableInfo info = globalStore.getMatTableInfo(matTableName);
+		assertEquals("two", info.getIncrementalValue());
+		
+		//only the new row should be applied
+		hdm.addData("SELECT MatSrc.MatSrc.x FROM MatSrc.MatSrc", new List[] {Arrays.asList((String)null), Arrays.asList("one"), Arrays.asList("two"), Arrays.asList("three"), Arrays.asList("zz")});
+		hdm.addData("SELECT 1 FROM MatSrc.MatSrc", new List[] {Arrays.asList(1), Arrays.asList(1), Arrays.asList(1), Arrays.asList(1), Arrays.asList(1)});
+		assertEquals(5, refreshMatView("MatView.VGroup3"));
+		execute("SELECT * from vgroup3 where x = 'zz'", Arrays.asList("zz", "zz"));
+		assertEquals("zz", info.getIncrementalValue());
+		execute("SELECT * from vgroup3 where x = 'three'", Arrays.asList("three", "zhree"));
+		
+		//a delete is detected by the row count and forces a full load
+		hdm.addData("SELECT MatSrc.MatSrc.x FROM MatSrc.MatSrc", new List[] {Arrays.asList((String)null), Arrays.asList("one"), Arrays.asList("two"), Arrays.asList("zz")});
+		hdm.addData("SELECT 1 FROM MatSrc.MatSrc", new List[] {Arrays.asList(1), Arrays.asList(1), Arrays.asList(1), Arrays.asList(1)});
+		assertEquals(4, refreshMatView("MatView.VGroup3"));
+		execute("SELECT * from vgroup3 where x = 'three'");
+		execute("SELECT count(*) from vgroup3", Arrays.asList(4));
+	}
+	
+	@Test public void testIncrementalLoadKeyNotFirst() throws Exception {
+		Table vgroup8 = (Table)metadata.getGroupID("MatView.VGroup8");
+		vgroup8.setProperty(TempTableDataManager.MATVIEW_UPDATE_COLUMN, "updated");
+		Timestamp t1 = Timestamp.valueOf("2012-01-01 00:00:00");
+		Timestamp t2 = Timestamp.valueOf("2012-01-02 00:00:00");
+		Timestamp t3 = Timestamp.valueOf("2012-01-03 00:00:00");
+		hdm.addData("SELECT MatSrc.MatSrc2.name, MatSrc.MatSrc2.updated, MatSrc.MatSrc2.id FROM MatSrc.MatSrc2", new List[] {Arrays.asList("a", t1, 1), Arrays.asList("b", t2, 10), Arrays.asList("c", t1, 2)});
+		execute("SELECT name, updated from vgroup8 where id = 10", Arrays.asList("b", t2));
+		assertEquals(1, hdm.getCommandHistory().size());
+		String matTableName = RelationalPlanner.MAT_PREFIX + "MATVIEW.VGROUP8";
+		MatTableInfo info = globalStore.getMatTableInfo(matTableName);
+		assertEquals(t2, info.getIncrementalValue());
+		
+		//2 is updated and 3 is new
+		hdm.addData("SELECT MatSrc.MatSrc2.name, MatSrc.MatSrc2.updated, MatSrc.MatSrc2.id FROM MatSrc.MatSrc2", new List[] {Arrays.asList("a", t1, 1), Arrays.asList("b", t2, 10), Arrays.asList("cc", t3, 2), Arrays.asList("d", t3, 3)});
+		hdm.addData("SELECT 1 FROM MatSrc.MatSrc2", new List[] {Arrays.asList(1), Arrays.asList(1), Arrays.asList(1), Arrays.asList(1)});
+		assertEquals(4, refreshMatView("MatView.VGroup8"));
+		//the changes and the count, but not a full load
+		assertEquals(3, hdm.getCommandHistory().size());
+		assertEquals(t3, info.getIncrementalValue());
+		execute("SELECT name, updated from vgroup8 where id = 2", Arrays.asList("cc", t3));
+		execute("SELECT name from vgroup8 where id = 3", Arrays.asList("d"));
+		execute("SELECT id from vgroup8 where name = 'c'");
+		execute("SELECT count(*) from vgroup8", Arrays.asList(4));
+	}
+	
+	@Test public void testIncrementalLoadSameUpdateValue() throws Exception {
+		Table vgroup8 = (Table)metadata.getGroupID("MatView.VGroup8");
+		vgroup8.setProperty(TempTableDataManager.MATVIEW_UPDATE_COLUMN, "updated");
+		Timestamp t1 = Timestamp.valueOf("2012-01-01 00:00:00");
+		Timestamp t2 = Timestamp.valueOf("2012-01-02 00:00:00");
+		hdm.addData("SELECT MatSrc.MatSrc2.name, MatSrc.MatSrc2.updated, MatSrc.MatSrc2.id FROM MatSrc.MatSrc2", new List[] {Arrays.asList("a", t1, 1), Arrays.asList("b", t2, 10)});
+		execute("SELECT name from vgroup8 where id = 1", Arrays.asList("a"));
+		String matTableName = RelationalPlanner.MAT_PREFIX + "MATVIEW.VGROUP8";
+		MatTableInfo info = globalStore.getMatTableInfo(matTableName);
+		assertEquals(t2, info.getIncrementalValue());
+		
+		//1 is updated after the last load, but with the same value as the last max
+		hdm.addData("SELECT MatSrc.MatSrc2.name, MatSrc.MatSrc2.updated, MatSrc.MatSrc2.id FROM MatSrc.MatSrc2", new List[] {Arrays.asList("aa", t2, 1), Arrays.asList("b", t2, 10)});
+		hdm.addData("SELECT 1 FROM MatSrc.MatSrc2", new List[] {Arrays.asList(1), Arrays.asList(1)});
+		assertEquals(2, refreshMatView("MatView.VGroup8"));
+		//the changes and the count, but not a full load
+		assertEquals(3, hdm.getCommandHistory().size());
+		assertEquals(t2, info.getIncrementalValue());
+		execute("SELECT name from vgroup8 where id = 1", Arrays.asList("aa"));
+	}
+	
 	@Test public void testProcedureCache() throws Exception {
 		execute("call sp1('one')", Arrays.asList("one"));
 		assertEquals(1, hdm.getCommandHistory().size());
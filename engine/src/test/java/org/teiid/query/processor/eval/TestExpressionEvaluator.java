@@ -41,6 +41,7 @@ import org.teiid.core.TeiidComponentException;
 import org.teiid.core.TeiidException;
 import org.teiid.core.TeiidProcessingException;
 import org.teiid.core.types.DataTypeManager;
+import org.teiid.query.eval.CompiledExpression;
 import org.teiid.query.eval.Evaluator;
 import org.teiid.query.function.FunctionDescriptor;
 import org.teiid.query.parser.QueryParser;
@@ -49,6 +50,7 @@ import org.teiid.query.processor.ProcessorDataManager;
 import org.teiid.query.resolver.TestFunctionResolving;
 import org.teiid.query.sql.lang.CollectionValueIterator;
 import org.teiid.query.sql.lang.CompareCriteria;
+import org.teiid.query.sql.lang.CompoundCriteria;
 import org.teiid.query.sql.lang.IsNullCriteria;
 import org.teiid.query.sql.lang.Query;
 import org.teiid.query.sql.lang.QueryCommand;
@@ -484,4 +486,63 @@ public class TestExpressionEvaluator {
     	assertNull(new Evaluator(null, null, null).evaluateTVL(new CompareCriteria(new Array(DataTypeManager.DefaultDataClasses.INTEGER, Arrays.asList((Expression)new Constant(1))), CompareCriteria.EQ, new Array(DataTypeManager.DefaultDataClasses.INTEGER, Arrays.asList((Expression)new Constant(null)))), null));
     }
     
+    @Test public void testCompiledExpression() throws Exception {
+    	String[] exprs = new String[] {"convert(1.0, bigdecimal)/3", 
+    			"case when 1 = 2 then 'a' when 1 is null then 'b' else concat('c', 'd') end", 
+    			"case 1 when 2 then 'a' when 1 then 'b' end",
+    			"'xay' like_regex 'a'", 
+    			"(1 < 2) or (null = 1)",
+    			"not((null = 1) and (1 < 2))",
+    			"ifnull(null, 1) + 1"};
+    	for (String expr : exprs) {
+	    	Expression ex = TestFunctionResolving.getExpression(expr);
+	    	Evaluator evaluator = new Evaluator(Collections.emptyMap(), null, null);
+	    	assertEquals(expr, Evaluator.evaluate(ex), CompiledExpression.compile(ex, Collections.<Expression, Integer>emptyMap()).evaluate(evaluator, Collections.emptyList()));
+    	}
+    }
+    
+    @Test public void testCompiledCriteria() throws Exception {
+        ElementSymbol e1 = new ElementSymbol("e1"); 
+        e1.setType(DataTypeManager.DefaultDataClasses.INTEGER);
+        ElementSymbol e2 = new ElementSymbol("e2"); 
+        e2.setType(DataTypeManager.DefaultDataClasses.STRING);
+        Map<Expression, Integer> elements = new HashMap<Expression, Integer>();
+        elements.put(e1, 0);
+        elements.put(e2, 1);
+        CompoundCriteria crit = new CompoundCriteria(CompoundCriteria.OR, new CompareCriteria(e1, CompareCriteria.GT, new Constant(1)), new IsNullCriteria(e2));
+        CompiledExpression compiled = CompiledExpression.compile(crit, elements);
+        Evaluator evaluator = new Evaluator(elements, null, null);
+        Object[][] tuples = new Object[][] {{2, "a"}, {0, "a"}, {null, "a"}, {null, null}, {0, null}};
+        for (Object[] tuple : tuples) {
+        	List<Object> values = Arrays.asList(tuple);
+        	assertEquals(evaluator.evaluateTVL(crit, values), compiled.evaluate(evaluator, values));
+        	assertEquals(evaluator.evaluate(crit, values), compiled.evaluateCriteria(evaluator, values));
+        }
+    }
+    
+    @Test public void testCompiledCriteriaBatch() throws Exception {
+        ElementSymbol e1 = new ElementSymbol("e1"); 
+        e1.setType(DataTypeManager.DefaultDataClasses.INTEGER);
+        ElementSymbol e2 = new ElementSymbol("e2"); 
+        e2.setType(DataTypeManager.DefaultDataClasses.STRING);
+        Map<Expression, Integer> elements = new HashMap<Expression, Integer>();
+        elements.put(e1, 0);
+        elements.put(e2, 1);
+        CompoundCriteria crit = new CompoundCriteria(CompoundCriteria.AND, new CompareCriteria(e1, CompareCriteria.LE, new Constant(2)), new CompareCriteria(e2, CompareCriteria.NE, new Constant("b")));
+        Evaluator evaluator = new Evaluator(elements, null, null);
+        List<List<?>> tuples = new ArrayList<List<?>>();
+        for (int i = 0; i < 6; i++) {
+        	tuples.add(Arrays.asList(i == 1?null:i, i == 2?null:(i%2==0?"a":"b")));
+        }
+        int[] selection = new int[] {0, 1, 2, 3, 4, 5};
+        int count = CompiledExpression.compile(crit, elements).select(evaluator, tuples, selection, selection.length);
+        assertEquals(1, count);
+        assertEquals(0, selection[0]);
+        
+        Function func = new Function("concat", new Expression[] { e2, new Constant("x") });
+        func.setFunctionDescriptor(RealMetadataFactory.SFM.getSystemFunctionLibrary().findFunction("concat", new Class[] { String.class, String.class } ));
+        Object[] values = CompiledExpression.compile(func, elements).evaluate(evaluator, tuples, selection, count);
+        assertArrayEquals(new Object[] {"ax"}, values);
+    }
+    
 }
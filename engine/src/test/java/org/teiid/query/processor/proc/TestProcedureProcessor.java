@@ -33,10 +33,13 @@ import org.mockito.Mockito;
 import org.teiid.api.exception.query.QueryPlannerException;
 import org.teiid.api.exception.query.QueryProcessingException;
 import org.teiid.api.exception.query.QueryValidatorException;
+import org.teiid.cache.DefaultCacheFactory;
 import org.teiid.client.metadata.ParameterInfo;
 import org.teiid.core.TeiidException;
 import org.teiid.core.TeiidProcessingException;
 import org.teiid.core.types.DataTypeManager;
+import org.teiid.dqp.internal.process.PreparedPlan;
+import org.teiid.dqp.internal.process.SessionAwareCache;
 import org.teiid.dqp.service.TransactionContext;
 import org.teiid.dqp.service.TransactionService;
 import org.teiid.metadata.ColumnSet;
@@ -893,6 +896,34 @@ public class TestProcedureProcessor {
         helpTestProcess(plan, expected, dataMgr, metadata);
     }
     
+    @Test public void testDynamicCommandPlanCache() throws Exception {
+        TransformationMetadata metadata = RealMetadataFactory.example1();
+        
+        addProc(metadata, "sq2", "CREATE VIRTUAL PROCEDURE BEGIN\n" //$NON-NLS-1$ //$NON-NLS-2$
+				        + "declare integer VARIABLES.x = 0; while (VARIABLES.x < 3) BEGIN execute string 'SELECT e1, e2 FROM pm1.g1 WHERE e1=using.id' as e1 string, e2 integer into #t using id=pm1.sq2.in; VARIABLES.x = VARIABLES.x + 1; END select e1, e2 from #t; END", new String[] { "e1", "e2" }
+        , new String[] { DataTypeManager.DefaultDataTypes.STRING, DataTypeManager.DefaultDataTypes.INTEGER }, new String[] {"in"}, new String[] {DataTypeManager.DefaultDataTypes.STRING});
+        
+        String userUpdateStr = "EXEC pm1.sq2('First')"; //$NON-NLS-1$
+        
+        FakeDataManager dataMgr = exampleDataManager(metadata);
+
+        ProcessorPlan plan = getProcedurePlan(userUpdateStr, metadata);
+                
+        List[] expected = new List[] {
+                Arrays.asList(new Object[] { "First", Integer.valueOf(5) }),  //$NON-NLS-1$
+                Arrays.asList(new Object[] { "First", Integer.valueOf(5) }),  //$NON-NLS-1$
+                Arrays.asList(new Object[] { "First", Integer.valueOf(5) }),  //$NON-NLS-1$
+        };
+        CommandContext context = TestProcessor.createCommandContext();
+        context.setMetadata(new TempMetadataAdapter(metadata, new TempMetadataStore()));
+        SessionAwareCache<PreparedPlan> planCache = new SessionAwareCache<PreparedPlan>("preparedplan", DefaultCacheFactory.INSTANCE, SessionAwareCache.Type.PREPAREDPLAN, 0); //$NON-NLS-1$
+        context.setPreparedPlanCache(planCache);
+        TestProcessor.helpProcess(plan, context, dataMgr, expected);
+        //the dynamic sql is only planned once
+        assertEquals(1, planCache.getCachePutCount());
+        assertEquals(2, planCache.getCacheHitCount());
+    }
+    
     @Test public void testDynamicCommandWithVariable() throws Exception {
         TransformationMetadata metadata = RealMetadataFactory.example1();
         
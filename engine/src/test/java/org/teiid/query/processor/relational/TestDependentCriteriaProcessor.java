@@ -28,12 +28,27 @@ import java.util.Arrays;
 import java.util.List;
 
 import org.junit.Test;
+import org.teiid.common.buffer.BufferManager;
+import org.teiid.common.buffer.BufferManager.TupleSourceType;
+import org.teiid.common.buffer.BufferManagerFactory;
+import org.teiid.common.buffer.TupleBatch;
+import org.teiid.common.buffer.TupleBuffer;
+import org.teiid.common.buffer.impl.BufferManagerImpl;
+import org.teiid.core.types.DataTypeManager;
+import org.teiid.query.processor.FakeDataManager;
+import org.teiid.query.processor.TestProcessor;
+import org.teiid.query.resolver.TestResolver;
+import org.teiid.query.rewriter.QueryRewriter;
 import org.teiid.query.sql.lang.CompareCriteria;
 import org.teiid.query.sql.lang.Criteria;
+import org.teiid.query.sql.lang.DependentSetCriteria;
+import org.teiid.query.sql.lang.Query;
 import org.teiid.query.sql.lang.SetCriteria;
 import org.teiid.query.sql.symbol.Constant;
 import org.teiid.query.sql.symbol.ElementSymbol;
+import org.teiid.query.sql.symbol.Expression;
 import org.teiid.query.sql.symbol.Reference;
+import org.teiid.query.unittest.RealMetadataFactory;
 import org.teiid.query.util.CommandContext;
 
 
@@ -76,4 +91,82 @@ public class TestDependentCriteriaProcessor {
 		assertFalse(dcp.hasNextCommand());
 	}
 	
+	private DependentCriteriaProcessor helpGetOverMaxProcessor(BufferManager bm, ElementSymbol e1) throws Exception {
+		DependentAccessNode dan = new DependentAccessNode(0);
+		CommandContext cc = new CommandContext();
+		dan.initialize(cc, bm, null);
+		return new DependentCriteriaProcessor(1, -1, dan, helpGetOverMaxCriteria(bm, cc, e1));
+	}
+
+	private DependentSetCriteria helpGetOverMaxCriteria(BufferManager bm, CommandContext cc, Expression e1) throws Exception {
+		ElementSymbol x = new ElementSymbol("x"); //$NON-NLS-1$
+		x.setType(DataTypeManager.DefaultDataClasses.INTEGER);
+		TupleBuffer tb = bm.createTupleBuffer(Arrays.asList(x), "test", TupleSourceType.PROCESSOR); //$NON-NLS-1$
+		for (int i = 0; i < 100; i++) {
+			tb.addTuple(Arrays.asList(i));
+		}
+		tb.close();
+		DependentValueSource dvs = new DependentValueSource(tb);
+		dvs.setDistinct(true);
+		cc.getVariableContext().setGlobalValue("x", dvs); //$NON-NLS-1$
+		DependentSetCriteria dsc = new DependentSetCriteria(e1, "x"); //$NON-NLS-1$
+		dsc.setValueExpression(x);
+		dsc.setMaxNdv(10);
+		return dsc;
+	}
+	
+	@Test public void testBloomFilterOverMax() throws Exception {
+		BufferManagerImpl bm = BufferManagerFactory.createBufferManager();
+		long reserve = bm.getReserveBatchBytes();
+		ElementSymbol e1 = new ElementSymbol("e1"); //$NON-NLS-1$
+		e1.setType(DataTypeManager.DefaultDataClasses.INTEGER);
+		DependentCriteriaProcessor dcp = helpGetOverMaxProcessor(bm, e1);
+		Criteria result = dcp.prepareCriteria();
+		assertEquals(QueryRewriter.TRUE_CRITERIA, result);
+		BloomFilter filter = dcp.getFilters().get(e1);
+		for (int i = 0; i < 100; i++) {
+			assertTrue(filter.mightContain(i));
+		}
+		assertFalse(filter.mightContain(null));
+		assertTrue(bm.getReserveBatchBytes() < reserve);
+		dcp.close();
+		assertEquals(reserve, bm.getReserveBatchBytes());
+	}
+	
+	@Test public void testBloomFilterNoMemory() throws Exception {
+		BufferManagerImpl bm = BufferManagerFactory.getTestBufferManager(0, 2);
+		ElementSymbol e1 = new ElementSymbol("e1"); //$NON-NLS-1$
+		e1.setType(DataTypeManager.DefaultDataClasses.INTEGER);
+		DependentCriteriaProcessor dcp = helpGetOverMaxProcessor(bm, e1);
+		assertEquals(QueryRewriter.TRUE_CRITERIA, dcp.prepareCriteria());
+		assertTrue(dcp.getFilters().isEmpty());
+		dcp.close();
+	}
+	
+	/**
+	 * The constant and duplicate columns are removed from the source query, but the filter
+	 * must still be applied to the join column of the projected row
+	 */
+	@Test public void testBloomFilterMinimizedProject() throws Exception {
+		BufferManagerImpl bm = BufferManagerFactory.createBufferManager();
+		Query query = (Query)TestResolver.helpResolve("SELECT 'x', e1, e1, e2 FROM pm1.g1", RealMetadataFactory.example1Cached()); //$NON-NLS-1$
+		CommandContext cc = new CommandContext();
+		query.setCriteria(helpGetOverMaxCriteria(bm, cc, query.getSelect().getSymbols().get(3)));
+		DependentAccessNode dan = new DependentAccessNode(0);
+		dan.setMaxSetSize(1);
+		dan.setCommand(query);
+		dan.setElements(query.getProjectedSymbols());
+		dan.minimizeProject(query);
+		assertEquals(2, query.getSelect().getSymbols().size());
+		FakeDataManager dataManager = new FakeDataManager();
+		TestProcessor.sampleData1(dataManager);
+		dan.initialize(cc, bm, dataManager);
+		dan.open();
+		TupleBatch batch = dan.nextBatch();
+		assertTrue(batch.getTerminationFlag());
+		assertEquals(6, batch.getRowCount());
+		assertEquals(Arrays.asList("x", "a", "a", 0), batch.getTuple(1)); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		dan.close();
+	}
+	
 }
@@ -0,0 +1,244 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+
+package org.teiid.query.processor.relational;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.teiid.common.buffer.BlockedException;
+import org.teiid.common.buffer.BufferManager;
+import org.teiid.common.buffer.BufferManagerFactory;
+import org.teiid.common.buffer.TupleBatch;
+import org.teiid.core.TeiidComponentException;
+import org.teiid.core.TeiidProcessingException;
+import org.teiid.core.types.DataTypeManager;
+import org.teiid.dqp.internal.process.RequestWorkItem;
+import org.teiid.query.processor.FakeDataManager;
+import org.teiid.query.sql.symbol.ElementSymbol;
+import org.teiid.query.util.CommandContext;
+
+@SuppressWarnings({"unchecked", "nls"})
+public class TestExchangeNode {
+
+	private Semaphore wakeups = new Semaphore(0);
+
+	private RequestWorkItem getWorkItem() {
+		RequestWorkItem workItem = Mockito.mock(RequestWorkItem.class);
+		Mockito.doAnswer(new Answer<Void>() {
+			@Override
+			public Void answer(InvocationOnMock invocation) throws Throwable {
+				wakeups.release();
+				return null;
+			}
+		}).when(workItem).moreWork();
+		return workItem;
+	}
+
+	private void awaitWakeup() throws InterruptedException {
+		assertTrue("not woken", wakeups.tryAcquire(10, TimeUnit.SECONDS));
+	}
+
+	private List<Integer> helpProcessUnion(CommandContext context, int sources, int rowsPerSource, boolean blocking) throws Exception {
+		BufferManager mgr = BufferManagerFactory.getTestBufferManager(1, 2);
+		FakeDataManager fdm = new FakeDataManager();
+		ElementSymbol es1 = new ElementSymbol("e1");
+		es1.setType(DataTypeManager.DefaultDataClasses.INTEGER);
+		List<ElementSymbol> elements = Arrays.asList(es1);
+
+		UnionAllNode union = new UnionAllNode(0);
+		union.setElements(elements);
+		for (int i = 0; i < sources; i++) {
+			List[] tuples = new List[rowsPerSource];
+			for (int r = 0; r < rowsPerSource; r++) {
+				tuples[r] = Arrays.asList(i);
+			}
+			RelationalNode child = null;
+			if (blocking) {
+				child = new BlockingFakeRelationalNode(i + 1, tuples, 2) {
+					@Override
+					public TupleBatch nextBatchDirect() throws BlockedException, TeiidComponentException, TeiidProcessingException {
+						try {
+							return super.nextBatchDirect();
+						} catch (BlockedException e) {
+							//simulate the source notifying that more results are available
+							getContext().getWorkItem().moreWork();
+							throw e;
+						}
+					}
+				};
+			} else {
+				child = new FakeRelationalNode(i + 1, tuples, 2);
+			}
+			child.setElements(elements);
+			child.initialize(context, mgr, fdm);
+			ExchangeNode exchange = new ExchangeNode(sources + i + 1);
+			exchange.setElements(elements);
+			exchange.addChild(child);
+			exchange.initialize(context, mgr, fdm);
+			union.addChild(exchange);
+		}
+		union.initialize(context, mgr, fdm);
+		union.open();
+
+		List<Integer> results = new ArrayList<Integer>();
+		while (true) {
+			try {
+				TupleBatch batch = union.nextBatch();
+				for (List<?> tuple : batch.getTuples()) {
+					results.add((Integer)tuple.get(0));
+				}
+				if (batch.getTerminationFlag()) {
+					break;
+				}
+			} catch (BlockedException e) {
+				awaitWakeup();
+			}
+		}
+		union.close();
+		return results;
+	}
+
+	private void assertCounts(List<Integer> results, int sources, int rowsPerSource) {
+		assertEquals(sources * rowsPerSource, results.size());
+		int[] counts = new int[sources];
+		for (Integer i : results) {
+			counts[i]++;
+		}
+		for (int count : counts) {
+			assertEquals(rowsPerSource, count);
+		}
+	}
+
+	@Test public void testSerial() throws Exception {
+		CommandContext context = new CommandContext("pid", "test", null, null, 1);
+		assertCounts(helpProcessUnion(context, 3, 5, false), 3, 5);
+	}
+
+	@Test public void testParallel() throws Exception {
+		CommandContext context = new CommandContext("pid", "test", null, null, 1);
+		context.setWorkItem(getWorkItem());
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			context.setExecutor(executor);
+			assertCounts(helpProcessUnion(context, 4, 25, false), 4, 25);
+			assertCounts(helpProcessUnion(context, 4, 25, true), 4, 25);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * The consumer blocks while the worker is running and the worker's child then blocks.
+	 * The worker must still wake the consumer, otherwise the request would never be rescheduled.
+	 */
+	@Test public void testChildBlocksWhileConsumerWaiting() throws Exception {
+		CommandContext context = new CommandContext("pid", "test", null, null, 1);
+		context.setWorkItem(getWorkItem());
+		BufferManager mgr = BufferManagerFactory.getTestBufferManager(1, 2);
+		FakeDataManager fdm = new FakeDataManager();
+		ElementSymbol es1 = new ElementSymbol("e1");
+		es1.setType(DataTypeManager.DefaultDataClasses.INTEGER);
+		List<ElementSymbol> elements = Arrays.asList(es1);
+
+		final CountDownLatch childEntered = new CountDownLatch(1);
+		final CountDownLatch childProceed = new CountDownLatch(1);
+		RelationalNode child = new FakeRelationalNode(1, new List[] {Arrays.asList(1)}) {
+			private boolean blocked;
+
+			@Override
+			public TupleBatch nextBatchDirect() throws BlockedException, TeiidComponentException, TeiidProcessingException {
+				if (!blocked) {
+					blocked = true;
+					childEntered.countDown();
+					try {
+						childProceed.await();
+					} catch (InterruptedException e) {
+						throw new TeiidComponentException(e);
+					}
+					throw BlockedException.INSTANCE;
+				}
+				return super.nextBatchDirect();
+			}
+		};
+		child.setElements(elements);
+		child.initialize(context, mgr, fdm);
+		ExchangeNode exchange = new ExchangeNode(2);
+		exchange.setElements(elements);
+		exchange.addChild(child);
+		exchange.initialize(context, mgr, fdm);
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			context.setExecutor(executor);
+			exchange.open();
+			assertTrue(childEntered.await(10, TimeUnit.SECONDS));
+			try {
+				exchange.nextBatch();
+				fail();
+			} catch (BlockedException e) {
+				//the worker is still running
+			}
+			childProceed.countDown();
+			awaitWakeup();
+			TupleBatch batch = null;
+			while (batch == null) {
+				try {
+					batch = exchange.nextBatch();
+				} catch (BlockedException e) {
+					awaitWakeup();
+				}
+			}
+			assertEquals(1, batch.getRowCount());
+			assertTrue(batch.getTerminationFlag());
+			exchange.close();
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test public void testCanProcessInParallel() {
+		SortNode sort = new SortNode(1);
+		sort.addChild(new FakeRelationalNode(2, new List[0]));
+		assertFalse(ExchangeNode.canProcessInParallel(sort));
+
+		JoinNode join = new JoinNode(3);
+		join.setJoinStrategy(new NestedTableJoinStrategy());
+		assertFalse(ExchangeNode.canProcessInParallel(join));
+
+		assertTrue(ExchangeNode.hasProcessingWork(sort));
+		assertFalse(ExchangeNode.hasProcessingWork(new FakeRelationalNode(4, new List[0])));
+	}
+
+}
@@ -26,6 +26,8 @@ import static org.junit.Assert.*;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -831,4 +833,105 @@ public class TestJoinNode {
         helpTestJoinDirect(expected, 4, 1000);
     }
 
+
+    @Test public void testHashJoin() throws Exception {
+        this.joinType = JoinType.JOIN_INNER;
+        expected = new List[] {
+        	Arrays.asList(2, 2),
+        	Arrays.asList(2, 2),
+        	Arrays.asList(4, 4),
+        	Arrays.asList(4, 4),
+        	Arrays.asList(1, 1),
+        	Arrays.asList(4, 4),
+        	Arrays.asList(4, 4),
+        };
+        helpCreateJoin();
+        this.joinStrategy = new HashJoinStrategy();
+        this.join.setJoinStrategy(joinStrategy);
+        helpTestJoinDirect(expected, 2, 100000);
+    }
+    
+    @Test public void testHashJoinLeftOuter() throws Exception {
+        this.joinType = JoinType.JOIN_LEFT_OUTER;
+        expected = new List[] {
+        	Arrays.asList(5, null),
+        	Arrays.asList(3, null),
+        	Arrays.asList(2, 2),
+        	Arrays.asList(2, 2),
+        	Arrays.asList(4, 4),
+        	Arrays.asList(4, 4),
+        	Arrays.asList(1, 1),
+        	Arrays.asList(4, 4),
+        	Arrays.asList(4, 4),
+        	Arrays.asList(10, null),
+        	Arrays.asList(11, null),
+        	Arrays.asList(11, null),
+        };
+        helpCreateJoin();
+        this.joinStrategy = new HashJoinStrategy();
+        this.join.setJoinStrategy(joinStrategy);
+        helpTestJoinDirect(expected, 100, 100000);
+    }
+    
+    @Test public void testHashJoinPartitioned() throws Exception {
+        this.joinType = JoinType.JOIN_LEFT_OUTER;
+        int rows = 200;
+        this.leftTuples = new List[rows];
+        List<List<?>> expectedRows = new ArrayList<List<?>>();
+        for (int i = 0; i < rows; i++) {
+        	Integer value = (i*17) % 97;
+        	this.leftTuples[i] = Arrays.asList(value);
+        	if (value < 50) {
+        		expectedRows.add(Arrays.asList(value, value));
+        	} else {
+        		expectedRows.add(Arrays.asList(value, null));
+        	}
+        }
+        this.rightTuples = createTuples(0, 50);
+        helpCreateJoin();
+        this.joinStrategy = new HashJoinStrategy();
+        this.join.setJoinStrategy(joinStrategy);
+        //with no processing memory the build side must be partitioned, so the output order is not predictable
+        List<List<?>> results = helpCollectJoinDirect(4, 1);
+        Comparator<List<?>> comparator = new Comparator<List<?>>() {
+        	@Override
+        	public int compare(List<?> o1, List<?> o2) {
+        		return ((Integer)o1.get(0)).compareTo((Integer)o2.get(0));
+        	}
+		};
+		Collections.sort(expectedRows, comparator);
+		Collections.sort(results, comparator);
+        assertEquals(expectedRows, results);
+    }
+    
+    private List<List<?>> helpCollectJoinDirect(int batchSize, int processingBytes) throws TeiidComponentException, TeiidProcessingException {
+        BufferManagerImpl mgr = BufferManagerFactory.getTestBufferManager(processingBytes, batchSize);
+        mgr.setTargetBytesPerRow(100);
+        CommandContext context = new CommandContext("pid", "test", null, null, 1);               //$NON-NLS-1$ //$NON-NLS-2$
+        
+        join.addChild(leftNode);
+        join.addChild(rightNode);
+        
+        leftNode.initialize(context, mgr, dataMgr);
+        rightNode.initialize(context, mgr, dataMgr);
+        join.initialize(context, mgr, dataMgr);
+        
+        join.open();
+        
+        List<List<?>> results = new ArrayList<List<?>>();
+        while(true) {
+            try {
+                TupleBatch batch = join.nextBatch();
+                results.addAll(batch.getTuples());
+                if(batch.getTerminationFlag()) {
+                    break;
+                }
+            } catch(BlockedException e) {
+                // ignore and retry
+            }
+        }
+        join.close();
+        return results;
+    }
+
 }
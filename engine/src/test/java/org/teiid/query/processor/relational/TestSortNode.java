@@ -28,6 +28,8 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.junit.Test;
 import org.teiid.common.buffer.BlockedException;
@@ -46,6 +48,7 @@ import org.teiid.query.processor.relational.SortUtility.Mode;
 import org.teiid.query.sql.lang.OrderBy;
 import org.teiid.query.sql.symbol.ElementSymbol;
 import org.teiid.query.util.CommandContext;
+import org.teiid.query.util.Options;
 
 @SuppressWarnings("unchecked")
 public class TestSortNode {
@@ -294,6 +297,35 @@ public class TestSortNode {
         helpTestAllSorts(1);
     }       
     
+    @Test public void testParallelSortLowMemory() throws Exception {
+    	ElementSymbol es1 = new ElementSymbol("e1"); //$NON-NLS-1$
+        es1.setType(DataTypeManager.DefaultDataClasses.INTEGER);
+        BufferManagerImpl bm = BufferManagerFactory.getTestBufferManager(0, 2);
+        long reserve = bm.getReserveBatchBytes();
+        TupleBuffer tsid = bm.createTupleBuffer(Arrays.asList(es1), "test", TupleSourceType.PROCESSOR); //$NON-NLS-1$
+        for (int i = 0; i < 1000; i++) {
+        	tsid.addTuple(Arrays.asList((i*7919)%1000));
+        }
+        tsid.close();
+        CommandContext context = new CommandContext();
+        context.setOptions(new Options().parallelSort(true));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+        	context.setExecutor(executor);
+	    	SortUtility su = new SortUtility(tsid.createIndexedTupleSource(), Arrays.asList(es1), Arrays.asList(Boolean.TRUE), Mode.SORT, bm, "test", tsid.getSchema()); //$NON-NLS-1$
+	    	su.setWorkContext(context);
+	    	TupleBuffer out = su.sort();
+	    	assertEquals(1000, out.getRowCount());
+	    	TupleSource ts = out.createIndexedTupleSource();
+	    	for (int i = 0; i < 1000; i++) {
+	    		assertEquals(Arrays.asList(i), ts.nextTuple());
+	    	}
+        } finally {
+        	executor.shutdownNow();
+        }
+        assertEquals(reserve, bm.getReserveBatchBytes());
+    }
+    
     @Test public void testDupRemove() throws Exception {
     	ElementSymbol es1 = new ElementSymbol("e1"); //$NON-NLS-1$
         es1.setType(DataTypeManager.DefaultDataClasses.INTEGER);
@@ -62,6 +62,7 @@ import org.teiid.transport.LocalServerConnection;
 import org.teiid.transport.ODBCClientInstance;
 import org.teiid.transport.PgBackendProtocol;
 import org.teiid.transport.PgFrontendProtocol.NullTerminatedStringDataInputStream;
+import org.teiid.transport.pg.PGBinaryEncoder;
 
 /**
  * While executing the multiple prepared statements I see this bug currently
@@ -491,6 +492,7 @@ public class ODBCServerRemoteImpl implements ODBCServerRemote {
                     	ResultsFuture<Integer> result = new ResultsFuture<Integer>();
 		                if (future.get()) {
 		                	List<PgColInfo> cols = getPgColInfo(stmt.getResultSet().getMetaData());
+		                	setResultFormats(cols, query.resultColumnFormat);
                             client.sendResults(query.sql, stmt.getResultSet(), cols, result, false);
 		                } else {
 		                	client.sendUpdateCount(query.sql, stmt.getUpdateCount());
@@ -719,12 +721,31 @@ public class ODBCServerRemoteImpl implements ODBCServerRemote {
 		else {
 			try {
 				List<PgColInfo> cols = getPgColInfo(query.stmt.getMetaData());
+				setResultFormats(cols, query.resultColumnFormat);
 				this.client.sendResultSetDescription(cols);
 			} catch (SQLException e) {
 				errorOccurred(e);
 			}
 		}
 	}
+	
+	/**
+	 * Apply the bind result format codes.  No codes means all text, a single code applies
+	 * to all columns, otherwise there is a code per column.  Types without a binary encoding
+	 * remain text, which is reported to the client in the row description.
+	 */
+	static void setResultFormats(List<PgColInfo> cols, int[] resultColumnFormat) {
+		if (cols == null || resultColumnFormat == null || resultColumnFormat.length == 0) {
+			return;
+		}
+		for (int i = 0; i < cols.size(); i++) {
+			PgColInfo info = cols.get(i);
+			int format = resultColumnFormat.length == 1?resultColumnFormat[0]:(i < resultColumnFormat.length?resultColumnFormat[i]:0);
+			if (format == PGBinaryEncoder.BINARY && PGBinaryEncoder.isBinarySupported(info.type)) {
+				info.format = PGBinaryEncoder.BINARY;
+			}
+		}
+	}
 
 	@Override
 	public void sync() {
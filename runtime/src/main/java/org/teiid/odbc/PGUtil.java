@@ -58,6 +58,10 @@ public class PGUtil {
 		public int type;
 		public int precision;
 		public int mod = -1;
+		/**
+		 * The result format code, 0 for text and 1 for binary
+		 */
+		public int format;
 	}
 		
 	/**
@@ -253,6 +253,10 @@ public class BufferServiceImpl implements BufferService, Serializable {
 		return bufferMgr.getReadAttempts();
 	}
 
+	public long getCompressionBytesSaved() {
+		return bufferMgr.getCompressionBytesSaved();
+	}
+
     public int getMemoryBufferSpace() {
 		return (int)memoryBufferSpace;
 	}
@@ -67,6 +67,7 @@ import org.teiid.net.socket.ServiceInvocationStruct;
 import org.teiid.odbc.ODBCClientRemote;
 import org.teiid.odbc.PGUtil.PgColInfo;
 import org.teiid.runtime.RuntimePlugin;
+import org.teiid.transport.pg.PGBinaryEncoder;
 import org.teiid.transport.pg.PGbytea;
 /**
  * Represents the messages going from Server --> PG ODBC Client  
@@ -172,10 +173,20 @@ public class PgBackendProtocol implements ChannelDownstreamHandler, ODBCClientRe
 			int avgRowsize = dataOut.writerIndex()/rowsInBuffer;
 			if (force || (maxBufferSize - dataOut.writerIndex()) < (avgRowsize*2)) {
 				sendContents();
-				initBuffer(maxBufferSize / 8);
+				initBuffer(getBufferSize(avgRowsize));
 				rowsInBuffer = 0;
 			}			
 		}
+		
+		/**
+		 * Size the next buffer to hold the rest of the fetch window based upon the 
+		 * average row size so far, which avoids growing the dynamic buffer.
+		 * A non-positive rows2Send, such as a fetch size of 0, means all remaining rows.
+		 */
+		private int getBufferSize(int avgRowsize) {
+			long rowsRemaining = rows2Send <= 0?Integer.MAX_VALUE:rows2Send - rowsSent;
+			return (int)Math.max(32, Math.min(maxBufferSize, (rowsRemaining + 1) * avgRowsize));
+		}
 	}
 
 	public static final String DEFAULT_ENCODING = "UTF8";
@@ -265,7 +276,7 @@ public class PgBackendProtocol implements ChannelDownstreamHandler, ODBCClientRe
 		
 		sendParameterStatus("client_encoding", clientEncoding);
 		sendParameterStatus("DateStyle", this.props.getProperty("DateStyle", "ISO"));
-		sendParameterStatus("integer_datetimes", "off");
+		sendParameterStatus("integer_datetimes", "on");
 		sendParameterStatus("is_superuser", "off");
 		sendParameterStatus("server_encoding", "SQL_ASCII");
 		sendParameterStatus("server_version", "8.1.4");
@@ -465,11 +476,21 @@ public class PgBackendProtocol implements ChannelDownstreamHandler, ODBCClientRe
 		sendMessage();
 	}
 
-	private void sendDataRow(ResultSet rs, List<PgColInfo> cols) throws SQLException, IOException {
+	private void sendDataRow(ResultSetImpl rs, List<PgColInfo> cols) throws SQLException, IOException {
 		startMessage('D', -1);
 		int lengthIndex = this.dataOut.writerIndex() - 4;
 		writeShort(cols.size());
+		List<?> row = null;
 		for (int i = 0; i < cols.size(); i++) {
+			PgColInfo info = cols.get(i);
+			if (info.format == PGBinaryEncoder.BINARY && !isCharacterType(info.type)) {
+				//encode from the batch values rather than converting through the getters 
+				if (row == null) {
+					row = rs.getCurrentRecord();
+				}
+				PGBinaryEncoder.writeValue(this.dataOut, info.type, getBinaryValue(rs, row, info.type, i+1));
+				continue;
+			}
 			int dataBytesIndex = this.dataOut.writerIndex();
 			writeInt(-1);
 			getContent(rs, cols.get(i), i+1);
@@ -482,6 +503,30 @@ public class PgBackendProtocol implements ChannelDownstreamHandler, ODBCClientRe
 		this.dataOut.setInt(lengthIndex, this.dataOut.writerIndex() - lengthIndex);
 	}
 	
+	private static boolean isCharacterType(int pgType) {
+		return pgType == PG_TYPE_VARCHAR || pgType == PG_TYPE_BPCHAR || pgType == PG_TYPE_TEXT;
+	}
+	
+	private Object getBinaryValue(ResultSetImpl rs, List<?> row, int pgType, int column) throws SQLException, IOException {
+		Object value = row.get(column - 1);
+		if (value == null) {
+			return null;
+		}
+		if (value instanceof java.util.Date) {
+			//account for the server timezone
+			return rs.getObject(column);
+		}
+		if (pgType == PG_TYPE_BYTEA) {
+			Blob blob = rs.getBlob(column);
+			try {
+				return ObjectConverterUtil.convertToByteArray(blob.getBinaryStream(), this.maxLobSize);
+			} catch(OutOfMemoryError e) {
+				throw new StreamCorruptedException("data too big: " + e.getMessage()); //$NON-NLS-1$ 
+			}
+		}
+		return value;
+	}
+	
 	private void getContent(ResultSet rs, PgColInfo col, int column) throws SQLException, TeiidSQLException, IOException {
 		switch (col.type) {
 			case PG_TYPE_BOOL:
@@ -657,8 +702,8 @@ public class PgBackendProtocol implements ChannelDownstreamHandler, ODBCClientRe
 			writeShort(getTypeSize(info.type, info.precision));
 			// pg_attribute.atttypmod
 			writeInt(info.mod);
-			// text
-			writeShort(0);
+			// text or binary
+			writeShort(info.format);
 		}
 		sendMessage();
 	}
@@ -0,0 +1,211 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+package org.teiid.transport.pg;
+
+import static org.teiid.odbc.PGUtil.*;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Timestamp;
+import java.util.TimeZone;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+
+/**
+ * Writes values in the postgresql binary format.  Date/time values are written as
+ * integer datetimes relative to 2000-01-01 in the local timezone, which matches the
+ * text representation.
+ * <br/>
+ * Each value is written with its length prefix.  Character types have the same binary
+ * and text representations and are not handled here.
+ */
+public class PGBinaryEncoder {
+
+	public static final int TEXT = 0;
+	public static final int BINARY = 1;
+
+	private static final long PG_EPOCH_SECONDS = 946684800l;
+	private static final int PG_EPOCH_DAYS = 10957;
+	private static final long MILLIS_PER_DAY = 86400000l;
+	private static final BigInteger[] POWERS_OF_TEN = new BigInteger[] {BigInteger.ONE, BigInteger.valueOf(10), BigInteger.valueOf(100), BigInteger.valueOf(1000)};
+
+	/**
+	 * Return true if the binary format can be used for the given type
+	 */
+	public static boolean isBinarySupported(int pgType) {
+		switch (pgType) {
+		case PG_TYPE_BOOL:
+		case PG_TYPE_BYTEA:
+		case PG_TYPE_INT2:
+		case PG_TYPE_INT4:
+		case PG_TYPE_INT8:
+		case PG_TYPE_FLOAT4:
+		case PG_TYPE_FLOAT8:
+		case PG_TYPE_NUMERIC:
+		case PG_TYPE_DATE:
+		case PG_TYPE_TIME:
+		case PG_TYPE_TIMESTAMP_NO_TMZONE:
+		case PG_TYPE_VARCHAR:
+		case PG_TYPE_BPCHAR:
+		case PG_TYPE_TEXT:
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Write the length prefixed binary value of a non-character type.
+	 * bytea values are expected as byte[].
+	 */
+	public static void writeValue(ChannelBuffer out, int pgType, Object value) {
+		if (value == null) {
+			out.writeInt(-1);
+			return;
+		}
+		switch (pgType) {
+		case PG_TYPE_BOOL:
+			out.writeInt(1);
+			out.writeByte(((Boolean)value)?1:0);
+			break;
+		case PG_TYPE_BYTEA:
+			byte[] bytes = (byte[])value;
+			out.writeInt(bytes.length);
+			out.writeBytes(bytes);
+			break;
+		case PG_TYPE_INT2:
+			out.writeInt(2);
+			out.writeShort(((Number)value).shortValue());
+			break;
+		case PG_TYPE_INT4:
+			out.writeInt(4);
+			out.writeInt(((Number)value).intValue());
+			break;
+		case PG_TYPE_INT8:
+			out.writeInt(8);
+			out.writeLong(((Number)value).longValue());
+			break;
+		case PG_TYPE_FLOAT4:
+			out.writeInt(4);
+			out.writeInt(Float.floatToIntBits(((Number)value).floatValue()));
+			break;
+		case PG_TYPE_FLOAT8:
+			out.writeInt(8);
+			out.writeLong(Double.doubleToLongBits(((Number)value).doubleValue()));
+			break;
+		case PG_TYPE_NUMERIC:
+			BigDecimal bd = null;
+			if (value instanceof BigDecimal) {
+				bd = (BigDecimal)value;
+			} else if (value instanceof BigInteger) {
+				bd = new BigDecimal((BigInteger)value);
+			} else {
+				bd = new BigDecimal(value.toString());
+			}
+			writeNumeric(out, bd);
+			break;
+		case PG_TYPE_DATE:
+			out.writeInt(4);
+			out.writeInt((int)(floorDiv(getLocalMillis((java.util.Date)value), MILLIS_PER_DAY) - PG_EPOCH_DAYS));
+			break;
+		case PG_TYPE_TIME:
+			out.writeInt(8);
+			out.writeLong(floorMod(getLocalMillis((java.util.Date)value), MILLIS_PER_DAY) * 1000);
+			break;
+		case PG_TYPE_TIMESTAMP_NO_TMZONE:
+			out.writeInt(8);
+			out.writeLong(getTimestampMicros((java.util.Date)value));
+			break;
+		default:
+			throw new IllegalArgumentException(String.valueOf(pgType));
+		}
+	}
+
+	static long getTimestampMicros(java.util.Date value) {
+		long local = getLocalMillis(value);
+		long micros = (floorDiv(local, 1000) - PG_EPOCH_SECONDS) * 1000000;
+		if (value instanceof Timestamp) {
+			return micros + ((Timestamp)value).getNanos()/1000;
+		}
+		return micros + floorMod(local, 1000) * 1000;
+	}
+
+	/**
+	 * Writes the numeric as base 10000 digits with a weight, sign, and display scale
+	 */
+	static void writeNumeric(ChannelBuffer out, BigDecimal value) {
+		int sign = value.signum() < 0?0x4000:0;
+		int scale = value.scale();
+		BigInteger unscaled = value.unscaledValue().abs();
+		if (scale < 0) {
+			unscaled = unscaled.multiply(BigInteger.TEN.pow(-scale));
+			scale = 0;
+		}
+		//align the fractional digits to a group boundary
+		int pad = (4 - scale % 4) % 4;
+		unscaled = unscaled.multiply(POWERS_OF_TEN[pad]);
+		int fractionalGroups = (scale + pad) / 4;
+		String digitString = unscaled.toString();
+		int groups = (digitString.length() + 3) / 4;
+		short[] digits = new short[groups];
+		int end = digitString.length();
+		for (int i = groups - 1; i >= 0; i--) {
+			int start = Math.max(0, end - 4);
+			digits[i] = Short.parseShort(digitString.substring(start, end));
+			end = start;
+		}
+		int weight = groups - fractionalGroups - 1;
+		int ndigits = groups;
+		while (ndigits > 0 && digits[ndigits - 1] == 0) {
+			ndigits--;
+		}
+		if (ndigits == 0) {
+			weight = 0;
+			sign = 0;
+		}
+		out.writeInt(8 + 2 * ndigits);
+		out.writeShort(ndigits);
+		out.writeShort(weight);
+		out.writeShort(sign);
+		out.writeShort(scale);
+		for (int i = 0; i < ndigits; i++) {
+			out.writeShort(digits[i]);
+		}
+	}
+
+	private static long getLocalMillis(java.util.Date value) {
+		long time = value.getTime();
+		return time + TimeZone.getDefault().getOffset(time);
+	}
+
+	private static long floorDiv(long x, long y) {
+		long result = x / y;
+		if ((x % y) != 0 && ((x ^ y) < 0)) {
+			result--;
+		}
+		return result;
+	}
+
+	private static long floorMod(long x, long y) {
+		return x - floorDiv(x, y) * y;
+	}
+
+}
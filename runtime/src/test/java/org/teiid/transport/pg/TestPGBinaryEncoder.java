@@ -0,0 +1,106 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+
+package org.teiid.transport.pg;
+
+import static org.junit.Assert.*;
+import static org.teiid.odbc.PGUtil.*;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.TimeZone;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+@SuppressWarnings("nls")
+public class TestPGBinaryEncoder {
+
+	private TimeZone tz;
+
+	@Before public void setUp() {
+		tz = TimeZone.getDefault();
+		TimeZone.setDefault(TimeZone.getTimeZone("GMT"));
+	}
+
+	@After public void tearDown() {
+		TimeZone.setDefault(tz);
+	}
+
+	private void helpTestNumeric(String value, int weight, int sign, int scale, int... digits) {
+		ChannelBuffer buffer = ChannelBuffers.dynamicBuffer();
+		PGBinaryEncoder.writeValue(buffer, PG_TYPE_NUMERIC, new BigDecimal(value));
+		assertEquals(8 + 2 * digits.length, buffer.readInt());
+		assertEquals(digits.length, buffer.readShort());
+		assertEquals(weight, buffer.readShort());
+		assertEquals(sign, buffer.readShort());
+		assertEquals(scale, buffer.readShort());
+		for (int digit : digits) {
+			assertEquals(digit, buffer.readShort());
+		}
+		assertFalse(buffer.readable());
+	}
+
+	@Test public void testNumeric() {
+		helpTestNumeric("12345.678", 1, 0, 3, 1, 2345, 6780);
+		helpTestNumeric("0", 0, 0, 0);
+		helpTestNumeric("-0.0001", -1, 0x4000, 4, 1);
+		helpTestNumeric("1E+5", 1, 0, 0, 10);
+		helpTestNumeric("100000000", 2, 0, 0, 1);
+		helpTestNumeric("-123.4500", 0, 0x4000, 4, 123, 4500);
+	}
+
+	@Test public void testDateTimes() {
+		ChannelBuffer buffer = ChannelBuffers.dynamicBuffer();
+		PGBinaryEncoder.writeValue(buffer, PG_TYPE_TIMESTAMP_NO_TMZONE, Timestamp.valueOf("2000-01-02 00:00:00.000001"));
+		PGBinaryEncoder.writeValue(buffer, PG_TYPE_DATE, java.sql.Date.valueOf("1999-12-31"));
+		PGBinaryEncoder.writeValue(buffer, PG_TYPE_TIME, java.sql.Time.valueOf("01:00:00"));
+		assertEquals(8, buffer.readInt());
+		assertEquals(86400000001l, buffer.readLong());
+		assertEquals(4, buffer.readInt());
+		assertEquals(-1, buffer.readInt());
+		assertEquals(8, buffer.readInt());
+		assertEquals(3600000000l, buffer.readLong());
+	}
+
+	@Test public void testFixedWidth() {
+		ChannelBuffer buffer = ChannelBuffers.dynamicBuffer();
+		PGBinaryEncoder.writeValue(buffer, PG_TYPE_INT2, (byte)3);
+		PGBinaryEncoder.writeValue(buffer, PG_TYPE_INT8, 5l);
+		PGBinaryEncoder.writeValue(buffer, PG_TYPE_FLOAT8, 1.5d);
+		PGBinaryEncoder.writeValue(buffer, PG_TYPE_BOOL, Boolean.TRUE);
+		PGBinaryEncoder.writeValue(buffer, PG_TYPE_INT4, null);
+		assertEquals(2, buffer.readInt());
+		assertEquals(3, buffer.readShort());
+		assertEquals(8, buffer.readInt());
+		assertEquals(5, buffer.readLong());
+		assertEquals(8, buffer.readInt());
+		assertEquals(1.5d, Double.longBitsToDouble(buffer.readLong()), 0);
+		assertEquals(1, buffer.readInt());
+		assertEquals(1, buffer.readByte());
+		assertEquals(-1, buffer.readInt());
+	}
+
+}